@@ -0,0 +1,28 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark in this module with the GC profiler, so each result
+ * comes with its allocation rate per operation.
+ * <p>
+ * Usage: {@code java bench.BenchmarkMain [regex]}; the optional pattern
+ * selects benchmarks by name, e.g. {@code RulesBenchmark.reject}.
+ * </p>
+ */
+public class BenchmarkMain {
+
+    /**
+     * @param args optional benchmark name pattern
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "bench\\..*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,95 @@
+package bench;
+
+import engine.actors.Player;
+import engine.actors.Worker;
+import engine.positions.Cell;
+import engine.positions.GameEngine;
+import engine.positions.SquareBoard;
+import engine.structures.Dome;
+import engine.structures.Tower;
+import engine.structures.Wall;
+import game.gods.Artemis;
+import game.gods.Demeter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed, realistic middle-game position shared by the benchmarks: towers of
+ * every height, two domes, a partial and a full wall, and workers standing on
+ * levels 0–2. The structures are given by {@link #LAYOUT}; Artemis's workers
+ * stand on (row, col) (1,0) and (2,0), the latter on level 2 next to a
+ * level-3 tower, and Demeter's on (1,2) and (3,2).
+ * Every call builds a new, independent game with no listeners attached.
+ */
+public final class MidGame {
+    /** Structure of each square, row by row: tower level, D dome, w partial wall, W full wall. */
+    static final String[] LAYOUT = {
+            "1 2 3 D .",
+            ". w 2 1 .",
+            "2 3 . W 1",
+            "D . 1 2 w",
+            ". 1 . 3 2",
+    };
+
+    public final SquareBoard board;
+    public final Player artemis;
+    public final Player demeter;
+    public final GameEngine engine;
+
+    private MidGame() {
+        board = new SquareBoard(5);
+        for (int r = 0; r < LAYOUT.length; r++) {
+            String[] row = LAYOUT[r].split(" ");
+            for (int c = 0; c < row.length; c++) {
+                place(board.getCell(r, c), row[c]);
+            }
+        }
+        artemis = new Player("Artemis player", new Artemis("Artemis", ""),
+                workers(board, "P1W", 1, 0, 2, 0), "P1");
+        demeter = new Player("Demeter player", new Demeter("Demeter", ""),
+                workers(board, "P2W", 1, 2, 3, 2), "P2");
+        engine = new GameEngine(board, new ArrayList<>(List.of(artemis, demeter)));
+    }
+
+    /**
+     * Builds a fresh copy of the position.
+     *
+     * @return a new game in the middle-game position, Artemis to move
+     */
+    public static MidGame create() {
+        return new MidGame();
+    }
+
+    private static void place(Cell cell, String token) {
+        switch (token) {
+            case ".":
+                return;
+            case "D":
+                cell.setStructure(new Dome());
+                return;
+            case "w":
+            case "W":
+                Wall wall = new Wall();
+                wall.buildPhase();
+                if (token.equals("W")) {
+                    wall.buildPhase();
+                }
+                cell.setStructure(wall);
+                return;
+            default:
+                cell.setStructure(new Tower(Integer.parseInt(token)));
+        }
+    }
+
+    private static List<Worker> workers(SquareBoard board, String id, int r1, int c1, int r2, int c2) {
+        List<Worker> workers = new ArrayList<>();
+        int[][] squares = {{r1, c1}, {r2, c2}};
+        for (int[] sq : squares) {
+            Worker w = new Worker(id, sq[0], sq[1]);
+            board.addWorker(w, board.getCell(sq[0], sq[1]));
+            workers.add(w);
+        }
+        return workers;
+    }
+}
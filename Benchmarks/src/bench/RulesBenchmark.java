@@ -0,0 +1,131 @@
+package bench;
+
+import engine.action.BuildAction;
+import engine.action.BuildMode;
+import engine.action.MoveAction;
+import engine.actors.Worker;
+import engine.positions.Cell;
+import engine.positions.SquareBoard;
+import engine.structures.Structure;
+import engine.structures.Tower;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-operation cost of the rules hot paths on the {@link MidGame} position.
+ * <p>
+ * Move and build validation are private to their actions, so they are measured
+ * two ways: through {@code execute()} on an illegal target, which builds the
+ * action and runs its full validation without changing the board, and as a
+ * sweep of the board's legality checks over every square, which is what the
+ * actions and the UI ask per click.
+ * </p>
+ * Run with {@code -prof gc} (as {@link BenchmarkMain} does) for allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RulesBenchmark {
+    private SquareBoard board;
+    private MidGame game;
+    private Worker climber;
+    private Cell blockedMove;
+    private Cell domedCell;
+    private Cell centre;
+    private Cell[] cells;
+
+    @Setup
+    public void setUp() {
+        game = MidGame.create();
+        board = game.board;
+        climber = game.artemis.getWORKERS().get(1);   // level 2, next to a level-3 tower
+        blockedMove = board.getCell(0, 3);             // dome
+        domedCell = board.getCell(3, 0);               // dome, adjacent to (2,0)
+        centre = board.getCell(2, 2);
+        cells = new Cell[25];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = board.getCell(i);
+        }
+    }
+
+    /** {@code MoveAction} construction plus {@code isValidMove} on an illegal target. */
+    @Benchmark
+    public boolean rejectMove() {
+        return new MoveAction(board, climber, blockedMove).execute();
+    }
+
+    /** {@code BuildAction} construction plus {@code isValidBuild} on a domed square. */
+    @Benchmark
+    public boolean rejectBuild() {
+        return new BuildAction(board, climber, domedCell, BuildMode.NORMAL).execute();
+    }
+
+    /** Move legality of one worker against every square. */
+    @Benchmark
+    public void canMoveSweep(Blackhole bh) {
+        for (Cell cell : cells) {
+            bh.consume(board.canMove(climber, cell));
+        }
+    }
+
+    /** Tower, wall and break legality of one worker against every square. */
+    @Benchmark
+    public void canBuildSweep(Blackhole bh) {
+        for (Cell cell : cells) {
+            bh.consume(board.canBuildTower(climber, cell));
+            bh.consume(board.canBuildWall(climber, cell));
+            bh.consume(board.canBreak(climber, cell));
+        }
+    }
+
+    /** The list-returning neighbour query, as the UI and older callers use it. */
+    @Benchmark
+    public Object adjacentCells() {
+        return board.getAdjacentCells(centre);
+    }
+
+    /** The allocation-free neighbour walk that replaced it on hot paths. */
+    @Benchmark
+    public void forEachNeighbour(Blackhole bh) {
+        board.forEachNeighbour(centre.getIndex(), bh::consume);
+    }
+
+    /** Both players' "can any worker move" check. */
+    @Benchmark
+    public void hasValidMoves(Blackhole bh) {
+        bh.consume(game.artemis.hasValidMoves(board));
+        bh.consume(game.demeter.hasValidMoves(board));
+    }
+
+    /**
+     * {@code Structure.getNextStructure} from each starting height. Every call
+     * starts from a fresh, unplaced tower (or none), so the cost includes that
+     * allocation, as it does in {@code BuildAction}.
+     */
+    @State(Scope.Thread)
+    public static class NextStructure {
+        /** Height before the build; 0 means an empty cell. */
+        @Param({"0", "1", "2", "3"})
+        public int level;
+    }
+
+    @Benchmark
+    public Structure nextStructure(NextStructure state) {
+        return Structure.getNextStructure(state.level == 0 ? null : new Tower(state.level));
+    }
+}
@@ -0,0 +1,92 @@
+package bench;
+
+import engine.positions.BitBoard;
+import engine.positions.GameEngine;
+import game.ai.GodPower;
+import game.ai.TurnGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of one full turn on the {@link MidGame} position.
+ * <p>
+ * {@link #engineTurn} plays Artemis's turn through {@link GameEngine} with no
+ * display attached — select a worker, move, decline the second move, build —
+ * exactly as clicks would. Each invocation starts from a freshly built game;
+ * building it is excluded from the measurement.
+ * </p>
+ * {@link #generateTurns} and {@link #applyPackedTurn} measure the search-side
+ * equivalents on the packed board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnBenchmark {
+
+    /** A fresh game per invocation for the engine turn. */
+    @State(Scope.Thread)
+    public static class FreshGame {
+        GameEngine engine;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            engine = MidGame.create().engine;
+        }
+    }
+
+    /** The position as a packed board plus scratch space. */
+    @State(Scope.Thread)
+    public static class Packed {
+        final TurnGenerator generator = new TurnGenerator();
+        final long[] turns = new long[1 << 14];
+        BitBoard position;
+        BitBoard scratch;
+        long turn;
+
+        @Setup
+        public void setUp() {
+            position = new BitBoard(MidGame.create().board.getBitBoard());
+            scratch = new BitBoard(position);
+            generator.generate(position, 0b0011, GodPower.ARTEMIS, turns, false);
+            turn = turns[0];
+        }
+    }
+
+    /** Select (1,0), move to (0,0), skip Artemis's second move, build on (1,0). */
+    @Benchmark
+    public boolean engineTurn(FreshGame state) {
+        GameEngine engine = state.engine;
+        engine.takeTurn(1, 0);
+        engine.takeTurn(0, 0);
+        engine.skip();
+        engine.takeTurn(1, 0);
+        return engine.isTurnProgress();
+    }
+
+    /** Every full Artemis turn from the position. */
+    @Benchmark
+    public int generateTurns(Packed state) {
+        return state.generator.generate(state.position, 0b0011, GodPower.ARTEMIS, state.turns, false);
+    }
+
+    /** Copy the position and apply one packed turn, as the searches do per node. */
+    @Benchmark
+    public long applyPackedTurn(Packed state) {
+        state.scratch.copyFrom(state.position);
+        TurnGenerator.apply(state.scratch, state.turn);
+        return state.scratch.getKey();
+    }
+}
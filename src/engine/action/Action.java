@@ -2,11 +2,12 @@ package engine.action;
 
 import engine.actors.Worker;
 import engine.positions.GameBoard;
-import engine.displays.BoardUI;
 
 /**
  * Abstract base class for actions that a Worker can perform on the GameBoard.
  * Subclasses must implement the {@link #execute()} method to define action behavior.
+ * Actions are pure rules operations: they report success through their return value
+ * and leave rendering and messaging to the caller.
  */
 public abstract class Action {
     /**
@@ -14,11 +15,6 @@ public abstract class Action {
      */
     protected final GameBoard board;
 
-    /**
-     * The UI component responsible for rendering updates to the board.
-     */
-    protected final BoardUI boardUI;
-
     /**
      * The worker performing this action.
      */
@@ -28,12 +24,10 @@ public abstract class Action {
      * Constructs an Action.
      *
      * @param board   the game board instance
-     * @param boardUI the UI for drawing board changes
      * @param worker  the worker who will perform the action
      */
-    public Action(GameBoard board, BoardUI boardUI, Worker worker){
+    public Action(GameBoard board, Worker worker){
         this.board = board;
-        this.boardUI = boardUI;
         this.worker = worker;
     };
 
@@ -43,4 +37,4 @@ public abstract class Action {
      * @return {@code true} if the action succeeded, {@code false} otherwise
      */
     public abstract boolean execute();
-}
\ No newline at end of file
+}
@@ -6,7 +6,6 @@ import engine.positions.Cell;
 import engine.positions.GameBoard;
 import engine.structures.Structure;
 import engine.structures.Wall;
-import engine.displays.BoardUI;
 
 /**
  * Represents the action of breaking a two-phase wall entirely within the Action class,
@@ -18,12 +17,11 @@ public class BreakAction extends Action {
 
     /**
      * @param board      the game board instance
-     * @param boardUI    the UI component for rendering updates
      * @param worker     the worker performing the break
      * @param breakCell  the target cell containing a Wall
      */
-    public BreakAction(GameBoard board, BoardUI boardUI, Worker worker, Cell breakCell) {
-        super(board, boardUI, worker);
+    public BreakAction(GameBoard board, Worker worker, Cell breakCell) {
+        super(board, worker);
         this.breakCell = breakCell;
     }
 
@@ -32,14 +30,12 @@ public class BreakAction extends Action {
      * 1) Validates via {@link #isValid()}
      * 2) Lowers the wall’s build level by one
      * 3) Removes the structure if it reaches level 0
-     * 4) Refreshes the UI
      *
      * @return true if the break succeeded; false otherwise
      */
     @Override
     public boolean execute() {
         if (!isValid()) {
-            boardUI.setError("Cannot break here!");
             return false;
         }
 
@@ -53,7 +49,6 @@ public class BreakAction extends Action {
             breakCell.setStructure(null);
         }
 
-        boardUI.updateBoard();
         return true;
     }
 
@@ -69,18 +64,7 @@ public class BreakAction extends Action {
             return false;
         }
 
-        // 2) Must actually have a Wall
-        Structure s = breakCell.getStructure();
-        if (!(s instanceof Wall)) {
-            return false;
-        }
-
-        // 3) Worker must be adjacent
-        Cell from = board.getLocationOf(worker);
-        if (from == null || !from.isAdjacentTo(breakCell)) {
-            return false;
-        }
-
-        return true;
+        // 2) Must actually have a Wall, 3) worker must be adjacent
+        return board.canBreak(worker, breakCell);
     }
 }
@@ -2,44 +2,52 @@
 package engine.action;
 
 import engine.actors.Worker;
+import engine.metrics.TurnCounter;
+import engine.metrics.TurnMetrics;
+import engine.metrics.TurnStage;
 import engine.positions.Cell;
 import engine.positions.GameBoard;
 import engine.structures.Structure;
-import engine.structures.StructureType;
 import engine.structures.Wall;
-import engine.displays.BoardUI;
 
+/**
+ * Represents a build step on a cell adjacent to the worker. What gets built is
+ * decided by the {@link BuildMode} passed in: a tower level or dome, a wall phase,
+ * or a wall break (delegated to {@link BreakAction}).
+ */
 public class BuildAction extends Action {
     private final Cell buildCell;
-    private final GameBoard board;
-    private final BoardUI   boardUI;
-    private final Worker    worker;
+    private final BuildMode mode;
 
     /**
-     * Note: constructor signature unchanged.
+     * @param board      the game board instance
+     * @param worker     the worker performing the build
+     * @param buildCell  the target cell
+     * @param mode       what to build on the target cell
      */
     public BuildAction(GameBoard board,
-                       BoardUI boardUI,
                        Worker worker,
-                       Cell buildCell) {
-        super(board, boardUI, worker);  // make sure your Action base class takes (board, boardUI, worker)
-        this.board     = board;
-        this.boardUI   = boardUI;
-        this.worker    = worker;
+                       Cell buildCell,
+                       BuildMode mode) {
+        super(board, worker);
         this.buildCell = buildCell;
+        this.mode      = mode;
     }
 
     @Override
     public boolean execute() {
-        if (!isValidBuild()) {
-            boardUI.setError("Cannot build here!");
+        long start = TurnMetrics.start();
+        boolean valid = isValidBuild();
+        TurnMetrics.record(TurnStage.BUILD_VALIDATION, start);
+        if (!valid) {
+            TurnMetrics.count(TurnCounter.INVALID_BUILD);
             return false;
         }
 
-        if (boardUI.isBreakMode()) {
-            return new BreakAction(board, boardUI, worker, buildCell).execute();
+        if (mode == BuildMode.BREAK) {
+            return new BreakAction(board, worker, buildCell).execute();
         }
-        else if (boardUI.isWallMode()) {
+        else if (mode == BuildMode.WALL) {
             Structure s = buildCell.getStructure();
 
             if (!(s instanceof Wall)) {
@@ -53,14 +61,12 @@ public class BuildAction extends Action {
                 ((Wall)s).buildPhase();
             }
 
-            boardUI.updateBoard();
             return true;
         }
         else {
             // standard tower / dome
             Structure prev = buildCell.getStructure();
             buildCell.setStructure(Structure.getNextStructure(prev));
-            boardUI.updateBoard();
             return true;
         }
     }
@@ -68,22 +74,18 @@ public class BuildAction extends Action {
     private boolean isValidBuild() {
         // basic checks
         if (buildCell == null || !board.hasCell(buildCell))       return false;
-        if (board.isCellOccupied(buildCell))                      return false;
-        Cell from = board.getLocationOf(worker);
-        if (from == null || !from.isAdjacentTo(buildCell))        return false;
 
-        // then structure‐specific rules
-        Structure curr = buildCell.getStructure();
-        if (boardUI.isBreakMode()) {
+        // adjacency, occupancy and structure rules come from the packed build masks
+        if (mode == BuildMode.BREAK) {
             // valid only if there's a wall to break
-            return curr instanceof Wall;
+            return board.canBreak(worker, buildCell);
 
-        } else if (boardUI.isWallMode()) {
+        } else if (mode == BuildMode.WALL) {
             // build wall only if empty or partial
-            return curr == null || (curr instanceof Wall && ((Wall)curr).getBuildLevel() < 2);
+            return board.canBuildWall(worker, buildCell);
         } else {
-            // your existing: empty, or not yet a dome & below max height
-            return curr == null || (curr.getType() != StructureType.DOME && curr.getLevel() < 4);
+            // empty, or not yet a dome
+            return board.canBuildTower(worker, buildCell);
         }
     }
 }
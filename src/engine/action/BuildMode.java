@@ -0,0 +1,47 @@
+package engine.action;
+
+/**
+ * Enum representing what a build step does to the target cell.
+ * The mode is an input to {@link BuildAction}, chosen by whoever drives the turn.
+ */
+public enum BuildMode {
+    /** Adds a tower level, or caps a level-3 tower with a dome. */
+    NORMAL("Tower Build"),
+
+    /** Starts a wall on an empty cell or advances a partial wall. */
+    WALL("Wall Build"),
+
+    /** Knocks an adjacent wall back one phase. */
+    BREAK("Break Wall");
+
+    /** Human-readable label for the mode. */
+    private final String label;
+
+    /**
+     * Constructs a BuildMode with the given label.
+     *
+     * @param label the display label for the mode
+     */
+    BuildMode(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label for this build mode.
+     *
+     * @return the mode label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the label when the enum is converted to a string.
+     *
+     * @return the label string
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
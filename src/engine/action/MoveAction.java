@@ -2,66 +2,53 @@
 package engine.action;
 
 import engine.actors.Worker;
+import engine.metrics.TurnCounter;
+import engine.metrics.TurnMetrics;
+import engine.metrics.TurnStage;
 import engine.positions.Cell;
 import engine.positions.GameBoard;
-import engine.positions.GameEngine;
-import engine.structures.Structure;
-import engine.structures.StructureType;
-import engine.displays.BoardUI;
 
 /**
  * Represents a move action that a Worker can perform on the GameBoard.
  * This action will relocate the worker from its current cell to the target cell,
- * if the move is valid according to game rules.
+ * if the move is valid according to game rules. Win detection is left to the
+ * caller, which can inspect the destination after a successful execute.
  */
 public class MoveAction extends Action {
-    private final Cell fromCell;
     private final Cell toCell;
 
-    public MoveAction(GameBoard board, BoardUI boardUI, Worker worker, Cell toCell) {
-        super(board, boardUI, worker);
-        this.fromCell = board.getLocationOf(worker);
+    public MoveAction(GameBoard board, Worker worker, Cell toCell) {
+        super(board, worker);
         this.toCell   = toCell;
     }
 
     @Override
     public boolean execute() {
-        if (!isValidMove()) {
+        long start = TurnMetrics.start();
+        boolean valid = isValidMove();
+        TurnMetrics.record(TurnStage.MOVE_VALIDATION, start);
+        if (!valid) {
+            TurnMetrics.count(TurnCounter.INVALID_MOVE);
             return false;
         }
         board.updateLocation(worker, toCell);
-        boardUI.updateBoard();
-        GameEngine.getInstance().checkWinCondition(worker);
         return true;
     }
 
     /**
-     * Determines whether moving from {@code fromCell} to {@code toCell} is allowed:
+     * Determines whether moving the worker from its current cell to {@code toCell} is allowed:
      *  - Destination must exist and be unoccupied
      *  - Destination must not contain a wall
      *  - Destination must be adjacent
      *  - Can only move up at most one level
+     * <p>
+     * All but the first check are answered by the board's packed move mask.
      */
     private boolean isValidMove() {
         // 1) In‐bounds
         if (!board.hasCell(toCell)) return false;
 
-        // 2) Not already occupied by another worker
-        if (board.isCellOccupied(toCell)) return false;
-
-        // 3) Cannot move onto a wall
-        Structure toStructure = toCell.getStructure();
-        if (toStructure != null && toStructure.getType() == StructureType.WALL) {
-            return false;
-        }
-
-        // 4) Must be adjacent
-        if (!fromCell.isAdjacentTo(toCell)) return false;
-
-        // 5) Height difference ≤ 1
-        Structure fromStructure = fromCell.getStructure();
-        int fromLevel = (fromStructure != null) ? fromStructure.getLevel() : 0;
-        int toLevel   = (toStructure   != null) ? toStructure.getLevel()   : 0;
-        return (toLevel - fromLevel) <= 1;
+        // 2-5) Unoccupied, wall-free, adjacent and climbing at most one level
+        return board.canMove(worker, toCell);
     }
 }
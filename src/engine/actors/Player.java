@@ -4,9 +4,7 @@ import game.gods.God;
 import engine.positions.Cell;
 import engine.positions.GameBoard;
 import engine.positions.GameEngine;
-import engine.structures.Structure;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -72,44 +70,52 @@ public class Player {
     /**
      * Determines whether this player has at least one valid move remaining.
      * <p>
-     * Iterates each worker, checks adjacent cells on the shared GameBoard,
-     * and verifies movement rules (cell exists, unoccupied, and height difference ≤ 1).
+     * Checks each worker's packed move mask on the given GameBoard: a neighbouring
+     * cell that is unoccupied, wall-free and at most one level higher.
      *
+     * @param board the board of the game this player is in
      * @return {@code true} if any worker can move, {@code false} otherwise
      */
-    public boolean hasValidMoves() {
-        boolean valid = false;
-        GameBoard board = GameEngine.getInstance().getBoard();
-        List<Worker> workers = this.getWORKERS();
-        for (Worker worker : workers) {
-            Cell workersCell = board.getLocationOf(worker);
-            ArrayList<Cell> adjacentCells = board.getAdjacentCells(workersCell);
-
-            for (Cell cell : adjacentCells) {
-                if (board.hasCell(cell) && board.getWorkerAt(cell) == null) {
-                    Structure fromStructure = workersCell.getStructure();
-                    Structure toStructure = cell.getStructure();
-
-                    int fromLevel = (fromStructure != null) ? fromStructure.getLevel() : 0;
-                    int toLevel = (toStructure != null) ? toStructure.getLevel() : 0;
-
-                    if ((toLevel - fromLevel) <= 1) {
-                        valid = true;
-                    }
-                }
+    public boolean hasValidMoves(GameBoard board) {
+        for (Worker worker : WORKERS) {
+            if (board.hasValidMove(worker)) {
+                return true;
             }
         }
-        return valid;
+        return false;
     }
 
     /**
      * Delegates the player's turn logic to their assigned God power.
      *
+     * @param engine          the engine running this player's game
      * @param clickedCell     the cell clicked by the user
      * @param selectedWorker  the worker selected to perform an action
      */
-    public void takeTurn(Cell clickedCell, Worker selectedWorker) {
-        getGod().takeTurn(clickedCell, selectedWorker);
+    public void takeTurn(GameEngine engine, Cell clickedCell, Worker selectedWorker) {
+        getGod().takeTurn(engine, clickedCell, selectedWorker);
+    }
+
+    /**
+     * Checks whether this player chooses its own turns instead of waiting for
+     * board clicks. The engine calls {@link #playTurn} for such players.
+     *
+     * @return {@code true} for computer-controlled players
+     */
+    public boolean isAutomated() {
+        return false;
+    }
+
+    /**
+     * Plays a complete turn without user input, by feeding the same worker
+     * selections, cell clicks, build-mode changes and skips into the engine
+     * that a human would. The engine only calls this when {@link #isAutomated()}
+     * is {@code true}; a human player's turn comes from board clicks, so this
+     * does nothing here.
+     *
+     * @param engine the engine running this player's game
+     */
+    public void playTurn(GameEngine engine) {
     }
 
     /**
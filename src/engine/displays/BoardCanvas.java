@@ -0,0 +1,270 @@
+package engine.displays;
+
+import engine.actors.Player;
+import engine.actors.Worker;
+import engine.positions.BoardState;
+import engine.positions.SquareBoard;
+import engine.structures.Dome;
+import engine.structures.Structure;
+import engine.structures.Tower;
+import engine.structures.Wall;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Paints a whole board in one component and turns clicks into cells.
+ * <p>
+ * A square looks the same whenever it holds the same structure and the same
+ * player's worker, so every such combination is drawn once into a tile image
+ * at the current cell size and pixel scale, and a paint only copies the tiles
+ * that intersect the clip. State is read straight from the board's
+ * {@link BoardState}; painting allocates nothing and costs the same whatever
+ * else is on screen. Cells shrink on big boards, down to {@value #MIN_CELL}
+ * pixels, and lose their labels once these no longer fit.
+ * </p>
+ * Squares reported through {@link #markDirty} are collected for one frame and
+ * then painted once each, however many times they changed in between, so a
+ * frame costs the squares that changed and not the board. All methods must
+ * be called on the event dispatch thread.
+ */
+@SuppressWarnings("serial") // never serialized
+public final class BoardCanvas extends JComponent {
+    /** Receives the cell a user clicked. */
+    public interface CellListener {
+        /**
+         * Invoked when a cell is clicked.
+         *
+         * @param row the clicked cell's row
+         * @param col the clicked cell's column
+         */
+        void cellClicked(int row, int col);
+    }
+
+    /** Period over which changed squares are collected before they are painted. */
+    private static final int FRAME_MILLIS = 16;
+    private static final int PREFERRED_CELL = 100;
+    /** Side the whole board is fitted into before cells shrink below {@link #PREFERRED_CELL}. */
+    private static final int PREFERRED_BOARD = 800;
+    private static final int MIN_CELL = 12;
+    private static final int GAP = 5;
+    private static final int ARC = 20;
+    private static final Color BACKGROUND_COLOR = new Color(30, 30, 30);
+    private static final Color LABEL_COLOR = new Color(230, 230, 230);
+    private static final Color DEFAULT_CELL_COLOR = Color.LIGHT_GRAY;
+    private static final Color[] WORKER_COLORS = {
+            new Color(220,  20,  60),   // crimson red
+            new Color( 65, 105, 225)    // royal blue
+    };
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 14);
+    /** Number of {@link BoardState#structure} codes. */
+    private static final int STRUCTURES = 7;
+    /** Tile variants per structure: no worker, then one per player. */
+    private static final int OCCUPANTS = 3;
+    /** A structure in each {@link BoardState#structure} state, for its label and colour. */
+    private static final Structure[] SAMPLES = {
+            null, new Tower(1), new Tower(2), new Tower(3), new Dome(), wall(1), wall(2)
+    };
+
+    private final SquareBoard board;
+    private final int dimension;
+    /** Space between cells, scaled down with the cells on big boards. */
+    private final int gap;
+    /** Owning player (1-based) of every worker slot, 0 for an empty slot. */
+    private final int[] owners = new int[BoardState.MAX_WORKERS];
+    /** Worker label of each player (1-based). */
+    private final String[] workerLabels = new String[OCCUPANTS];
+    /** Tile per structure code and occupant, drawn at {@link #tileSize} device pixels. */
+    private final BufferedImage[] tiles = new BufferedImage[STRUCTURES * OCCUPANTS];
+    private int tileSize;
+    /** Squares changed since the last frame, in the order they were first marked. */
+    private int[] dirty = new int[16];
+    private int dirtyCount;
+    /** One bit per square of the board, set while the square is in {@link #dirty}. */
+    private final long[] marked;
+    /** Paints the dirty squares once the current frame is over. */
+    private final Timer frame = new Timer(FRAME_MILLIS, e -> paintDirty());
+
+    /**
+     * Creates a canvas for a board.
+     *
+     * @param board    the board to paint
+     * @param players  the players, in seat order; their workers' colours follow it
+     * @param listener receives clicks on cells
+     */
+    public BoardCanvas(SquareBoard board, List<Player> players, CellListener listener) {
+        this.board = board;
+        this.dimension = board.getDimension();
+        for (int p = 0; p < players.size() && p + 1 < OCCUPANTS; p++) {
+            for (Worker w : players.get(p).getWORKERS()) {
+                int slot = board.slotOf(w);
+                if (slot >= 0) {
+                    owners[slot] = p + 1;
+                }
+                workerLabels[p + 1] = w.getId();
+            }
+        }
+        int cell = Math.max(MIN_CELL, Math.min(PREFERRED_CELL, PREFERRED_BOARD / dimension));
+        this.gap = Math.max(1, GAP * cell / PREFERRED_CELL);
+        this.marked = new long[(dimension * dimension + 63) >>> 6];
+        int side = dimension * cell + (dimension - 1) * gap;
+        setPreferredSize(new Dimension(side, side));
+        setOpaque(true);
+        frame.setRepeats(false);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int square = squareAt(e.getX(), e.getY());
+                if (square >= 0) {
+                    listener.cellClicked(square / dimension, square % dimension);
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the square under a point, or -1 for a gap or outside the board.
+     *
+     * @param x the x coordinate in this component
+     * @param y the y coordinate in this component
+     * @return the square index
+     */
+    public int squareAt(int x, int y) {
+        int cell = cellSize();
+        int pitch = cell + gap;
+        if (cell <= 0 || x < 0 || y < 0 || x % pitch >= cell || y % pitch >= cell) {
+            return -1;
+        }
+        int row = y / pitch, col = x / pitch;
+        return row < dimension && col < dimension ? row * dimension + col : -1;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setColor(BACKGROUND_COLOR);
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+        int cell = cellSize();
+        if (cell <= 0) {
+            return;
+        }
+        double scale = g2.getTransform().getScaleX();
+        int pixels = (int) Math.ceil(cell * scale);
+        if (pixels != tileSize) {
+            Arrays.fill(tiles, null);
+            tileSize = pixels;
+        }
+
+        int pitch = cell + gap;
+        int firstRow = Math.max(0, clip.y / pitch), lastRow = Math.min(dimension - 1, (clip.y + clip.height) / pitch);
+        int firstCol = Math.max(0, clip.x / pitch), lastCol = Math.min(dimension - 1, (clip.x + clip.width) / pitch);
+        BoardState state = board.getState();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int square = row * dimension + col;
+                int slot = state.workerAt(square);
+                int tile = state.structure(square) * OCCUPANTS + (slot < 0 ? 0 : owners[slot]);
+                if (tiles[tile] == null) {
+                    tiles[tile] = drawTile(tile, pixels);
+                }
+                g2.drawImage(tiles[tile], col * pitch, row * pitch, cell, cell, null);
+            }
+        }
+    }
+
+    /**
+     * Schedules a square to be painted at the end of the current frame.
+     *
+     * @param square the square index
+     */
+    public void markDirty(int square) {
+        if ((marked[square >>> 6] & 1L << square) != 0) {
+            return;
+        }
+        if (dirtyCount == 0) {
+            frame.start();
+        }
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        }
+        marked[square >>> 6] |= 1L << square;
+        dirty[dirtyCount++] = square;
+    }
+
+    /** Paints every square marked since the last frame, each exactly once. */
+    private void paintDirty() {
+        int cell = cellSize();
+        int pitch = cell + gap;
+        for (int i = 0; i < dirtyCount; i++) {
+            int square = dirty[i];
+            marked[square >>> 6] &= ~(1L << square);
+            paintImmediately((square % dimension) * pitch, (square / dimension) * pitch, cell, cell);
+        }
+        dirtyCount = 0;
+    }
+
+    /** @return the side of a cell in pixels at the current component size */
+    private int cellSize() {
+        return (Math.min(getWidth(), getHeight()) - (dimension - 1) * gap) / dimension;
+    }
+
+    /**
+     * Draws the tile of a structure code and occupant, as the board buttons did:
+     * a rounded square in the worker's or structure's colour with their labels.
+     */
+    private BufferedImage drawTile(int tile, int pixels) {
+        Structure structure = SAMPLES[tile / OCCUPANTS];
+        int occupant = tile % OCCUPANTS;
+        String structureLabel = structure == null ? "" : structure.getLabel();
+        Color fill = occupant > 0 ? WORKER_COLORS[occupant - 1]
+                : structureLabel.isEmpty() ? DEFAULT_CELL_COLOR : structure.getColor();
+
+        BufferedImage image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            double scale = (double) pixels / Math.max(1, cellSize());
+            g.scale(scale, scale);
+            int cell = cellSize();
+            int arc = Math.min(ARC, cell / 5);
+            g.setColor(fill);
+            g.fillRoundRect(0, 0, cell, cell, arc, arc);
+            g.setColor(LABEL_COLOR);
+            g.setFont(LABEL_FONT);
+            FontMetrics metrics = g.getFontMetrics();
+            String workerLabel = occupant > 0 && workerLabels[occupant] != null ? workerLabels[occupant] : "";
+            int lines = (structureLabel.isEmpty() ? 0 : 1) + (workerLabel.isEmpty() ? 0 : 1);
+            if (lines * metrics.getHeight() > cell) {
+                return image;   // colours alone tell squares apart on small cells
+            }
+            int y = (cell - lines * metrics.getHeight()) / 2 + metrics.getAscent();
+            for (String label : new String[] {structureLabel, workerLabel}) {
+                if (!label.isEmpty()) {
+                    g.drawString(label, (cell - metrics.stringWidth(label)) / 2, y);
+                    y += metrics.getHeight();
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static Wall wall(int level) {
+        Wall wall = new Wall();
+        for (int i = 0; i < level; i++) {
+            wall.buildPhase();
+        }
+        return wall;
+    }
+}
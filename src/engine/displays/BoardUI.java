@@ -1,11 +1,11 @@
 package engine.displays;
 
+import engine.action.BuildMode;
 import engine.actors.Player;
+import engine.events.GameListener;
+import engine.positions.BitBoard;
 import engine.positions.GameEngine;
-import engine.positions.SquareBoard;
-import engine.positions.Cell;
-import engine.actors.Worker;
-import engine.structures.Structure;
+import engine.time.ChessClock;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,43 +13,36 @@ import java.awt.event.ItemEvent;
 
 /**
  * GUI component for displaying and interacting with the Santorini game board,
- * including styled mode buttons.
+ * including styled mode buttons; the board itself is one {@link BoardCanvas}.
+ * Subscribes to the engine as a {@link GameListener} and forwards clicks,
+ * build-mode choices and skips back to it.
  */
-public class BoardUI extends JFrame {
-    private static final int GRID_SIZE = 5;
-    private static final Dimension CELL_DIMENSION = new Dimension(100, 100);
+public class BoardUI extends JFrame implements GameListener {
     private static final Color BACKGROUND_COLOR = new Color(30, 30, 30);
     private static final Color FOREGROUND_COLOR = new Color(230, 230, 230);
     private static final Color BUTTON_BACKGROUND_COLOR = new Color(50, 50, 50);
     private static final Color BUTTON_SELECTED_COLOR = new Color(0, 120, 215);
-    private static final Color DEFAULT_CELL_COLOR = Color.LIGHT_GRAY;
-    private static final Color PLAYER1_WORKER_COLOR = new Color(220,  20,  60);  // crimson red
-    private static final Color PLAYER2_WORKER_COLOR = new Color( 65, 105, 225);  // royal blue
+    /** Largest side of the visible part of a board that scrolls. */
+    private static final int MAX_VIEW = 800;
 
-
-    private final JButton[][] boardButtons = new JButton[GRID_SIZE][GRID_SIZE];
-    private final SquareBoard board;
+    private final GameEngine engine;
+    private final BoardCanvas canvas;
     private final JLabel statusLabel = createLabel("Starting game...", 18, FOREGROUND_COLOR);
     private final JLabel errorLabel = createLabel("", 14, Color.RED);
     private final JLabel timerLabel1 = createLabel("", 14, FOREGROUND_COLOR);
     private final JLabel timerLabel2 = createLabel("", 14, FOREGROUND_COLOR);
     private final JButton resignButton = createControlButton("Resign", this::handleResign);
-    private final JButton endTurnButton = createControlButton("End Turn", () -> GameEngine.getInstance().switchTurn());
-
-    public enum BuildMode { NORMAL, WALL, BREAK }
-    private BuildMode buildMode = BuildMode.NORMAL;
+    private final JButton endTurnButton = createControlButton("End Turn", this::handleEndTurn);
+    private final JButton skipButton = createControlButton("Skip", this::handleSkip);
 
     public void setBuildMode(BuildMode mode) {
-        this.buildMode = mode;
-        statusLabel.setText("Mode: " + (mode == BuildMode.WALL  ? "Wall Build"
-                : (mode == BuildMode.BREAK? "Break Wall" : "Tower Build")));
+        engine.setBuildMode(mode);
+        statusLabel.setText("Mode: " + mode.getLabel());
     }
 
-    public boolean isWallMode() { return buildMode == BuildMode.WALL; }
-    public boolean isBreakMode() { return buildMode == BuildMode.BREAK; }
-
-    public BoardUI(SquareBoard board) {
-        this.board = board;
+    public BoardUI(GameEngine engine) {
+        this.engine = engine;
+        this.canvas = new BoardCanvas(engine.getBoard(), engine.getPlayers(), this::handleCellClick);
         initializeUI();
         updateBoard();
     }
@@ -126,22 +119,22 @@ public class BoardUI extends JFrame {
     }
 
     private JPanel createBoardPanel() {
-        JPanel gridPanel = new JPanel(new GridLayout(GRID_SIZE, GRID_SIZE, 5, 5));
-        gridPanel.setBackground(BACKGROUND_COLOR);
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                JButton button = createStyledButton();
-                button.setPreferredSize(CELL_DIMENSION);
-                int r = row, c = col;
-                button.addActionListener(e -> handleCellClick(r, c));
-                boardButtons[row][col] = button;
-                gridPanel.add(button);
-            }
-        }
-        JPanel outer = new JPanel(new FlowLayout());
+        JPanel outer = new JPanel(new BorderLayout());
         outer.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         outer.setBackground(BACKGROUND_COLOR);
-        outer.add(gridPanel);
+        if (engine.getBoard().getDimension() <= BitBoard.MAX_DIMENSION) {
+            outer.add(canvas, BorderLayout.CENTER);
+            return outer;
+        }
+        // big boards keep a readable cell size and scroll instead
+        JScrollPane scroll = new JScrollPane(canvas);
+        scroll.setBorder(null);
+        scroll.getViewport().setBackground(BACKGROUND_COLOR);
+        scroll.getVerticalScrollBar().setUnitIncrement(16);
+        scroll.getHorizontalScrollBar().setUnitIncrement(16);
+        Dimension board = canvas.getPreferredSize();
+        scroll.setPreferredSize(new Dimension(Math.min(board.width, MAX_VIEW) + 20, Math.min(board.height, MAX_VIEW) + 20));
+        outer.add(scroll, BorderLayout.CENTER);
         return outer;
     }
 
@@ -150,6 +143,9 @@ public class BoardUI extends JFrame {
         bottom.setBackground(BACKGROUND_COLOR);
         bottom.add(endTurnButton);
         bottom.add(resignButton);
+        skipButton.setPreferredSize(null);
+        skipButton.setVisible(false);
+        bottom.add(skipButton);
         return bottom;
     }
 
@@ -166,25 +162,6 @@ public class BoardUI extends JFrame {
         return btn;
     }
 
-    private JButton createStyledButton() {
-        JButton button = new JButton() {
-            @Override protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(getBackground());
-                g2.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
-                super.paintComponent(g);
-                g2.dispose();
-            }
-        };
-        button.setFont(new Font("Arial", Font.BOLD, 14));
-        button.setForeground(FOREGROUND_COLOR);
-        button.setBackground(BUTTON_BACKGROUND_COLOR);
-        button.setOpaque(true);
-        button.setBorderPainted(false);
-        return button;
-    }
-
     private static JLabel createLabel(String text, int size, Color color) {
         JLabel lbl = new JLabel(text, SwingConstants.CENTER);
         lbl.setFont(new Font("Arial", Font.BOLD, size));
@@ -194,35 +171,57 @@ public class BoardUI extends JFrame {
         return lbl;
     }
 
-    public void updateBoard() {
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                Cell cell = board.getCell(row, col);
-                Worker w = board.getWorkerAt(cell);
-                Structure s = cell.getStructure();
-                JButton btn = boardButtons[row][col];
-                StringBuilder txt = new StringBuilder();
-                if (s != null && !s.getLabel().isEmpty()) {
-                    txt.append(s.getLabel());
-                    btn.setBackground(s.getColor());
-                } else {
-                    btn.setBackground(DEFAULT_CELL_COLOR);
-                }
-                if (w != null) {
-                    // 1) Append the worker’s ID text
-                    if (!txt.isEmpty()) txt.append("\n");
-                    txt.append(w.getId());
-
-                    // 2) Pick a color based on the ID prefix (e.g. “P1” vs “P2”)
-                    if (w.getId().startsWith("P1")) {
-                        btn.setBackground(PLAYER1_WORKER_COLOR);
-                    } else {
-                        btn.setBackground(PLAYER2_WORKER_COLOR);
-                    }
-                }
-                btn.setText(txt.toString());
-            }
+    @Override
+    public void cellChanged(int square) {
+        canvas.markDirty(square);
+    }
+
+    @Override
+    public void workerMoved(int slot, int from, int to) {
+        if (from >= 0) {
+            canvas.markDirty(from);
         }
+        canvas.markDirty(to);
+    }
+
+    @Override
+    public void statusChanged(String status) {
+        setStatus(status);
+    }
+
+    @Override
+    public void errorChanged(String message) {
+        setError(message);
+    }
+
+    @Override
+    public void skipOffered(String label) {
+        skipButton.setText(label);
+        skipButton.setVisible(true);
+        skipButton.revalidate();
+        skipButton.repaint();
+    }
+
+    @Override
+    public void skipWithdrawn() {
+        skipButton.setVisible(false);
+    }
+
+    @Override
+    public void timerChanged(Player player, long millis) {
+        updateTimer(player, ChessClock.format(millis));
+    }
+
+    @Override
+    public void gameOver(String message) {
+        showGameOver(message);
+    }
+
+    /**
+     * Repaints the whole board; single changes arrive as cell events instead.
+     */
+    public void updateBoard() {
+        canvas.repaint();
     }
 
     public void setStatus(String status) {
@@ -238,7 +237,7 @@ public class BoardUI extends JFrame {
     }
 
     public void updateTimer(Player player, String timeString) {
-        JLabel target = (GameEngine.getInstance().getPlayers().indexOf(player) == 0)
+        JLabel target = (engine.getPlayers().indexOf(player) == 0)
                 ? timerLabel1 : timerLabel2;
         target.setText(player.getNAME() + ": " + timeString);
     }
@@ -250,30 +249,35 @@ public class BoardUI extends JFrame {
         System.exit(0);
     }
 
+    /** @return whether a computer player is to move, whose turn the buttons and board must not touch */
+    private boolean computerToMove() {
+        return engine.getCurrentPlayer().isAutomated();
+    }
+
     private void handleResign() {
+        if (computerToMove()) return;
         int choice = JOptionPane.showConfirmDialog(this,
                 "Are you sure you want to resign?",
                 "Confirm Resign",
                 JOptionPane.YES_NO_OPTION);
         if (choice != JOptionPane.YES_OPTION) return;
 
-        GameEngine engine = GameEngine.getInstance();
-        String name = engine.getCurrentPlayer().getNAME();
-        JOptionPane.showMessageDialog(this, name + " has resigned!");
-        engine.removeCurrentPlayer();
+        // announces the winner through gameOver, which then exits
+        engine.resign();
+    }
 
-        // announce winner if there is one
-        if (engine.getPlayers().size() == 1) {
-            String winner = engine.getPlayers().get(0).getNAME();
-            JOptionPane.showMessageDialog(this, winner + " wins by default!");
-        }
+    private void handleEndTurn() {
+        if (computerToMove()) return;
+        engine.endTurn();
+    }
 
-        // then always exit
-        System.exit(0);
+    private void handleSkip() {
+        if (computerToMove()) return;
+        engine.skip();
     }
 
     private void handleCellClick(int row, int col) {
-        GameEngine.getInstance().takeTurn(row, col);
-        updateBoard();
+        if (computerToMove()) return;
+        engine.takeTurn(row, col);
     }
 }
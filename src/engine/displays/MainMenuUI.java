@@ -1,5 +1,6 @@
 package engine.displays;
 
+import engine.positions.BitBoard;
 import game.Game;
 import javax.swing.*;
 import java.awt.*;
@@ -9,8 +10,9 @@ import java.awt.event.MouseEvent;
 /**
  * The main menu window for the Santorini game.
  * <p>
- * Displays a title, an image panel on the left, and start/exit buttons on the right.
- * Buttons have hover effects and trigger game start or application exit.
+ * Displays a title, an image panel on the left, and start/exit buttons and a
+ * board size choice on the right. Buttons have hover effects and trigger game
+ * start or application exit.
  * </p>
  */
 public class MainMenuUI extends JFrame {
@@ -27,6 +29,8 @@ public class MainMenuUI extends JFrame {
     private static final Color HOVER_BACKGROUND = new Color(50, 50, 50);
     /** Border color for buttons on mouse hover. */
     private static final Color HOVER_BORDER = new Color(255, 255, 180);
+    /** Board sizes offered, the classic board first. */
+    private static final Integer[] BOARD_SIZES = {Game.DEFAULT_DIMENSION, 16, 32, 64, 128};
 
     /**
      * Constructs and displays the main menu UI.
@@ -106,18 +110,30 @@ public class MainMenuUI extends JFrame {
         rightPanel.setBorder(BorderFactory.createEmptyBorder(40, 40, 40, 40));
 
         JLabel titleLabel = createTitleLabel();
+        JComboBox<Integer> sizeBox = createSizeBox();
 
         JButton startButton = createDarkGodButton("Start Game", () -> {
             dispose();
-            Game.startGame();
+            Game.startGame((Integer) sizeBox.getSelectedItem());
         });
+        JButton computerButton = createDarkGodButton("Play vs Computer", () -> {
+            dispose();
+            Game.startComputerGame();
+        });
+        // the computer player searches boards of at most 8x8 squares
+        sizeBox.addActionListener(e ->
+                computerButton.setEnabled((Integer) sizeBox.getSelectedItem() <= BitBoard.MAX_DIMENSION));
         JButton exitButton = createDarkGodButton("Exit", () -> System.exit(0));
 
         rightPanel.add(Box.createVerticalStrut(60));
         rightPanel.add(titleLabel);
-        rightPanel.add(Box.createVerticalStrut(70));
+        rightPanel.add(Box.createVerticalStrut(40));
+        rightPanel.add(sizeBox);
+        rightPanel.add(Box.createVerticalStrut(30));
         rightPanel.add(startButton);
         rightPanel.add(Box.createVerticalStrut(30));
+        rightPanel.add(computerButton);
+        rightPanel.add(Box.createVerticalStrut(30));
         rightPanel.add(exitButton);
 
         return rightPanel;
@@ -137,6 +153,30 @@ public class MainMenuUI extends JFrame {
         return titleLabel;
     }
 
+    /**
+     * Creates the board size choice, styled like the buttons.
+     *
+     * @return a combo box of the sizes in {@link #BOARD_SIZES}
+     */
+    private JComboBox<Integer> createSizeBox() {
+        JComboBox<Integer> box = new JComboBox<>(BOARD_SIZES);
+        box.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list, "Board: " + value + " x " + value,
+                        index, isSelected, cellHasFocus);
+            }
+        });
+        box.setFont(new Font("Segoe UI", Font.BOLD, 16));
+        box.setBackground(BUTTON_BACKGROUND);
+        box.setForeground(BUTTON_FOREGROUND);
+        box.setPreferredSize(new Dimension(220, 40));
+        box.setMaximumSize(new Dimension(220, 40));
+        box.setAlignmentX(Component.LEFT_ALIGNMENT);
+        return box;
+    }
+
     /**
      * Creates a styled button with hover effects.
      *
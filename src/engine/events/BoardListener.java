@@ -0,0 +1,24 @@
+package engine.events;
+
+/**
+ * Observer of a single board's cells. A board reports each structure change
+ * and worker placement as it happens, naming only the squares involved, so an
+ * observer can update exactly what changed.
+ */
+public interface BoardListener {
+    /**
+     * Invoked after the structure on a square was built, raised or broken.
+     *
+     * @param square the square index
+     */
+    void structureChanged(int square);
+
+    /**
+     * Invoked after a worker was placed or moved.
+     *
+     * @param slot the worker's board slot
+     * @param from the square it left, or -1 when it was first placed
+     * @param to   the square it now stands on
+     */
+    void workerMoved(int slot, int from, int to);
+}
@@ -0,0 +1,98 @@
+package engine.events;
+
+import engine.actors.Player;
+import game.gods.TurnPhase;
+
+/**
+ * Observer of a running game. The rules engine reports every visible change
+ * through this interface and never touches a display itself, so a game can run
+ * headless with no listeners at all, or drive one or more UIs.
+ * Board changes are reported twice: as they happen, one square at a time, and
+ * once more by {@link #boardChanged} when the input that caused them has been
+ * handled, so a display may either track the squares or redraw everything.
+ * All methods default to doing nothing; implementors override what they need.
+ */
+public interface GameListener {
+    /**
+     * Invoked once an input (a click, skip or end of turn) has been handled
+     * and the board may have changed. The cell events it caused have already
+     * been delivered.
+     */
+    default void boardChanged() {
+    }
+
+    /**
+     * Invoked after the structure on a square was built, raised or broken.
+     *
+     * @param square the square index
+     */
+    default void cellChanged(int square) {
+    }
+
+    /**
+     * Invoked after a worker was placed or moved.
+     *
+     * @param slot the worker's board slot
+     * @param from the square it left, or -1 when it was first placed
+     * @param to   the square it now stands on
+     */
+    default void workerMoved(int slot, int from, int to) {
+    }
+
+    /**
+     * Invoked when the current player's god enters a new turn phase.
+     *
+     * @param phase the new phase
+     */
+    default void phaseChanged(TurnPhase phase) {
+    }
+
+    /**
+     * Invoked when the turn status line changes.
+     *
+     * @param status the new status text
+     */
+    default void statusChanged(String status) {
+    }
+
+    /**
+     * Invoked when an input was rejected, or with an empty message when the
+     * previous error no longer applies.
+     *
+     * @param message the error text, or {@code ""} to clear it
+     */
+    default void errorChanged(String message) {
+    }
+
+    /**
+     * Invoked when the current player may skip an optional god-power action.
+     *
+     * @param label a short description of what would be skipped
+     */
+    default void skipOffered(String label) {
+    }
+
+    /**
+     * Invoked when a previously offered skip is no longer available.
+     */
+    default void skipWithdrawn() {
+    }
+
+    /**
+     * Invoked when a player's turn starts and whenever the shown remaining
+     * time changes: every second, and every tenth under ten seconds.
+     *
+     * @param player the player whose clock changed
+     * @param millis the remaining time in milliseconds; see {@link engine.time.ChessClock#format}
+     */
+    default void timerChanged(Player player, long millis) {
+    }
+
+    /**
+     * Invoked once when the game ends.
+     *
+     * @param message a description of the result
+     */
+    default void gameOver(String message) {
+    }
+}
@@ -0,0 +1,52 @@
+package engine.events;
+
+import engine.action.BuildMode;
+
+/**
+ * Observer of the inputs a game is driven by, in the order the engine accepts
+ * them. Feeding the same inputs into a game set up the same way reproduces it
+ * exactly, which is what game records rely on. Inputs made while the game is
+ * over are not reported.
+ */
+public interface InputListener {
+    /**
+     * Invoked when a cell is clicked, to select a worker, move or build.
+     *
+     * @param square the clicked square index
+     */
+    void clicked(int square);
+
+    /**
+     * Invoked when the build mode for later builds changes.
+     *
+     * @param mode the new build mode
+     */
+    void buildModeChanged(BuildMode mode);
+
+    /**
+     * Invoked when the player skips an optional god-power action.
+     */
+    void skipped();
+
+    /**
+     * Invoked when the player ends the turn on request.
+     */
+    void turnEnded();
+
+    /**
+     * Invoked when the player to move runs out of time.
+     */
+    void timedOut();
+
+    /**
+     * Invoked when the player to move resigns.
+     */
+    void resigned();
+
+    /**
+     * Invoked once when the game ends, after the input that ended it.
+     *
+     * @param winner the index of the winning player
+     */
+    void gameEnded(int winner);
+}
@@ -0,0 +1,20 @@
+package engine.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning the execution of one move, build or break
+ * {@link engine.action.Action}.
+ */
+@Name("santorini.Action")
+@Label("Action")
+@Description("A move, build or break checked against the rules and applied")
+public class ActionEvent extends GameEvent {
+    @Label("Action")
+    public String action;
+
+    @Label("Square")
+    public int square;
+}
@@ -0,0 +1,49 @@
+package engine.metrics;
+
+import engine.actors.Player;
+import engine.positions.GameEngine;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the Flight Recorder events of a game, with the fields every one
+ * of them carries.
+ * <p>
+ * Events follow the usual pattern that costs nothing while no recording
+ * enables them: allocate, {@link #begin}, do the work, and only if
+ * {@link #shouldCommit} fill in the fields and {@link #commit}. The
+ * allocation does not escape, so the JIT removes it along with the rest.
+ * </p>
+ */
+@Category({"Santorini", "Game"})
+@StackTrace(false)
+public abstract class GameEvent extends Event {
+    @Label("Game Id")
+    protected long gameId;
+
+    @Label("Player Id")
+    protected String playerId;
+
+    @Label("God")
+    protected String god;
+
+    @Label("Outcome")
+    protected String outcome;
+
+    /**
+     * Fills in the fields common to all game events.
+     *
+     * @param engine      the game
+     * @param playerIndex the player the event is about
+     * @param outcome     what came of it
+     */
+    public void describe(GameEngine engine, int playerIndex, String outcome) {
+        Player player = engine.getPlayers().get(playerIndex);
+        this.gameId = engine.getGameId();
+        this.playerId = player.getId();
+        this.god = player.getGod().getName();
+        this.outcome = outcome;
+    }
+}
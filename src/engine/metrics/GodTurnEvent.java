@@ -0,0 +1,20 @@
+package engine.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning a god's handling of a click, with the
+ * turn phase before and after it.
+ */
+@Name("santorini.GodTurn")
+@Label("God Turn")
+@Description("A god handling a click, and the phase transition it made")
+public class GodTurnEvent extends GameEvent {
+    @Label("Phase Before")
+    public String fromPhase;
+
+    @Label("Phase After")
+    public String toPhase;
+}
@@ -0,0 +1,95 @@
+package engine.metrics;
+
+/**
+ * Log-linear latency histogram with a fixed footprint.
+ * <p>
+ * Values are bucketed by their highest set bit and the next four bits, so
+ * every bucket is within about 6% of the values it holds, from nanoseconds
+ * to hours, in 1024 counters. Recording is a few shifts and an increment and
+ * never allocates. Instances are not thread-safe; give each thread its own
+ * and {@link #merge} them for the report.
+ * </p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long count;
+    private long max;
+
+    /**
+     * Records one sample.
+     *
+     * @param value the sample, e.g. a latency in nanoseconds; negative values count as 0
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts[bucketOf(v)]++;
+        count++;
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * Adds every sample of another histogram to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+
+    /** @return the number of samples recorded */
+    public long getCount() {
+        return count;
+    }
+
+    /** @return the largest sample recorded, or 0 if none */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value at a percentile, accurate to the width of its bucket.
+     *
+     * @param percentile the percentile, 0–100
+     * @return the approximate sample value, or 0 if the histogram is empty
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, highestValueIn(i));
+            }
+        }
+        return max;
+    }
+
+    private static int bucketOf(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((v >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,25 @@
+package engine.metrics;
+
+/**
+ * JMX view of the latency of one {@link TurnStage} since the process
+ * started, in nanoseconds. Percentiles are accurate to about 6%.
+ */
+public interface StageLatencyMXBean {
+    /** @return the number of samples */
+    long getCount();
+
+    /** @return the longest sample */
+    long getMax();
+
+    /** @return the median */
+    long getP50();
+
+    /** @return the 90th percentile */
+    long getP90();
+
+    /** @return the 99th percentile */
+    long getP99();
+
+    /** @return the 99.9th percentile */
+    long getP999();
+}
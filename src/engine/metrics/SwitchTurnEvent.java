@@ -0,0 +1,17 @@
+package engine.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning {@link engine.positions.GameEngine#switchTurn};
+ * its player is the one handing over the turn.
+ */
+@Name("santorini.SwitchTurn")
+@Label("Switch Turn")
+@Description("The turn handed to the next player")
+public class SwitchTurnEvent extends GameEvent {
+    @Label("Next Player Id")
+    public String nextPlayerId;
+}
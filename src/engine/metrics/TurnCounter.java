@@ -0,0 +1,52 @@
+package engine.metrics;
+
+/**
+ * Enum representing the turn events {@link TurnMetrics} counts.
+ */
+public enum TurnCounter {
+    /** A move the rules rejected. */
+    INVALID_MOVE("InvalidMoves"),
+
+    /** A build or break the rules rejected. */
+    INVALID_BUILD("InvalidBuilds"),
+
+    /** An optional god action skipped. */
+    SKIP("Skips"),
+
+    /** A player resigning. */
+    RESIGNATION("Resignations"),
+
+    /** A player losing on time. */
+    TIMEOUT("Timeouts");
+
+    /** Name of the counter's JMX attribute. */
+    private final String label;
+
+    /**
+     * Constructs a TurnCounter with the given label.
+     *
+     * @param label the JMX attribute name
+     */
+    TurnCounter(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label for this counter.
+     *
+     * @return the counter label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the label when the enum is converted to a string.
+     *
+     * @return the label string
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
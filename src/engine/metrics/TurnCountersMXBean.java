@@ -0,0 +1,21 @@
+package engine.metrics;
+
+/**
+ * JMX view of the {@link TurnCounter}s since the process started.
+ */
+public interface TurnCountersMXBean {
+    /** @return the number of moves the rules rejected */
+    long getInvalidMoves();
+
+    /** @return the number of builds and breaks the rules rejected */
+    long getInvalidBuilds();
+
+    /** @return the number of optional god actions skipped */
+    long getSkips();
+
+    /** @return the number of resignations */
+    long getResignations();
+
+    /** @return the number of games lost on time */
+    long getTimeouts();
+}
@@ -0,0 +1,21 @@
+package engine.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one board click handled by
+ * {@link engine.positions.GameEngine#takeTurn}, automated players' turns
+ * played in response included.
+ */
+@Name("santorini.TurnInput")
+@Label("Turn Input")
+@Description("A board click and everything it caused")
+public class TurnInputEvent extends GameEvent {
+    @Label("Row")
+    public int row;
+
+    @Label("Column")
+    public int col;
+}
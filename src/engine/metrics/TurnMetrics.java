@@ -0,0 +1,250 @@
+package engine.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Process-wide latency histograms of the {@link TurnStage}s and counts of
+ * the {@link TurnCounter} events of every game, published as platform
+ * MBeans under {@code santorini:type=TurnLatency,stage=<label>} and
+ * {@code santorini:type=TurnCounters}.
+ * <p>
+ * Every thread records into histograms and counters of its own, so
+ * recording takes no lock, no atomic and no allocation: a thread-local
+ * lookup, a bucket index and two increments. JMX reads merge all threads'
+ * recorders into a fresh snapshot, which may miss samples being recorded
+ * at that moment. The recorders of threads that have ended are folded into
+ * one shared total whenever a thread starts recording or metrics are read,
+ * so short-lived threads leave no recorder behind. A stage is timed by
+ * pairing {@link #start} with {@link #record}:
+ * </p>
+ * <pre>
+ * long start = TurnMetrics.start();
+ * ...
+ * TurnMetrics.record(TurnStage.SWITCH_TURN, start);
+ * </pre>
+ * Metrics are on unless the system property {@code santorini.metrics} is
+ * {@code false}, in which case every call is a no-op.
+ */
+public final class TurnMetrics {
+    /** Whether samples are recorded at all; fixed at startup so disabled calls compile away. */
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("santorini.metrics", "true"));
+
+    private static final TurnStage[] STAGES = TurnStage.values();
+    private static final TurnCounter[] COUNTERS = TurnCounter.values();
+
+    /** Samples of the threads that have ended; its lock guards {@link #RECORDERS} too. */
+    private static final Recorder RETIRED = new Recorder(null);
+    /** The recorder of every live thread that has recorded anything. */
+    private static final List<Recorder> RECORDERS = new ArrayList<>();
+    private static final ThreadLocal<Recorder> RECORDER = ThreadLocal.withInitial(() -> {
+        Recorder recorder = new Recorder(Thread.currentThread());
+        synchronized (RETIRED) {
+            retire();
+            RECORDERS.add(recorder);
+        }
+        return recorder;
+    });
+
+    static {
+        if (ENABLED) {
+            register();
+        }
+    }
+
+    private TurnMetrics() {
+    }
+
+    /** One thread's samples, written only by that thread. */
+    private static final class Recorder {
+        /** The thread writing the samples, or {@code null} for {@link #RETIRED}. */
+        final Thread owner;
+        final LatencyHistogram[] stages = new LatencyHistogram[STAGES.length];
+        final long[] counters = new long[COUNTERS.length];
+
+        Recorder(Thread owner) {
+            this.owner = owner;
+            for (int i = 0; i < stages.length; i++) {
+                stages[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /**
+     * Returns the start time of a stage to pass to {@link #record}.
+     *
+     * @return {@link System#nanoTime}, or 0 when metrics are off
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time from {@code start} until now as one sample of a stage.
+     *
+     * @param stage the stage that ran
+     * @param start the value {@link #start} returned before it
+     */
+    public static void record(TurnStage stage, long start) {
+        if (ENABLED) {
+            RECORDER.get().stages[stage.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Counts one event.
+     *
+     * @param counter the event
+     */
+    public static void count(TurnCounter counter) {
+        if (ENABLED) {
+            RECORDER.get().counters[counter.ordinal()]++;
+        }
+    }
+
+    /**
+     * Merges every thread's samples of a stage.
+     *
+     * @param stage the stage
+     * @return a new histogram with all samples recorded so far
+     */
+    public static LatencyHistogram snapshot(TurnStage stage) {
+        LatencyHistogram total = new LatencyHistogram();
+        synchronized (RETIRED) {
+            retire();
+            total.merge(RETIRED.stages[stage.ordinal()]);
+            for (Recorder recorder : RECORDERS) {
+                total.merge(recorder.stages[stage.ordinal()]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Sums every thread's count of an event.
+     *
+     * @param counter the event
+     * @return the number of times it happened so far
+     */
+    public static long total(TurnCounter counter) {
+        synchronized (RETIRED) {
+            retire();
+            long total = RETIRED.counters[counter.ordinal()];
+            for (Recorder recorder : RECORDERS) {
+                total += recorder.counters[counter.ordinal()];
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Folds the recorders of threads that have ended into {@link #RETIRED}.
+     * A thread's writes happen before {@link Thread#isAlive} reports it
+     * ended, so none is lost. Callers hold the lock of {@link #RETIRED}.
+     */
+    private static void retire() {
+        for (Iterator<Recorder> it = RECORDERS.iterator(); it.hasNext(); ) {
+            Recorder recorder = it.next();
+            if (recorder.owner.isAlive()) {
+                continue;
+            }
+            for (int i = 0; i < STAGES.length; i++) {
+                RETIRED.stages[i].merge(recorder.stages[i]);
+            }
+            for (int i = 0; i < COUNTERS.length; i++) {
+                RETIRED.counters[i] += recorder.counters[i];
+            }
+            it.remove();
+        }
+    }
+
+    private static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (TurnStage stage : STAGES) {
+                ObjectName name = new ObjectName("santorini:type=TurnLatency,stage=" + stage.getLabel());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(new StageLatency(stage), name);
+                }
+            }
+            ObjectName name = new ObjectName("santorini:type=TurnCounters");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new Counters(), name);
+            }
+        } catch (JMException e) {
+            System.err.println("Turn metrics not published: " + e);
+        }
+    }
+
+    /** MBean of one stage, reading a fresh snapshot per attribute. */
+    private static final class StageLatency implements StageLatencyMXBean {
+        private final TurnStage stage;
+
+        StageLatency(TurnStage stage) {
+            this.stage = stage;
+        }
+
+        @Override
+        public long getCount() {
+            return snapshot(stage).getCount();
+        }
+
+        @Override
+        public long getMax() {
+            return snapshot(stage).getMax();
+        }
+
+        @Override
+        public long getP50() {
+            return snapshot(stage).percentile(50);
+        }
+
+        @Override
+        public long getP90() {
+            return snapshot(stage).percentile(90);
+        }
+
+        @Override
+        public long getP99() {
+            return snapshot(stage).percentile(99);
+        }
+
+        @Override
+        public long getP999() {
+            return snapshot(stage).percentile(99.9);
+        }
+    }
+
+    /** MBean of the event counters. */
+    private static final class Counters implements TurnCountersMXBean {
+        @Override
+        public long getInvalidMoves() {
+            return total(TurnCounter.INVALID_MOVE);
+        }
+
+        @Override
+        public long getInvalidBuilds() {
+            return total(TurnCounter.INVALID_BUILD);
+        }
+
+        @Override
+        public long getSkips() {
+            return total(TurnCounter.SKIP);
+        }
+
+        @Override
+        public long getResignations() {
+            return total(TurnCounter.RESIGNATION);
+        }
+
+        @Override
+        public long getTimeouts() {
+            return total(TurnCounter.TIMEOUT);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package engine.metrics;
+
+/**
+ * Enum representing the steps of the turn pipeline whose latency
+ * {@link TurnMetrics} records.
+ */
+public enum TurnStage {
+    /** Choosing the worker to move, including the check that any move is left. */
+    WORKER_SELECTION("workerSelection"),
+
+    /** Checking a move against the board before it is applied. */
+    MOVE_VALIDATION("moveValidation"),
+
+    /** Checking a build or break against the board before it is applied. */
+    BUILD_VALIDATION("buildValidation"),
+
+    /** The god's handling of a click or a skip, actions and phase changes included. */
+    GOD_POWER("godPower"),
+
+    /** Handing the turn to the next player. */
+    SWITCH_TURN("switchTurn"),
+
+    /** Telling the listeners, and so any display, that an input is complete. */
+    UI_UPDATE("uiUpdate");
+
+    /** Name of the stage in JMX object names. */
+    private final String label;
+
+    /**
+     * Constructs a TurnStage with the given label.
+     *
+     * @param label the name used in JMX object names
+     */
+    TurnStage(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label for this stage.
+     *
+     * @return the stage label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the label when the enum is converted to a string.
+     *
+     * @return the label string
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
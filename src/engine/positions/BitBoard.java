@@ -0,0 +1,494 @@
+package engine.positions;
+
+import engine.action.BuildMode;
+
+import java.util.Arrays;
+
+/**
+ * Packed, primitive-only mirror of a square board's rules state.
+ * <p>
+ * Every square is a bit index ({@code row * dimension + col}) into a handful of
+ * {@code long} masks: three height bitplanes (tower levels 1–3, dome = 4), wall
+ * masks for the two wall phases, and worker occupancy. Rules queries such as
+ * "where can this worker move" become a few mask operations with no pointer
+ * chasing, hashing or allocation. Boards of up to 8×8 squares are supported;
+ * larger ones keep their state in a {@link SparseBoardState}.
+ * </p>
+ */
+public final class BitBoard implements BoardState {
+    /** Largest supported board side; 8×8 squares fill one {@code long}. */
+    public static final int MAX_DIMENSION = 8;
+
+    /** Number of rows and columns. */
+    private final int dimension;
+    /** Mask with one bit set for every square on the board. */
+    private final long full;
+    /** Mask of the squares on the outer ring of the board. */
+    private final long perimeter;
+    /** Shared adjacency for this dimension. */
+    private final NeighbourTable table;
+    /** Neighbour mask for every square of this dimension. */
+    private final long[] neighbours;
+
+    /** Height bitplanes: bit {@code k} of every square's height. */
+    private long h0, h1, h2;
+    /** Squares holding a wall of any phase. */
+    private long walls;
+    /** Squares holding a fully built (phase 2) wall. */
+    private long fullWalls;
+    /** Squares occupied by a worker. */
+    private long occupied;
+    /** Square of each worker slot, or -1 if the slot is empty. */
+    private final int[] workerSquares = new int[MAX_WORKERS];
+    /** Number of worker slots in use. */
+    private int workerCount;
+    /** Zobrist key of the structures and workers, updated on every mutation. */
+    private long key;
+
+    /**
+     * Creates an empty packed board.
+     *
+     * @param dimension the number of rows and columns (1–{@value #MAX_DIMENSION})
+     * @throws IllegalArgumentException if the dimension does not fit in one mask
+     */
+    public BitBoard(int dimension) {
+        if (dimension < 1 || dimension > MAX_DIMENSION) {
+            throw new IllegalArgumentException("BitBoard supports dimensions 1-" + MAX_DIMENSION
+                    + ", got " + dimension);
+        }
+        this.dimension = dimension;
+        int squares = dimension * dimension;
+        this.full = squares == 64 ? -1L : (1L << squares) - 1;
+        this.table = NeighbourTable.forDimension(dimension);
+        this.neighbours = new long[squares];
+        long ring = 0L;
+        for (int s = 0; s < squares; s++) {
+            neighbours[s] = table.mask(s);
+            int r = s / dimension, c = s % dimension;
+            if (r == 0 || c == 0 || r == dimension - 1 || c == dimension - 1) {
+                ring |= 1L << s;
+            }
+        }
+        this.perimeter = ring;
+        Arrays.fill(workerSquares, -1);
+    }
+
+    /**
+     * Creates an independent copy of another packed board.
+     *
+     * @param other the board to copy
+     */
+    public BitBoard(BitBoard other) {
+        this(other.dimension);
+        copyFrom(other);
+    }
+
+    /**
+     * Overwrites this board with the state of another board of the same dimension,
+     * without allocating. Search code keeps one board per ply and copies into it.
+     *
+     * @param other the board to copy
+     */
+    public void copyFrom(BitBoard other) {
+        h0 = other.h0;
+        h1 = other.h1;
+        h2 = other.h2;
+        walls = other.walls;
+        fullWalls = other.fullWalls;
+        occupied = other.occupied;
+        workerCount = other.workerCount;
+        System.arraycopy(other.workerSquares, 0, workerSquares, 0, MAX_WORKERS);
+        key = other.key;
+    }
+
+    /** @return the number of rows and columns */
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    /** @return the mask of all squares on this board */
+    public long getFullMask() {
+        return full;
+    }
+
+    /** @return the shared neighbour table for this board's dimension */
+    @Override
+    public NeighbourTable getNeighbourTable() {
+        return table;
+    }
+
+    /** @return the mask of squares on the outer ring of the board */
+    public long perimeter() {
+        return perimeter;
+    }
+
+    /**
+     * Returns the mask of squares adjacent (including diagonals) to a square.
+     *
+     * @param square the reference square
+     * @return the neighbour mask
+     */
+    public long neighbours(int square) {
+        return neighbours[square];
+    }
+
+    // ----- structures -----
+
+    /**
+     * Returns the tower height of a square: 0 when empty, 1–3 for towers, 4 for a dome.
+     * Walls are tracked separately and do not contribute to height.
+     *
+     * @param square the square to query
+     * @return the height in the range 0–4
+     */
+    @Override
+    public int height(int square) {
+        return (int) ((h0 >>> square) & 1L)
+                | (int) ((h1 >>> square) & 1L) << 1
+                | (int) ((h2 >>> square) & 1L) << 2;
+    }
+
+    /**
+     * Returns the wall phase of a square.
+     *
+     * @param square the square to query
+     * @return 0 for no wall, 1 for a partial wall, 2 for a full wall
+     */
+    @Override
+    public int wallLevel(int square) {
+        return (int) ((walls >>> square) & 1L) + (int) ((fullWalls >>> square) & 1L);
+    }
+
+    /**
+     * Overwrites the structure state of a single square.
+     *
+     * @param square    the square to update
+     * @param height    tower height 0–4 (4 = dome)
+     * @param wallLevel wall phase 0–2
+     */
+    @Override
+    public void setSquare(int square, int height, int wallLevel) {
+        key ^= Zobrist.height(height(square), square) ^ Zobrist.height(height, square)
+                ^ Zobrist.wall(wallLevel(square), square) ^ Zobrist.wall(wallLevel, square);
+        long bit = 1L << square;
+        h0 = (height & 1) != 0 ? h0 | bit : h0 & ~bit;
+        h1 = (height & 2) != 0 ? h1 | bit : h1 & ~bit;
+        h2 = (height & 4) != 0 ? h2 | bit : h2 & ~bit;
+        walls = wallLevel > 0 ? walls | bit : walls & ~bit;
+        fullWalls = wallLevel > 1 ? fullWalls | bit : fullWalls & ~bit;
+    }
+
+    /**
+     * Applies one build step to a square, mirroring {@code BuildAction}:
+     * NORMAL raises a tower (level 3 becomes a dome) and leaves a wall untouched,
+     * WALL starts or advances a wall, BREAK knocks a wall back one phase.
+     * Legality is the caller's concern; see the {@code *Targets} masks.
+     *
+     * @param square the square to build on
+     * @param mode   what to build
+     * @return an undo record for {@link #unbuild}: the square in the low 6 bits
+     *         and its prior {@link #structure} code above
+     */
+    public int build(int square, BuildMode mode) {
+        int wall = wallLevel(square);
+        int undo = square | structure(square) << 6;
+        switch (mode) {
+            case WALL:
+                setSquare(square, 0, wall + 1);
+                break;
+            case BREAK:
+                setSquare(square, 0, wall - 1);
+                break;
+            default:
+                if (wall == 0) {
+                    setSquare(square, height(square) + 1, 0);
+                }
+                break;
+        }
+        return undo;
+    }
+
+    /**
+     * Restores the square changed by a {@link #build}, key included.
+     *
+     * @param undo the record returned by that build
+     */
+    public void unbuild(int undo) {
+        setStructure(undo & 63, undo >>> 6);
+    }
+
+    /**
+     * Returns the structure of a square as one code: 0–4 for its height
+     * (4 = dome), 5 for a partial wall and 6 for a full wall.
+     *
+     * @param square the square to query
+     * @return the structure code in the range 0–6
+     */
+    @Override
+    public int structure(int square) {
+        int wall = wallLevel(square);
+        return wall > 0 ? 4 + wall : height(square);
+    }
+
+    /**
+     * Overwrites the structure of a square from a {@link #structure} code.
+     *
+     * @param square the square to update
+     * @param code   the structure code 0–6
+     */
+    public void setStructure(int square, int code) {
+        setSquare(square, code > 4 ? 0 : code, code > 4 ? code - 4 : 0);
+    }
+
+    /** @return the mask of squares capped by a dome */
+    public long domes() {
+        return h2;
+    }
+
+    /** @return the mask of squares holding a wall of any phase */
+    public long walls() {
+        return walls;
+    }
+
+    /** @return the mask of squares with no tower, dome or wall */
+    public long emptySquares() {
+        return ~(h0 | h1 | h2 | walls) & full;
+    }
+
+    /**
+     * Returns the mask of squares whose height is at most the given level.
+     *
+     * @param level the maximum height (values above 4 select every square)
+     * @return the matching squares
+     */
+    public long heightAtMost(int level) {
+        switch (level) {
+            case 0:  return ~(h0 | h1 | h2) & full;
+            case 1:  return ~(h1 | h2) & full;
+            case 2:  return ~(h2 | (h0 & h1)) & full;
+            case 3:  return ~h2 & full;
+            default: return level < 0 ? 0L : full;
+        }
+    }
+
+    /**
+     * Returns the mask of squares with exactly the given height.
+     *
+     * @param level the height 0–4
+     * @return the matching squares
+     */
+    public long heightExactly(int level) {
+        return heightAtMost(level) & ~heightAtMost(level - 1);
+    }
+
+    // ----- workers -----
+
+    /**
+     * Places a worker slot on a square.
+     *
+     * @param slot   the worker slot
+     * @param square the square to occupy
+     */
+    @Override
+    public void placeWorker(int slot, int square) {
+        if (slot >= workerCount) {
+            workerCount = slot + 1;
+        }
+        workerSquares[slot] = square;
+        occupied |= 1L << square;
+        key ^= Zobrist.worker(slot, square);
+    }
+
+    /**
+     * Moves a worker slot from its current square to another one.
+     *
+     * @param slot   the worker slot
+     * @param square the destination square
+     * @return the square the worker left, or -1 if the slot was empty; moving
+     *         the worker back there undoes the move
+     */
+    @Override
+    public int moveWorker(int slot, int square) {
+        int from = workerSquares[slot];
+        if (from >= 0) {
+            occupied &= ~(1L << from);
+            key ^= Zobrist.worker(slot, from);
+        }
+        workerSquares[slot] = square;
+        occupied |= 1L << square;
+        key ^= Zobrist.worker(slot, square);
+        return from;
+    }
+
+    /**
+     * Takes every worker off the board. The slots stay in use, empty, until
+     * workers are moved onto squares again with {@link #moveWorker}.
+     */
+    public void clearWorkers() {
+        for (int slot = 0; slot < workerCount; slot++) {
+            if (workerSquares[slot] >= 0) {
+                key ^= Zobrist.worker(slot, workerSquares[slot]);
+                workerSquares[slot] = -1;
+            }
+        }
+        occupied = 0L;
+    }
+
+    /**
+     * Returns the square of a worker slot.
+     *
+     * @param slot the worker slot
+     * @return the occupied square, or -1 if the slot is empty
+     */
+    @Override
+    public int workerSquare(int slot) {
+        return workerSquares[slot];
+    }
+
+    /**
+     * Returns the Zobrist key of the structures and worker placement.
+     * It is maintained incrementally by {@link #setSquare}, {@link #placeWorker}
+     * and {@link #moveWorker}.
+     *
+     * @return the board key
+     */
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    /** @return the number of worker slots in use */
+    @Override
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Returns the slot of the worker on a square.
+     *
+     * @param square the square to query
+     * @return the worker slot, or -1 if the square is empty
+     */
+    @Override
+    public int workerAt(int square) {
+        if (((occupied >>> square) & 1L) == 0) {
+            return -1;
+        }
+        for (int slot = 0; slot < workerCount; slot++) {
+            if (workerSquares[slot] == square) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /** @return the mask of squares occupied by a worker */
+    public long occupied() {
+        return occupied;
+    }
+
+    /**
+     * Checks whether a square is occupied by a worker.
+     *
+     * @param square the square to query
+     * @return {@code true} if a worker stands on it
+     */
+    @Override
+    public boolean isOccupied(int square) {
+        return ((occupied >>> square) & 1L) != 0;
+    }
+
+    // ----- rules -----
+
+    /**
+     * Returns every square a worker standing on {@code from} may move to:
+     * adjacent, unoccupied, wall-free and at most one level higher.
+     *
+     * @param from the worker's square
+     * @return the legal destination mask
+     */
+    public long moveTargets(int from) {
+        return neighbours[from] & ~occupied & ~walls & heightAtMost(height(from) + 1);
+    }
+
+    /**
+     * Returns the legal build squares for a worker on {@code from} in a given mode.
+     *
+     * @param from the worker's square
+     * @param mode the build mode
+     * @return the legal build mask
+     */
+    public long buildTargets(int from, BuildMode mode) {
+        switch (mode) {
+            case WALL:  return wallTargets(from);
+            case BREAK: return breakTargets(from);
+            default:    return towerTargets(from);
+        }
+    }
+
+    /**
+     * Returns every square a worker on {@code from} may build a tower level or dome on:
+     * adjacent, unoccupied and not already domed.
+     *
+     * @param from the worker's square
+     * @return the legal build mask
+     */
+    public long towerTargets(int from) {
+        return neighbours[from] & ~occupied & ~h2;
+    }
+
+    /**
+     * Returns every square a worker on {@code from} may start or advance a wall on:
+     * adjacent, unoccupied and either bare or holding a partial wall.
+     *
+     * @param from the worker's square
+     * @return the legal wall-build mask
+     */
+    public long wallTargets(int from) {
+        return neighbours[from] & ~occupied
+                & (emptySquares() | (walls & ~fullWalls));
+    }
+
+    /**
+     * Returns every adjacent square holding a wall that a worker on {@code from} may break.
+     *
+     * @param from the worker's square
+     * @return the legal break mask
+     */
+    public long breakTargets(int from) {
+        return neighbours[from] & ~occupied & walls;
+    }
+
+    @Override
+    public boolean canMove(int from, int to) {
+        return ((moveTargets(from) >>> to) & 1L) != 0;
+    }
+
+    @Override
+    public boolean canBuildTower(int from, int to) {
+        return ((towerTargets(from) >>> to) & 1L) != 0;
+    }
+
+    @Override
+    public boolean canBuildWall(int from, int to) {
+        return ((wallTargets(from) >>> to) & 1L) != 0;
+    }
+
+    @Override
+    public boolean canBreak(int from, int to) {
+        return ((breakTargets(from) >>> to) & 1L) != 0;
+    }
+
+    /**
+     * Checks whether a worker slot has at least one legal move.
+     *
+     * @param slot the worker slot
+     * @return {@code true} if the worker can move somewhere
+     */
+    @Override
+    public boolean hasMove(int slot) {
+        int from = workerSquares[slot];
+        return from >= 0 && moveTargets(from) != 0;
+    }
+}
@@ -0,0 +1,160 @@
+package engine.positions;
+
+/**
+ * Primitive-only rules state of a square board: the structure on every
+ * square, the square of every worker slot and the position's Zobrist key.
+ * <p>
+ * {@link GameBoard} mirrors every change into one of these and answers its
+ * rules queries from it. Boards of up to 8×8 squares use the mask-based
+ * {@link BitBoard}, which the search code works on directly; larger boards
+ * use {@link SparseBoardState}. Every query concerns one square or one
+ * worker and costs the same whatever the size of the board.
+ * </p>
+ */
+public interface BoardState {
+    /** Maximum number of worker slots tracked on one board. */
+    int MAX_WORKERS = 8;
+
+    /** @return the number of rows and columns */
+    int getDimension();
+
+    /** @return the shared neighbour table for this board's dimension */
+    NeighbourTable getNeighbourTable();
+
+    /**
+     * Returns the tower height of a square: 0 when empty, 1–3 for towers, 4 for a dome.
+     * Walls are tracked separately and do not contribute to height.
+     *
+     * @param square the square to query
+     * @return the height in the range 0–4
+     */
+    int height(int square);
+
+    /**
+     * Returns the wall phase of a square.
+     *
+     * @param square the square to query
+     * @return 0 for no wall, 1 for a partial wall, 2 for a full wall
+     */
+    int wallLevel(int square);
+
+    /**
+     * Returns the structure of a square as one code: 0–4 for its height
+     * (4 = dome), 5 for a partial wall and 6 for a full wall.
+     *
+     * @param square the square to query
+     * @return the structure code in the range 0–6
+     */
+    default int structure(int square) {
+        int wall = wallLevel(square);
+        return wall > 0 ? 4 + wall : height(square);
+    }
+
+    /**
+     * Overwrites the structure state of a single square.
+     *
+     * @param square    the square to update
+     * @param height    tower height 0–4 (4 = dome)
+     * @param wallLevel wall phase 0–2
+     */
+    void setSquare(int square, int height, int wallLevel);
+
+    /**
+     * Places a worker slot on a square.
+     *
+     * @param slot   the worker slot
+     * @param square the square to occupy
+     */
+    void placeWorker(int slot, int square);
+
+    /**
+     * Moves a worker slot from its current square to another one.
+     *
+     * @param slot   the worker slot
+     * @param square the destination square
+     * @return the square the worker left, or -1 if the slot was empty
+     */
+    int moveWorker(int slot, int square);
+
+    /**
+     * Returns the square of a worker slot.
+     *
+     * @param slot the worker slot
+     * @return the occupied square, or -1 if the slot is empty
+     */
+    int workerSquare(int slot);
+
+    /** @return the number of worker slots in use */
+    int getWorkerCount();
+
+    /**
+     * Returns the slot of the worker on a square.
+     *
+     * @param square the square to query
+     * @return the worker slot, or -1 if the square is empty
+     */
+    int workerAt(int square);
+
+    /**
+     * Checks whether a square is occupied by a worker.
+     *
+     * @param square the square to query
+     * @return {@code true} if a worker stands on it
+     */
+    boolean isOccupied(int square);
+
+    /**
+     * Returns the Zobrist key of the structures and worker placement,
+     * maintained incrementally by every mutation.
+     *
+     * @return the board key
+     */
+    long getKey();
+
+    /**
+     * Checks whether a worker standing on {@code from} may move to {@code to}:
+     * adjacent, unoccupied, wall-free and at most one level higher.
+     *
+     * @param from the worker's square
+     * @param to   the destination square
+     * @return {@code true} if the move is legal
+     */
+    boolean canMove(int from, int to);
+
+    /**
+     * Checks whether a worker on {@code from} may build a tower level or dome
+     * on {@code to}: adjacent, unoccupied and not already domed.
+     *
+     * @param from the worker's square
+     * @param to   the target square
+     * @return {@code true} if the build is legal
+     */
+    boolean canBuildTower(int from, int to);
+
+    /**
+     * Checks whether a worker on {@code from} may start or advance a wall on
+     * {@code to}: adjacent, unoccupied and either bare or holding a partial wall.
+     *
+     * @param from the worker's square
+     * @param to   the target square
+     * @return {@code true} if the wall build is legal
+     */
+    boolean canBuildWall(int from, int to);
+
+    /**
+     * Checks whether a worker on {@code from} may break the wall on {@code to}.
+     *
+     * @param from the worker's square
+     * @param to   the target square
+     * @return {@code true} if the break is legal
+     */
+    boolean canBreak(int from, int to);
+
+    /**
+     * Checks whether a worker slot has at least one legal move.
+     *
+     * @param slot the worker slot
+     * @return {@code true} if the worker can move somewhere
+     */
+    boolean hasMove(int slot);
+}
@@ -4,25 +4,34 @@ import engine.structures.Structure;
 
 /**
  * Represents a single cell on the game board, identified by its row and column.
- * Holds the current structure built on this cell, if any.
+ * Holds the current structure built on this cell, if any, and reports every
+ * structure change to the owning board so its packed state stays in sync.
  */
 public class Cell {
     /** The row index of this cell. */
     private int row;
     /** The column index of this cell. */
     private int col;
+    /** The square index of this cell ({@code row * dimension + col}). */
+    private final int index;
+    /** The board owning this cell, notified on structure changes; may be null. */
+    private final GameBoard board;
     /** The structure currently on this cell, or null if none. */
     private Structure structure;
 
     /**
      * Constructs a Cell at the given coordinates.
      *
-     * @param row the row index
-     * @param col the column index
+     * @param row   the row index
+     * @param col   the column index
+     * @param index the square index on the owning board
+     * @param board the owning board, or {@code null} for a detached cell
      */
-    public Cell(int row, int col) {
+    public Cell(int row, int col, int index, GameBoard board) {
         this.row = row;
         this.col = col;
+        this.index = index;
+        this.board = board;
     }
 
     /**
@@ -43,14 +52,27 @@ public class Cell {
         return col;
     }
 
+    /**
+     * Returns the square index of this cell on its board.
+     *
+     * @return the index
+     */
+    public int getIndex() {
+        return index;
+    }
+
     /**
      * Determines whether this cell is adjacent (including diagonals)
-     * to another cell.
+     * to another cell. Cells on a board answer from its precomputed
+     * neighbour table; a cell counts as adjacent to itself.
      *
      * @param otherCell the cell to compare against
      * @return true if the cells are at most one row and one column apart
      */
     public boolean isAdjacentTo(Cell otherCell) {
+        if (board != null && otherCell.board == board) {
+            return index == otherCell.index || board.areAdjacent(index, otherCell.index);
+        }
         return !((Math.abs(row - otherCell.getRow()) > 1)
                 || (Math.abs(col - otherCell.getCol()) > 1));
     }
@@ -70,6 +92,23 @@ public class Cell {
      * @param structure the new structure (may be null)
      */
     public void setStructure(Structure structure) {
+        if (this.structure != null) {
+            this.structure.placeOn(null);
+        }
         this.structure = structure;
+        if (structure != null) {
+            structure.placeOn(this);
+        }
+        structureChanged();
+    }
+
+    /**
+     * Notifies the owning board that this cell's structure changed in place
+     * (e.g. a tower gained a level or a wall changed phase).
+     */
+    public void structureChanged() {
+        if (board != null) {
+            board.syncCell(this);
+        }
     }
 }
\ No newline at end of file
@@ -1,29 +1,146 @@
 package engine.positions;
 
 import engine.actors.Worker;
+import engine.events.BoardListener;
+import engine.structures.Structure;
+import engine.structures.Wall;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.function.IntConsumer;
 
 /**
- * Abstract representation of the game board, maintaining bidirectional mappings
- * between Workers and their Cells. Provides common placement, movement, and occupancy
- * operations, while deferring board‐specific cell existence and adjacency logic to subclasses.
+ * Abstract representation of the game board, maintaining the placement of Workers
+ * on Cells. Occupancy and structures are mirrored into a primitive {@link BoardState},
+ * a packed {@link BitBoard} on boards of up to 8×8 squares and a
+ * {@link SparseBoardState} on larger ones, so placement, movement, occupancy and
+ * rules queries cost the same on any board size, while board‐specific cell
+ * existence and adjacency logic is deferred to subclasses.
  */
 public abstract class GameBoard {
-    /** Maps each worker to the cell it currently occupies. */
-    protected final Map<Worker, Cell> workerToCell;
+    /** Rules state kept in sync with every worker and structure change. */
+    protected final BoardState state;
 
-    /** Maps each cell to the worker occupying it, if any. */
-    protected final Map<Cell, Worker> cellToWorker;
+    /** Precomputed adjacency shared by all boards of the same dimension. */
+    protected final NeighbourTable neighbours;
+
+    /** Worker in each slot; a worker's slot is its index in this array. */
+    protected final Worker[] workers;
+
+    /** Number of worker slots in use. */
+    protected int workerCount;
+
+    /** Receives every cell change, or {@code null}. */
+    private BoardListener listener;
+
+    /**
+     * Initializes the rules state and the worker slot table.
+     *
+     * @param state the rules state sized for this board
+     */
+    public GameBoard(BoardState state) {
+        this.state = state;
+        this.neighbours = state.getNeighbourTable();
+        this.workers = new Worker[BoardState.MAX_WORKERS];
+    }
+
+    /**
+     * Sets the observer told about every structure change and worker move.
+     *
+     * @param listener the observer, or {@code null} for none
+     */
+    public void setBoardListener(BoardListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the slot assigned to a worker when it was added to this board.
+     *
+     * @param worker the worker to look up
+     * @return the worker's slot, or -1 if the worker is not on this board
+     */
+    public int slotOf(Worker worker) {
+        for (int slot = 0; slot < workerCount; slot++) {
+            if (workers[slot] == worker) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the worker held in a slot.
+     *
+     * @param slot the worker slot
+     * @return the worker in that slot
+     */
+    public Worker getWorker(int slot) {
+        return workers[slot];
+    }
+
+    /**
+     * Returns the number of workers placed on this board.
+     *
+     * @return the worker count
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Returns the rules state backing this board.
+     *
+     * @return the primitive mirror of this board
+     */
+    public BoardState getState() {
+        return state;
+    }
 
     /**
-     * Initializes the internal mappings for worker↔cell relationships.
+     * Returns the packed rules state the search code works on.
+     *
+     * @return the bitboard mirror of this board
+     * @throws IllegalStateException if the board is larger than {@link BitBoard#MAX_DIMENSION}
+     *         squares a side, which only a {@link SparseBoardState} holds
+     */
+    public BitBoard getBitBoard() {
+        if (!(state instanceof BitBoard)) {
+            throw new IllegalStateException("A " + state.getDimension() + "x" + state.getDimension()
+                    + " board has no bitboard; boards up to " + BitBoard.MAX_DIMENSION + "x"
+                    + BitBoard.MAX_DIMENSION + " do");
+        }
+        return (BitBoard) state;
+    }
+
+    /**
+     * Returns the precomputed adjacency of this board. Walking a square's
+     * neighbours by offset, from {@link NeighbourTable#start(int)} to
+     * {@link NeighbourTable#end(int)}, allocates nothing.
+     *
+     * @return the shared neighbour table
+     */
+    public NeighbourTable getNeighbourTable() {
+        return neighbours;
+    }
+
+    /**
+     * Calls {@code action} with the square index of every cell adjacent to a square.
+     *
+     * @param square the reference square index
+     * @param action receives each neighbouring square index
      */
-    public GameBoard() {
-        workerToCell = new HashMap<>();
-        cellToWorker = new HashMap<>();
+    public void forEachNeighbour(int square, IntConsumer action) {
+        neighbours.forEach(square, action);
+    }
+
+    /**
+     * Checks whether two squares touch, including diagonally.
+     *
+     * @param a the first square index
+     * @param b the second square index
+     * @return {@code true} if the squares are neighbours
+     */
+    public boolean areAdjacent(int a, int b) {
+        return neighbours.isAdjacent(a, b);
     }
 
     /**
@@ -33,7 +150,7 @@ public abstract class GameBoard {
      * @return {@code true} if the worker exists on this board, {@code false} otherwise
      */
     public boolean hasWorker(Worker worker) {
-        return workerToCell.containsKey(worker);
+        return slotOf(worker) >= 0;
     }
 
     /**
@@ -43,31 +160,44 @@ public abstract class GameBoard {
      * @return the cell occupied by the worker, or {@code null} if not present
      */
     public Cell getLocationOf(Worker worker) {
-        return workerToCell.get(worker);
+        int slot = slotOf(worker);
+        return slot < 0 ? null : getCell(state.workerSquare(slot));
     }
 
     /**
-     * Moves a worker from its current cell to a new cell, updating both mappings.
+     * Moves a worker from its current cell to a new cell.
      *
      * @param worker the worker to move
      * @param cell   the destination cell
      */
     public void updateLocation(Worker worker, Cell cell) {
-        Cell oldCell = workerToCell.get(worker);
-        cellToWorker.remove(oldCell);
-        workerToCell.put(worker, cell);
-        cellToWorker.put(cell, worker);
+        int slot = slotOf(worker);
+        if (slot < 0) {
+            addWorker(worker, cell);
+            return;
+        }
+        int from = state.moveWorker(slot, cell.getIndex());
+        if (listener != null) {
+            listener.workerMoved(slot, from, cell.getIndex());
+        }
     }
 
     /**
-     * Places a worker on the specified cell, adding to both mappings.
+     * Places a worker on the specified cell, assigning it the next free slot.
      *
      * @param worker the worker to place
      * @param cell   the cell on which to place the worker
      */
     public void addWorker(Worker worker, Cell cell) {
-        workerToCell.put(worker, cell);
-        cellToWorker.put(cell, worker);
+        if (workerCount == workers.length) {
+            throw new IllegalStateException("A board holds at most " + workers.length + " workers");
+        }
+        int slot = workerCount++;
+        workers[slot] = worker;
+        state.placeWorker(slot, cell.getIndex());
+        if (listener != null) {
+            listener.workerMoved(slot, -1, cell.getIndex());
+        }
     }
 
     /**
@@ -77,7 +207,7 @@ public abstract class GameBoard {
      * @return {@code true} if occupied, {@code false} otherwise
      */
     public boolean isCellOccupied(Cell cell) {
-        return cellToWorker.containsKey(cell);
+        return state.isOccupied(cell.getIndex());
     }
 
     /**
@@ -87,9 +217,98 @@ public abstract class GameBoard {
      * @return the occupying worker, or {@code null} if the cell is empty
      */
     public Worker getWorkerAt(Cell cell) {
-        return cellToWorker.get(cell);
+        int slot = state.workerAt(cell.getIndex());
+        return slot < 0 ? null : workers[slot];
+    }
+
+    /**
+     * Checks whether a worker may move onto a cell: adjacent, unoccupied,
+     * wall-free and at most one level higher than its current cell.
+     *
+     * @param worker the worker to move
+     * @param cell   the destination cell
+     * @return {@code true} if the move is legal
+     */
+    public boolean canMove(Worker worker, Cell cell) {
+        int slot = slotOf(worker);
+        return slot >= 0 && state.canMove(state.workerSquare(slot), cell.getIndex());
+    }
+
+    /**
+     * Checks whether a worker may build a tower level or dome on a cell.
+     *
+     * @param worker the building worker
+     * @param cell   the target cell
+     * @return {@code true} if the build is legal
+     */
+    public boolean canBuildTower(Worker worker, Cell cell) {
+        int slot = slotOf(worker);
+        return slot >= 0 && state.canBuildTower(state.workerSquare(slot), cell.getIndex());
+    }
+
+    /**
+     * Checks whether a worker may start or advance a wall on a cell.
+     *
+     * @param worker the building worker
+     * @param cell   the target cell
+     * @return {@code true} if the wall build is legal
+     */
+    public boolean canBuildWall(Worker worker, Cell cell) {
+        int slot = slotOf(worker);
+        return slot >= 0 && state.canBuildWall(state.workerSquare(slot), cell.getIndex());
     }
 
+    /**
+     * Checks whether a worker may break the wall on a cell.
+     *
+     * @param worker the breaking worker
+     * @param cell   the target cell
+     * @return {@code true} if the break is legal
+     */
+    public boolean canBreak(Worker worker, Cell cell) {
+        int slot = slotOf(worker);
+        return slot >= 0 && state.canBreak(state.workerSquare(slot), cell.getIndex());
+    }
+
+    /**
+     * Checks whether a worker has at least one legal move.
+     *
+     * @param worker the worker to check
+     * @return {@code true} if the worker can move somewhere
+     */
+    public boolean hasValidMove(Worker worker) {
+        int slot = slotOf(worker);
+        return slot >= 0 && state.hasMove(slot);
+    }
+
+    /**
+     * Copies a cell's structure into the packed state. Called by {@link Cell}
+     * whenever its structure is replaced or changes level.
+     *
+     * @param cell the cell whose structure changed
+     */
+    void syncCell(Cell cell) {
+        Structure s = cell.getStructure();
+        if (s == null) {
+            state.setSquare(cell.getIndex(), 0, 0);
+        } else if (s instanceof Wall) {
+            state.setSquare(cell.getIndex(), 0, ((Wall) s).getBuildLevel());
+        } else {
+            state.setSquare(cell.getIndex(), s.getLevel(), 0);
+        }
+        if (listener != null) {
+            listener.structureChanged(cell.getIndex());
+        }
+    }
+
+    /**
+     * Returns the cell with the given square index.
+     *
+     * @param index the square index ({@code row * dimension + col})
+     * @return the cell at that index
+     */
+    public abstract Cell getCell(int index);
+
     /**
      * Checks whether this board implementation contains the given cell.
      *
@@ -99,10 +318,19 @@ public abstract class GameBoard {
     public abstract boolean hasCell(Cell cell);
 
     /**
-     * Returns all cells adjacent to the specified cell.
+     * Returns all cells adjacent to the specified cell. This builds a new list
+     * on every call; hot paths should use {@link #forEachNeighbour} or the
+     * {@link #getNeighbourTable() neighbour table} instead.
      *
      * @param workersCell the reference cell
      * @return a list of neighboring cells
      */
-    public abstract ArrayList<Cell> getAdjacentCells(Cell workersCell);
+    public ArrayList<Cell> getAdjacentCells(Cell workersCell) {
+        int square = workersCell.getIndex();
+        ArrayList<Cell> adjacent = new ArrayList<>(neighbours.count(square));
+        for (int i = neighbours.start(square), end = neighbours.end(square); i < end; i++) {
+            adjacent.add(getCell(neighbours.neighbour(i)));
+        }
+        return adjacent;
+    }
 }
@@ -3,121 +3,413 @@
 // File: engine/Positions/GameEngine.java
 package engine.positions;
 
+import engine.action.BuildMode;
 import engine.actors.Player;
 import engine.actors.Worker;
+import engine.events.BoardListener;
+import engine.events.GameListener;
+import engine.events.InputListener;
+import engine.metrics.GodTurnEvent;
+import engine.metrics.SwitchTurnEvent;
+import engine.metrics.TurnCounter;
+import engine.metrics.TurnInputEvent;
+import engine.metrics.TurnMetrics;
+import engine.metrics.TurnStage;
 import engine.structures.Structure;
-import engine.displays.BoardUI;
+import engine.time.ChessClock;
+import engine.time.TimeControl;
+import engine.time.TimingWheel;
+import game.gods.TurnPhase;
+import game.gods.TurnRules;
 
-import javax.swing.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Core engine that manages game flow, turn progression, timers,
- * win conditions, and interactions between model and UI.
+ * Core engine that manages game flow, turn progression, timers and
+ * win conditions. The engine never touches a display: every visible change
+ * is published to the registered {@link GameListener}s, so a game runs
+ * headless when nobody is listening.
  */
 public class GameEngine {
-    private static GameEngine instance;
+    private static final AtomicLong GAME_IDS = new AtomicLong();
+
+    /** Number of this game in the process, for events and logs. */
+    private final long gameId = GAME_IDS.incrementAndGet();
     private final SquareBoard board;
     private final List<Player> players;
     private int currentPlayerIndex;
-    private final BoardUI boardUI;
+    private final List<GameListener> listeners = new ArrayList<>();
     private Worker selectedWorker = null;
     private boolean turnProgress = false;
+    /** Step of the current turn and pending god-power state, packed by {@link TurnRules}. */
+    private int turnState = TurnRules.START;
+    private BuildMode buildMode = BuildMode.NORMAL;
+    private boolean gameOver = false;
+    /** Index of the winning player once the game is over, otherwise -1. */
+    private int winnerIndex = -1;
+    /** Receives every accepted input, or {@code null}; see {@link #setInputListener}. */
+    private InputListener inputListener;
+    private boolean clockRunning = false;
+    /** Zobrist key of side to move, selection, phases and pending god state. */
+    private long turnKey = 0L;
+    /** Board slot of the worker whose selection is keyed into turnKey, or -1. */
+    private int selectedSlot = -1;
+    /** Guards against re-entering {@link #playAutomatedTurn} from an automated player's own inputs. */
+    private boolean playingAutomated = false;
+    /** Whether an error was published for the input being handled. */
+    private boolean inputRejected = false;
 
     // Timer fields
-    private static final int INITIAL_TIME_MS = 5*60*1000; // 15 minutes
-    private final Map<Player, Integer> timeLeft = new HashMap<>();
-    private Timer timer;
+    private TimeControl timeControl = TimeControl.DEFAULT;
+    /** Time left of each player, by player index; charged at turn boundaries. */
+    private ChessClock clock;
+    /** Whether listeners hear about every change of the shown time, or only about turn starts. */
+    private boolean clockTicks = true;
+    /** The one wheel timeout of this game, rescheduled for the next display change or the flag. */
+    private final ClockTick clockTick = new ClockTick();
+    /** Runs clock ticks on the thread that drives this engine, or {@code null}; see {@link #setClockExecutor}. */
+    private Executor clockExecutor;
+    /** Bumped whenever the clock stops, so a tick already handed to the executor is dropped. */
+    private int clockGeneration;
 
     /**
-     * Constructs the GameEngine with board and players, sets up UI and timers.
+     * Constructs the GameEngine with board and players and sets up timers.
      */
     public GameEngine(SquareBoard board, List<Player> players) {
         this.board = board;
         this.players = players;
         this.currentPlayerIndex = 0;
-        // initialize UI
-        this.boardUI = new BoardUI(board);
         // initialize timers for each player
-        for (Player p : players) {
-            timeLeft.put(p, INITIAL_TIME_MS);
+        this.clock = new ChessClock(timeControl, players.size());
+        board.setBoardListener(new BoardListener() {
+            @Override
+            public void structureChanged(int square) {
+                for (int i = 0; i < listeners.size(); i++) {
+                    listeners.get(i).cellChanged(square);
+                }
+            }
+
+            @Override
+            public void workerMoved(int slot, int from, int to) {
+                for (int i = 0; i < listeners.size(); i++) {
+                    listeners.get(i).workerMoved(slot, from, to);
+                }
+            }
+        });
+    }
+
+    /**
+     * Registers a listener for board, status, timer and game-over changes.
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a previously added listener.
+     */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the observer told about every input this game accepts, such as a
+     * game recorder. Set it before the first input so nothing is missed.
+     *
+     * @param inputListener the observer, or {@code null} for none
+     */
+    public void setInputListener(InputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    /**
+     * Sets the executor that runs clock ticks and tasks given to {@link #post}.
+     * The clock is counted down by
+     * the shared {@link TimingWheel}, whose thread only hands each tick to
+     * this executor, so every tick and any resulting loss on time happen on
+     * the thread that also feeds this engine its inputs. It must be set before
+     * {@link #start}: a windowed game passes the Swing event thread, and a
+     * server its event loop. Engines that are never started need none, and
+     * run posted tasks directly on the calling thread.
+     *
+     * @param clockExecutor the engine's thread, as an executor
+     */
+    public void setClockExecutor(Executor clockExecutor) {
+        this.clockExecutor = clockExecutor;
+    }
+
+    /**
+     * Sets the time control, before {@link #start}.
+     *
+     * @param timeControl base time and per-turn bonus of both players
+     */
+    public void setTimeControl(TimeControl timeControl) {
+        if (clockRunning) {
+            throw new IllegalStateException("The clock is already running");
         }
+        this.timeControl = timeControl;
+        this.clock = new ChessClock(timeControl, players.size());
+    }
+
+    public TimeControl getTimeControl() {
+        return timeControl;
     }
 
     /**
-     * Initializes the singleton and starts the game.
+     * Chooses whether listeners are told the time left whenever the shown
+     * value changes, every second and every tenth under ten seconds, or only
+     * when a turn starts. Games nobody watches only need the flag to fall.
+     *
+     * @param clockTicks {@code false} to publish the time at turn starts only
      */
-    public static GameEngine init(SquareBoard board, List<Player> players) {
-        instance = new GameEngine(board, players);
-        instance.start();
-        return instance;
+    public void setClockTicks(boolean clockTicks) {
+        this.clockTicks = clockTicks;
     }
 
     /**
-     * Returns the singleton instance.
+     * Returns a player's time left, counting the running turn.
+     *
+     * @param playerIndex the player
+     * @return milliseconds left, never below zero
      */
-    public static GameEngine getInstance() {
-        return instance;
+    public long getTimeLeft(int playerIndex) {
+        return clock.remainingMillis(playerIndex, System.nanoTime());
     }
 
     /**
-     * Starts UI update and timer for first player.
+     * Publishes the initial board and starts the timer for the first player.
+     * Engines driven purely for simulation may skip this and run unclocked.
+     *
+     * @throws IllegalStateException if no {@link #setClockExecutor clock executor} is set,
+     *                               as clock ticks would then change the game on the wheel's thread
      */
     public void start() {
-        SwingUtilities.invokeLater(() -> {
-            boardUI.updateBoard();
-            startTimerForCurrent();
-        });
+        if (clockExecutor == null) {
+            throw new IllegalStateException("Set a clock executor before starting the clock");
+        }
+        clockRunning = true;
+        fireBoardChanged();
+        startTimerForCurrent(System.nanoTime());
+        playAutomatedTurns();
     }
 
     /**
      * Handles a click on the board at the specified coordinates.
      */
     public void takeTurn(int row, int col) {
-        boardUI.clearError();
-        boardUI.setStatus(getCurrentPlayer().getNAME() + "'s Turn (" + getCurrentPlayer().getId()
-                + ") " + getCurrentPlayer().getGod().getName());
+        TurnInputEvent event = new TurnInputEvent();
+        event.begin();
+        int mover = currentPlayerIndex;
+        boolean over = gameOver;
+        handleClick(row, col);
+        if (event.shouldCommit()) {
+            event.row = row;
+            event.col = col;
+            event.describe(this, mover, over ? "ignored" : gameOver ? "game over"
+                    : inputRejected ? "rejected" : currentPlayerIndex != mover ? "turn ended" : "accepted");
+            event.commit();
+        }
+    }
+
+    private void handleClick(int row, int col) {
+        if (gameOver) return;
         Cell clickedCell = board.getCell(row, col);
+        clearError();
+        if (inputListener != null) inputListener.clicked(clickedCell.getIndex());
+        setStatus(getCurrentPlayer().getNAME() + "'s Turn (" + getCurrentPlayer().getId()
+                + ") " + getCurrentPlayer().getGod().getName());
 
         if (!turnProgress) {
             // select worker phase
-            if (!getCurrentPlayer().hasValidMoves()) {
+            long start = TurnMetrics.start();
+            if (!getCurrentPlayer().hasValidMoves(board)) {
+                TurnMetrics.record(TurnStage.WORKER_SELECTION, start);
                 switchTurn();
-                JOptionPane.showMessageDialog(boardUI,
-                        getCurrentPlayer().getNAME() + " wins!");
-                System.exit(0);
+                endGame(getCurrentPlayer().getNAME() + " wins!");
+                return;
             }
             Worker w = board.getWorkerAt(clickedCell);
             if (w != null && getCurrentPlayer().getWORKERS().contains(w)) {
                 selectedWorker = w;
                 turnProgress = true;
-                boardUI.setStatus(getCurrentPlayer().getNAME() + "'s Turn - Move Phase");
+                selectedSlot = board.slotOf(w);
+                turnKey ^= Zobrist.selected(selectedSlot);
+                setStatus(getCurrentPlayer().getNAME() + "'s Turn - Move Phase");
             } else if (w != null) {
-                boardUI.setError("Not your worker, cannot move");
+                setError("Not your worker, cannot move");
             }
+            TurnMetrics.record(TurnStage.WORKER_SELECTION, start);
         } else {
             // execute move/build
-            getCurrentPlayer().takeTurn(clickedCell, selectedWorker);
-            if (!turnProgress) {
+            GodTurnEvent event = new GodTurnEvent();
+            event.begin();
+            int mover = currentPlayerIndex;
+            TurnPhase phase = getTurnPhase();
+            long start = TurnMetrics.start();
+            getCurrentPlayer().takeTurn(this, clickedCell, selectedWorker);
+            TurnMetrics.record(TurnStage.GOD_POWER, start);
+            if (event.shouldCommit()) {
+                event.fromPhase = phase.name();
+                event.toPhase = getTurnPhase().name();
+                event.describe(this, mover, inputRejected ? "rejected" : "accepted");
+                event.commit();
+            }
+            if (!turnProgress && !gameOver) {
                 switchTurn();
             }
+            fireBoardChanged();
+        }
+        playAutomatedTurns();
+    }
+
+    /**
+     * Skips the optional god-power action currently on offer.
+     */
+    public void skip() {
+        if (gameOver) return;
+        clearError();
+        long start = TurnMetrics.start();
+        boolean skipped = getCurrentPlayer().getGod().skipLogic(this);
+        TurnMetrics.record(TurnStage.GOD_POWER, start);
+        if (skipped) {
+            if (inputListener != null) inputListener.skipped();
+            TurnMetrics.count(TurnCounter.SKIP);
+            withdrawSkip();
+            if (!turnProgress && !gameOver) {
+                switchTurn();
+            }
+        }
+        fireBoardChanged();
+        playAutomatedTurns();
+    }
+
+    /**
+     * Ends the current player's turn on request (the End Turn button) and lets
+     * any automated player that is now to move take its turn.
+     */
+    public void endTurn() {
+        if (gameOver) return;
+        if (inputListener != null) inputListener.turnEnded();
+        switchTurn();
+        fireBoardChanged();
+        playAutomatedTurns();
+    }
+
+    /**
+     * Runs a task on the thread that drives this engine, the one
+     * {@link #setClockExecutor} names, as work done elsewhere must before it
+     * touches the game.
+     *
+     * @param task the task
+     */
+    public void post(Runnable task) {
+        if (clockExecutor == null) {
+            task.run();   // an engine that is never started runs on its caller's thread
+        } else {
+            clockExecutor.execute(task);
+        }
+    }
+
+    /**
+     * Lets automated players take their turns for as long as one of them is to
+     * move between turns. Inputs they feed back into the engine do not recurse
+     * here, and a player that fails to finish its turn hands control back.
+     */
+    public void playAutomatedTurns() {
+        while (playAutomatedTurn()) {
+            // keep going until a human is to move or the game ends
+        }
+    }
+
+    /**
+     * Lets the current player take one turn if it is automated and no turn is
+     * in progress. Drivers that time or log individual turns call this in a loop.
+     *
+     * @return {@code true} if a turn was played and the game continues
+     */
+    public boolean playAutomatedTurn() {
+        if (playingAutomated || gameOver || turnProgress || !getCurrentPlayer().isAutomated()) {
+            return false;
+        }
+        playingAutomated = true;
+        try {
+            Player player = getCurrentPlayer();
+            player.playTurn(this);
+            return !gameOver && getCurrentPlayer() != player;
+        } finally {
+            playingAutomated = false;
         }
     }
 
     /**
      * Checks win condition: worker reaches level 3.
+     *
+     * @return {@code true} if the move won the game
      */
-    public void checkWinCondition(Worker worker) {
+    public boolean checkWinCondition(Worker worker) {
         Structure s = board.getLocationOf(worker).getStructure();
         int lvl = (s != null) ? s.getLevel() : 0;
         if (lvl == 3) {
-            JOptionPane.showMessageDialog(boardUI,
-                    getCurrentPlayer().getNAME() + " wins!");
-            System.exit(0);
+            endGame(getCurrentPlayer().getNAME() + " wins!");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Ends the game in favour of the player to move, stops the clock and
+     * announces the result.
+     */
+    public void endGame(String message) {
+        endGame(message, currentPlayerIndex);
+    }
+
+    /**
+     * Stops both clocks for good without ending the game, as when a hosted
+     * game is abandoned and nobody will move again.
+     */
+    public void stopClock() {
+        clockRunning = false;
+        stopTimer(System.nanoTime());
+    }
+
+    /**
+     * Ends the game because the player to move ran out of time.
+     */
+    public void loseOnTime() {
+        if (gameOver) return;
+        if (inputListener != null) inputListener.timedOut();
+        TurnMetrics.count(TurnCounter.TIMEOUT);
+        endGame(getCurrentPlayer().getNAME() + " ran out of time and loses.",
+                (currentPlayerIndex + 1) % players.size());
+    }
+
+    /**
+     * Ends the game because the player to move resigns, as a computer player
+     * without a legal turn does.
+     */
+    public void resign() {
+        if (gameOver) return;
+        if (inputListener != null) inputListener.resigned();
+        TurnMetrics.count(TurnCounter.RESIGNATION);
+        String loser = getCurrentPlayer().getNAME();
+        switchTurn();
+        endGame(getCurrentPlayer().getNAME() + " wins! " + loser + " resigned.");
+    }
+
+    private void endGame(String message, int winner) {
+        if (gameOver) return;
+        gameOver = true;
+        winnerIndex = winner;
+        if (inputListener != null) inputListener.gameEnded(winner);
+        clockRunning = false;
+        stopTimer(System.nanoTime());
+        withdrawSkip();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).gameOver(message);
         }
     }
 
@@ -125,68 +417,251 @@ public class GameEngine {
      * Switches to next player, resets turn state and timer.
      */
     public void switchTurn() {
-        // stop current timer
-        stopTimer();
+        SwitchTurnEvent event = new SwitchTurnEvent();
+        event.begin();
+        int previous = currentPlayerIndex;
+        // stop current timer; the next one starts at the same instant
+        long now = System.nanoTime();
+        stopTimer(now);
+        if (clockRunning && clock.remainingNanos(currentPlayerIndex, now) <= 0) {
+            // the flag fell before its tick got here
+            loseOnTime();
+            if (event.shouldCommit()) {
+                event.describe(this, previous, "lost on time");
+                event.commit();
+            }
+            return;
+        }
         getCurrentPlayer().setTurnProgress(false);
+        // a turn ended early leaves no god-power state behind
+        setTurnState(TurnRules.START);
+        if (selectedSlot >= 0) {
+            turnKey ^= Zobrist.selected(selectedSlot);
+            selectedSlot = -1;
+        }
+        turnKey ^= Zobrist.side(currentPlayerIndex);
         currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
+        turnKey ^= Zobrist.side(currentPlayerIndex);
         turnProgress = false;
         // update UI status
-        boardUI.setStatus(getCurrentPlayer().getNAME() + "'s Turn - Select Worker");
+        setStatus(getCurrentPlayer().getNAME() + "'s Turn - Select Worker");
         // restart timer for new player
-        startTimerForCurrent();
+        if (clockRunning && !gameOver) startTimerForCurrent(now);
+        TurnMetrics.record(TurnStage.SWITCH_TURN, now);
+        if (event.shouldCommit()) {
+            event.nextPlayerId = getCurrentPlayer().getId();
+            event.describe(this, previous, "switched");
+            event.commit();
+        }
     }
 
     /**
      * Starts or resumes timer for the active player.
      */
-    private void startTimerForCurrent() {
-        Player current = getCurrentPlayer();
-        boardUI.updateTimer(current, formatTime(timeLeft.get(current)));
-        if (timer != null) timer.stop();
-        timer = new Timer(1000, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                int rem = timeLeft.get(current) - 1000;
-                timeLeft.put(current, rem);
-                boardUI.updateTimer(current, formatTime(rem));
-                if (rem <= 0) {
-                    stopTimer();
-                    boardUI.showGameOver(current.getNAME() + " ran out of time and loses.");
-                }
-            }
-        });
-        timer.start();
+    private void startTimerForCurrent(long now) {
+        clock.start(currentPlayerIndex, now);
+        fireTimerChanged(getCurrentPlayer(), clock.remainingMillis(currentPlayerIndex, now));
+        clockTick.generation = clockGeneration;
+        scheduleTick(clock.remainingNanos(currentPlayerIndex, now));
+    }
+
+    /**
+     * Publishes the running clock and ends the game once its flag has fallen.
+     */
+    private void tick() {
+        long left = clock.remainingNanos(currentPlayerIndex, System.nanoTime());
+        if (left <= 0) {
+            fireTimerChanged(getCurrentPlayer(), 0);
+            loseOnTime();
+            return;
+        }
+        if (clockTicks) {
+            fireTimerChanged(getCurrentPlayer(), left / 1_000_000L);
+        }
+        scheduleTick(left);
+    }
+
+    /**
+     * Schedules the next tick: when the flag falls or, if listeners follow
+     * the clock, when the shown time changes, whichever is first.
+     */
+    private void scheduleTick(long left) {
+        long delay = clockTicks ? Math.min(left, ChessClock.nanosToNextChange(left)) : left;
+        TimingWheel.shared().schedule(clockTick, delay);
+    }
+
+    /**
+     * Stops the active timer and charges the turn's time.
+     */
+    private void stopTimer(long now) {
+        clock.stop(now);
+        clockGeneration++;
+        // engines that never started their clock leave the wheel alone
+        if (clockTick.isScheduled()) {
+            TimingWheel.shared().cancel(clockTick);
+        }
+    }
+
+    /**
+     * Returns the 64-bit Zobrist key of the whole game position: structures,
+     * workers, side to move, selected worker, turn phases and pending god-power
+     * state. Both halves are maintained incrementally, so this is a single XOR.
+     */
+    public long getPositionKey() {
+        return board.getState().getKey() ^ turnKey;
+    }
+
+    /**
+     * Returns the state of the turn in progress: its step and any pending
+     * god-power state, packed as {@link TurnRules} describes.
+     */
+    public int getTurnState() {
+        return turnState;
     }
 
     /**
-     * Stops the active timer.
+     * Returns whether the turn in progress moves or builds next.
      */
-    private void stopTimer() {
-        if (timer != null) timer.stop();
+    public TurnPhase getTurnPhase() {
+        return TurnRules.phase(turnState);
     }
 
     /**
-     * Formats milliseconds to MM:SS.
+     * Enters a new turn state, keeping the position key in step and telling
+     * listeners if the phase changed. Gods call this after every step.
      */
-    private String formatTime(int ms) {
-        int secs = ms / 1000;
-        int m = secs / 60;
-        int s = secs % 60;
-        return String.format("%02d:%02d", m, s);
+    public void setTurnState(int state) {
+        TurnPhase phase = getTurnPhase();
+        turnKey ^= TurnRules.key(turnState, currentPlayerIndex) ^ TurnRules.key(state, currentPlayerIndex);
+        turnState = state;
+        if (getTurnPhase() != phase) {
+            firePhaseChanged(getTurnPhase());
+        }
+    }
+
+    public int getCurrentPlayerIndex() {
+        return currentPlayerIndex;
     }
 
     public Player getCurrentPlayer() {
         return players.get(currentPlayerIndex);
     }
 
-    public BoardUI getBoardUI() {
-        return boardUI;
+    /**
+     * Tells all listeners that an input has been handled; the cell events it
+     * caused have already been published as they happened.
+     */
+    public void fireBoardChanged() {
+        long start = TurnMetrics.start();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).boardChanged();
+        }
+        TurnMetrics.record(TurnStage.UI_UPDATE, start);
+    }
+
+    /**
+     * Publishes a god's new turn phase to all listeners.
+     */
+    public void firePhaseChanged(TurnPhase phase) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).phaseChanged(phase);
+        }
+    }
+
+    /**
+     * Publishes a new status line to all listeners. Once the game is over
+     * the result stays on show, so this does nothing.
+     */
+    public void setStatus(String status) {
+        if (gameOver) return;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).statusChanged(status);
+        }
+    }
+
+    /**
+     * Publishes an error for a rejected input to all listeners.
+     */
+    public void setError(String message) {
+        inputRejected = !message.isEmpty();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).errorChanged(message);
+        }
+    }
+
+    /**
+     * Clears any previously published error.
+     */
+    public void clearError() {
+        setError("");
+    }
+
+    /**
+     * Offers the current player the option to skip an optional god-power
+     * action; does nothing once the game is over.
+     */
+    public void offerSkip(String label) {
+        if (gameOver) return;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).skipOffered(label);
+        }
+    }
+
+    /**
+     * Withdraws a previously offered skip.
+     */
+    public void withdrawSkip() {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).skipWithdrawn();
+        }
+    }
+
+    private void fireTimerChanged(Player player, long millis) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).timerChanged(player, millis);
+        }
+    }
+
+    public BuildMode getBuildMode() {
+        return buildMode;
+    }
+
+    /**
+     * Selects what the current player's next build step will do.
+     */
+    public void setBuildMode(BuildMode buildMode) {
+        if (buildMode != this.buildMode && !gameOver && inputListener != null) {
+            inputListener.buildModeChanged(buildMode);
+        }
+        this.buildMode = buildMode;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Returns the winner of a finished game.
+     *
+     * @return the index of the winning player, or -1 while the game is running
+     */
+    public int getWinnerIndex() {
+        return winnerIndex;
+    }
+
+    /** @return the number of this game in the process, as carried by its Flight Recorder events */
+    public long getGameId() {
+        return gameId;
     }
 
     public SquareBoard getBoard() {
         return board;
     }
 
+    public boolean isTurnProgress() {
+        return turnProgress;
+    }
+
     public void setTurnProgress(boolean turnProgress) {
         this.turnProgress = turnProgress;
     }
@@ -195,16 +670,49 @@ public class GameEngine {
         return selectedWorker;
     }
 
+    /**
+     * Returns the board slot of the worker taking the turn in progress, or -1
+     * before one is selected.
+     */
+    public int getSelectedSlot() {
+        return selectedSlot;
+    }
+
     /**
      * Removes the current player from the game and advances
      * the turn index to the next player.
      */
     public void removeCurrentPlayer() {
         players.remove(currentPlayerIndex);
+        clock.remove(currentPlayerIndex);
         currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
     }
 
     public List<Player> getPlayers() {
         return players;
     }
-}
\ No newline at end of file
+
+    /**
+     * Clock tick of this game: expires on the wheel's thread and runs on the
+     * clock executor, unless the clock was stopped in between.
+     */
+    private final class ClockTick extends TimingWheel.Timeout implements Runnable {
+        /** Clock generation the tick was scheduled in. */
+        int generation;
+        /** Generation of the last expiry, read once the executor runs it. */
+        private volatile int fired;
+
+        @Override
+        protected void expire() {
+            fired = generation;
+            clockExecutor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            if (fired == clockGeneration && clockRunning && !gameOver) {
+                tick();
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package engine.positions;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Precomputed adjacency (including diagonals) for every square of a square board.
+ * <p>
+ * Neighbours are stored in compressed-row form: the neighbours of square {@code s}
+ * are {@code neighbour(start(s))} up to, but excluding, {@code neighbour(end(s))}.
+ * Walking them is a plain index loop with no bounds checks and no allocation.
+ * Boards that fit in one {@code long} also get a neighbour bit mask per square.
+ * Tables are immutable, built once per dimension and shared by every board.
+ * </p>
+ */
+public final class NeighbourTable {
+    /** Tables already built, keyed by dimension. */
+    private static final Map<Integer, NeighbourTable> CACHE = new ConcurrentHashMap<>();
+
+    /** Number of rows and columns. */
+    private final int dimension;
+    /** Offset of each square's first neighbour; one extra entry closes the last square. */
+    private final int[] starts;
+    /** Neighbour square indices of all squares, back to back. */
+    private final int[] neighbours;
+    /** Neighbour mask per square, or {@code null} when the board exceeds 64 squares. */
+    private final long[] masks;
+
+    private NeighbourTable(int dimension) {
+        this.dimension = dimension;
+        int squares = dimension * dimension;
+        this.starts = new int[squares + 1];
+        int[] flat = new int[squares * 8];
+        int n = 0;
+        for (int r = 0; r < dimension; r++) {
+            for (int c = 0; c < dimension; c++) {
+                starts[r * dimension + c] = n;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        if (dr == 0 && dc == 0) continue;
+                        int nr = r + dr, nc = c + dc;
+                        if (nr >= 0 && nr < dimension && nc >= 0 && nc < dimension) {
+                            flat[n++] = nr * dimension + nc;
+                        }
+                    }
+                }
+            }
+        }
+        starts[squares] = n;
+        this.neighbours = Arrays.copyOf(flat, n);
+
+        if (squares <= 64) {
+            masks = new long[squares];
+            for (int s = 0; s < squares; s++) {
+                for (int i = starts[s]; i < starts[s + 1]; i++) {
+                    masks[s] |= 1L << neighbours[i];
+                }
+            }
+        } else {
+            masks = null;
+        }
+    }
+
+    /**
+     * Returns the shared table for a board dimension, building it on first use.
+     *
+     * @param dimension the number of rows and columns
+     * @return the neighbour table
+     */
+    public static NeighbourTable forDimension(int dimension) {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("Board dimension must be positive, got " + dimension);
+        }
+        return CACHE.computeIfAbsent(dimension, NeighbourTable::new);
+    }
+
+    /** @return the number of rows and columns */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the offset of a square's first neighbour.
+     *
+     * @param square the reference square
+     * @return the first offset to pass to {@link #neighbour(int)}
+     */
+    public int start(int square) {
+        return starts[square];
+    }
+
+    /**
+     * Returns the offset just past a square's last neighbour.
+     *
+     * @param square the reference square
+     * @return the exclusive end offset
+     */
+    public int end(int square) {
+        return starts[square + 1];
+    }
+
+    /**
+     * Returns the neighbour stored at an offset.
+     *
+     * @param offset an offset between {@link #start(int)} and {@link #end(int)}
+     * @return the neighbouring square index
+     */
+    public int neighbour(int offset) {
+        return neighbours[offset];
+    }
+
+    /**
+     * Returns how many neighbours a square has (3 in a corner, 5 on an edge, 8 inside).
+     *
+     * @param square the reference square
+     * @return the neighbour count
+     */
+    public int count(int square) {
+        return starts[square + 1] - starts[square];
+    }
+
+    /**
+     * Calls {@code action} with every neighbour of a square.
+     *
+     * @param square the reference square
+     * @param action receives each neighbouring square index
+     */
+    public void forEach(int square, IntConsumer action) {
+        for (int i = starts[square], end = starts[square + 1]; i < end; i++) {
+            action.accept(neighbours[i]);
+        }
+    }
+
+    /**
+     * Checks whether two distinct squares touch, including diagonally.
+     *
+     * @param a the first square
+     * @param b the second square
+     * @return {@code true} if {@code b} is a neighbour of {@code a}
+     */
+    public boolean isAdjacent(int a, int b) {
+        if (masks != null) {
+            return ((masks[a] >>> b) & 1L) != 0;
+        }
+        for (int i = starts[a], end = starts[a + 1]; i < end; i++) {
+            if (neighbours[i] == b) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the neighbour mask of a square on a board of at most 64 squares.
+     *
+     * @param square the reference square
+     * @return the mask of neighbouring squares
+     */
+    public long mask(int square) {
+        return masks[square];
+    }
+}
@@ -0,0 +1,245 @@
+package engine.positions;
+
+import java.util.Arrays;
+
+/**
+ * Rules state of a board too large for one {@link BitBoard} mask, up to
+ * 128×128 squares.
+ * <p>
+ * Almost every square of a big board stays bare, so structures are kept in
+ * an open-addressing hash table from square to {@link #structure} code that
+ * grows with the number of squares ever built on, not with the board. Worker
+ * squares live in one small array, which is also how occupancy is answered:
+ * a board never holds more than {@value BoardState#MAX_WORKERS} workers.
+ * Adjacency comes from the shared {@link NeighbourTable}, the one structure
+ * that is dense, since it is read by every rules query. Every query touches
+ * only the squares it is about.
+ * </p>
+ */
+public class SparseBoardState implements BoardState {
+    /** Largest supported board side; square indices then fit in 14 bits. */
+    public static final int MAX_DIMENSION = 128;
+
+    /** Marks a free hash slot; square indices are never negative. */
+    private static final int FREE = -1;
+
+    /** Number of rows and columns. */
+    private final int dimension;
+    /** Shared adjacency for this dimension. */
+    private final NeighbourTable table;
+
+    /** Hash table keys: the squares that have ever held a structure, or {@link #FREE}. */
+    private int[] squares = new int[16];
+    /** Hash table values: the structure code of each key's square. */
+    private byte[] codes = new byte[16];
+    /** Number of keys in the hash table. */
+    private int size;
+
+    /** Square of each worker slot, or -1 if the slot is empty. */
+    private final int[] workerSquares = new int[MAX_WORKERS];
+    /** Number of worker slots in use. */
+    private int workerCount;
+    /** Zobrist key of the structures and workers, updated on every mutation. */
+    private long key;
+
+    /**
+     * Creates an empty board.
+     *
+     * @param dimension the number of rows and columns (1–{@value #MAX_DIMENSION})
+     * @throws IllegalArgumentException if the dimension is out of range
+     */
+    public SparseBoardState(int dimension) {
+        if (dimension < 1 || dimension > MAX_DIMENSION) {
+            throw new IllegalArgumentException("Boards support dimensions 1-" + MAX_DIMENSION
+                    + ", got " + dimension);
+        }
+        this.dimension = dimension;
+        this.table = NeighbourTable.forDimension(dimension);
+        Arrays.fill(squares, FREE);
+        Arrays.fill(workerSquares, -1);
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    @Override
+    public NeighbourTable getNeighbourTable() {
+        return table;
+    }
+
+    // ----- structures -----
+
+    @Override
+    public int structure(int square) {
+        int at = find(square);
+        return squares[at] == FREE ? 0 : codes[at];
+    }
+
+    @Override
+    public int height(int square) {
+        int code = structure(square);
+        return code > 4 ? 0 : code;
+    }
+
+    @Override
+    public int wallLevel(int square) {
+        int code = structure(square);
+        return code > 4 ? code - 4 : 0;
+    }
+
+    @Override
+    public void setSquare(int square, int height, int wallLevel) {
+        int at = find(square);
+        int old = squares[at] == FREE ? 0 : codes[at];
+        int code = wallLevel > 0 ? 4 + wallLevel : height;
+        key ^= Zobrist.height(old > 4 ? 0 : old, square) ^ Zobrist.height(height, square)
+                ^ Zobrist.wall(old > 4 ? old - 4 : 0, square) ^ Zobrist.wall(wallLevel, square);
+        if (squares[at] == FREE) {
+            if (code == 0) {
+                return;
+            }
+            // a square that loses its structure keeps its entry with code 0,
+            // so entries are never removed and probing needs no tombstones
+            squares[at] = square;
+            size++;
+        }
+        codes[at] = (byte) code;
+        if (2 * size > squares.length) {
+            grow();
+        }
+    }
+
+    /** @return the number of squares that have held a structure */
+    public int getBuiltSquareCount() {
+        return size;
+    }
+
+    /** @return the hash slot holding a square, or the free slot where it belongs */
+    private int find(int square) {
+        int mask = squares.length - 1;
+        int at = (square * 0x9E3779B1) >>> 16 & mask;
+        while (squares[at] != FREE && squares[at] != square) {
+            at = (at + 1) & mask;
+        }
+        return at;
+    }
+
+    private void grow() {
+        int[] oldSquares = squares;
+        byte[] oldCodes = codes;
+        squares = new int[oldSquares.length * 2];
+        codes = new byte[oldCodes.length * 2];
+        Arrays.fill(squares, FREE);
+        for (int i = 0; i < oldSquares.length; i++) {
+            if (oldSquares[i] != FREE) {
+                int at = find(oldSquares[i]);
+                squares[at] = oldSquares[i];
+                codes[at] = oldCodes[i];
+            }
+        }
+    }
+
+    // ----- workers -----
+
+    @Override
+    public void placeWorker(int slot, int square) {
+        if (slot >= workerCount) {
+            workerCount = slot + 1;
+        }
+        workerSquares[slot] = square;
+        key ^= Zobrist.worker(slot, square);
+    }
+
+    @Override
+    public int moveWorker(int slot, int square) {
+        int from = workerSquares[slot];
+        if (from >= 0) {
+            key ^= Zobrist.worker(slot, from);
+        }
+        workerSquares[slot] = square;
+        key ^= Zobrist.worker(slot, square);
+        return from;
+    }
+
+    @Override
+    public int workerSquare(int slot) {
+        return workerSquares[slot];
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    @Override
+    public int workerAt(int square) {
+        for (int slot = 0; slot < workerCount; slot++) {
+            if (workerSquares[slot] == square) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isOccupied(int square) {
+        return workerAt(square) >= 0;
+    }
+
+    @Override
+    public long getKey() {
+        return key;
+    }
+
+    // ----- rules -----
+
+    @Override
+    public boolean canMove(int from, int to) {
+        if (!isAdjacent(from, to) || isOccupied(to)) {
+            return false;
+        }
+        int code = structure(to);
+        return code <= 4 && code <= height(from) + 1;
+    }
+
+    @Override
+    public boolean canBuildTower(int from, int to) {
+        return isAdjacent(from, to) && !isOccupied(to) && height(to) < 4;
+    }
+
+    @Override
+    public boolean canBuildWall(int from, int to) {
+        if (!isAdjacent(from, to) || isOccupied(to)) {
+            return false;
+        }
+        int code = structure(to);
+        return code == 0 || code == 5;
+    }
+
+    @Override
+    public boolean canBreak(int from, int to) {
+        return isAdjacent(from, to) && !isOccupied(to) && structure(to) > 4;
+    }
+
+    @Override
+    public boolean hasMove(int slot) {
+        int from = workerSquares[slot];
+        if (from < 0) {
+            return false;
+        }
+        for (int i = table.start(from), end = table.end(from); i < end; i++) {
+            if (canMove(from, table.neighbour(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return {@code true} if two distinct squares touch, including diagonally */
+    private boolean isAdjacent(int a, int b) {
+        int dr = a / dimension - b / dimension, dc = a % dimension - b % dimension;
+        return a != b && dr >= -1 && dr <= 1 && dc >= -1 && dc <= 1;
+    }
+}
@@ -1,63 +1,60 @@
 // File: src/engine/Positions/SquareBoard.java
 package engine.positions;
 
-import java.util.ArrayList;
-
 /**
  * A concrete square-grid implementation of {@link GameBoard}.
  * <p>
- * Initializes a two-dimensional array of {@link Cell cells} of the given dimension,
- * and provides methods to retrieve a cell by coordinates, check cell existence,
- * list all adjacent neighbors of a cell, and build/break walls.
+ * Keeps a flat, row-major array of {@link Cell cells} of the given dimension,
+ * and provides methods to retrieve a cell by coordinates or square index and check
+ * cell existence. Adjacency comes from the shared {@link NeighbourTable} and rules
+ * state is mirrored into the {@link BoardState} held by {@link GameBoard}: a packed
+ * {@link BitBoard} up to {@value BitBoard#MAX_DIMENSION}×{@value BitBoard#MAX_DIMENSION}
+ * squares and a {@link SparseBoardState} above that, up to
+ * {@value SparseBoardState#MAX_DIMENSION}×{@value SparseBoardState#MAX_DIMENSION}.
+ * Cells are created the first time they are asked for, so a big board only
+ * holds objects for the squares play has reached.
  * </p>
  */
 public class SquareBoard extends GameBoard {
-    /** Underlying 2D array representing the board cells. */
-    private final Cell[][] grid;
+    /** Number of rows and columns. */
+    private final int dimension;
+    /** Board cells in row-major order, indexed by square index; {@code null} until first asked for. */
+    private final Cell[] grid;
 
     /**
-     * Constructs an n×n SquareBoard, creating a Cell for each coordinate pair.
+     * Constructs an empty n×n SquareBoard.
      *
      * @param dimension the number of rows and columns
+     * @throws IllegalArgumentException if the dimension exceeds {@link SparseBoardState#MAX_DIMENSION}
      */
     public SquareBoard(int dimension) {
-        super();
-        grid = new Cell[dimension][dimension];
-        for (int i = 0; i < dimension; i++) {
-            for (int j = 0; j < dimension; j++) {
-                grid[i][j] = new Cell(i, j);
-            }
-        }
+        super(dimension <= BitBoard.MAX_DIMENSION ? new BitBoard(dimension) : new SparseBoardState(dimension));
+        this.dimension = dimension;
+        grid = new Cell[dimension * dimension];
     }
 
     /** Returns the Cell at (row,col). */
     public Cell getCell(int row, int col) {
-        return grid[row][col];
+        return getCell(row * dimension + col);
     }
 
     @Override
-    public boolean hasCell(Cell cell) {
-        int r = cell.getRow(), c = cell.getCol();
-        return r >= 0 && r < grid.length && c >= 0 && c < grid.length;
+    public Cell getCell(int index) {
+        Cell cell = grid[index];
+        if (cell == null) {
+            cell = new Cell(index / dimension, index % dimension, index, this);
+            grid[index] = cell;
+        }
+        return cell;
     }
 
     @Override
-    public ArrayList<Cell> getAdjacentCells(Cell workersCell) {
-        ArrayList<Cell> adjacent = new ArrayList<>();
-        int row = workersCell.getRow(), col = workersCell.getCol();
-
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                if (dr == 0 && dc == 0) continue;
-                int nr = row + dr, nc = col + dc;
-                if (nr >= 0 && nr < grid.length && nc >= 0 && nc < grid.length) {
-                    adjacent.add(grid[nr][nc]);
-                }
-            }
-        }
-        return adjacent;
+    public boolean hasCell(Cell cell) {
+        int r = cell.getRow(), c = cell.getCol();
+        return r >= 0 && r < dimension && c >= 0 && c < dimension;
     }
+
     public int getDimension() {
-        return grid.length;
+        return dimension;
     }
 }
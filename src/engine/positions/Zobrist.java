@@ -0,0 +1,120 @@
+package engine.positions;
+
+import java.util.SplittableRandom;
+
+/**
+ * Fixed random keys for Zobrist hashing of game positions.
+ * <p>
+ * A position key is the XOR of one key per present feature: each square's
+ * height and wall phase, each worker slot's square, the side to move, the
+ * selected worker, each player's turn phase and any pending god-power state.
+ * Because XOR is its own inverse, every mutation updates a key by XOR-ing the
+ * old feature out and the new one in; nothing is ever recomputed from scratch.
+ * Keys come from a fixed seed so they are identical across runs and machines.
+ * </p>
+ * Squares of an 8×8 board have tabled keys. Squares beyond those, on the
+ * larger boards of {@link SparseBoardState}, get keys computed by mixing the
+ * feature's tabled key with the square index, so no table grows with the board.
+ */
+public final class Zobrist {
+    /** Largest number of squares with keys (an 8×8 board). */
+    public static final int MAX_SQUARES = 64;
+    /** Largest number of players with side-to-move and phase keys. */
+    public static final int MAX_PLAYERS = 4;
+
+    private static final long[][] HEIGHT = new long[5][MAX_SQUARES];
+    private static final long[][] WALL = new long[3][MAX_SQUARES];
+    private static final long[][] WORKER = new long[BoardState.MAX_WORKERS][MAX_SQUARES];
+    private static final long[] SIDE = new long[MAX_PLAYERS];
+    private static final long[] BUILD_PHASE = new long[MAX_PLAYERS];
+    private static final long[] SELECTED = new long[BoardState.MAX_WORKERS];
+    private static final long[] MOVED_FROM = new long[MAX_SQUARES];
+    private static final long[] FIRST_BUILD = new long[MAX_SQUARES];
+    private static final long EXTRA_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5A27_0121_1FEEDL);
+        // level 0 and wall phase 0 keep a zero key so an empty board hashes to 0
+        for (int level = 1; level < HEIGHT.length; level++) fill(HEIGHT[level], random);
+        for (int level = 1; level < WALL.length; level++) fill(WALL[level], random);
+        for (long[] slot : WORKER) fill(slot, random);
+        // player 0 to move and MOVE phase are the zero state as well
+        for (int p = 1; p < MAX_PLAYERS; p++) SIDE[p] = random.nextLong();
+        fill(BUILD_PHASE, random);
+        fill(SELECTED, random);
+        fill(MOVED_FROM, random);
+        fill(FIRST_BUILD, random);
+        EXTRA_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    private static void fill(long[] keys, SplittableRandom random) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Returns a feature's key for a square: the tabled key on an 8×8 board,
+     * otherwise a mix of the feature's first tabled key and the square.
+     */
+    private static long key(long[] keys, int square) {
+        if (square < MAX_SQUARES) {
+            return keys[square];
+        }
+        if (keys[1] == 0) {
+            return 0;   // the zero-key features stay zero on every square
+        }
+        long z = keys[1] + square * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** @return the key for a square at a tower height (0–4; 0 is the zero key) */
+    public static long height(int level, int square) {
+        return key(HEIGHT[level], square);
+    }
+
+    /** @return the key for a square at a wall phase (0–2; 0 is the zero key) */
+    public static long wall(int level, int square) {
+        return key(WALL[level], square);
+    }
+
+    /** @return the key for a worker slot standing on a square */
+    public static long worker(int slot, int square) {
+        return key(WORKER[slot], square);
+    }
+
+    /** @return the key for a player being the side to move (player 0 is the zero key) */
+    public static long side(int player) {
+        return SIDE[player];
+    }
+
+    /** @return the key for a player's god being in its BUILD phase */
+    public static long buildPhase(int player) {
+        return BUILD_PHASE[player];
+    }
+
+    /** @return the key for a worker slot being selected for the current turn */
+    public static long selected(int slot) {
+        return SELECTED[slot];
+    }
+
+    /** @return the key for a pending second move that may not return to a square (Artemis) */
+    public static long movedFrom(int square) {
+        return key(MOVED_FROM, square);
+    }
+
+    /** @return the key for a pending second build that may not reuse a square (Demeter) */
+    public static long firstBuild(int square) {
+        return key(FIRST_BUILD, square);
+    }
+
+    /** @return the key for a pending optional extra move (Triton) */
+    public static long extraMove() {
+        return EXTRA_MOVE;
+    }
+}
@@ -7,6 +7,7 @@ import java.awt.*;
  * Domes cannot be built upon or moved onto.
  */
 public class Dome extends Structure {
+    private static final Color COLOR = new Color(128, 0, 128);
 
     /**
      * Constructs a Dome with structure type DOME and level 4.
@@ -32,6 +33,6 @@ public class Dome extends Structure {
      */
     @Override
     public Color getColor() {
-        return new Color(128, 0, 128);
+        return COLOR;
     }
 }
\ No newline at end of file
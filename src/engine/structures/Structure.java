@@ -1,5 +1,7 @@
 package engine.structures;
 
+import engine.positions.Cell;
+
 import java.awt.*;
 
 /**
@@ -12,6 +14,8 @@ public abstract class Structure {
     private final StructureType type;
     /** The level of the structure, from 0 (empty) to 4 (dome). */
     private int level;
+    /** The cell this structure stands on, notified whenever the level changes. */
+    private Cell cell;
 
     /**
      * Constructs a structure with the given type and level.
@@ -24,6 +28,24 @@ public abstract class Structure {
         this.level = level;
     }
 
+    /**
+     * Records the cell this structure stands on. Called by {@link Cell#setStructure}.
+     *
+     * @param cell the owning cell, or {@code null} when removed
+     */
+    public void placeOn(Cell cell) {
+        this.cell = cell;
+    }
+
+    /**
+     * Tells the owning cell, if any, that this structure's level changed.
+     */
+    private void levelChanged() {
+        if (cell != null) {
+            cell.structureChanged();
+        }
+    }
+
     /**
      * Determines whether this structure can be built upon.
      * Only empty cells or tower levels below 3 are buildable.
@@ -59,6 +81,7 @@ public abstract class Structure {
     public void incrementLevel() {
         if (level < 4) {
             this.level += 1;
+            levelChanged();
         }
     }
 
@@ -106,11 +129,13 @@ public abstract class Structure {
     public void buildWallPhase() {
         if (isWall() && level < 2) {
             level++;
+            levelChanged();
         }
     }
     public void breakWallPhase() {
         if (isWall() && level > 0) {
             level--;
+            levelChanged();
         }
     }
 }
\ No newline at end of file
@@ -7,6 +7,9 @@ import java.awt.*;
  * Each level has a unique color and label ("L1", "L2", "L3").
  */
 public class Tower extends Structure {
+    private static final Color LEVEL1_COLOR = new Color(173, 216, 230); // Light Blue
+    private static final Color LEVEL2_COLOR = new Color(100, 149, 237); // Cornflower Blue
+    private static final Color LEVEL3_COLOR = new Color(25, 25, 112);   // Midnight Blue
 
     /**
      * Constructs a Tower structure at the specified level.
@@ -36,11 +39,11 @@ public class Tower extends Structure {
     public Color getColor() {
         switch (getLevel()) {
             case 1:
-                return new Color(173, 216, 230); // Light Blue
+                return LEVEL1_COLOR;
             case 2:
-                return new Color(100, 149, 237); // Cornflower Blue
+                return LEVEL2_COLOR;
             case 3:
-                return new Color(25, 25, 112);   // Midnight Blue
+                return LEVEL3_COLOR;
             default:
                 return Color.LIGHT_GRAY;         // Fallback
         }
@@ -4,6 +4,7 @@ import java.awt.*;
 
 public class Wall extends Structure {
     private static final int MAX_LEVEL = 2;
+    private static final Color NO_WALL_COLOR = new Color(0, 0, 0, 0); // fully transparent
     public Wall () {
         super(StructureType.WALL, 0);
 
@@ -28,7 +29,7 @@ public class Wall extends Structure {
                 return Color.DARK_GRAY;
             default:
                 // no wall
-                return new Color(0, 0, 0, 0); // fully transparent
+                return NO_WALL_COLOR;
         }
     }
 
@@ -0,0 +1,143 @@
+package engine.time;
+
+import java.util.Arrays;
+
+/**
+ * Chess clock of one game: the time left of every player, charged from
+ * {@link System#nanoTime} readings taken when a turn starts and ends.
+ * <p>
+ * Only turn boundaries change the clock, so nothing is lost between display
+ * ticks or when the thread that reads it stalls: the time left is always
+ * the stored value minus the time since the running turn started. Callers
+ * pass the reading in, so ending one turn and starting the next use the same
+ * instant. The state is a few primitives and no method allocates.
+ * </p>
+ */
+public final class ChessClock {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final ClockMode mode;
+    private final long bonusNanos;
+    /** Nanoseconds left of each player at the start of their running or next turn. */
+    private long[] left;
+    private int players;
+    /** The player whose turn is being timed, or -1. */
+    private int running = -1;
+    private long turnStart;
+
+    /**
+     * Creates a stopped clock with the base time on every side.
+     *
+     * @param control the time control
+     * @param players the number of players
+     */
+    public ChessClock(TimeControl control, int players) {
+        this.mode = control.getMode();
+        this.bonusNanos = control.getBonusMillis() * NANOS_PER_MILLI;
+        this.left = new long[players];
+        this.players = players;
+        Arrays.fill(left, control.getBaseMillis() * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Starts timing a player's turn, ending the running turn first.
+     *
+     * @param player the player to move
+     * @param now    the current {@link System#nanoTime}
+     */
+    public void start(int player, long now) {
+        stop(now);
+        running = player;
+        turnStart = now;
+    }
+
+    /**
+     * Ends the running turn, if any: charges its time and adds the increment
+     * or gives back the delay, unless the flag fell during the turn.
+     *
+     * @param now the current {@link System#nanoTime}
+     */
+    public void stop(long now) {
+        if (running < 0) {
+            return;
+        }
+        long used = now - turnStart;
+        long rest = left[running] - used;
+        if (rest > 0) {
+            if (mode == ClockMode.FISCHER) {
+                rest += bonusNanos;
+            } else if (mode == ClockMode.BRONSTEIN) {
+                rest += Math.min(used, bonusNanos);
+            }
+        }
+        left[running] = rest;
+        running = -1;
+    }
+
+    /** @return the player whose turn is timed, or -1 while the clock is stopped */
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     * Returns a player's time left at the given instant; negative once the
+     * flag has fallen.
+     *
+     * @param player the player
+     * @param now    the current {@link System#nanoTime}
+     * @return nanoseconds left
+     */
+    public long remainingNanos(int player, long now) {
+        return player == running ? left[player] - (now - turnStart) : left[player];
+    }
+
+    /**
+     * Returns a player's time left in whole milliseconds, rounded down and
+     * never below zero.
+     *
+     * @param player the player
+     * @param now    the current {@link System#nanoTime}
+     * @return milliseconds left
+     */
+    public long remainingMillis(int player, long now) {
+        return Math.max(0, remainingNanos(player, now) / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Removes a player's clock; later players move down one index.
+     *
+     * @param player the player leaving the game, who must not be running
+     */
+    public void remove(int player) {
+        System.arraycopy(left, player + 1, left, player, players - player - 1);
+        players--;
+        if (running > player) {
+            running--;
+        }
+    }
+
+    /**
+     * Returns the time until {@link #format} shows a different value for a
+     * clock counting down from the given time: a second, or a tenth once
+     * under ten seconds.
+     *
+     * @param nanos the time left, above zero
+     * @return nanoseconds until the shown value changes
+     */
+    public static long nanosToNextChange(long nanos) {
+        long step = nanos <= 10_000 * NANOS_PER_MILLI ? 100 * NANOS_PER_MILLI : 1000 * NANOS_PER_MILLI;
+        return (nanos - 1) % step + 1;
+    }
+
+    /**
+     * Formats a time left as {@code MM:SS}, with tenths under ten seconds.
+     *
+     * @param millis milliseconds left
+     * @return for example {@code "04:59"} or {@code "00:09.7"}
+     */
+    public static String format(long millis) {
+        long secs = millis / 1000;
+        String time = String.format("%02d:%02d", secs / 60, secs % 60);
+        return millis < 10_000 ? time + "." + millis % 1000 / 100 : time;
+    }
+}
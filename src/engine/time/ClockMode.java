@@ -0,0 +1,50 @@
+package engine.time;
+
+/**
+ * Enum representing how a {@link ChessClock} rewards a player for each
+ * completed turn.
+ */
+public enum ClockMode {
+    /** No bonus: the base time is all a player gets for the whole game. */
+    SUDDEN_DEATH("Sudden Death"),
+
+    /** Fischer increment: a fixed bonus is added after every turn. */
+    FISCHER("Increment"),
+
+    /**
+     * Bronstein delay: after every turn the time it took is given back, up to
+     * the delay, so quick turns cost nothing and no turn gains time.
+     */
+    BRONSTEIN("Delay");
+
+    /** Human-readable label for the mode. */
+    private final String label;
+
+    /**
+     * Constructs a ClockMode with the given label.
+     *
+     * @param label the display label for the mode
+     */
+    ClockMode(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label for this clock mode.
+     *
+     * @return the mode label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the label when the enum is converted to a string.
+     *
+     * @return the label string
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,80 @@
+package engine.time;
+
+/**
+ * Immutable time control of a game: the base time each player starts with
+ * and the bonus a {@link ClockMode} grants per turn.
+ */
+public final class TimeControl {
+    /** Five minutes each for the whole game, the control of every game unless another is chosen. */
+    public static final TimeControl DEFAULT = new TimeControl(5 * 60 * 1000L, ClockMode.SUDDEN_DEATH, 0);
+
+    private final long baseMillis;
+    private final ClockMode mode;
+    private final long bonusMillis;
+
+    /**
+     * @param baseMillis  the time each player starts with, above 0
+     * @param mode        how turns are rewarded
+     * @param bonusMillis the increment or delay per turn; ignored in sudden death
+     */
+    public TimeControl(long baseMillis, ClockMode mode, long bonusMillis) {
+        if (baseMillis <= 0 || bonusMillis < 0) {
+            throw new IllegalArgumentException("Invalid time control " + baseMillis + " ms, " + bonusMillis + " ms");
+        }
+        this.baseMillis = baseMillis;
+        this.mode = mode;
+        this.bonusMillis = mode == ClockMode.SUDDEN_DEATH ? 0 : bonusMillis;
+    }
+
+    /**
+     * Parses the usual notation: {@code "5"} for five minutes sudden death,
+     * {@code "3+2"} for three minutes with a two-second increment and
+     * {@code "3d2"} for three minutes with a two-second delay. Minutes and
+     * seconds may have decimals, as in {@code "0.5+0.5"}.
+     *
+     * @param text the time control
+     * @return the parsed control
+     * @throws IllegalArgumentException if the text is not in that form
+     */
+    public static TimeControl parse(String text) {
+        int plus = text.indexOf('+');
+        int split = plus >= 0 ? plus : text.indexOf('d');
+        try {
+            long base = Math.round(Double.parseDouble(split >= 0 ? text.substring(0, split) : text) * 60_000);
+            if (split < 0) {
+                return new TimeControl(base, ClockMode.SUDDEN_DEATH, 0);
+            }
+            long bonus = Math.round(Double.parseDouble(text.substring(split + 1)) * 1000);
+            return new TimeControl(base, plus >= 0 ? ClockMode.FISCHER : ClockMode.BRONSTEIN, bonus);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Time control must look like 5, 3+2 or 3d2: " + text);
+        }
+    }
+
+    public long getBaseMillis() {
+        return baseMillis;
+    }
+
+    public ClockMode getMode() {
+        return mode;
+    }
+
+    public long getBonusMillis() {
+        return bonusMillis;
+    }
+
+    /**
+     * Returns the control in the notation {@link #parse} reads.
+     *
+     * @return for example {@code "3+2"}
+     */
+    @Override
+    public String toString() {
+        String base = baseMillis % 60_000 == 0 ? Long.toString(baseMillis / 60_000) : Double.toString(baseMillis / 60_000.0);
+        if (mode == ClockMode.SUDDEN_DEATH) {
+            return base;
+        }
+        String bonus = bonusMillis % 1000 == 0 ? Long.toString(bonusMillis / 1000) : Double.toString(bonusMillis / 1000.0);
+        return base + (mode == ClockMode.FISCHER ? "+" : "d") + bonus;
+    }
+}
@@ -0,0 +1,241 @@
+package engine.time;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical hashed timing wheel: one thread that fires every scheduled
+ * {@link Timeout} of a process at its deadline, however many there are.
+ * <p>
+ * Time advances in fixed ticks. The wheel has {@value #LEVELS} levels of
+ * {@value #SLOTS} slots; level {@code L} holds the timeouts due between
+ * {@code 64^L} and {@code 64^(L+1)} ticks ahead, hashed by deadline into a
+ * slot. Each tick expires the one level-0 slot it reaches, and whenever a
+ * level wraps around, the next level's current slot is cascaded down into
+ * the levels below. Scheduling and cancelling unlink or link one node, so
+ * both are O(1), and a tick touches only the timeouts due in it plus the
+ * ones cascading. With 10 ms ticks the levels span 0.64 s, 41 s, 44 min
+ * and 46 h; deadlines further out are parked in the top level and cascade
+ * again until they come within range.
+ * </p>
+ * <p>
+ * Timeouts are intrusive list nodes that callers allocate once and
+ * reschedule as often as they like, so the wheel allocates nothing per
+ * timeout. {@link Timeout#expire} runs on the wheel's thread and must return
+ * quickly, typically by handing work to the thread that owns the timed
+ * object. The thread sleeps while no timeout is scheduled.
+ * </p>
+ */
+public final class TimingWheel {
+    /** Tick of the {@link #shared()} wheel. */
+    public static final long DEFAULT_TICK_NANOS = 10_000_000L;
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private static TimingWheel shared;
+
+    private final long tickNanos;
+    private final long origin = System.nanoTime();
+    private final Thread thread;
+    /** First timeout of every slot, or {@code null}; all fields below are guarded by {@code this}. */
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS];
+    /** Next tick to process. */
+    private long tick;
+    /** Number of scheduled timeouts. */
+    private int size;
+
+    /**
+     * A deadline on a {@link TimingWheel}. Subclass it, allocate it once and
+     * {@link TimingWheel#schedule} it again whenever a new deadline is due.
+     */
+    public abstract static class Timeout {
+        private Timeout prev;
+        private Timeout next;
+        /** Next timeout due in the same pass; apart from {@code next} so rescheduling cannot break the chain. */
+        private Timeout nextDue;
+        private int level = -1;
+        private int slot;
+        private long deadline;
+
+        /**
+         * Called on the wheel's thread once the deadline has passed. A
+         * timeout cancelled or rescheduled by another thread just as it came
+         * due may still see this call once.
+         */
+        protected abstract void expire();
+
+        /** @return whether the timeout is waiting to expire */
+        public final boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+
+    /**
+     * Creates and starts a wheel.
+     *
+     * @param tickNanos the tick length, which is also the precision of deadlines
+     * @param name      the name of the wheel's daemon thread
+     */
+    public TimingWheel(long tickNanos, String name) {
+        this.tickNanos = tickNanos;
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the process-wide wheel with {@value #DEFAULT_TICK_NANOS} ns ticks,
+     * starting it on first use.
+     *
+     * @return the shared wheel
+     */
+    public static synchronized TimingWheel shared() {
+        if (shared == null) {
+            shared = new TimingWheel(DEFAULT_TICK_NANOS, "santorini-clock");
+        }
+        return shared;
+    }
+
+    /**
+     * Schedules a timeout, replacing its current deadline if it has one.
+     * It expires within one tick after the delay.
+     *
+     * @param timeout    the timeout
+     * @param delayNanos the time from now until it is due
+     */
+    public void schedule(Timeout timeout, long delayNanos) {
+        long deadline = (System.nanoTime() - origin + Math.max(0, delayNanos) + tickNanos - 1) / tickNanos;
+        synchronized (this) {
+            if (timeout.isScheduled()) {
+                unlink(timeout);
+            } else if (size++ == 0) {
+                // nothing was due, so no tick was processed while the thread slept
+                tick = Math.max(tick, (System.nanoTime() - origin) / tickNanos);
+                LockSupport.unpark(thread);
+            }
+            timeout.deadline = deadline;
+            place(timeout);
+        }
+    }
+
+    /**
+     * Cancels a timeout if it is scheduled.
+     *
+     * @param timeout the timeout
+     * @return {@code true} if it was waiting to expire
+     */
+    public synchronized boolean cancel(Timeout timeout) {
+        if (!timeout.isScheduled()) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /** @return the number of scheduled timeouts */
+    public synchronized int size() {
+        return size;
+    }
+
+    private void run() {
+        while (true) {
+            Timeout expired = null;
+            long now = (System.nanoTime() - origin) / tickNanos;
+            synchronized (this) {
+                while (size > 0 && tick <= now) {
+                    expired = advance(expired);
+                }
+            }
+            for (Timeout t = expired; t != null; ) {
+                Timeout next = t.nextDue;
+                t.nextDue = null;
+                t.expire();
+                t = next;
+            }
+            boolean idle;
+            long wait;
+            synchronized (this) {
+                idle = size == 0;
+                wait = origin + tick * tickNanos - System.nanoTime();
+            }
+            // a schedule() after this point unparks, so the thread cannot miss it
+            if (idle) {
+                LockSupport.park(this);
+            } else if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+
+    /**
+     * Processes the next tick: cascades the levels that wrap around and
+     * unlinks every timeout due.
+     *
+     * @param expired timeouts already due, chained through {@code nextDue}
+     * @return the chain with this tick's timeouts added
+     */
+    private Timeout advance(Timeout expired) {
+        for (int level = 1; level < LEVELS && (tick & ((1L << SLOT_BITS * level) - 1)) == 0; level++) {
+            int index = (int) (tick >>> SLOT_BITS * level) & SLOT_MASK;
+            Timeout t = slots[level][index];
+            slots[level][index] = null;
+            while (t != null) {
+                Timeout next = t.next;
+                place(t);
+                t = next;
+            }
+        }
+        int index = (int) tick & SLOT_MASK;
+        Timeout t = slots[0][index];
+        slots[0][index] = null;
+        while (t != null) {
+            Timeout next = t.next;
+            t.level = -1;
+            t.prev = null;
+            t.next = null;
+            t.nextDue = expired;
+            expired = t;
+            size--;
+            t = next;
+        }
+        tick++;
+        return expired;
+    }
+
+    /** Links a timeout into the slot of its deadline, relative to the next tick. */
+    private void place(Timeout timeout) {
+        long deadline = Math.max(timeout.deadline, tick);
+        long ahead = deadline - tick;
+        int level = 0;
+        while (level < LEVELS - 1 && ahead >= 1L << SLOT_BITS * (level + 1)) {
+            level++;
+        }
+        int index = (int) (deadline >>> SLOT_BITS * level) & SLOT_MASK;
+        Timeout head = slots[level][index];
+        timeout.level = level;
+        timeout.slot = index;
+        timeout.prev = null;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        slots[level][index] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+    }
+}
@@ -1,25 +1,58 @@
 package game;
 
+import game.ai.AlphaBetaPlayer;
+import game.ai.ComputerPlayer;
+import game.ai.GodPower;
+import game.ai.OpeningBook;
 import game.gods.Artemis;
 import game.gods.Demeter;
 import game.gods.Triton;
 import game.gods.God;
+import game.record.GameLog;
+import game.record.GameRecorder;
 import engine.actors.Player;
+import engine.positions.Cell;
+import engine.positions.SparseBoardState;
 import engine.positions.SquareBoard;
 import engine.actors.Worker;
 import engine.positions.GameEngine;
+import engine.displays.BoardUI;
 import engine.displays.MainMenuUI;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.random.RandomGenerator;
 
 /**
  * Entry point for launching the Santorini game.
  * Displays the main menu and sets up a random game state with two players and gods.
  */
 public class Game {
+    /** Rows and columns of the classic board, and of every game unless another size is chosen. */
+    public static final int DEFAULT_DIMENSION = 5;
+
+    /** Opening book computer players use unless the {@code santorini.book} property names another. */
+    public static final String DEFAULT_BOOK = "santorini-book.bin";
+
+    /** Log of the games played in this process, opened with the first game if recording is on. */
+    private static GameLog gameLog;
+    /** Opening book of the computer players, opened with the first game against one. */
+    private static OpeningBook openingBook;
+    private static boolean openingBookOpened;
+    /** Thread the computer players of windowed games search on, started with the first such game. */
+    private static ExecutorService searchExecutor;
+
+    /** The god cards, shared by every game. */
+    private static final God ARTEMIS = new Artemis("Artemis", "Your Worker may move one\nadditional time, but not back to its initial space");
+    private static final God DEMETER = new Demeter("Demeter", "Your Worker may build one\nadditional time, but not on the same space.");
+    private static final God TRITON = new Triton("Triton", "Each time your worker moves into\n a perimeter space, it may immediately move again. ");
 
     /**
      * Launches the game UI by displaying the main menu.
@@ -34,62 +67,254 @@ public class Game {
      * Initializes the game state.
      */
     public static void startGame() {
-        setupGame();
+        startGame(DEFAULT_DIMENSION);
     }
 
     /**
-     * Sets up the board, randomly places workers, assigns gods,
-     * and initializes the GameEngine singleton.
+     * Starts a game on a board of any supported size after main menu interaction.
+     *
+     * @param dimension the number of rows and columns, up to {@link SparseBoardState#MAX_DIMENSION}
      */
-    private static void setupGame() {
-        Artemis artemis = new Artemis("Artemis", "Your Worker may move one\nadditional time, but not back to its initial space");
-        Demeter demeter = new Demeter("Demeter", "Your Worker may build one\nadditional time, but not on the same space.");
-        Triton triton = new Triton("Triton", "Each time your worker moves into\n a perimeter space, it may immediately move again. ");
+    public static void startGame(int dimension) {
+        setupGame(dimension, false);
+    }
 
-        ArrayList<God> gods = new ArrayList<>();
-        gods.add(artemis);
-        gods.add(demeter);
-        gods.add(triton);
+    /**
+     * Starts a game against the computer after main menu interaction.
+     * The second player's turns are chosen by an alpha-beta search.
+     */
+    public static void startComputerGame() {
+        setupGame(DEFAULT_DIMENSION, true);
+    }
 
-        SquareBoard board = new SquareBoard(5);
-        Random random = new Random();
+    /**
+     * Sets up a new game, records it to the game log if one is named, gives computer players
+     * the opening book and a search thread, attaches the board window and starts the clock.
+     *
+     * @param dimension  the number of rows and columns
+     * @param vsComputer whether the second player is computer-controlled
+     */
+    private static void setupGame(int dimension, boolean vsComputer) {
+        long seed = new Random().nextLong();
+        GameEngine engine = newGame(new Random(seed), dimension,
+                Player::new, vsComputer ? AlphaBetaPlayer::new : Player::new);
+        GameLog log = gameLog();
+        if (log != null) {
+            new GameRecorder(engine, seed, log);
+        }
+        if (vsComputer) {
+            for (Player player : engine.getPlayers()) {
+                if (player instanceof ComputerPlayer) {
+                    ((ComputerPlayer) player).setOpeningBook(openingBook());
+                    // keep the event thread free while the computer thinks
+                    ((ComputerPlayer) player).setSearchExecutor(searchExecutor());
+                }
+            }
+        }
+        engine.addListener(new BoardUI(engine));
+        engine.setClockExecutor(SwingUtilities::invokeLater);
+        engine.start();
+    }
 
-        List<Worker> player1Workers = new ArrayList<>();
-        List<Worker> player2Workers = new ArrayList<>();
+    /**
+     * Opens the log every game played in this process is appended to. Games
+     * are only recorded when the {@code santorini.gamelog} system property
+     * names the file, as in {@code -Dsantorini.gamelog=games.log}, so casual
+     * play leaves nothing behind. A game is still played if the log cannot be
+     * opened, just not recorded.
+     *
+     * @return the shared log, or {@code null} if recording is off or the log could not be opened
+     */
+    private static synchronized GameLog gameLog() {
+        String name = System.getProperty("santorini.gamelog");
+        if (gameLog == null && name != null) {
+            Path file = Path.of(name);
+            try {
+                gameLog = new GameLog(file);
+            } catch (IOException e) {
+                System.err.println("Not recording games to " + file + ": " + e.getMessage());
+            }
+        }
+        return gameLog;
+    }
+
+    /**
+     * Opens the opening book of the computer players: the file named by the
+     * {@code santorini.book} system property, by default {@value #DEFAULT_BOOK}
+     * in the working directory. Without a book they search every turn.
+     *
+     * @return the shared book, or {@code null} if there is none
+     */
+    private static synchronized OpeningBook openingBook() {
+        if (!openingBookOpened) {
+            openingBookOpened = true;
+            Path file = Path.of(System.getProperty("santorini.book", DEFAULT_BOOK));
+            if (Files.exists(file)) {
+                try {
+                    openingBook = new OpeningBook(file);
+                } catch (IOException e) {
+                    System.err.println("Not using opening book " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        return openingBook;
+    }
+
+    /**
+     * Returns the daemon thread computer players in windowed games search
+     * on, so the board window keeps repainting and the clock keeps ticking
+     * on the event thread during a search.
+     *
+     * @return the shared search executor
+     */
+    private static synchronized ExecutorService searchExecutor() {
+        if (searchExecutor == null) {
+            searchExecutor = Executors.newSingleThreadExecutor(task -> {
+                Thread thread = new Thread(task, "santorini-search");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return searchExecutor;
+    }
+
+    /**
+     * Sets up the board, randomly places workers and assigns gods.
+     * The returned engine is independent of every other game and has
+     * no listeners attached, so many games may be created and driven
+     * concurrently from any thread.
+     *
+     * @param random the source of randomness for placement and god choice
+     * @return a new, not yet started GameEngine
+     */
+    public static GameEngine newGame(RandomGenerator random) {
+        return newGame(random, Player::new, Player::new);
+    }
+
+    /**
+     * Sets up the board, randomly places workers and assigns gods, optionally
+     * seating an {@link AlphaBetaPlayer} as the second player.
+     *
+     * @param random     the source of randomness for placement and god choice
+     * @param vsComputer whether the second player is computer-controlled
+     * @return a new, not yet started GameEngine
+     */
+    public static GameEngine newGame(RandomGenerator random, boolean vsComputer) {
+        return newGame(random, Player::new, vsComputer ? AlphaBetaPlayer::new : Player::new);
+    }
+
+    /**
+     * Sets up the board, randomly places workers and assigns gods, seating
+     * whatever kind of player each factory creates. Everything random about
+     * the setup is drawn from {@code random}, so the same seeded stream
+     * always produces the same game.
+     *
+     * @param random the source of randomness for placement and god choice
+     * @param first  creates the first player to move
+     * @param second creates the second player
+     * @return a new, not yet started GameEngine
+     */
+    public static GameEngine newGame(RandomGenerator random, PlayerFactory first, PlayerFactory second) {
+        return newGame(random, DEFAULT_DIMENSION, first, second);
+    }
+
+    /**
+     * Sets up a board of the given size, randomly places workers and assigns
+     * gods, seating whatever kind of player each factory creates. Computer
+     * players search a packed {@link engine.positions.BitBoard} and so need a
+     * board of at most {@value engine.positions.BitBoard#MAX_DIMENSION} squares a side.
+     *
+     * @param random    the source of randomness for placement and god choice
+     * @param dimension the number of rows and columns, up to {@link SparseBoardState#MAX_DIMENSION}
+     * @param first     creates the first player to move
+     * @param second    creates the second player
+     * @return a new, not yet started GameEngine
+     */
+    public static GameEngine newGame(RandomGenerator random, int dimension, PlayerFactory first, PlayerFactory second) {
+        GodPower[] powers = {GodPower.ARTEMIS, GodPower.DEMETER, GodPower.TRITON};
 
         // Place 4 workers randomly on the board (2 for each player)
+        int[] squares = new int[4];
         int assigned = 0;
         while (assigned < 4) {
-            int x = random.nextInt(5);
-            int y = random.nextInt(5);
-
-            if (!board.isCellOccupied(board.getCell(x, y))) {
-                Worker worker;
-                if (player1Workers.size() < 2) {
-                    worker = new Worker("P1W", x, y);
-                    player1Workers.add(worker);
-                } else {
-                    worker = new Worker("P2W", x, y);
-                    player2Workers.add(worker);
-                }
+            int x = random.nextInt(dimension);
+            int y = random.nextInt(dimension);
+            int square = x * dimension + y;
 
-                board.addWorker(worker, board.getCell(x, y));
-                assigned++;
+            boolean occupied = false;
+            for (int i = 0; i < assigned; i++) {
+                occupied |= squares[i] == square;
+            }
+            if (!occupied) {
+                squares[assigned++] = square;
             }
         }
 
         // Randomly assign gods to players
-        int i1 = random.nextInt(gods.size());
+        int i1 = random.nextInt(powers.length);
         int i2;
         do {
-            i2 = random.nextInt(gods.size());
+            i2 = random.nextInt(powers.length);
         } while (i2 == i1);
-        Player player1 = new Player("Robby", gods.get(i1), player1Workers, "P1");
-        Player player2 = new Player("Miguel", gods.get(i2), player2Workers, "P2");
+        return newGame(dimension, squares, powers[i1], powers[i2], first, second);
+    }
+
+    /**
+     * Sets up a game with a given worker placement and gods, as recorded by a
+     * game log. The first half of {@code squares} places the first player's
+     * workers, the second half the second player's, in board slot order.
+     *
+     * @param dimension   the number of rows and columns
+     * @param squares     the square index of every worker
+     * @param firstPower  the first player's god
+     * @param secondPower the second player's god
+     * @param first       creates the first player to move
+     * @param second      creates the second player
+     * @return a new, not yet started GameEngine
+     */
+    public static GameEngine newGame(int dimension, int[] squares, GodPower firstPower, GodPower secondPower,
+                                     PlayerFactory first, PlayerFactory second) {
+        SquareBoard board = new SquareBoard(dimension);
+        List<Worker> player1Workers = new ArrayList<>();
+        List<Worker> player2Workers = new ArrayList<>();
+        for (int i = 0; i < squares.length; i++) {
+            Cell cell = board.getCell(squares[i]);
+            Worker worker;
+            if (i < squares.length / 2) {
+                worker = new Worker("P1W", cell.getRow(), cell.getCol());
+                player1Workers.add(worker);
+            } else {
+                worker = new Worker("P2W", cell.getRow(), cell.getCol());
+                player2Workers.add(worker);
+            }
+            board.addWorker(worker, cell);
+        }
+
+        Player player1 = first.create("Robby", createGod(firstPower), player1Workers, "P1");
+        Player player2 = second.create("Miguel", createGod(secondPower), player2Workers, "P2");
         ArrayList<Player> players = new ArrayList<>(List.of(player1, player2));
 
-        // Initialize and start the game engine
-        GameEngine.init(board, players);
-        GameEngine.getInstance().start();
+        return new GameEngine(board, players);
+    }
+
+    /**
+     * Returns the god card with a power. Gods keep no per-game state, so
+     * every game shares the same card.
+     *
+     * @param power the power of the card
+     * @return the god
+     * @throws IllegalArgumentException for {@link GodPower#NONE}, which has no card
+     */
+    public static God createGod(GodPower power) {
+        switch (power) {
+            case ARTEMIS:
+                return ARTEMIS;
+            case DEMETER:
+                return DEMETER;
+            case TRITON:
+                return TRITON;
+            default:
+                throw new IllegalArgumentException("No god card has power " + power);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package game;
+
+import engine.actors.Player;
+import engine.actors.Worker;
+import game.gods.God;
+
+import java.util.List;
+
+/**
+ * Creates the player for one seat of a new game. The parameters match the
+ * {@link Player} constructor, so {@code Player::new} seats a human player.
+ */
+@FunctionalInterface
+public interface PlayerFactory {
+    /**
+     * Creates a player.
+     *
+     * @param name    the player’s name
+     * @param god     the God power assigned to the player
+     * @param workers the list of workers controlled by the player
+     * @param id      a unique player identifier
+     * @return the new player
+     */
+    Player create(String name, God god, List<Worker> workers, String id);
+}
@@ -0,0 +1,56 @@
+package game.ai;
+
+import engine.actors.Worker;
+import engine.positions.BitBoard;
+import game.gods.God;
+
+import java.util.List;
+
+/**
+ * A computer player that chooses its turns with an {@link AlphaBetaSearch}.
+ */
+public class AlphaBetaPlayer extends ComputerPlayer {
+    /** Default iteration limit; the clock normally stops the search first. */
+    public static final int DEFAULT_MAX_DEPTH = 32;
+
+    private final AlphaBetaSearch search = new AlphaBetaSearch();
+    private final int maxDepth;
+
+    /**
+     * Constructs an alpha-beta player with the default thinking time.
+     *
+     * @param name    the player’s name
+     * @param god     the God power assigned to the player
+     * @param workers the list of workers controlled by the player
+     * @param id      a unique player identifier
+     */
+    public AlphaBetaPlayer(String name, God god, List<Worker> workers, String id) {
+        this(name, god, workers, id, DEFAULT_THINK_MS, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * Constructs an alpha-beta player.
+     *
+     * @param name        the player’s name
+     * @param god         the God power assigned to the player
+     * @param workers     the list of workers controlled by the player
+     * @param id          a unique player identifier
+     * @param thinkMillis the search time budget per turn in milliseconds
+     * @param maxDepth    the deepest search iteration, in turns
+     */
+    public AlphaBetaPlayer(String name, God god, List<Worker> workers, String id,
+                           long thinkMillis, int maxDepth) {
+        super(name, god, workers, id, thinkMillis);
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    protected long chooseTurn(BitBoard board, int mine, GodPower power, int theirs, GodPower theirPower) {
+        return search.search(board, mine, power, theirs, theirPower, maxDepth, thinkMillis);
+    }
+
+    /** @return the search of this player, for depth and node statistics */
+    public AlphaBetaSearch getSearch() {
+        return search;
+    }
+}
@@ -0,0 +1,414 @@
+package game.ai;
+
+import engine.positions.BitBoard;
+import engine.positions.Zobrist;
+
+import java.util.Arrays;
+
+/**
+ * Negamax alpha-beta search over complete turns, run with iterative deepening
+ * under a wall-clock budget.
+ * <p>
+ * Every ply is one player's whole turn as produced by {@link TurnGenerator}.
+ * Turns are ordered by the transposition-table move, then the two killer turns
+ * of the ply, then the history score of (worker, destination, build). The first
+ * turn of a node is searched with the full window and the rest with a null window
+ * (principal variation search), late unremarkable turns one turn shallower, or two
+ * if they are quiet. A side that can win by moving onto level 3 is scored as a win
+ * without expanding its turns, and a side with no legal turn loses. Leaves are
+ * scored by {@link Evaluator}.
+ * </p>
+ * <p>
+ * Null-window nodes near the horizon are pruned: a node standing far enough
+ * above beta is cut without search (futility pruning), only the first few quiet
+ * turns are searched, and Demeter's build pairs are only generated where one
+ * build is on a square that matters. A turn is quiet if it neither wins, climbs
+ * nor builds on such a square. Demeter's hundreds of pairs per position still
+ * keep her searches about one turn shallower than those of the other powers.
+ * </p>
+ * One instance keeps its board, move buffers, tables and statistics between
+ * searches; it is not thread-safe.
+ */
+public class AlphaBetaSearch {
+    /** Score of a won position at the root; wins found later score less. */
+    public static final int WIN = 1_000_000;
+    /** Deepest ply the search can reach. */
+    public static final int MAX_PLY = 64;
+
+    private static final int INFINITY = WIN + 1;
+    /** Scores beyond this are wins or losses at a known distance. */
+    private static final int WIN_BOUND = WIN - MAX_PLY;
+    /** Turns per ply; Demeter build pairs with walls and breaks need the headroom. */
+    private static final int MAX_TURNS = 1 << 14;
+    /** Nodes between clock checks. */
+    private static final int CHECK_INTERVAL = 1 << 10;
+
+    /** Ordering score of the second killer; the first killer and TT turn rank above it. */
+    private static final int KILLER_SCORE = Integer.MAX_VALUE - 2;
+    /** Turns picked one by one before the rest of a node's list is sorted in one go. */
+    private static final int SELECTED_TURNS = 3;
+    /** Largest ordering score that survives packing next to a turn. */
+    private static final int HISTORY_CAP = (1 << 28) - 1;
+    /** Turns searched at full depth before late-turn reductions apply. */
+    private static final int LATE_TURN = 4;
+    /** Turns after which late quiet turns are reduced by two turns instead of one. */
+    private static final int VERY_LATE_TURN = 12;
+    /** Quiet turns searched at a null-window node this many turns from the horizon; the rest are pruned. */
+    private static final int[] QUIET_TURNS = {0, 4, 8, 16};
+    /** Score per turn from the horizon a null-window node must stand above beta to be cut without search. */
+    private static final int FUTILITY_MARGIN = 120;
+
+    private static final int TT_BITS = 18;
+    private static final int TT_EXACT = 1, TT_LOWER = 2, TT_UPPER = 3;
+
+    private final TurnGenerator generator = new TurnGenerator();
+    /** The searched position, walked down and back up with undo records. */
+    private BitBoard board;
+    private final long[][] turns = new long[MAX_PLY][];
+    private final int[][] order = new int[MAX_PLY][];
+    private final long[][] killers = new long[MAX_PLY][2];
+    /** Cutoff history indexed by slot, destination and first build square. */
+    private final int[] history = new int[BitBoard.MAX_WORKERS * 64 * 64];
+
+    private final long[] ttKeys = new long[1 << TT_BITS];
+    private final long[] ttTurns = new long[1 << TT_BITS];
+    /** Packed score (low 32 bits), depth (8 bits) and bound type (2 bits). */
+    private final long[] ttInfo = new long[1 << TT_BITS];
+
+    private final int[] slots = new int[2];
+    private final GodPower[] powers = new GodPower[2];
+
+    private long deadline;
+    private boolean aborted;
+    private long nodes;
+    private int completedDepth;
+    private int bestScore;
+
+    /**
+     * Searches a position for the best turn of the side to move.
+     *
+     * @param board       the position; not modified
+     * @param moverSlots  worker slot mask of the side to move
+     * @param moverPower  god power of the side to move
+     * @param waiterSlots worker slot mask of the other side
+     * @param waiterPower god power of the other side
+     * @param maxDepth    the deepest iteration to run, in turns
+     * @param millis      the time budget in milliseconds, or 0 to stop only at {@code maxDepth};
+     *                    without a clock the result depends only on the position
+     * @return the best turn found, or {@link Turn#NONE} if the side to move has no legal turn
+     */
+    public long search(BitBoard board, int moverSlots, GodPower moverPower,
+                       int waiterSlots, GodPower waiterPower, int maxDepth, long millis) {
+        deadline = millis > 0 ? System.nanoTime() + millis * 1_000_000L : Long.MAX_VALUE;
+        aborted = false;
+        nodes = 0;
+        completedDepth = 0;
+        bestScore = 0;
+        slots[0] = moverSlots;
+        slots[1] = waiterSlots;
+        powers[0] = moverPower;
+        powers[1] = waiterPower;
+        for (long[] k : killers) {
+            k[0] = Turn.NONE;
+            k[1] = Turn.NONE;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 2;
+        }
+        if (this.board == null || this.board.getDimension() != board.getDimension()) {
+            this.board = new BitBoard(board.getDimension());
+        }
+        this.board.copyFrom(board);
+
+        long[] rootTurns = turns(0);
+        int count = generator.generate(this.board, moverSlots, moverPower, rootTurns, true);
+        if (count == 0) {
+            bestScore = -WIN;
+            return Turn.NONE;
+        }
+        if (count == 1) {
+            bestScore = Turn.isWin(rootTurns[0]) ? WIN : 0;
+            return rootTurns[0];
+        }
+
+        long best = rootTurns[0];
+        int limit = Math.min(maxDepth, MAX_PLY);
+        for (int depth = 1; depth <= limit; depth++) {
+            int score = root(count, depth, best);
+            if (aborted) {
+                break;
+            }
+            best = rootTurns[0];
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) > WIN_BOUND) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    /** @return the deepest iteration completed by the last search */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /** @return the score of the last completed iteration, from the mover's point of view */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /** @return the number of positions visited by the last search */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Searches the root turns to a fixed depth, moving the best one to the front
+     * so the next iteration tries it first.
+     */
+    private int root(int count, int depth, long previousBest) {
+        long[] rootTurns = turns[0];
+        for (int i = 0; i < count; i++) {
+            if (rootTurns[i] == previousBest) {
+                rootTurns[i] = rootTurns[0];
+                rootTurns[0] = previousBest;
+                break;
+            }
+        }
+        int alpha = -INFINITY;
+        int bestIndex = 0;
+        for (int i = 0; i < count; i++) {
+            int score;
+            if (i == 0) {
+                score = -child(0, rootTurns[i], depth - 1, -INFINITY, INFINITY, 1);
+            } else {
+                // only a turn that beats the best so far is searched again for its exact score
+                score = -child(0, rootTurns[i], depth - 1, -alpha - 1, -alpha, 1);
+                if (score > alpha && !aborted) {
+                    score = -child(0, rootTurns[i], depth - 1, -INFINITY, -alpha, 1);
+                }
+            }
+            if (aborted) {
+                return alpha;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestIndex = i;
+            }
+        }
+        long best = rootTurns[bestIndex];
+        System.arraycopy(rootTurns, 0, rootTurns, 1, bestIndex);
+        rootTurns[0] = best;
+        return alpha;
+    }
+
+    /** Plays a turn at {@code ply}, searches the reply and takes the turn back. */
+    private int child(int ply, long turn, int depth, int alpha, int beta, int side) {
+        int undo = TurnGenerator.apply(board, turn);
+        int score = negamax(ply + 1, depth, alpha, beta, side);
+        TurnGenerator.undo(board, undo);
+        return score;
+    }
+
+    private int negamax(int ply, int depth, int alpha, int beta, int side) {
+        if ((++nodes & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+        int mover = slots[side], waiter = slots[side ^ 1];
+        if (generator.hasWin(board, mover, powers[side])) {
+            return WIN - ply;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(board, mover, waiter);
+        }
+
+        long key = board.getKey() ^ Zobrist.side(side);
+        int index = (int) key & ((1 << TT_BITS) - 1);
+        long ttTurn = Turn.NONE;
+        if (ttKeys[index] == key) {
+            long info = ttInfo[index];
+            ttTurn = ttTurns[index];
+            if ((int) (info >>> 32 & 0xFF) >= depth) {
+                int score = fromTable((int) info, ply);
+                int bound = (int) (info >>> 40) & 3;
+                if (bound == TT_EXACT
+                        || bound == TT_LOWER && score >= beta
+                        || bound == TT_UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        boolean prune = beta - alpha == 1 && depth < QUIET_TURNS.length;
+        if (prune && !generator.hasWin(board, waiter, powers[side ^ 1])) {
+            // so far above beta that one turn of the opponent's will not bring it back
+            int standing = Evaluator.evaluate(board, mover, waiter);
+            if (standing - FUTILITY_MARGIN * depth >= beta) {
+                return standing;
+            }
+        }
+        long sharp = sharpSquares(waiter);
+        long[] list = turns(ply);
+        // where quiet turns are pruned, the single builds stand in for the quiet build pairs
+        int count = generator.generate(board, mover, powers[side], list, false, prune ? sharp : -1L);
+        if (count == 0) {
+            return -(WIN - ply);
+        }
+        int[] scores = order(ply);
+        long[] killer = killers[ply];
+        for (int i = 0; i < count; i++) {
+            long t = list[i];
+            scores[i] = t == ttTurn ? Integer.MAX_VALUE
+                    : t == killer[0] ? KILLER_SCORE + 1
+                    : t == killer[1] ? KILLER_SCORE
+                    : history[historyIndex(t)];
+        }
+
+        int originalAlpha = alpha;
+        int quietTurns = 0;
+        int best = -INFINITY;
+        long bestTurn = list[0];
+        for (int i = 0; i < count; i++) {
+            if (i == SELECTED_TURNS) {
+                sortRest(list, scores, i, count);
+            }
+            long turn = i < SELECTED_TURNS ? pickNext(list, scores, i, count) : list[i];
+            boolean quiet = i > 0 && scores[i] < KILLER_SCORE && isQuiet(turn, sharp);
+            if (quiet && prune && ++quietTurns > QUIET_TURNS[depth]) {
+                continue;
+            }
+            int score;
+            if (i == 0) {
+                score = -child(ply, turn, depth - 1, -beta, -alpha, side ^ 1);
+            } else {
+                // late turns with no ordering merit get a reduced null-window probe first
+                int reduction = i < LATE_TURN || depth < 2 || scores[i] >= KILLER_SCORE ? 0
+                        : quiet && i >= VERY_LATE_TURN && depth >= 4 ? 2 : 1;
+                score = -child(ply, turn, depth - 1 - reduction, -alpha - 1, -alpha, side ^ 1);
+                if (score > alpha && reduction > 0) {
+                    score = -child(ply, turn, depth - 1, -alpha - 1, -alpha, side ^ 1);
+                }
+                if (score > alpha && score < beta) {
+                    score = -child(ply, turn, depth - 1, -beta, -alpha, side ^ 1);
+                }
+            }
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestTurn = turn;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (turn != killer[0]) {
+                            killer[1] = killer[0];
+                            killer[0] = turn;
+                        }
+                        history[historyIndex(turn)] += depth * depth;
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best <= originalAlpha ? TT_UPPER : best >= beta ? TT_LOWER : TT_EXACT;
+        ttKeys[index] = key;
+        ttTurns[index] = bestTurn;
+        ttInfo[index] = (toTable(best, ply) & 0xFFFFFFFFL) | (long) depth << 32 | (long) bound << 40;
+        return best;
+    }
+
+    /**
+     * Returns the squares a build changes the game on: any square of level 2
+     * or more, where it makes a level 3 or a dome, and any square next to an
+     * opponent standing on level 2, where it makes or blocks a climb to level 3.
+     */
+    private long sharpSquares(int waiter) {
+        long sharp = ~board.heightAtMost(1);
+        for (int m = waiter; m != 0; m &= m - 1) {
+            int square = board.workerSquare(Integer.numberOfTrailingZeros(m));
+            if (board.height(square) == 2) {
+                sharp |= board.neighbours(square);
+            }
+        }
+        return sharp;
+    }
+
+    /**
+     * Checks whether a turn neither wins, climbs, nor builds on a sharp square.
+     * Most of Demeter's build pairs are quiet, and a quiet pair rarely matters
+     * more than the single builds it is made of.
+     */
+    private boolean isQuiet(long turn, long sharp) {
+        if (Turn.isWin(turn)
+                || board.height(Turn.to(turn)) > board.height(board.workerSquare(Turn.slot(turn)))
+                || Turn.hasBuild(turn) && (sharp >>> Turn.build(turn) & 1) != 0) {
+            return false;
+        }
+        return !Turn.hasSecondBuild(turn) || (sharp >>> Turn.secondBuild(turn) & 1) == 0;
+    }
+
+    /**
+     * Sorts turns {@code from..count} by descending ordering score. Each score is
+     * packed above the 35-bit turn so one primitive sort orders both.
+     */
+    private static void sortRest(long[] list, int[] scores, int from, int count) {
+        for (int j = from; j < count; j++) {
+            list[j] |= (long) (HISTORY_CAP - Math.min(scores[j], HISTORY_CAP)) << Turn.BITS;
+        }
+        Arrays.sort(list, from, count);
+        for (int j = from; j < count; j++) {
+            scores[j] = HISTORY_CAP - (int) (list[j] >>> Turn.BITS);
+            list[j] &= Turn.MASK;
+        }
+    }
+
+    /** Selection-sorts the highest-scored remaining turn into position {@code i}. */
+    private static long pickNext(long[] list, int[] scores, int i, int count) {
+        int top = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[top]) {
+                top = j;
+            }
+        }
+        long turn = list[top];
+        list[top] = list[i];
+        list[i] = turn;
+        int score = scores[top];
+        scores[top] = scores[i];
+        scores[i] = score;
+        return turn;
+    }
+
+    private static int historyIndex(long turn) {
+        return (Turn.slot(turn) << 12) | (Turn.to(turn) << 6) | Turn.build(turn);
+    }
+
+    /** Stores win scores as distance from this node rather than from the root. */
+    private static int toTable(int score, int ply) {
+        return score > WIN_BOUND ? score + ply : score < -WIN_BOUND ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score > WIN_BOUND ? score - ply : score < -WIN_BOUND ? score + ply : score;
+    }
+
+    private long[] turns(int ply) {
+        if (turns[ply] == null) {
+            turns[ply] = new long[MAX_TURNS];
+        }
+        return turns[ply];
+    }
+
+    private int[] order(int ply) {
+        if (order[ply] == null) {
+            order[ply] = new int[MAX_TURNS];
+        }
+        return order[ply];
+    }
+}
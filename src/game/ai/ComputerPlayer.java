@@ -0,0 +1,255 @@
+package game.ai;
+
+import engine.action.BuildMode;
+import engine.actors.Player;
+import engine.actors.Worker;
+import engine.positions.BitBoard;
+import engine.positions.Cell;
+import engine.positions.GameBoard;
+import engine.positions.GameEngine;
+import game.gods.God;
+import game.gods.TurnPhase;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Base class for players whose turns are chosen by a search and played
+ * through the engine exactly as a human would play them: select the worker,
+ * click each move square, set the build mode, click each build square and
+ * press Skip where a god power's optional step is declined. The god is still in
+ * its move phase after the last move click exactly when a further optional move
+ * is on offer, and the turn is still in progress after a single Demeter build
+ * exactly when the second build is on offer.
+ * Subclasses only decide which turn to play. By default the search runs on
+ * the engine's thread; a player given a search executor searches a copy of
+ * the board there and posts the turn back to the engine's thread, so that a
+ * display stays responsive while it thinks.
+ */
+public abstract class ComputerPlayer extends Player {
+    /** Default thinking time per turn in milliseconds. */
+    public static final long DEFAULT_THINK_MS = 1_000;
+
+    /** Search time budget per turn in milliseconds, or 0 for no time limit. */
+    protected final long thinkMillis;
+    /** The turn played most recently, or {@link Turn#NONE}. */
+    private long lastTurn = Turn.NONE;
+    /** Consulted before searching, or {@code null}. */
+    private OpeningBook book;
+    /** Checks book turns against the rules and recovers the moves of chosen turns. */
+    private final TurnGenerator generator = new TurnGenerator();
+    /** Turns of a book position; created with the first book hit. */
+    private long[] bookTurns;
+    /** Runs searches off the engine's thread, or {@code null} to search in {@link #playTurn}. */
+    private Executor searchExecutor;
+    /** Whether a search is running on {@link #searchExecutor}; only read and written on the engine's thread. */
+    private boolean searching;
+
+    /**
+     * Constructs a computer player.
+     *
+     * @param name        the player’s name
+     * @param god         the God power assigned to the player
+     * @param workers     the list of workers controlled by the player
+     * @param id          a unique player identifier
+     * @param thinkMillis the search time budget per turn in milliseconds, or 0 for no time limit
+     */
+    protected ComputerPlayer(String name, God god, List<Worker> workers, String id, long thinkMillis) {
+        super(name, god, workers, id);
+        this.thinkMillis = thinkMillis;
+    }
+
+    @Override
+    public boolean isAutomated() {
+        return true;
+    }
+
+    /**
+     * Makes this player play the book turn, without searching, whenever its
+     * position is in the book.
+     *
+     * @param book the opening book, or {@code null} to always search
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Makes this player search on another thread. {@link #playTurn} then
+     * returns at once and the turn is played later, through
+     * {@link GameEngine#post}. If the position has changed by then while it is
+     * still this player's turn, the result is dropped and the new position searched.
+     *
+     * @param searchExecutor runs the searches, or {@code null} to search on the engine's thread
+     */
+    public void setSearchExecutor(Executor searchExecutor) {
+        this.searchExecutor = searchExecutor;
+    }
+
+    /**
+     * Plays the book turn if there is one and it is legal, and otherwise searches for the best
+     * turn and plays it. A player left without any legal turn resigns.
+     *
+     * @param engine the engine running this player's game
+     */
+    @Override
+    public void playTurn(GameEngine engine) {
+        GameBoard board = engine.getBoard();
+        BitBoard bits = board.getBitBoard();
+        int mine = slotMask(board, this);
+        int theirs = 0;
+        GodPower theirPower = GodPower.NONE;
+        for (Player p : engine.getPlayers()) {
+            if (p != this) {
+                theirs |= slotMask(board, p);
+                theirPower = GodPower.of(p.getGod());
+            }
+        }
+        GodPower power = GodPower.of(getGod());
+
+        long turn = book != null ? book.lookup(bits, mine, power, theirPower) : Turn.NONE;
+        if (turn != Turn.NONE && !isLegal(bits, mine, power, turn)) {
+            // a key collision, or a book built under other rules
+            turn = Turn.NONE;
+        }
+        if (turn != Turn.NONE || searchExecutor == null) {
+            if (turn == Turn.NONE) {
+                turn = chooseTurn(bits, mine, power, theirs, theirPower);
+            }
+            finishTurn(engine, turn, power);
+            return;
+        }
+        if (searching) {
+            return;
+        }
+        searching = true;
+        BitBoard copy = new BitBoard(bits);
+        int theirSlots = theirs;
+        GodPower opponent = theirPower;
+        searchExecutor.execute(() -> {
+            long chosen = chooseTurn(copy, mine, power, theirSlots, opponent);
+            engine.post(() -> {
+                searching = false;
+                if (engine.isGameOver() || engine.getCurrentPlayer() != this || engine.isTurnProgress()) {
+                    return;
+                }
+                // the search ran on a copy; play it only if nothing moved meanwhile
+                if (engine.getBoard().getBitBoard().getKey() == copy.getKey()) {
+                    finishTurn(engine, chosen, power);
+                } else {
+                    // calls to playTurn were ignored while searching, so search the new position now
+                    engine.playAutomatedTurns();
+                }
+            });
+        });
+    }
+
+    /**
+     * Plays a chosen turn, or resigns if there is none.
+     */
+    private void finishTurn(GameEngine engine, long turn, GodPower power) {
+        lastTurn = turn;
+        if (turn == Turn.NONE) {
+            engine.resign();
+            return;
+        }
+        play(engine, turn, power);
+    }
+
+    /**
+     * Checks that a turn is one the rules allow in the current position.
+     *
+     * @param board the current position
+     * @param mine  worker slot mask of this player
+     * @param power this player's god power
+     * @param turn  the packed turn
+     * @return {@code true} if the generator produces exactly this turn
+     */
+    private boolean isLegal(BitBoard board, int mine, GodPower power, long turn) {
+        if (bookTurns == null) {
+            bookTurns = new long[1 << 14];
+        }
+        int count = generator.generate(board, mine, power, bookTurns, false);
+        for (int i = 0; i < count; i++) {
+            if (bookTurns[i] == turn) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the turn this player chose most recently, for game logs.
+     *
+     * @return the packed turn, or {@link Turn#NONE} if it had no legal turn
+     */
+    public long getLastTurn() {
+        return lastTurn;
+    }
+
+    /**
+     * Chooses the turn to play.
+     *
+     * @param board       the current position; must be left unchanged
+     * @param mine        worker slot mask of this player
+     * @param power       this player's god power
+     * @param theirs      worker slot mask of the opponents
+     * @param theirPower  the opponent's god power
+     * @return the turn to play, or {@link Turn#NONE} if no legal turn exists
+     */
+    protected abstract long chooseTurn(BitBoard board, int mine, GodPower power,
+                                       int theirs, GodPower theirPower);
+
+    /**
+     * Replays a packed turn as engine inputs.
+     */
+    private void play(GameEngine engine, long turn, GodPower power) {
+        GameBoard board = engine.getBoard();
+        BitBoard bits = board.getBitBoard();
+        int slot = Turn.slot(turn);
+        int to = Turn.to(turn);
+
+        int[] path = generator.path(bits, slot, power, to);
+        click(engine, bits.workerSquare(slot));
+        for (int square : path) {
+            click(engine, square);
+        }
+        if (engine.isGameOver()) {
+            return;
+        }
+        if (engine.getTurnPhase() == TurnPhase.MOVE) {
+            // declines Artemis's second move or Triton's further move
+            engine.skip();
+        }
+
+        build(engine, Turn.build(turn), Turn.buildMode(turn));
+        if (Turn.hasSecondBuild(turn)) {
+            build(engine, Turn.secondBuild(turn), Turn.secondBuildMode(turn));
+        } else if (engine.isTurnProgress()) {
+            // declines Demeter's second build
+            engine.skip();
+        }
+        engine.setBuildMode(BuildMode.NORMAL);
+    }
+
+    private void build(GameEngine engine, int square, BuildMode mode) {
+        engine.setBuildMode(mode);
+        click(engine, square);
+    }
+
+    private static void click(GameEngine engine, int square) {
+        Cell cell = engine.getBoard().getCell(square);
+        engine.takeTurn(cell.getRow(), cell.getCol());
+    }
+
+    static int slotMask(GameBoard board, Player player) {
+        int mask = 0;
+        for (Worker w : player.getWORKERS()) {
+            int slot = board.slotOf(w);
+            if (slot >= 0) {
+                mask |= 1 << slot;
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,63 @@
+package game.ai;
+
+import engine.positions.BitBoard;
+
+/**
+ * Static heuristic evaluation of a packed position, from the point of view of
+ * the side to move. Each worker scores for the height it stands on, for how
+ * many squares it can move to (mobility), for the squares one level up it can
+ * climb onto, and heavily for standing on level 2 next to a reachable level 3
+ * (a climb threat). The opponent's workers score the same with the sign flipped.
+ */
+public final class Evaluator {
+    /** Score for a worker standing on each height. */
+    private static final int[] HEIGHT = {0, 60, 180, 0, 0};
+    /** Score per reachable square. */
+    private static final int MOBILITY = 6;
+    /** Score per reachable square one level higher than the worker. */
+    private static final int CLIMB = 20;
+    /** Score for a level-2 worker next to a reachable level 3. */
+    private static final int THREAT = 400;
+    /** Penalty for a worker with no move at all. */
+    private static final int TRAPPED = 120;
+
+    private Evaluator() {
+    }
+
+    /**
+     * Evaluates a position.
+     *
+     * @param board       the position
+     * @param moverSlots  worker slot mask of the side to move
+     * @param waiterSlots worker slot mask of the other side
+     * @return a score, positive when the side to move stands better
+     */
+    public static int evaluate(BitBoard board, int moverSlots, int waiterSlots) {
+        long level3 = board.heightExactly(3);
+        int score = 0;
+        for (int m = moverSlots; m != 0; m &= m - 1) {
+            score += worker(board, Integer.numberOfTrailingZeros(m), level3);
+        }
+        for (int m = waiterSlots; m != 0; m &= m - 1) {
+            score -= worker(board, Integer.numberOfTrailingZeros(m), level3);
+        }
+        return score;
+    }
+
+    private static int worker(BitBoard board, int slot, long level3) {
+        int square = board.workerSquare(slot);
+        int height = board.height(square);
+        long targets = board.moveTargets(square);
+        if (targets == 0) {
+            return HEIGHT[height] - TRAPPED;
+        }
+        int score = HEIGHT[height] + MOBILITY * Long.bitCount(targets);
+        if (height < 3) {
+            score += CLIMB * Long.bitCount(targets & board.heightExactly(height + 1));
+        }
+        if (height == 2 && (targets & level3) != 0) {
+            score += THREAT;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,85 @@
+package game.ai;
+
+import game.gods.Artemis;
+import game.gods.Demeter;
+import game.gods.God;
+import game.gods.Triton;
+import game.gods.TurnRules;
+
+/**
+ * Enum classifying the god powers the move generator understands.
+ * Search code works on packed boards and needs to know how a god extends
+ * the basic move-then-build turn without holding a live {@link God} instance.
+ */
+public enum GodPower {
+    /** No power: one move, then one build. */
+    NONE("None", TurnRules.STANDARD),
+
+    /** One optional extra move, not back to the starting space. */
+    ARTEMIS("Artemis", TurnRules.ARTEMIS),
+
+    /** One optional extra build, not on the same space. */
+    DEMETER("Demeter", TurnRules.DEMETER),
+
+    /** Another optional move each time the worker enters a perimeter space. */
+    TRITON("Triton", TurnRules.TRITON);
+
+    /** Human-readable label for the power. */
+    private final String label;
+
+    /** Turn flow of the power, shared with the god cards. */
+    private final TurnRules rules;
+
+    /**
+     * Constructs a GodPower with the given label.
+     *
+     * @param label the display label for the power
+     * @param rules the turn flow of the power
+     */
+    GodPower(String label, TurnRules rules) {
+        this.label = label;
+        this.rules = rules;
+    }
+
+    /**
+     * Returns the power of a god card.
+     *
+     * @param god the god, or {@code null} for a player without one
+     * @return the matching power, {@link #NONE} if the god has no known power
+     */
+    public static GodPower of(God god) {
+        if (god instanceof Artemis) return ARTEMIS;
+        if (god instanceof Demeter) return DEMETER;
+        if (god instanceof Triton) return TRITON;
+        return NONE;
+    }
+
+    /**
+     * Returns the turn flow of this power, for generating a turn step by step
+     * with {@link TurnRules#continuations}.
+     *
+     * @return the rules
+     */
+    public TurnRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns the label for this power.
+     *
+     * @return the power label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the label when the enum is converted to a string.
+     *
+     * @return the label string
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
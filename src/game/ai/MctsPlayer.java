@@ -0,0 +1,75 @@
+package game.ai;
+
+import engine.actors.Worker;
+import engine.positions.BitBoard;
+import game.gods.God;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A computer player that chooses its turns with a parallel {@link MctsSearch}.
+ * Several players may share one pool; each search uses all of its threads.
+ */
+public class MctsPlayer extends ComputerPlayer {
+    private final MctsSearch search;
+    private final long playouts;
+
+    /**
+     * Constructs an MCTS player that searches a shared tree on the common pool
+     * with light playouts and the default thinking time.
+     *
+     * @param name    the player’s name
+     * @param god     the God power assigned to the player
+     * @param workers the list of workers controlled by the player
+     * @param id      a unique player identifier
+     */
+    public MctsPlayer(String name, God god, List<Worker> workers, String id) {
+        this(name, god, workers, id, DEFAULT_THINK_MS, new MctsSearch(ForkJoinPool.commonPool(),
+                MctsSearch.Parallelism.TREE, RolloutPolicy.LIGHT));
+    }
+
+    /**
+     * Constructs an MCTS player.
+     *
+     * @param name        the player’s name
+     * @param god         the God power assigned to the player
+     * @param workers     the list of workers controlled by the player
+     * @param id          a unique player identifier
+     * @param thinkMillis the search time budget per turn in milliseconds
+     * @param search      the search to choose turns with
+     */
+    public MctsPlayer(String name, God god, List<Worker> workers, String id,
+                      long thinkMillis, MctsSearch search) {
+        this(name, god, workers, id, thinkMillis, 0, search);
+    }
+
+    /**
+     * Constructs an MCTS player with a playout budget. With no time limit and a
+     * one-thread root-parallel search, its turns depend only on the position.
+     *
+     * @param name        the player’s name
+     * @param god         the God power assigned to the player
+     * @param workers     the list of workers controlled by the player
+     * @param id          a unique player identifier
+     * @param thinkMillis the search time budget per turn in milliseconds, or 0 for none
+     * @param playouts    the playout budget per turn, or 0 for none
+     * @param search      the search to choose turns with
+     */
+    public MctsPlayer(String name, God god, List<Worker> workers, String id,
+                      long thinkMillis, long playouts, MctsSearch search) {
+        super(name, god, workers, id, thinkMillis);
+        this.playouts = playouts;
+        this.search = search;
+    }
+
+    @Override
+    protected long chooseTurn(BitBoard board, int mine, GodPower power, int theirs, GodPower theirPower) {
+        return search.search(board, mine, power, theirs, theirPower, thinkMillis, playouts);
+    }
+
+    /** @return the search of this player, for playout statistics */
+    public MctsSearch getSearch() {
+        return search;
+    }
+}
@@ -0,0 +1,442 @@
+package game.ai;
+
+import engine.action.BuildMode;
+import engine.positions.BitBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Monte Carlo Tree Search over complete turns, run on a {@link ForkJoinPool}.
+ * <p>
+ * Every iteration walks down the tree by UCT, expands a leaf into its
+ * {@link TurnGenerator} turns once it has been visited before, finishes the
+ * game with a {@link RolloutPolicy} playout and backs the result up the path.
+ * A side that can win by moving onto level 3 wins at once, and a side with no
+ * legal turn loses.
+ * </p>
+ * <p>
+ * With {@link Parallelism#ROOT} every pool thread grows its own tree from the
+ * root and the root visit counts are summed at the end. With
+ * {@link Parallelism#TREE} all threads share one tree without locks: visit and
+ * win counters are updated atomically, children are published with a single
+ * compare-and-set, and a thread passing through a node adds a virtual loss so
+ * that others spread out to different branches until its result comes back.
+ * </p>
+ * The search itself is thread-safe only in the sense that it runs its own
+ * tasks; callers should not start two searches on one instance at once.
+ */
+public class MctsSearch {
+    /** How pool threads share the work of one search. */
+    public enum Parallelism {
+        /** Independent trees per thread, merged at the root. */
+        ROOT,
+        /** One shared lock-free tree with virtual loss. */
+        TREE
+    }
+
+    /** Exploration constant of the UCT formula. */
+    private static final double EXPLORATION = 1.0;
+    /** Visits a leaf needs before it is expanded. */
+    private static final int EXPAND_AFTER = 2;
+    /** Losing visits a thread adds to each node it passes through (tree mode). */
+    private static final int VIRTUAL_LOSS = 3;
+    /** Playout length after which a game is scored as a draw. */
+    private static final int MAX_ROLLOUT = 200;
+    /** Deepest path an iteration descends, unless the search is given another. */
+    public static final int DEFAULT_MAX_PATH = 256;
+    /** Turns buffer size per thread; see {@link AlphaBetaSearch}. */
+    private static final int MAX_TURNS = 1 << 14;
+
+    private final ForkJoinPool pool;
+    private final Parallelism parallelism;
+    private final RolloutPolicy policy;
+    private final int maxPath;
+
+    private long playouts;
+    private long elapsedNanos;
+    private int deepestPath;
+
+    /**
+     * Creates a search that runs one task per thread of the given pool.
+     *
+     * @param pool        the pool to run playouts on
+     * @param parallelism how threads share the tree
+     * @param policy      how playouts choose their turns
+     */
+    public MctsSearch(ForkJoinPool pool, Parallelism parallelism, RolloutPolicy policy) {
+        this(pool, parallelism, policy, DEFAULT_MAX_PATH);
+    }
+
+    /**
+     * Creates a search that walks at most {@code maxPath} turns down its tree
+     * per iteration and plays out from there, however deep the tree below.
+     *
+     * @param pool        the pool to run playouts on
+     * @param parallelism how threads share the tree
+     * @param policy      how playouts choose their turns
+     * @param maxPath     the most turns an iteration descends, at least 1
+     * @throws IllegalArgumentException if {@code maxPath} is less than 1
+     */
+    public MctsSearch(ForkJoinPool pool, Parallelism parallelism, RolloutPolicy policy, int maxPath) {
+        if (maxPath < 1) {
+            throw new IllegalArgumentException("Path limit " + maxPath + " is less than 1");
+        }
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.policy = policy;
+        this.maxPath = maxPath;
+    }
+
+    /**
+     * Searches a position for the best turn of the side to move.
+     *
+     * @param board       the position; not modified
+     * @param moverSlots  worker slot mask of the side to move
+     * @param moverPower  god power of the side to move
+     * @param waiterSlots worker slot mask of the other side
+     * @param waiterPower god power of the other side
+     * @param millis      the time budget in milliseconds, or 0 for no time limit
+     * @param maxPlayouts playout budget over all threads, or 0 for no limit;
+     *                    at least one of the two budgets must be set
+     * @return the most visited turn, or {@link Turn#NONE} if the side to move has no legal turn
+     */
+    public long search(BitBoard board, int moverSlots, GodPower moverPower,
+                       int waiterSlots, GodPower waiterPower, long millis, long maxPlayouts) {
+        if (millis <= 0 && maxPlayouts <= 0) {
+            throw new IllegalArgumentException("MCTS needs a time or playout budget");
+        }
+        long start = System.nanoTime();
+        playouts = 0;
+        elapsedNanos = 0;
+        deepestPath = 0;
+        long[] rootTurns = new long[MAX_TURNS];
+        int count = new TurnGenerator().generate(board, moverSlots, moverPower, rootTurns, true);
+        if (count <= 1) {
+            return count == 0 ? Turn.NONE : rootTurns[0];
+        }
+
+        int threads = pool.getParallelism();
+        Position position = new Position(new BitBoard(board), new int[] {moverSlots, waiterSlots},
+                new GodPower[] {moverPower, waiterPower},
+                millis > 0 ? start + millis * 1_000_000L : Long.MAX_VALUE,
+                maxPlayouts > 0 ? Math.max(1, maxPlayouts / threads) : Long.MAX_VALUE);
+        Node shared = parallelism == Parallelism.TREE ? new Node(Turn.NONE) : null;
+        Node[] roots = pool.invoke(new SearchTask(position, shared, threads));
+
+        long[] visits = new long[count];
+        for (Node root : roots) {
+            Node[] children = root.children;
+            if (children == null) {
+                continue;
+            }
+            for (int i = 0; i < children.length; i++) {
+                visits[i] += children[i].visits;
+            }
+            if (shared != null) {
+                break;
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return rootTurns[best];
+    }
+
+    /** @return the number of playouts run by the last search */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /** @return the most turns any iteration of the last search walked down its tree */
+    public int getDeepestPath() {
+        return deepestPath;
+    }
+
+    /** @return the playout throughput of the last search */
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts * 1e9 / elapsedNanos;
+    }
+
+    /** @return the thread sharing mode of this search */
+    public Parallelism getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * The fixed inputs of one search, shared read-only by its tasks.
+     */
+    private static final class Position {
+        final BitBoard root;
+        final int[] slots;
+        final GodPower[] powers;
+        final long deadline;
+        final long playoutsPerTask;
+
+        Position(BitBoard root, int[] slots, GodPower[] powers, long deadline, long playoutsPerTask) {
+            this.root = root;
+            this.slots = slots;
+            this.powers = powers;
+            this.deadline = deadline;
+            this.playoutsPerTask = playoutsPerTask;
+        }
+    }
+
+    /**
+     * A tree node: the turn that leads to it and the statistics of the player
+     * who made that turn. Wins are counted in halves so a drawn playout scores 1.
+     */
+    private static final class Node {
+        private static final AtomicIntegerFieldUpdater<Node> VISITS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+        private static final AtomicIntegerFieldUpdater<Node> HALF_WINS =
+                AtomicIntegerFieldUpdater.newUpdater(Node.class, "halfWins");
+        private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+        final long turn;
+        volatile int visits;
+        volatile int halfWins;
+        volatile Node[] children;
+
+        Node(long turn) {
+            this.turn = turn;
+        }
+
+        /**
+         * Publishes a child array unless another thread got there first.
+         *
+         * @return the children now attached to this node
+         */
+        Node[] expand(Node[] fresh) {
+            return CHILDREN.compareAndSet(this, null, fresh) ? fresh : children;
+        }
+    }
+
+    /**
+     * Splits a search into one playout task per pool thread and collects the
+     * root each of them worked on.
+     */
+    @SuppressWarnings("serial") // tasks never leave the process
+    private final class SearchTask extends RecursiveTask<Node[]> {
+        private final Position position;
+        private final Node shared;
+        private final int threads;
+
+        SearchTask(Position position, Node shared, int threads) {
+            this.position = position;
+            this.shared = shared;
+            this.threads = threads;
+        }
+
+        @Override
+        protected Node[] compute() {
+            List<PlayoutTask> tasks = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                Node root = shared != null ? shared : new Node(Turn.NONE);
+                tasks.add(new PlayoutTask(position, root, position.root.getKey() ^ t * 0x9E3779B97F4A7C15L));
+            }
+            invokeAll(tasks);
+            Node[] roots = new Node[threads];
+            long total = 0;
+            int deepest = 0;
+            for (int t = 0; t < threads; t++) {
+                roots[t] = tasks.get(t).root;
+                total += tasks.get(t).join();
+                deepest = Math.max(deepest, tasks.get(t).deepest);
+            }
+            playouts = total;
+            deepestPath = deepest;
+            return roots;
+        }
+    }
+
+    /**
+     * Runs iterations on one tree until the deadline or its playout budget,
+     * with its own scratch board, generator and random stream.
+     */
+    @SuppressWarnings("serial")
+    private final class PlayoutTask extends RecursiveTask<Long> {
+        private final Position position;
+        private final Node root;
+        private final SplittableRandom random;
+        private final BitBoard board;
+        private final TurnGenerator generator = new TurnGenerator();
+        private final long[] turns = new long[MAX_TURNS];
+        private final Node[] path;
+        /** Most turns an iteration of this task descended below the root. */
+        private int deepest;
+
+        PlayoutTask(Position position, Node root, long seed) {
+            this.position = position;
+            this.root = root;
+            this.random = new SplittableRandom(seed);
+            this.board = new BitBoard(position.root.getDimension());
+            this.path = new Node[maxPath + 1];
+        }
+
+        @Override
+        protected Long compute() {
+            long done = 0;
+            while (done < position.playoutsPerTask && System.nanoTime() < position.deadline) {
+                iterate();
+                done++;
+            }
+            return done;
+        }
+
+        /**
+         * One selection, expansion, playout and backup pass.
+         */
+        private void iterate() {
+            boolean virtual = parallelism == Parallelism.TREE;
+            board.copyFrom(position.root);
+            Node node = root;
+            int side = 0;
+            int length = 0;
+            path[length++] = node;
+            int result;
+
+            while (true) {
+                if (generator.hasWin(board, position.slots[side], position.powers[side])) {
+                    result = 2;
+                    break;
+                }
+                if (length == path.length) {
+                    // a full path is a leaf, however far the tree below it is expanded
+                    result = rollout(side);
+                    break;
+                }
+                Node[] children = node.children;
+                if (children == null) {
+                    // our own virtual loss on this node does not count as a visit
+                    int visits = node.visits - (virtual && node != root ? VIRTUAL_LOSS : 0);
+                    if (node != root && visits < EXPAND_AFTER) {
+                        result = rollout(side);
+                        break;
+                    }
+                    int count = generator.generate(board, position.slots[side], position.powers[side], turns, false);
+                    if (count == 0) {
+                        result = 0;
+                        break;
+                    }
+                    Node[] fresh = new Node[count];
+                    for (int i = 0; i < count; i++) {
+                        fresh[i] = new Node(turns[i]);
+                    }
+                    children = node.expand(fresh);
+                }
+                node = select(node, children);
+                if (virtual) {
+                    Node.VISITS.addAndGet(node, VIRTUAL_LOSS);
+                }
+                TurnGenerator.apply(board, node.turn);
+                side ^= 1;
+                path[length++] = node;
+            }
+
+            deepest = Math.max(deepest, length - 1);
+            // result is in half points for the side to move at the last node;
+            // each node is credited to the player who moved into it
+            int reward = 2 - result;
+            for (int i = length - 1; i >= 0; i--) {
+                Node n = path[i];
+                Node.VISITS.addAndGet(n, virtual && i > 0 ? 1 - VIRTUAL_LOSS : 1);
+                if (reward != 0) {
+                    Node.HALF_WINS.addAndGet(n, reward);
+                }
+                reward = 2 - reward;
+                path[i] = null;
+            }
+        }
+
+        /**
+         * Picks the child with the highest UCT score; unvisited children first.
+         */
+        private Node select(Node parent, Node[] children) {
+            double logParent = Math.log(Math.max(1, parent.visits));
+            Node best = children[0];
+            double bestScore = Double.NEGATIVE_INFINITY;
+            int offset = random.nextInt(children.length);
+            for (int k = 0; k < children.length; k++) {
+                Node child = children[(k + offset) % children.length];
+                int visits = child.visits;
+                if (visits == 0) {
+                    return child;
+                }
+                double score = child.halfWins / (2.0 * visits)
+                        + EXPLORATION * Math.sqrt(logParent / visits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays the game out from the scratch board.
+         *
+         * @param side the side to move
+         * @return 2 if that side wins, 0 if it loses, 1 for an unfinished playout
+         */
+        private int rollout(int side) {
+            int start = side;
+            for (int ply = 0; ply < MAX_ROLLOUT; ply++, side ^= 1) {
+                int slots = position.slots[side];
+                if (policy == RolloutPolicy.LIGHT
+                        && generator.hasWin(board, slots, position.powers[side])) {
+                    return side == start ? 2 : 0;
+                }
+                int slot = randomMover(slots);
+                if (slot < 0) {
+                    return side == start ? 0 : 2;
+                }
+                int to = pick(board.moveTargets(board.workerSquare(slot)));
+                board.moveWorker(slot, to);
+                if (board.height(to) == 3) {
+                    return side == start ? 2 : 0;
+                }
+                long builds = board.towerTargets(to);
+                if (builds != 0) {
+                    board.build(pick(builds), BuildMode.NORMAL);
+                }
+            }
+            return 1;
+        }
+
+        /** @return a random slot of the mask that can move, or -1 if none can */
+        private int randomMover(int slots) {
+            int count = Integer.bitCount(slots);
+            int offset = random.nextInt(count);
+            for (int k = 0; k < count; k++) {
+                int m = slots;
+                for (int skip = (k + offset) % count; skip > 0; skip--) {
+                    m &= m - 1;
+                }
+                int slot = Integer.numberOfTrailingZeros(m);
+                if (board.hasMove(slot)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /** @return a uniformly random set square of a non-empty mask */
+        private int pick(long mask) {
+            for (int skip = random.nextInt(Long.bitCount(mask)); skip > 0; skip--) {
+                mask &= mask - 1;
+            }
+            return Long.numberOfTrailingZeros(mask);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package game.ai;
+
+import engine.actors.Player;
+import engine.positions.BitBoard;
+import engine.positions.GameBoard;
+import engine.positions.GameEngine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Read-only table of opening turns learned from self-play, consulted by
+ * {@link ComputerPlayer}s before they search.
+ * <p>
+ * The file is a header followed by fixed-size entries sorted by position key:
+ * </p>
+ * <pre>
+ *  header  "SGOB", version (4), entry count (8)
+ *  entry   position key (8), packed {@link Turn} (8), games (4), points (4)
+ * </pre>
+ * A position key is the board's Zobrist key mixed with the mover's worker
+ * slots and both god powers, so the same stones under a different pairing
+ * are different positions. Points count 2 per game the mover went on to win
+ * and 1 per abandoned game. The file is memory-mapped and searched in place:
+ * a lookup is a binary search of absolute reads, touches no heap and is safe
+ * from any number of threads. Books are written by {@link OpeningBookBuilder}.
+ */
+public final class OpeningBook implements Closeable {
+    static final byte[] MAGIC = "SGOB".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int count;
+
+    /**
+     * Opens and maps a book file.
+     *
+     * @param file the book
+     * @throws IOException if it cannot be read or is not an opening book
+     */
+    public OpeningBook(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read the whole header
+            }
+            if (header.hasRemaining() || !Arrays.equals(Arrays.copyOf(header.array(), MAGIC.length), MAGIC)) {
+                throw new IOException(file + " is not an opening book");
+            }
+            int version = header.getInt(MAGIC.length);
+            if (version != VERSION) {
+                throw new IOException(file + " has unsupported opening book version " + version);
+            }
+            long entryCount = header.getLong(8);
+            if (entryCount < 0 || entryCount > (Integer.MAX_VALUE - HEADER_BYTES) / ENTRY_BYTES
+                    || size != HEADER_BYTES + entryCount * ENTRY_BYTES) {
+                throw new IOException(file + ": damaged opening book");
+            }
+            count = (int) entryCount;
+            entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return the number of positions in the book */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Looks up the book turn for a position.
+     *
+     * @param board      the position, between turns
+     * @param mine       worker slot mask of the player to move
+     * @param power      that player's god power
+     * @param theirPower the opponent's god power
+     * @return the turn to play, or {@link Turn#NONE} if the position is not in the book
+     */
+    public long lookup(BitBoard board, int mine, GodPower power, GodPower theirPower) {
+        int entry = find(key(board, mine, power, theirPower));
+        return entry < 0 ? Turn.NONE : entries.getLong(HEADER_BYTES + entry * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * Returns the number of games behind a position's book turn.
+     *
+     * @param key the position key
+     * @return the games, or 0 if the position is not in the book
+     */
+    public int games(long key) {
+        int entry = find(key);
+        return entry < 0 ? 0 : entries.getInt(HEADER_BYTES + entry * ENTRY_BYTES + 16);
+    }
+
+    /**
+     * Returns the points the mover scored with a position's book turn.
+     *
+     * @param key the position key
+     * @return 2 per win and 1 per abandoned game, or 0 if the position is not in the book
+     */
+    public int points(long key) {
+        int entry = find(key);
+        return entry < 0 ? 0 : entries.getInt(HEADER_BYTES + entry * ENTRY_BYTES + 20);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** @return the index of the entry with the key, or -1 */
+    private int find(long key) {
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long k = entries.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (k < key) {
+                lo = mid + 1;
+            } else if (k > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the book key of a position between turns.
+     *
+     * @param board      the position
+     * @param mine       worker slot mask of the player to move
+     * @param power      that player's god power
+     * @param theirPower the opponent's god power
+     * @return the key
+     */
+    public static long key(BitBoard board, int mine, GodPower power, GodPower theirPower) {
+        long z = ((long) mine << 16 | power.ordinal() << 8 | theirPower.ordinal()) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return board.getKey() ^ z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the book key of an engine's position for the player to move,
+     * as that player would look it up.
+     *
+     * @param engine the game, between turns
+     * @return the key
+     */
+    public static long key(GameEngine engine) {
+        GameBoard board = engine.getBoard();
+        Player mover = engine.getCurrentPlayer();
+        GodPower theirPower = GodPower.NONE;
+        for (Player p : engine.getPlayers()) {
+            if (p != mover) {
+                theirPower = GodPower.of(p.getGod());
+            }
+        }
+        return key(board.getBitBoard(), ComputerPlayer.slotMask(board, mover), GodPower.of(mover.getGod()), theirPower);
+    }
+}
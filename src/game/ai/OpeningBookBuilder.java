@@ -0,0 +1,144 @@
+package game.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the turns played from opening positions in self-play, with how
+ * each game ended for the player who played them, and writes the best-scoring
+ * turn of every position to an {@link OpeningBook} file.
+ * <p>
+ * Not thread-safe: give each self-play thread its own builder and
+ * {@link #merge} them before writing.
+ * </p>
+ */
+public class OpeningBookBuilder {
+    /** Results of one turn from one position. */
+    private static final class Candidate {
+        final long turn;
+        int games;
+        int points;
+
+        Candidate(long turn) {
+            this.turn = turn;
+        }
+    }
+
+    private final Map<Long, List<Candidate>> positions = new HashMap<>();
+
+    /**
+     * Adds one game's result for a turn played from a position.
+     *
+     * @param key    the position key, see {@link OpeningBook#key}
+     * @param turn   the turn played
+     * @param points 2 if the player who played it won, 1 if the game was abandoned, 0 if it lost
+     */
+    public void add(long key, long turn, int points) {
+        add(key, turn, 1, points);
+    }
+
+    /**
+     * Adds every result collected by another builder.
+     *
+     * @param other the builder to merge in; left unchanged
+     */
+    public void merge(OpeningBookBuilder other) {
+        for (Map.Entry<Long, List<Candidate>> e : other.positions.entrySet()) {
+            for (Candidate c : e.getValue()) {
+                add(e.getKey(), c.turn, c.games, c.points);
+            }
+        }
+    }
+
+    /** @return the number of distinct positions collected */
+    public int positions() {
+        return positions.size();
+    }
+
+    /**
+     * Writes a book holding, for every position with a turn played in at least
+     * {@code minGames} games, the best average points among such turns; ties go
+     * to the turn played more often. Turns played more rarely are left out, so a
+     * lucky single win cannot outrank a turn proven over many games.
+     *
+     * @param file     the book file, replaced if it exists
+     * @param minGames the fewest games a turn needs to enter the book
+     * @return the number of positions written
+     * @throws IOException if the file cannot be written
+     */
+    public int write(Path file, int minGames) throws IOException {
+        long[] keys = new long[positions.size()];
+        int count = 0;
+        for (Map.Entry<Long, List<Candidate>> e : positions.entrySet()) {
+            if (best(e.getValue(), minGames) != null) {
+                keys[count++] = e.getKey();
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + 4096 * OpeningBook.ENTRY_BYTES);
+            buffer.put(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(count);
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < OpeningBook.ENTRY_BYTES) {
+                    flush(out, buffer);
+                }
+                Candidate c = best(positions.get(keys[i]), minGames);
+                buffer.putLong(keys[i]).putLong(c.turn).putInt(c.games).putInt(c.points);
+            }
+            flush(out, buffer);
+        }
+        return count;
+    }
+
+    private void add(long key, long turn, int games, int points) {
+        List<Candidate> candidates = positions.computeIfAbsent(key, k -> new ArrayList<>(1));
+        Candidate candidate = null;
+        for (Candidate c : candidates) {
+            if (c.turn == turn) {
+                candidate = c;
+                break;
+            }
+        }
+        if (candidate == null) {
+            candidate = new Candidate(turn);
+            candidates.add(candidate);
+        }
+        candidate.games += games;
+        candidate.points += points;
+    }
+
+    /** @return the best turn of a position among those played in at least {@code minGames} games, or {@code null} */
+    private static Candidate best(List<Candidate> candidates, int minGames) {
+        Candidate best = null;
+        for (Candidate c : candidates) {
+            if (c.games < minGames) {
+                continue;
+            }
+            // compare points / games without division
+            long lhs = (long) c.points * (best == null ? 1 : best.games);
+            long rhs = best == null ? -1 : (long) best.points * c.games;
+            if (lhs > rhs || lhs == rhs && c.games > best.games) {
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+}
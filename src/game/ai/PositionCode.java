@@ -0,0 +1,410 @@
+package game.ai;
+
+import engine.positions.BitBoard;
+import engine.positions.GameEngine;
+import game.gods.TurnPhase;
+import game.gods.TurnRules;
+
+/**
+ * Packs a complete game state into four {@code long}s and writes it as a short
+ * FEN-like line, for logs, fixtures, caches and the wire.
+ * <p>
+ * The code is a bit stream, filled from bit 0 of the first word, holding the
+ * board dimension, the side to move, its {@link TurnRules} state (the step of
+ * its turn and the square a pending god-power step must avoid), the worker
+ * slot taking the turn, both players' {@link GodPower}s, every worker slot's
+ * square and every square's {@link BitBoard#structure} code. Unused bits are
+ * zero, so equal states have equal codes. A 5×5 game with four workers needs
+ * 125 bits and leaves the last two words empty; boards up to 8×8 with four
+ * workers fit.
+ * </p>
+ * <pre>
+ *  bits  0-3   dimension                    bits 15-21 avoided square + 1, or 0
+ *  bit   4     side to move                 bits 22-25 selected slot + 1, or 0
+ *  bits  5-6   step (m, M, b, B)            next 6n    worker squares by slot
+ *  bits  7-10  powers of players 0 and 1    next 3·d²  structure codes by square
+ *  bits 11-14  worker count n
+ * </pre>
+ * The text form lists the rows from the top rank down, separated by {@code /},
+ * one character per square ({@code 0}–{@code 3} tower height, {@code D} dome,
+ * {@code w} partial wall, {@code W} full wall), then the worker squares by slot
+ * with a {@code *} after the selected worker's, the player to move (1 or 2),
+ * the step ({@code m} move, {@code M} optional extra move, {@code b} build,
+ * {@code B} optional extra build, followed by {@code +} and the square the
+ * step must avoid, if any) and one letter per player's god ({@code n},
+ * {@code a}, {@code d} or {@code t}):
+ * <pre>
+ *  00000/0D000/00120/0w000/00000 a1,c3,c2,d4 1 m ad
+ *  00000/0D000/00120/0w000/00000 a2*,c3,c2,d4 1 M+a1 ad
+ * </pre>
+ * Encoding, decoding, formatting and parsing allocate nothing beyond the
+ * caller's output.
+ */
+public final class PositionCode {
+    /** Number of {@code long}s in a code. */
+    public static final int WORDS = 4;
+
+    private static final int HEADER_BITS = 26;
+    private static final GodPower[] POWERS = GodPower.values();
+    private static final String SQUARE_CHARS = "0123DwW";
+    private static final String POWER_CHARS = "nadt";
+    /** Text of the steps, by {@link TurnRules#step}. */
+    private static final String STEP_CHARS = "mMbB";
+
+    private PositionCode() {
+    }
+
+    /**
+     * Encodes the packed board and turn state of a position.
+     *
+     * @param board    the structures and workers; every worker slot in use must be placed
+     * @param side     the player to move, 0 or 1
+     * @param state    the {@link TurnRules} state of the turn of the player to move, not done
+     * @param selected the worker slot taking the turn, or -1 before one is selected
+     * @param power0   the first player's god power
+     * @param power1   the second player's god power
+     * @param code     receives the code; at least {@link #WORDS} long
+     * @throws IllegalArgumentException if the board is too large for a code, or the
+     *                                  turn state or selected slot does not fit
+     */
+    public static void encode(BitBoard board, int side, int state, int selected,
+                              GodPower power0, GodPower power1, long[] code) {
+        int dimension = board.getDimension();
+        int workers = board.getWorkerCount();
+        int squares = dimension * dimension;
+        if (HEADER_BITS + 6 * workers + 3 * squares > 64 * WORDS) {
+            throw new IllegalArgumentException("A " + dimension + "x" + dimension + " board with "
+                    + workers + " workers does not fit in a position code");
+        }
+        for (int i = 0; i < WORDS; i++) {
+            code[i] = 0L;
+        }
+        put(code, 0, 4, dimension);
+        if (TurnRules.isDone(state) || TurnRules.remembered(state) >= squares) {
+            throw new IllegalArgumentException("Turn state " + state + " does not fit in a position code");
+        }
+        if (selected < -1 || selected >= workers) {
+            throw new IllegalArgumentException("Selected slot " + selected + " is not a worker slot");
+        }
+        put(code, 4, 1, side);
+        put(code, 5, 2, TurnRules.step(state));
+        put(code, 7, 2, power0.ordinal());
+        put(code, 9, 2, power1.ordinal());
+        put(code, 11, 4, workers);
+        put(code, 15, 7, TurnRules.remembered(state) + 1);
+        put(code, 22, 4, selected + 1);
+        int at = HEADER_BITS;
+        for (int slot = 0; slot < workers; slot++, at += 6) {
+            int square = board.workerSquare(slot);
+            if (square < 0) {
+                throw new IllegalArgumentException("Worker slot " + slot + " is not on the board");
+            }
+            put(code, at, 6, square);
+        }
+        for (int square = 0; square < squares; square++, at += 3) {
+            put(code, at, 3, board.structure(square));
+        }
+    }
+
+    /**
+     * Encodes the current state of a running game: its board, the player to
+     * move, the state of that player's turn, its selected worker and both
+     * players' god powers.
+     *
+     * @param engine a two-player game
+     * @param code   receives the code; at least {@link #WORDS} long
+     */
+    public static void encode(GameEngine engine, long[] code) {
+        encode(engine.getBoard().getBitBoard(), engine.getCurrentPlayerIndex(),
+                engine.getTurnState(), engine.getSelectedSlot(),
+                GodPower.of(engine.getPlayers().get(0).getGod()),
+                GodPower.of(engine.getPlayers().get(1).getGod()), code);
+    }
+
+    /**
+     * Writes the structures and workers of a code into a board, which must be
+     * empty or hold the same worker slots.
+     *
+     * @param code  the position code
+     * @param board receives the position; its dimension must match
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    public static void decode(long[] code, BitBoard board) {
+        int dimension = dimension(code);
+        if (board.getDimension() != dimension) {
+            throw new IllegalArgumentException("Position code is " + dimension + "x" + dimension
+                    + ", board is " + board.getDimension() + "x" + board.getDimension());
+        }
+        int workers = workerCount(code);
+        int at = HEADER_BITS;
+        for (int slot = 0; slot < workers; slot++, at += 6) {
+            int square = (int) get(code, at, 6);
+            if (slot < board.getWorkerCount() && board.workerSquare(slot) >= 0) {
+                board.moveWorker(slot, square);
+            } else {
+                board.placeWorker(slot, square);
+            }
+        }
+        for (int square = 0, squares = dimension * dimension; square < squares; square++, at += 3) {
+            board.setStructure(square, (int) get(code, at, 3));
+        }
+    }
+
+    /** @return the board dimension of a code */
+    public static int dimension(long[] code) {
+        return (int) get(code, 0, 4);
+    }
+
+    /** @return the player to move, 0 or 1 */
+    public static int side(long[] code) {
+        return (int) get(code, 4, 1);
+    }
+
+    /** @return the {@link TurnRules} state of the turn of the player to move */
+    public static int turnState(long[] code) {
+        return TurnRules.state((int) get(code, 5, 2), (int) get(code, 15, 7) - 1);
+    }
+
+    /** @return the worker slot taking the turn, or -1 if none is selected yet */
+    public static int selectedSlot(long[] code) {
+        return (int) get(code, 22, 4) - 1;
+    }
+
+    /** @return the phase of the player to move */
+    public static TurnPhase phase(long[] code) {
+        return TurnRules.phase(turnState(code));
+    }
+
+    /**
+     * Returns the god power of a player.
+     *
+     * @param code   the position code
+     * @param player 0 or 1
+     * @return the player's power
+     */
+    public static GodPower power(long[] code, int player) {
+        return POWERS[(int) get(code, 7 + 2 * player, 2)];
+    }
+
+    /** @return the number of worker slots in a code */
+    public static int workerCount(long[] code) {
+        return (int) get(code, 11, 4);
+    }
+
+    /**
+     * Returns the square of a worker slot.
+     *
+     * @param code the position code
+     * @param slot the worker slot
+     * @return the square index
+     */
+    public static int workerSquare(long[] code, int slot) {
+        return (int) get(code, HEADER_BITS + 6 * slot, 6);
+    }
+
+    /**
+     * Returns the {@link BitBoard#structure} code of a square.
+     *
+     * @param code   the position code
+     * @param square the square index
+     * @return the structure code 0–6
+     */
+    public static int structure(long[] code, int square) {
+        return (int) get(code, HEADER_BITS + 6 * workerCount(code) + 3 * square, 3);
+    }
+
+    /**
+     * Appends the text form of a code.
+     *
+     * @param code the position code
+     * @param out  receives the text
+     * @return {@code out}
+     */
+    public static StringBuilder format(long[] code, StringBuilder out) {
+        int dimension = dimension(code);
+        for (int row = dimension - 1; row >= 0; row--) {
+            for (int col = 0; col < dimension; col++) {
+                out.append(SQUARE_CHARS.charAt(structure(code, row * dimension + col)));
+            }
+            if (row > 0) {
+                out.append('/');
+            }
+        }
+        out.append(' ');
+        int selected = selectedSlot(code);
+        for (int slot = 0, workers = workerCount(code); slot < workers; slot++) {
+            if (slot > 0) {
+                out.append(',');
+            }
+            square(workerSquare(code, slot), dimension, out);
+            if (slot == selected) {
+                out.append('*');
+            }
+        }
+        int state = turnState(code);
+        out.append(' ').append((char) ('1' + side(code)))
+                .append(' ').append(STEP_CHARS.charAt(TurnRules.step(state)));
+        if (TurnRules.remembered(state) >= 0) {
+            square(TurnRules.remembered(state), dimension, out.append('+'));
+        }
+        return out.append(' ').append(POWER_CHARS.charAt(power(code, 0).ordinal()))
+                .append(POWER_CHARS.charAt(power(code, 1).ordinal()));
+    }
+
+    /**
+     * Returns the text form of a code.
+     *
+     * @param code the position code
+     * @return the text, e.g. {@code "00000/0D000/00120/0w000/00000 a1*,c3,c2,d4 1 m ad"}
+     */
+    public static String toString(long[] code) {
+        return format(code, new StringBuilder(64)).toString();
+    }
+
+    /**
+     * Parses the text form of a position.
+     *
+     * @param text the text, as written by {@link #format}
+     * @param code receives the code; at least {@link #WORDS} long
+     * @throws IllegalArgumentException if the text is malformed or describes a
+     *                                  position that cannot arise: more workers than a
+     *                                  board holds, two workers on one square, or a
+     *                                  worker on a dome or wall
+     */
+    public static void parse(CharSequence text, long[] code) {
+        int length = text.length();
+        int dimension = 0;
+        while (dimension < length && text.charAt(dimension) != '/' && text.charAt(dimension) != ' ') {
+            dimension++;
+        }
+        if (dimension < 1 || dimension > BitBoard.MAX_DIMENSION) {
+            throw malformed(text, "bad board width");
+        }
+        int squares = dimension * dimension;
+        int first = dimension * (dimension + 1);
+        int workers = first < length && text.charAt(first) != ' ' ? 1 : 0;
+        for (int i = first; i < length && text.charAt(i) != ' '; i++) {
+            if (text.charAt(i) == ',') {
+                workers++;
+            }
+        }
+        if (HEADER_BITS + 6 * workers + 3 * squares > 64 * WORDS) {
+            throw malformed(text, "board too large");
+        }
+        if (workers > BitBoard.MAX_WORKERS) {
+            throw malformed(text, "more than " + BitBoard.MAX_WORKERS + " workers");
+        }
+        for (int i = 0; i < WORDS; i++) {
+            code[i] = 0L;
+        }
+        put(code, 0, 4, dimension);
+        put(code, 11, 4, workers);
+
+        int pos = 0;
+        int structures = HEADER_BITS + 6 * workers;
+        for (int row = dimension - 1; row >= 0; row--) {
+            for (int col = 0; col < dimension; col++) {
+                int value = pos < length ? SQUARE_CHARS.indexOf(text.charAt(pos)) : -1;
+                if (value < 0) {
+                    throw malformed(text, "bad square at " + pos);
+                }
+                put(code, structures + 3 * (row * dimension + col), 3, value);
+                pos++;
+            }
+            expect(text, pos++, row > 0 ? '/' : ' ');
+        }
+        long occupied = 0L;
+        for (int slot = 0; slot < workers; slot++) {
+            int square = parseSquare(text, pos, dimension, "bad worker square at ");
+            if ((occupied >>> square & 1) != 0) {
+                throw malformed(text, "second worker on the square at " + pos);
+            }
+            if (get(code, structures + 3 * square, 3) > 3) {
+                throw malformed(text, "worker on a dome or wall at " + pos);
+            }
+            occupied |= 1L << square;
+            put(code, HEADER_BITS + 6 * slot, 6, square);
+            pos += 2;
+            if (pos < length && text.charAt(pos) == '*') {
+                if (get(code, 22, 4) != 0) {
+                    throw malformed(text, "second selected worker at " + pos);
+                }
+                put(code, 22, 4, slot + 1);
+                pos++;
+            }
+            expect(text, pos++, slot + 1 < workers ? ',' : ' ');
+        }
+        if (workers == 0) {
+            expect(text, pos++, ' ');
+        }
+        int side = pos < length ? text.charAt(pos) - '1' : -1;
+        if (side != 0 && side != 1) {
+            throw malformed(text, "bad side to move");
+        }
+        put(code, 4, 1, side);
+        expect(text, ++pos, ' ');
+        int step = ++pos < length ? STEP_CHARS.indexOf(text.charAt(pos)) : -1;
+        if (step < 0) {
+            throw malformed(text, "bad step");
+        }
+        put(code, 5, 2, step);
+        if (pos + 1 < length && text.charAt(pos + 1) == '+') {
+            put(code, 15, 7, parseSquare(text, pos + 2, dimension, "bad avoided square at ") + 1);
+            pos += 3;
+        }
+        expect(text, ++pos, ' ');
+        for (int player = 0; player < 2; player++) {
+            int power = ++pos < length ? POWER_CHARS.indexOf(text.charAt(pos)) : -1;
+            if (power < 0) {
+                throw malformed(text, "bad god at " + pos);
+            }
+            put(code, 7 + 2 * player, 2, power);
+        }
+        if (pos + 1 != length) {
+            throw malformed(text, "trailing text");
+        }
+    }
+
+    /** Appends a square as a file letter and a rank digit, such as {@code c3}. */
+    private static void square(int square, int dimension, StringBuilder out) {
+        out.append((char) ('a' + square % dimension)).append((char) ('1' + square / dimension));
+    }
+
+    /** Parses a square written by {@link #square}. */
+    private static int parseSquare(CharSequence text, int pos, int dimension, String reason) {
+        int length = text.length();
+        int col = pos < length ? text.charAt(pos) - 'a' : -1;
+        int row = pos + 1 < length ? text.charAt(pos + 1) - '1' : -1;
+        if (col < 0 || col >= dimension || row < 0 || row >= dimension) {
+            throw malformed(text, reason + pos);
+        }
+        return row * dimension + col;
+    }
+
+    private static void expect(CharSequence text, int pos, char c) {
+        if (pos >= text.length() || text.charAt(pos) != c) {
+            throw malformed(text, "expected '" + c + "' at " + pos);
+        }
+    }
+
+    private static IllegalArgumentException malformed(CharSequence text, String reason) {
+        return new IllegalArgumentException("Bad position \"" + text + "\": " + reason);
+    }
+
+    private static long get(long[] code, int at, int bits) {
+        int word = at >>> 6, shift = at & 63;
+        long value = code[word] >>> shift;
+        if (shift + bits > 64) {
+            value |= code[word + 1] << (64 - shift);
+        }
+        return value & ((1L << bits) - 1);
+    }
+
+    private static void put(long[] code, int at, int bits, long value) {
+        int word = at >>> 6, shift = at & 63;
+        code[word] |= value << shift;
+        if (shift + bits > 64) {
+            code[word + 1] |= value >>> (64 - shift);
+        }
+    }
+}
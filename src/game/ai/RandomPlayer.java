@@ -0,0 +1,39 @@
+package game.ai;
+
+import engine.actors.Worker;
+import engine.positions.BitBoard;
+import game.gods.God;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A computer player that plays a uniformly random legal turn, except that it
+ * always takes a win when one is available. Useful as a baseline opponent and
+ * for fast, reproducible self-play.
+ */
+public class RandomPlayer extends ComputerPlayer {
+    private final TurnGenerator generator = new TurnGenerator();
+    private final long[] turns = new long[1 << 14];
+    private final RandomGenerator random;
+
+    /**
+     * Constructs a random player.
+     *
+     * @param name    the player’s name
+     * @param god     the God power assigned to the player
+     * @param workers the list of workers controlled by the player
+     * @param id      a unique player identifier
+     * @param random  the source of its turn choices
+     */
+    public RandomPlayer(String name, God god, List<Worker> workers, String id, RandomGenerator random) {
+        super(name, god, workers, id, 0);
+        this.random = random;
+    }
+
+    @Override
+    protected long chooseTurn(BitBoard board, int mine, GodPower power, int theirs, GodPower theirPower) {
+        int count = generator.generate(board, mine, power, turns, true);
+        return count == 0 ? Turn.NONE : turns[random.nextInt(count)];
+    }
+}
@@ -0,0 +1,46 @@
+package game.ai;
+
+/**
+ * Enum of the playout policies a {@link MctsSearch} can use to finish a game
+ * from a new leaf. Both play basic moves and tower builds only, so a playout
+ * costs a few mask operations per turn; god powers are honoured when checking
+ * for a win.
+ */
+public enum RolloutPolicy {
+    /** A random worker makes a random move, then builds on a random square. */
+    RANDOM("Random"),
+
+    /** As {@link #RANDOM}, but a side that can win this turn always does. */
+    LIGHT("Light");
+
+    /** Human-readable label for the policy. */
+    private final String label;
+
+    /**
+     * Constructs a RolloutPolicy with the given label.
+     *
+     * @param label the display label for the policy
+     */
+    RolloutPolicy(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label for this policy.
+     *
+     * @return the policy label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Returns the label when the enum is converted to a string.
+     *
+     * @return the label string
+     */
+    @Override
+    public String toString() {
+        return label;
+    }
+}
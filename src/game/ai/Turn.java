@@ -0,0 +1,164 @@
+package game.ai;
+
+import engine.action.BuildMode;
+
+/**
+ * Packs a complete turn into a single {@code long} so move lists are plain arrays.
+ * <p>
+ * A turn is the worker slot, the square it finishes on, an optional intermediate
+ * square (Artemis's first move), and up to two builds with their {@link BuildMode}.
+ * A winning turn ends on a level-3 square and has no build. Triton chains store only
+ * their final square; {@link TurnGenerator#path} recovers the path when the turn is played.
+ * </p>
+ * <pre>
+ *  bits  0-2  worker slot        bits 23-28  second build square
+ *  bits  3-8  final square       bits 29-30  second build mode
+ *  bits  9-14 intermediate       bit  31     has intermediate
+ *  bits 15-20 first build square bit  32     has first build
+ *  bits 21-22 first build mode   bit  33     has second build
+ *                                bit  34     winning move
+ * </pre>
+ */
+public final class Turn {
+    /** Number of low bits a turn occupies; callers may pack data above them. */
+    public static final int BITS = 35;
+    /** Mask of the bits a turn occupies. */
+    public static final long MASK = (1L << BITS) - 1;
+    /** Marker for "no turn"; never produced by the generator. */
+    public static final long NONE = -1L;
+
+    private static final BuildMode[] MODES = BuildMode.values();
+    private static final long HAS_VIA = 1L << 31;
+    private static final long HAS_BUILD1 = 1L << 32;
+    private static final long HAS_BUILD2 = 1L << 33;
+    private static final long WIN = 1L << 34;
+
+    private Turn() {
+    }
+
+    /**
+     * Encodes a move of a worker slot to a square.
+     *
+     * @param slot the worker slot
+     * @param to   the final square
+     * @return the turn, still without builds
+     */
+    public static long move(int slot, int to) {
+        return slot | (long) to << 3;
+    }
+
+    /** @return the turn with an intermediate square recorded */
+    public static long withVia(long turn, int via) {
+        return turn | (long) via << 9 | HAS_VIA;
+    }
+
+    /** @return the turn marked as winning on arrival */
+    public static long asWin(long turn) {
+        return turn | WIN;
+    }
+
+    /** @return the turn with its first build added */
+    public static long withBuild(long turn, int square, BuildMode mode) {
+        return turn | (long) square << 15 | (long) mode.ordinal() << 21 | HAS_BUILD1;
+    }
+
+    /** @return the turn with its second build added */
+    public static long withSecondBuild(long turn, int square, BuildMode mode) {
+        return turn | (long) square << 23 | (long) mode.ordinal() << 29 | HAS_BUILD2;
+    }
+
+    /** @return the worker slot that moves */
+    public static int slot(long turn) {
+        return (int) (turn & 7);
+    }
+
+    /** @return the square the worker finishes on */
+    public static int to(long turn) {
+        return (int) (turn >>> 3) & 63;
+    }
+
+    /** @return whether the worker stopped on an intermediate square */
+    public static boolean hasVia(long turn) {
+        return (turn & HAS_VIA) != 0;
+    }
+
+    /** @return the intermediate square, if {@link #hasVia} is set */
+    public static int via(long turn) {
+        return (int) (turn >>> 9) & 63;
+    }
+
+    /** @return whether the turn wins on arrival */
+    public static boolean isWin(long turn) {
+        return (turn & WIN) != 0;
+    }
+
+    /** @return whether the turn has a first build */
+    public static boolean hasBuild(long turn) {
+        return (turn & HAS_BUILD1) != 0;
+    }
+
+    /** @return the first build square */
+    public static int build(long turn) {
+        return (int) (turn >>> 15) & 63;
+    }
+
+    /** @return the first build mode */
+    public static BuildMode buildMode(long turn) {
+        return MODES[(int) (turn >>> 21) & 3];
+    }
+
+    /** @return whether the turn has a second build */
+    public static boolean hasSecondBuild(long turn) {
+        return (turn & HAS_BUILD2) != 0;
+    }
+
+    /** @return the second build square */
+    public static int secondBuild(long turn) {
+        return (int) (turn >>> 23) & 63;
+    }
+
+    /** @return the second build mode */
+    public static BuildMode secondBuildMode(long turn) {
+        return MODES[(int) (turn >>> 29) & 3];
+    }
+
+    /**
+     * Formats a turn for logs, e.g. {@code "W0 b2-c3 +d4 wall:c4"}.
+     *
+     * @param turn      the turn
+     * @param dimension the board dimension, for square names
+     * @return a human-readable description
+     */
+    public static String toString(long turn, int dimension) {
+        if (turn == NONE) {
+            return "none";
+        }
+        StringBuilder sb = new StringBuilder("W").append(slot(turn)).append(' ');
+        if (hasVia(turn)) {
+            sb.append(square(via(turn), dimension)).append('-');
+        }
+        sb.append(square(to(turn), dimension));
+        if (isWin(turn)) {
+            sb.append(" wins");
+        }
+        if (hasBuild(turn)) {
+            sb.append(' ').append(modeName(buildMode(turn))).append(square(build(turn), dimension));
+        }
+        if (hasSecondBuild(turn)) {
+            sb.append(' ').append(modeName(secondBuildMode(turn))).append(square(secondBuild(turn), dimension));
+        }
+        return sb.toString();
+    }
+
+    private static String modeName(BuildMode mode) {
+        switch (mode) {
+            case WALL:  return "wall:";
+            case BREAK: return "break:";
+            default:    return "+";
+        }
+    }
+
+    private static String square(int square, int dimension) {
+        return "" + (char) ('a' + square % dimension) + (square / dimension + 1);
+    }
+}
@@ -0,0 +1,345 @@
+package game.ai;
+
+import engine.action.BuildMode;
+import engine.positions.BitBoard;
+import game.gods.TurnRules;
+
+/**
+ * Enumerates complete turns on a packed {@link BitBoard}, following each god
+ * power's {@link TurnRules}.
+ * <p>
+ * Each distinct outcome is generated once: the moving worker, the square it ends
+ * on and the set of builds. Chains of optional moves, such as Artemis's double
+ * move and Triton's perimeter chain, are collapsed to their reachable final
+ * squares, and a second build on another square, such as Demeter's, is emitted
+ * as an unordered pair, since different orders or paths leave the same position;
+ * NORMAL builds on walls, which change nothing, are emitted once per final square.
+ * A move onto a level-3 square wins at once and carries no build. A move after
+ * which nothing can be built is not a legal turn.
+ * </p>
+ * The generator temporarily moves workers on the board it is given and always
+ * restores them before returning. Instances hold scratch arrays and are not
+ * thread-safe; give each searching thread its own.
+ */
+public class TurnGenerator {
+    private static final BuildMode[] MODES = BuildMode.values();
+    /** Build field of an undo record for a build that did not happen. */
+    private static final int NO_BUILD = 0x1FF;
+
+    /** Intermediate square used to reach each final square, where the path matters (Artemis). */
+    private final int[] via = new int[64];
+    /**
+     * Square each reached square was moved to from, or -1 if the first move
+     * reached it; filled by {@link #reach} where the rules allow further moves.
+     */
+    private final int[] parent = new int[64];
+    /** Turn state a worker standing on each square may move on in, filled by {@link #reach}. */
+    private final int[] moveState = new int[64];
+    /** Squares reachable with a winning move, filled by {@link #reach}. */
+    private long wins;
+
+    /**
+     * Writes every legal turn of the given workers into {@code out}.
+     *
+     * @param board     the position; left unchanged on return
+     * @param slotMask  bit mask of the worker slots of the side to move
+     * @param power     the side's god power
+     * @param out       receives the encoded turns
+     * @param winFirst  if {@code true} and a winning move exists, only that move is written
+     * @return the number of turns written
+     * @throws IllegalStateException if {@code out} is too small
+     */
+    public int generate(BitBoard board, int slotMask, GodPower power, long[] out, boolean winFirst) {
+        return generate(board, slotMask, power, out, winFirst, -1L);
+    }
+
+    /**
+     * Writes the legal turns of the given workers into {@code out}, leaving
+     * out the second-build pairs that build on none of the {@code pairs}
+     * squares. Every single build is still written.
+     *
+     * @param board     the position; left unchanged on return
+     * @param slotMask  bit mask of the worker slots of the side to move
+     * @param power     the side's god power
+     * @param out       receives the encoded turns
+     * @param winFirst  if {@code true} and a winning move exists, only that move is written
+     * @param pairs     squares one build of a pair must be on, or {@code -1} for every pair
+     * @return the number of turns written
+     * @throws IllegalStateException if {@code out} is too small
+     */
+    public int generate(BitBoard board, int slotMask, GodPower power, long[] out, boolean winFirst, long pairs) {
+        TurnRules rules = power.getRules();
+        int n = 0;
+        if (winFirst) {
+            for (int m = slotMask; m != 0; m &= m - 1) {
+                int slot = Integer.numberOfTrailingZeros(m);
+                reach(board, slot, rules);
+                if (wins != 0) {
+                    int to = Long.numberOfTrailingZeros(wins);
+                    out[0] = withVia(Turn.asWin(Turn.move(slot, to)), to, rules);
+                    return 1;
+                }
+            }
+        }
+        boolean twice = TurnRules.step(rules.afterBuild(TurnRules.BUILD, 0)) == TurnRules.EXTRA_BUILD;
+        for (int m = slotMask; m != 0; m &= m - 1) {
+            int slot = Integer.numberOfTrailingZeros(m);
+            int from = board.workerSquare(slot);
+            long finals = reach(board, slot, rules);
+
+            for (long w = wins; w != 0; w &= w - 1) {
+                int to = Long.numberOfTrailingZeros(w);
+                n = put(out, n, withVia(Turn.asWin(Turn.move(slot, to)), to, rules));
+            }
+            for (long f = finals; f != 0; f &= f - 1) {
+                int to = Long.numberOfTrailingZeros(f);
+                long turn = withVia(Turn.move(slot, to), to, rules);
+                board.moveWorker(slot, to);
+                n = builds(board, to, turn, twice, pairs, out, n);
+                board.moveWorker(slot, from);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Checks whether any of the given workers can win with this turn's moves.
+     *
+     * @param board    the position; left unchanged on return
+     * @param slotMask bit mask of the worker slots of the side to move
+     * @param power    the side's god power
+     * @return {@code true} if a winning move exists
+     */
+    public boolean hasWin(BitBoard board, int slotMask, GodPower power) {
+        if (board.heightExactly(3) == 0) {
+            return false;
+        }
+        TurnRules rules = power.getRules();
+        for (int m = slotMask; m != 0; m &= m - 1) {
+            reach(board, Integer.numberOfTrailingZeros(m), rules);
+            if (wins != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any of the given workers has at least one move.
+     *
+     * @param board    the position
+     * @param slotMask bit mask of the worker slots of the side to move
+     * @return {@code true} if a move exists
+     */
+    public static boolean hasMove(BitBoard board, int slotMask) {
+        for (int m = slotMask; m != 0; m &= m - 1) {
+            if (board.hasMove(Integer.numberOfTrailingZeros(m))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies a turn to a board.
+     * <p>
+     * The returned record is all {@link #undo} needs to restore the board exactly,
+     * so a search can walk one board down and back up instead of copying it per
+     * ply: the worker slot (3 bits), the square it left (6 bits) and the
+     * {@link BitBoard#build} record of each build (9 bits each, all ones if absent).
+     * A turn has no intermediate god state to restore, since Artemis and Triton
+     * paths and Demeter's pair are part of the turn itself.
+     * </p>
+     *
+     * @param board the board to change
+     * @param turn  a turn generated for this position
+     * @return the undo record of the turn
+     */
+    public static int apply(BitBoard board, long turn) {
+        int slot = Turn.slot(turn);
+        int undo = slot | board.moveWorker(slot, Turn.to(turn)) << 3;
+        int first = NO_BUILD, second = NO_BUILD;
+        if (Turn.hasBuild(turn)) {
+            first = board.build(Turn.build(turn), Turn.buildMode(turn));
+        }
+        if (Turn.hasSecondBuild(turn)) {
+            second = board.build(Turn.secondBuild(turn), Turn.secondBuildMode(turn));
+        }
+        return undo | first << 9 | second << 18;
+    }
+
+    /**
+     * Takes back the turn that returned {@code undo}; turns applied after it
+     * must have been taken back first.
+     *
+     * @param board the board the turn was applied to
+     * @param undo  the record returned by {@link #apply}
+     */
+    public static void undo(BitBoard board, int undo) {
+        int second = undo >>> 18, first = undo >>> 9 & NO_BUILD;
+        if (second != NO_BUILD) {
+            board.unbuild(second);
+        }
+        if (first != NO_BUILD) {
+            board.unbuild(first);
+        }
+        board.moveWorker(undo & 7, undo >>> 3 & 63);
+    }
+
+    /**
+     * Returns the squares a worker moves through to finish on {@code to}, in
+     * the order a player would click them. The path is the one {@link #reach}
+     * found by following the god power's {@link TurnRules}, so replaying it
+     * takes only moves those rules allow.
+     *
+     * @param board the position before the turn; left unchanged on return
+     * @param slot  the moving worker slot
+     * @param power the side's god power
+     * @param to    the final square
+     * @return the squares in order, ending with {@code to}; empty if {@code to} cannot be reached
+     */
+    public int[] path(BitBoard board, int slot, GodPower power, int to) {
+        TurnRules rules = power.getRules();
+        long finals = reach(board, slot, rules);
+        if (((finals | wins) >>> to & 1) == 0) {
+            return new int[0];
+        }
+        if (!rules.hasExtraMoves()) {
+            return new int[] {to};
+        }
+        int length = 1;
+        for (int s = parent[to]; s >= 0; s = parent[s]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int i = length - 1, s = to; i >= 0; i--, s = parent[s]) {
+            path[i] = s;
+        }
+        return path;
+    }
+
+    /**
+     * Computes where a worker can finish its movement this turn, following
+     * every move the rules allow after the first; each final square is found
+     * once, however many paths lead there. Sets {@link #wins} to the squares
+     * it can win on, records in {@link #parent} the square each was first
+     * reached from, and in {@link #via} the intermediate square of finals
+     * reached by a step that must avoid a square, since replaying such a turn
+     * has to take the same path.
+     *
+     * @return the non-winning final squares
+     */
+    private long reach(BitBoard board, int slot, TurnRules rules) {
+        int from = board.workerSquare(slot);
+        int dimension = board.getDimension();
+        long level3 = board.heightExactly(3);
+        long reached = board.moveTargets(from);
+        if (!rules.hasExtraMoves()) {
+            wins = reached & level3;
+            return reached & ~level3;
+        }
+        long frontier = 0;
+        for (long f = reached; f != 0; f &= f - 1) {
+            int to = Long.numberOfTrailingZeros(f);
+            parent[to] = -1;
+            via[to] = -1;
+            if ((level3 >>> to & 1) == 0) {
+                frontier |= moveOn(rules, TurnRules.START, from, to, dimension);
+            }
+        }
+        while (frontier != 0) {
+            int p = Long.numberOfTrailingZeros(frontier);
+            frontier &= frontier - 1;
+            int state = moveState[p];
+            int avoid = TurnRules.remembered(state);
+            board.moveWorker(slot, p);
+            long fresh = board.moveTargets(p) & ~reached;
+            board.moveWorker(slot, from);
+            if (avoid >= 0) {
+                fresh &= ~(1L << avoid);
+            }
+            for (long f = fresh; f != 0; f &= f - 1) {
+                int to = Long.numberOfTrailingZeros(f);
+                parent[to] = p;
+                via[to] = avoid >= 0 ? p : -1;
+                if ((level3 >>> to & 1) == 0) {
+                    frontier |= moveOn(rules, state, p, to, dimension);
+                }
+            }
+            reached |= fresh;
+        }
+        wins = reached & level3;
+        return reached & ~level3;
+    }
+
+    /**
+     * Returns the bit of {@code to} if a worker moving there from {@code from}
+     * may move again, and records the state it would do so in.
+     */
+    private long moveOn(TurnRules rules, int state, int from, int to, int dimension) {
+        int next = rules.afterMove(state, from, to, dimension);
+        if (TurnRules.step(next) != TurnRules.EXTRA_MOVE) {
+            return 0;
+        }
+        moveState[to] = next;
+        return 1L << to;
+    }
+
+    /** @return the turn with the intermediate square {@link #reach} recorded for {@code to}, if any */
+    private long withVia(long turn, int to, TurnRules rules) {
+        return rules.hasExtraMoves() && via[to] >= 0 ? Turn.withVia(turn, via[to]) : turn;
+    }
+
+    /**
+     * Emits the build options of a worker standing on {@code at}: every single
+     * build and, if the rules allow a second build, every unordered pair of
+     * builds on different squares.
+     * A NORMAL build on a wall is legal but changes nothing, so all such builds
+     * are one outcome: it is emitted once, on the lowest such square, and never
+     * paired, since pairing it would repeat the other build's single.
+     * A pair is only emitted if one of its builds is on a {@code pairs} square.
+     */
+    private static int builds(BitBoard board, int at, long turn, boolean twice, long pairs,
+                              long[] out, int n) {
+        long walls = board.walls();
+        for (BuildMode mode : MODES) {
+            long targets = board.buildTargets(at, mode);
+            if (mode == BuildMode.NORMAL) {
+                long noop = targets & walls;
+                if (noop != 0) {
+                    n = put(out, n, Turn.withBuild(turn, Long.numberOfTrailingZeros(noop), mode));
+                }
+                targets &= ~walls;
+            }
+            for (long b = targets; b != 0; b &= b - 1) {
+                int square = Long.numberOfTrailingZeros(b);
+                long single = Turn.withBuild(turn, square, mode);
+                n = put(out, n, single);
+                if (!twice) {
+                    continue;
+                }
+                for (BuildMode second : MODES) {
+                    long later = board.buildTargets(at, second) & -(2L << square);
+                    if ((pairs >>> square & 1) == 0) {
+                        later &= pairs;
+                    }
+                    if (second == BuildMode.NORMAL) {
+                        later &= ~walls;
+                    }
+                    for (long c = later; c != 0; c &= c - 1) {
+                        n = put(out, n, Turn.withSecondBuild(single, Long.numberOfTrailingZeros(c), second));
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    private static int put(long[] out, int n, long turn) {
+        if (n == out.length) {
+            throw new IllegalStateException("Turn buffer of " + out.length + " entries is too small");
+        }
+        out[n] = turn;
+        return n + 1;
+    }
+}
@@ -1,20 +1,22 @@
 package game.gods;
 
 import engine.action.BuildAction;
+import engine.action.BuildMode;
 import engine.action.MoveAction;
 import engine.actors.Worker;
+import engine.metrics.ActionEvent;
 import engine.positions.GameBoard;
 import engine.positions.Cell;
 import engine.positions.GameEngine;
-import engine.displays.BoardUI;
-
-import javax.swing.*;
-import java.awt.*;
 
 /**
  * Abstract base class for all Gods in the game.
- * Defines default move/build behavior and skip handling.
- * Each god may override methods to enable special powers.
+ * A god is the definition of a power: its name, its {@link TurnRules} and
+ * the texts players see. Gods hold no per-game state; the state of the turn
+ * in progress is one {@code int} kept by the {@link GameEngine}, which every
+ * call receives, so one instance of each god serves every game. Gods only
+ * talk to that engine; any display learns about status changes and skip
+ * offers through the engine's listeners.
  */
 public abstract class God {
     /** Name of the god (e.g., "Artemis", "Demeter"). */
@@ -23,129 +25,231 @@ public abstract class God {
     /** Description of the god's power. */
     protected String description;
 
-    /** The current phase of the god's turn (MOVE or BUILD). */
-    protected TurnPhase currentPhase;
+    /** The turn flow of this god's power. */
+    protected final TurnRules rules;
+
+    /** Label of the offer to skip this god's optional step. */
+    private final String skipLabel;
 
-    /** Skip button shown for optional second actions (if applicable). */
-    protected JButton skipButton;
+    /** Error shown for a step on the square the power forbids. */
+    private final String forbiddenMessage;
 
     /**
-     * Constructs a God with the given name and description.
+     * Constructs a God without a power: one move, then one build.
      *
      * @param name        the god's name
      * @param description description of the god's power
      */
     public God(String name, String description) {
+        this(name, description, TurnRules.STANDARD, "Skip", "Invalid Move!!");
+    }
+
+    /**
+     * Constructs a God with a power.
+     *
+     * @param name             the god's name
+     * @param description      description of the god's power
+     * @param rules            the turn flow of the power
+     * @param skipLabel        the label of the offer to skip the optional step
+     * @param forbiddenMessage the error for a step on the square the power forbids
+     */
+    protected God(String name, String description, TurnRules rules, String skipLabel, String forbiddenMessage) {
         this.name = name;
         this.description = description;
-        this.currentPhase = TurnPhase.MOVE;
+        this.rules = rules;
+        this.skipLabel = skipLabel;
+        this.forbiddenMessage = forbiddenMessage;
     }
 
     /**
      * Handles a turn by delegating to either move or build phase logic.
      *
+     * @param engine the engine running the game
      * @param cell   the clicked cell
      * @param worker the worker performing the action
      */
-    public void takeTurn(Cell cell, Worker worker) {
-        if (currentPhase == TurnPhase.MOVE) {
-            handleMove(cell, worker);
+    public void takeTurn(GameEngine engine, Cell cell, Worker worker) {
+        if (engine.getTurnPhase() == TurnPhase.MOVE) {
+            handleMove(engine, cell, worker);
         } else {
-            handleBuild(cell, worker);
+            handleBuild(engine, cell, worker);
         }
     }
 
     /**
-     * Default move logic for gods without custom powers.
-     * Transitions to the build phase on success.
+     * Moves the worker if the rules allow it and advances the turn state.
      *
+     * @param engine the engine running the game
      * @param cell   the destination cell
      * @param worker the worker to move
      */
-    public void handleMove(Cell cell, Worker worker) {
-        GameEngine engine = GameEngine.getInstance();
-        BoardUI boardUI = engine.getBoardUI();
-
-        MoveAction move = new MoveAction(engine.getBoard(), boardUI, worker, cell);
-        if (move.execute()) {
-            currentPhase = TurnPhase.BUILD;
-            boardUI.setStatus(engine.getCurrentPlayer().getNAME() + "'s Turn - Build Phase");
-        } else {
-            boardUI.setError("Invalid Move!!");
+    public void handleMove(GameEngine engine, Cell cell, Worker worker) {
+        int state = engine.getTurnState();
+        if (!TurnRules.allows(state, cell.getIndex())) {
+            engine.setError(forbiddenMessage);
+            return;
+        }
+        int from = engine.getBoard().getLocationOf(worker).getIndex();
+        if (!move(engine, cell, worker)) {
+            engine.setError("Invalid Move!!");
+            return;
         }
+        if (engine.isGameOver()) {
+            // the move won; the turn goes no further
+            return;
+        }
+        advance(engine, state, rules.afterMove(state, from, cell.getIndex(), engine.getBoard().getDimension()));
     }
 
     /**
-     * Default build logic for gods without special powers.
-     * Resets to MOVE phase and ends turn on success.
+     * Builds in the engine's build mode if the rules allow it and advances
+     * the turn state.
      *
+     * @param engine the engine running the game
      * @param cell   the target cell to build on
      * @param worker the worker performing the build
      */
-    public void handleBuild(Cell cell, Worker worker) {
-        GameEngine engine = GameEngine.getInstance();
-        BoardUI boardUI = engine.getBoardUI();
-        GameBoard board = engine.getBoard();
+    public void handleBuild(GameEngine engine, Cell cell, Worker worker) {
+        int state = engine.getTurnState();
+        if (!TurnRules.allows(state, cell.getIndex())) {
+            engine.setError(forbiddenMessage);
+            return;
+        }
+        if (!build(engine, cell, worker)) {
+            engine.setError("Invalid Build!!");
+            return;
+        }
+        advance(engine, state, rules.afterBuild(state, cell.getIndex()));
+    }
 
-        BuildAction build = new BuildAction(board, boardUI, worker, cell);
-        if (build.execute()) {
-            currentPhase = TurnPhase.MOVE;
-            boardUI.updateBoard();
+    /**
+     * Enters the next turn state: ends the turn once it is done, and
+     * otherwise updates the status and the skip offer.
+     *
+     * @param engine the engine running the game
+     * @param state  the state before the step
+     * @param next   the state after it
+     */
+    private void advance(GameEngine engine, int state, int next) {
+        if (engine.isGameOver()) {
+            return;
+        }
+        if (TurnRules.isDone(next)) {
+            engine.setTurnState(TurnRules.START);
             engine.setTurnProgress(false);
-        } else {
-            boardUI.setError("Invalid Build!!");
+            if (rules.canSkip(state)) {
+                engine.withdrawSkip();
+            }
+            return;
+        }
+        engine.setTurnState(next);
+        engine.setStatus(status(engine, next));
+        if (rules.canSkip(next)) {
+            handleSkip(engine, skipLabel);
+        } else if (rules.canSkip(state)) {
+            engine.withdrawSkip();
         }
     }
 
+    private String status(GameEngine engine, int state) {
+        String player = engine.getCurrentPlayer().getNAME() + "'s Turn - ";
+        String id = " (" + engine.getCurrentPlayer().getId() + ") " + name;
+        switch (TurnRules.step(state)) {
+            case TurnRules.EXTRA_MOVE:
+                return player + name + " may move again";
+            case TurnRules.EXTRA_BUILD:
+                return player + "Second Build (Optional)" + id;
+            case TurnRules.BUILD:
+                return player + "Build Phase" + id;
+            default:
+                return player + "Move Phase" + id;
+        }
+    }
+
+    /**
+     * Executes a move and checks whether it won the game.
+     *
+     * @param engine the game engine
+     * @param cell   the destination cell
+     * @param worker the worker to move
+     * @return {@code true} if the move was legal and applied
+     */
+    protected boolean move(GameEngine engine, Cell cell, Worker worker) {
+        ActionEvent event = new ActionEvent();
+        event.begin();
+        boolean moved = new MoveAction(engine.getBoard(), worker, cell).execute();
+        if (event.shouldCommit()) {
+            commit(event, engine, "Move", cell, moved);
+        }
+        if (!moved) {
+            return false;
+        }
+        engine.checkWinCondition(worker);
+        return true;
+    }
+
     /**
-     * Creates and displays a skip button that allows a player to skip
-     * an optional second move or build, depending on the god's power.
+     * Executes a build in the engine's current build mode.
      *
-     * @param boardUI the UI component
-     * @param engine  the current game engine instance
-     * @param skipText the text to show on the skip button
+     * @param engine the game engine
+     * @param cell   the target cell
+     * @param worker the worker performing the build
+     * @return {@code true} if the build was legal and applied
      */
-    public void handleSkip(BoardUI boardUI, GameEngine engine, String skipText) {
-        if (skipButton == null) {
-            skipButton = new JButton(skipText);
-            skipButton.setFocusable(false);
-
-            skipButton.addActionListener(e -> {
-                skipButton.setVisible(false);
-                skipLogic(boardUI, engine);
-            });
-
-            Container contentPane = boardUI.getContentPane();
-            JPanel bottomPanel = (JPanel) ((BorderLayout) contentPane.getLayout()).getLayoutComponent(BorderLayout.SOUTH);
-            bottomPanel.add(skipButton);
+    protected boolean build(GameEngine engine, Cell cell, Worker worker) {
+        GameBoard board = engine.getBoard();
+        BuildMode mode = engine.getBuildMode();
+        ActionEvent event = new ActionEvent();
+        event.begin();
+        boolean built = new BuildAction(board, worker, cell, mode).execute();
+        if (event.shouldCommit()) {
+            commit(event, engine, mode.getLabel(), cell, built);
         }
+        return built;
+    }
+
+    /** Fills in and commits the Flight Recorder event of an action. */
+    private static void commit(ActionEvent event, GameEngine engine, String action, Cell cell, boolean applied) {
+        event.action = action;
+        event.square = cell.getIndex();
+        event.describe(engine, engine.getCurrentPlayerIndex(), applied ? "applied" : "rejected");
+        event.commit();
+    }
 
-        skipButton.setVisible(true);
-        skipButton.revalidate();
-        skipButton.repaint();
+    /**
+     * Offers the player the option to skip an optional second move or
+     * build, depending on the god's power.
+     *
+     * @param engine   the current game engine instance
+     * @param skipText the text describing what would be skipped
+     */
+    public void handleSkip(GameEngine engine, String skipText) {
+        engine.offerSkip(skipText);
     }
 
     /**
-     * Default skip logic (can be overridden).
-     * Ends the turn and hides the skip button.
+     * Skips the optional step on offer, if the turn state has one.
      *
-     * @param boardUI the UI component
      * @param engine  the game engine
+     * @return {@code true} if a step was skipped, {@code false} if none was on offer
      */
-    public void skipLogic(BoardUI boardUI, GameEngine engine) {
-        skipButton.setVisible(false);
-        boardUI.updateBoard();
-        engine.setTurnProgress(false);
-        engine.switchTurn();
+    public boolean skipLogic(GameEngine engine) {
+        int state = engine.getTurnState();
+        if (!rules.canSkip(state)) {
+            engine.setError("Nothing to skip");
+            return false;
+        }
+        advance(engine, state, rules.afterSkip(state));
+        return true;
     }
 
     /**
-     * Returns the current turn phase of this god.
+     * Returns the turn flow of this god's power.
      *
-     * @return MOVE or BUILD
+     * @return the rules, shared with every other game
      */
-    public TurnPhase getCurrentPhase() {
-        return currentPhase;
+    public TurnRules getRules() {
+        return rules;
     }
 
     /**
@@ -1,7 +1,6 @@
 package game.gods;
 
 import engine.positions.GameEngine;
-import engine.displays.BoardUI;
 
 /**
  * Interface for gods that allow the player to skip an optional second action,
@@ -12,8 +11,8 @@ public interface Skippable {
      * Defines the logic to execute when a player chooses to skip
      * their optional second action.
      *
-     * @param boardUI the UI component for updates
      * @param engine  the game engine managing state
+     * @return {@code true} if the action was skipped, {@code false} if none was on offer
      */
-    void skipLogic(BoardUI boardUI, GameEngine engine);
+    boolean skipLogic(GameEngine engine);
 }
\ No newline at end of file
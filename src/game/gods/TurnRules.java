@@ -0,0 +1,321 @@
+package game.gods;
+
+import engine.positions.BoardState;
+import engine.positions.NeighbourTable;
+import engine.positions.Zobrist;
+
+/**
+ * Turn flow of a god power as an explicit, table-driven state machine.
+ * <p>
+ * A turn is in one of four steps: the {@link #MOVE} every turn starts with,
+ * an optional {@link #EXTRA_MOVE}, the {@link #BUILD} and an optional
+ * {@link #EXTRA_BUILD}. Each power is a table from step and event (moved
+ * inside, moved onto the perimeter, built, skipped) to the next step, which
+ * may also remember one square that the next step must not use: Artemis
+ * remembers where the worker started, Demeter where she built first.
+ * </p>
+ * <p>
+ * The whole per-game state is one {@code int} packing the step and the
+ * remembered square. Rules are immutable and every method is a pure function
+ * of that state and the board, so one instance per power serves every game,
+ * can be snapshotted by copying an {@code int}, and lets a search enumerate
+ * each step's legal {@link #continuations}.
+ * </p>
+ */
+public final class TurnRules {
+    /** Step: the worker must move. */
+    public static final int MOVE = 0;
+    /** Step: the worker may move again, or the player may skip. */
+    public static final int EXTRA_MOVE = 1;
+    /** Step: the worker must build. */
+    public static final int BUILD = 2;
+    /** Step: the worker may build again, or the player may skip. */
+    public static final int EXTRA_BUILD = 3;
+    /** Step: the turn is over. */
+    public static final int DONE = 4;
+
+    /** State every turn starts in: the move step, nothing remembered. */
+    public static final int START = MOVE;
+
+    /** Continuation kind: move to the square. */
+    public static final int MOVE_TO = 0;
+    /** Continuation kind: build a tower level or dome on the square. */
+    public static final int BUILD_TOWER = 1;
+    /** Continuation kind: build a wall phase on the square. */
+    public static final int BUILD_WALL = 2;
+    /** Continuation kind: break the wall on the square. */
+    public static final int BREAK_WALL = 3;
+    /** Continuation kind: skip the optional step; the square is unused. */
+    public static final int SKIP = 4;
+
+    /** Most continuations one step can have: three kinds of build on eight neighbours, and a skip. */
+    public static final int MAX_CONTINUATIONS = 25;
+
+    private static final int MOVED_INSIDE = 0;
+    private static final int MOVED_EDGE = 1;
+    private static final int BUILT = 2;
+    private static final int SKIPPED = 3;
+
+    private static final int STEP_BITS = 3;
+    private static final int STEP_MASK = (1 << STEP_BITS) - 1;
+    /** Table flag: the next step remembers the square the worker left, or the square built on. */
+    private static final int REMEMBER = 0x10;
+    /** Table entry of an event the step does not allow. */
+    private static final int X = -1;
+
+    /** One move, then one build. */
+    public static final TurnRules STANDARD = new TurnRules(new int[][] {
+            {BUILD, BUILD, X, X},
+            {X, X, X, X},
+            {X, X, DONE, X},
+            {X, X, X, X},
+    });
+
+    /** One optional extra move, not back to the starting square. */
+    public static final TurnRules ARTEMIS = new TurnRules(new int[][] {
+            {EXTRA_MOVE | REMEMBER, EXTRA_MOVE | REMEMBER, X, X},
+            {BUILD, BUILD, X, BUILD},
+            {X, X, DONE, X},
+            {X, X, X, X},
+    });
+
+    /** One optional extra build, not on the same square. */
+    public static final TurnRules DEMETER = new TurnRules(new int[][] {
+            {BUILD, BUILD, X, X},
+            {X, X, X, X},
+            {X, X, EXTRA_BUILD | REMEMBER, X},
+            {X, X, DONE, DONE},
+    });
+
+    /** Another optional move each time the worker enters a perimeter square. */
+    public static final TurnRules TRITON = new TurnRules(new int[][] {
+            {BUILD, EXTRA_MOVE, X, X},
+            {BUILD, EXTRA_MOVE, X, BUILD},
+            {X, X, DONE, X},
+            {X, X, X, X},
+    });
+
+    /** Next step and flags, indexed by {@code step * 4 + event}. */
+    private final byte[] next;
+    private final boolean extraMoves;
+
+    private TurnRules(int[][] table) {
+        next = new byte[table.length * 4];
+        for (int step = 0; step < table.length; step++) {
+            for (int event = 0; event < 4; event++) {
+                next[step * 4 + event] = (byte) table[step][event];
+            }
+        }
+        extraMoves = (table[MOVE][MOVED_INSIDE] & STEP_MASK) == EXTRA_MOVE
+                || (table[MOVE][MOVED_EDGE] & STEP_MASK) == EXTRA_MOVE;
+    }
+
+    /**
+     * Packs a state.
+     *
+     * @param step   the step, such as {@link #EXTRA_MOVE}
+     * @param square the square the step must avoid, or -1
+     * @return the packed state
+     */
+    public static int state(int step, int square) {
+        return step | (square + 1) << STEP_BITS;
+    }
+
+    /**
+     * Returns the step of a state.
+     *
+     * @param state a packed state
+     * @return {@link #MOVE}, {@link #EXTRA_MOVE}, {@link #BUILD}, {@link #EXTRA_BUILD} or {@link #DONE}
+     */
+    public static int step(int state) {
+        return state & STEP_MASK;
+    }
+
+    /**
+     * Returns the square a state forbids for its step.
+     *
+     * @param state a packed state
+     * @return the square, or -1 if the step may use any square
+     */
+    public static int remembered(int state) {
+        return (state >>> STEP_BITS) - 1;
+    }
+
+    /** @return whether the state is over; the engine then starts the next turn from {@link #START} */
+    public static boolean isDone(int state) {
+        return step(state) == DONE;
+    }
+
+    /**
+     * Returns the phase a state shows: moves happen in {@link TurnPhase#MOVE},
+     * builds in {@link TurnPhase#BUILD}.
+     *
+     * @param state a packed state
+     * @return the phase
+     */
+    public static TurnPhase phase(int state) {
+        return step(state) < BUILD ? TurnPhase.MOVE : TurnPhase.BUILD;
+    }
+
+    /**
+     * Returns the part of the position key a turn state contributes: the
+     * build phase, a pending Artemis or Triton move, or Demeter's first build.
+     *
+     * @param state  a packed state
+     * @param player the player whose turn it is
+     * @return the Zobrist key, 0 for {@link #START}
+     */
+    public static long key(int state, int player) {
+        int square = remembered(state);
+        switch (step(state)) {
+            case EXTRA_MOVE:
+                return square >= 0 ? Zobrist.movedFrom(square) : Zobrist.extraMove();
+            case BUILD:
+                return Zobrist.buildPhase(player);
+            case EXTRA_BUILD:
+                return Zobrist.buildPhase(player) ^ (square >= 0 ? Zobrist.firstBuild(square) : 0);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Checks whether the state's step may target a square at all; the board
+     * decides the rest.
+     *
+     * @param state  a packed state
+     * @param square the square to move to or build on
+     * @return {@code false} if the square is the one the step must avoid
+     */
+    public static boolean allows(int state, int square) {
+        return square != remembered(state);
+    }
+
+    /** @return whether a turn's first move may be followed by another */
+    public boolean hasExtraMoves() {
+        return extraMoves;
+    }
+
+    /** @return whether the player may skip the state's step */
+    public boolean canSkip(int state) {
+        return entry(state, SKIPPED) != X;
+    }
+
+    /**
+     * Returns the state after a move.
+     *
+     * @param state     a packed state in a move step
+     * @param from      the square the worker left
+     * @param to        the square it moved to
+     * @param dimension the board size, to tell perimeter squares
+     * @return the next state
+     * @throws IllegalStateException if the step does not move
+     */
+    public int afterMove(int state, int from, int to, int dimension) {
+        int row = to / dimension, col = to % dimension;
+        boolean edge = row == 0 || col == 0 || row == dimension - 1 || col == dimension - 1;
+        return transition(state, edge ? MOVED_EDGE : MOVED_INSIDE, from);
+    }
+
+    /**
+     * Returns the state after a build or break.
+     *
+     * @param state  a packed state in a build step
+     * @param square the square built on
+     * @return the next state
+     * @throws IllegalStateException if the step does not build
+     */
+    public int afterBuild(int state, int square) {
+        return transition(state, BUILT, square);
+    }
+
+    /**
+     * Returns the state after skipping an optional step.
+     *
+     * @param state a packed state
+     * @return the next state
+     * @throws IllegalStateException if the step cannot be skipped
+     */
+    public int afterSkip(int state) {
+        return transition(state, SKIPPED, -1);
+    }
+
+    /**
+     * Writes every legal way to continue a turn from a state: the moves or
+     * builds of the worker, and the skip if the step is optional. A move
+     * onto a level-3 square is among them; the caller detects the win.
+     *
+     * @param board  the position
+     * @param state  a packed state, not done
+     * @param worker the square of the worker playing the turn
+     * @param out    receives codes, see {@link #kind} and {@link #square};
+     *               at least {@link #MAX_CONTINUATIONS} long
+     * @return the number of codes written
+     */
+    public int continuations(BoardState board, int state, int worker, int[] out) {
+        NeighbourTable table = board.getNeighbourTable();
+        int avoid = remembered(state);
+        boolean moving = step(state) < BUILD;
+        int n = 0;
+        for (int i = table.start(worker), end = table.end(worker); i < end; i++) {
+            int to = table.neighbour(i);
+            if (to == avoid) {
+                continue;
+            }
+            if (moving) {
+                if (board.canMove(worker, to)) {
+                    out[n++] = continuation(MOVE_TO, to);
+                }
+                continue;
+            }
+            if (board.canBuildTower(worker, to)) {
+                out[n++] = continuation(BUILD_TOWER, to);
+            }
+            if (board.canBuildWall(worker, to)) {
+                out[n++] = continuation(BUILD_WALL, to);
+            }
+            if (board.canBreak(worker, to)) {
+                out[n++] = continuation(BREAK_WALL, to);
+            }
+        }
+        if (canSkip(state)) {
+            out[n++] = continuation(SKIP, 0);
+        }
+        return n;
+    }
+
+    /** @return the kind of a continuation code, such as {@link #MOVE_TO} */
+    public static int kind(int continuation) {
+        return continuation >>> 16;
+    }
+
+    /** @return the target square of a continuation code */
+    public static int square(int continuation) {
+        return continuation & 0xFFFF;
+    }
+
+    /**
+     * Packs a continuation code as {@link #continuations} writes them.
+     *
+     * @param kind   the kind, such as {@link #MOVE_TO}
+     * @param square the target square
+     * @return the code
+     */
+    public static int continuation(int kind, int square) {
+        return kind << 16 | square;
+    }
+
+    private int entry(int state, int event) {
+        int step = step(state);
+        return step < DONE ? next[step * 4 + event] : X;
+    }
+
+    private int transition(int state, int event, int square) {
+        int entry = entry(state, event);
+        if (entry == X) {
+            throw new IllegalStateException("Step " + step(state) + " does not allow event " + event);
+        }
+        int step = entry & STEP_MASK;
+        return (entry & REMEMBER) != 0 ? state(step, square) : step;
+    }
+}
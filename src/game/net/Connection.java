@@ -0,0 +1,164 @@
+package game.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * One client connection of a {@link GameServer}, owned by one event loop
+ * at a time: its buffers, the line being assembled and the match it plays
+ * in. A connection paired with a player of another loop moves to that
+ * loop, buffers and all.
+ * Outgoing lines are queued in a buffer and written once per selector round,
+ * so the events and the acknowledgement caused by one input leave together;
+ * the first line queued in a round puts the connection on its loop's flush
+ * list, whichever handler or clock tick sent it.
+ */
+final class Connection {
+    /** Longest accepted command line, newline included. */
+    static final int MAX_LINE = 256;
+    /**
+     * Most output queued beyond what the socket took. Only a client that
+     * stops reading gets this far behind; it is dropped rather than let
+     * its opponent's moves pile up on the heap.
+     */
+    static final int MAX_QUEUED = 8192;
+
+    final SocketChannel channel;
+    SelectionKey key;
+    /** The owning loop's connections to flush at the end of the round. */
+    private List<Connection> toFlush;
+    /** Index of the event loop that owns the connection. */
+    int loop;
+    private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+    private ByteBuffer out = ByteBuffer.allocate(512);
+    /** Whether the connection is already in its loop's list of connections to flush. */
+    boolean flushQueued;
+    boolean closed;
+    /** Whether a line did not fit under {@link #MAX_QUEUED}; the loop closes the connection when flushing. */
+    boolean overflowed;
+
+    /** The match being played, or {@code null}. */
+    Match match;
+    /** This connection's seat in {@link #match}. */
+    int seat;
+    /** Board size this connection is queued for, or 0 if it is not waiting. */
+    int waitingFor;
+    /** Waiting player of another loop this connection was paired with and is moving to, or {@code null}. */
+    Connection joining;
+
+    Connection(SocketChannel channel, SelectionKey key, List<Connection> toFlush, int loop) {
+        this.channel = channel;
+        this.key = key;
+        this.toFlush = toFlush;
+        this.loop = loop;
+    }
+
+    /**
+     * Hands the connection to another event loop. Output queued on the old
+     * loop is flushed by the new one.
+     *
+     * @param loop    the index of the new loop
+     * @param key     the connection's key in the new loop's selector
+     * @param toFlush the new loop's connections to flush
+     */
+    void moveTo(int loop, SelectionKey key, List<Connection> toFlush) {
+        this.loop = loop;
+        this.key = key;
+        this.toFlush = toFlush;
+        flushQueued = hasOutput() || overflowed;
+        if (flushQueued) {
+            toFlush.add(this);
+        }
+    }
+
+    /**
+     * Reads whatever the socket has into the line buffer.
+     *
+     * @return {@code false} if the peer closed the connection
+     * @throws IOException if reading fails
+     */
+    boolean read() throws IOException {
+        return channel.read(in) >= 0;
+    }
+
+    /**
+     * Takes the next complete line out of the read buffer.
+     *
+     * @return the line without its line break, or {@code null} if none is complete
+     * @throws IOException if a line is longer than {@link #MAX_LINE}
+     */
+    String nextLine() throws IOException {
+        int end = in.position();
+        for (int i = 0; i < end; i++) {
+            if (in.get(i) == '\n') {
+                int length = i > 0 && in.get(i - 1) == '\r' ? i - 1 : i;
+                String line = new String(in.array(), 0, length, StandardCharsets.US_ASCII);
+                in.flip().position(i + 1);
+                in.compact();
+                return line;
+            }
+        }
+        if (!in.hasRemaining()) {
+            throw new IOException("Line longer than " + MAX_LINE + " bytes");
+        }
+        return null;
+    }
+
+    /**
+     * Queues a line for the next flush. A line that would take the queue
+     * past {@link #MAX_QUEUED} is dropped and marks the connection
+     * {@link #overflowed}.
+     *
+     * @param line the line, without a line break
+     */
+    void send(String line) {
+        if (closed || overflowed) {
+            return;
+        }
+        int length = line.length();
+        if (out.position() + length + 1 > MAX_QUEUED) {
+            overflowed = true;
+        } else {
+            if (out.remaining() < length + 1) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.min(MAX_QUEUED,
+                        Math.max(out.capacity() * 2, out.position() + length + 1)));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            for (int i = 0; i < length; i++) {
+                out.put((byte) line.charAt(i));
+            }
+            out.put((byte) '\n');
+        }
+        if (!flushQueued) {
+            flushQueued = true;
+            toFlush.add(this);
+        }
+    }
+
+    /** @return whether lines are waiting to be written */
+    boolean hasOutput() {
+        return out.position() > 0;
+    }
+
+    /**
+     * Writes as much queued output as the socket takes, and asks the selector
+     * for write readiness while some is left.
+     *
+     * @throws IOException if writing fails
+     */
+    void flush() throws IOException {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (!closed && key.interestOps() != ops) {
+            key.interestOps(ops);
+        }
+    }
+}
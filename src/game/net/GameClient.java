@@ -0,0 +1,362 @@
+package game.net;
+
+import engine.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Local test client for a {@link GameServer}: opens many connections from
+ * one selector thread, lets each play random inputs in whatever matches the
+ * server pairs it into, and reports how long every input took to be
+ * acknowledged.
+ * <p>
+ * A bot only acts when the server says it is to move, sends one input at a
+ * time and waits for its {@code OK} or {@code ERR} plus a think time before
+ * the next, so the load is closed-loop like human players. Think times vary
+ * by half either way so that bots do not act in lockstep waves. Latency runs from
+ * handing the input to the socket to reading its acknowledgement, so it
+ * includes both sides' queueing; inputs acknowledged during the warm-up,
+ * while connections open and the JIT compiles, are reported apart from the
+ * rest. Interactive play works with any line-based
+ * tool, such as {@code nc localhost 7245}.
+ * </p>
+ * Usage:
+ * <pre>
+ * java game.net.GameClient [--host H] [--port P] [--connections N] [--seconds S]
+ *                          [--dimension D] [--think MS] [--warmup S]
+ * </pre>
+ */
+public class GameClient {
+    /** Connects in flight at once, so the server's accept backlog never overflows. */
+    private static final int MAX_CONNECTING = 256;
+    /** Inputs after which a bot resigns a match that random play has not ended. */
+    private static final int MAX_MATCH_INPUTS = 3000;
+
+    private final InetSocketAddress server;
+    private final int connections;
+    private final int dimension;
+    private final long thinkNanos;
+    private final Selector selector;
+    private final SplittableRandom random = new SplittableRandom(42);
+    /** Bots waiting to act, earliest due first. */
+    private final PriorityQueue<Bot> thinking = new PriorityQueue<>(Comparator.comparingLong((Bot bot) -> bot.due));
+    /** Latency since the warm-up ended. */
+    private final LatencyHistogram latency = new LatencyHistogram();
+    /** Latency since the last progress line. */
+    private LatencyHistogram recent = new LatencyHistogram();
+    private boolean warm;
+    private int opened;
+    private int connecting;
+    private int connected;
+    private int failed;
+    private long matches;
+    private boolean running = true;
+
+    /**
+     * @param server      the server address
+     * @param connections the number of connections to open
+     * @param dimension   the board size the bots ask for
+     * @param thinkMillis the pause before each input
+     * @throws IOException if no selector can be opened
+     */
+    public GameClient(InetSocketAddress server, int connections, int dimension, int thinkMillis) throws IOException {
+        this.server = server;
+        this.connections = connections;
+        this.dimension = dimension;
+        this.thinkNanos = thinkMillis * 1_000_000L;
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Parses the command line, runs the load and prints the report.
+     *
+     * @param args see the class documentation
+     */
+    public static void main(String[] args) throws IOException {
+        String host = "localhost";
+        int port = GameServer.DEFAULT_PORT;
+        int connections = 1000;
+        int seconds = 30;
+        int dimension = 5;
+        int think = 100;
+        int warmup = 5;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--host":        host = value; break;
+                case "--port":        port = Integer.parseInt(value); break;
+                case "--connections": connections = Integer.parseInt(value); break;
+                case "--seconds":     seconds = Integer.parseInt(value); break;
+                case "--dimension":   dimension = Integer.parseInt(value); break;
+                case "--think":       think = Integer.parseInt(value); break;
+                case "--warmup":      warmup = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        GameClient client = new GameClient(new InetSocketAddress(host, port), connections, dimension, think);
+        client.run(seconds * 1_000_000_000L, warmup * 1_000_000_000L);
+        client.print();
+    }
+
+    /**
+     * Opens the connections and plays until the time is up.
+     *
+     * @param nanos  how long to play, warm-up included
+     * @param warmup how long to play before latencies count
+     * @throws IOException if the selector fails
+     */
+    public void run(long nanos, long warmup) throws IOException {
+        long start = System.nanoTime();
+        long end = start + nanos;
+        long report = start + 5_000_000_000L;
+        while (running) {
+            while (opened < connections && connecting < MAX_CONNECTING) {
+                open();
+            }
+            long now = System.nanoTime();
+            if (now >= end) {
+                running = false;
+                break;
+            }
+            if (now >= report) {
+                System.out.printf("  %3ds: %d connected, %d matches done, %d inputs, p99 %.2f ms%n",
+                        (now - start) / 1_000_000_000L, connected, matches, recent.getCount(),
+                        recent.percentile(99) / 1e6);
+                if (warm) {
+                    latency.merge(recent);
+                }
+                recent = new LatencyHistogram();
+                warm = now - start >= warmup;
+                report += 5_000_000_000L;
+            }
+            Bot due = thinking.peek();
+            long wait = due == null ? end - now : due.due - now;
+            if (wait > 0) {
+                selector.select(Math.max(1, Math.min(wait, end - now) / 1_000_000L));
+            } else {
+                selector.selectNow();
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (key.isValid()) {
+                    handle((Bot) key.attachment(), key);
+                }
+            }
+            now = System.nanoTime();
+            for (Bot bot = thinking.peek(); bot != null && bot.due <= now; bot = thinking.peek()) {
+                thinking.poll();
+                try {
+                    bot.act();
+                } catch (IOException e) {
+                    drop(bot);
+                }
+            }
+        }
+        if (warm) {
+            latency.merge(recent);
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    /** Prints connections, matches and acknowledgement latency percentiles. */
+    public void print() {
+        System.out.printf("%d connected (%d failed), %d matches finished, %d inputs acknowledged after warm-up%n",
+                connected, failed, matches, latency.getCount());
+        System.out.printf("ack latency: p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                latency.percentile(50) / 1e6, latency.percentile(99) / 1e6,
+                latency.percentile(99.9) / 1e6, latency.getMax() / 1e6);
+    }
+
+    private void open() throws IOException {
+        opened++;
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Bot bot = new Bot(channel);
+        connecting++;
+        if (channel.connect(server)) {
+            connecting--;
+            bot.connected();
+        } else {
+            channel.register(selector, SelectionKey.OP_CONNECT, bot);
+        }
+    }
+
+    private void handle(Bot bot, SelectionKey key) {
+        try {
+            if (key.isConnectable()) {
+                connecting--;
+                bot.channel.finishConnect();
+                bot.connected();
+                return;
+            }
+            if (key.isWritable()) {
+                bot.flush();
+            }
+            if (key.isReadable()) {
+                bot.read();
+            }
+        } catch (IOException e) {
+            drop(bot);
+        }
+    }
+
+    /** Closes a bot's connection after a failure. */
+    private void drop(Bot bot) {
+        if (bot.key == null) {
+            failed++;
+        } else {
+            connected--;
+        }
+        try {
+            bot.channel.close();
+        } catch (IOException ignored) {
+            // gone already
+        }
+    }
+
+    /** One connection and the match state it tracks. */
+    private final class Bot {
+        final SocketChannel channel;
+        SelectionKey key;
+        private final ByteBuffer in = ByteBuffer.allocate(4096);
+        private final ByteBuffer out = ByteBuffer.allocate(256);
+        private final int[] squares = new int[8];
+        private int seat;
+        private int size;
+        private boolean inMatch;
+        private boolean toMove;
+        private boolean queued;
+        /** When the input awaiting acknowledgement was sent, or 0. */
+        private long sentAt;
+        private int matchInputs;
+        long due;
+
+        Bot(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void connected() throws IOException {
+            connected++;
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+            send("PLAY " + dimension);
+        }
+
+        void read() throws IOException {
+            if (channel.read(in) < 0) {
+                throw new IOException("Server closed the connection");
+            }
+            int start = 0;
+            for (int i = 0; i < in.position(); i++) {
+                if (in.get(i) == '\n') {
+                    line(new String(in.array(), start, i - start, StandardCharsets.US_ASCII));
+                    start = i + 1;
+                }
+            }
+            in.flip().position(start);
+            in.compact();
+            // act only once the whole batch is read: an OK is followed by the TURN it caused
+            if (inMatch && toMove && sentAt == 0 && !queued) {
+                queued = true;
+                due = System.nanoTime() + thinkNanos / 2 + (thinkNanos > 0 ? random.nextLong(thinkNanos) : 0);
+                thinking.add(this);
+            }
+        }
+
+        private void line(String line) throws IOException {
+            String[] words = line.split(" ");
+            switch (words[0]) {
+                case "MATCH":
+                    seat = Integer.parseInt(words[2]);
+                    size = Integer.parseInt(words[3]);
+                    for (int slot = 0; slot + 6 < words.length; slot++) {
+                        squares[slot] = Integer.parseInt(words[slot + 6]);
+                    }
+                    inMatch = true;
+                    toMove = false;
+                    matchInputs = 0;
+                    break;
+                case "TURN":
+                    toMove = Integer.parseInt(words[1]) == seat;
+                    break;
+                case "MOVE":
+                    squares[Integer.parseInt(words[1])] = Integer.parseInt(words[3]);
+                    break;
+                case "OK":
+                case "ERR":
+                    if (sentAt != 0) {
+                        recent.record(System.nanoTime() - sentAt);
+                        sentAt = 0;
+                    }
+                    break;
+                case "OVER":
+                    matches++;
+                    inMatch = false;
+                    toMove = false;
+                    if (running) {
+                        send("PLAY " + dimension);
+                    }
+                    break;
+                default:
+                    break;   // WAIT, CELL and OFFER need no answer
+            }
+        }
+
+        /** Sends one random input, mostly clicks on or next to an own worker. */
+        void act() throws IOException {
+            queued = false;
+            if (!inMatch || !toMove || !channel.isOpen()) {
+                return;
+            }
+            int choice = random.nextInt(100);
+            String input;
+            if (++matchInputs > MAX_MATCH_INPUTS) {
+                input = "RESIGN";
+            } else if (choice < 5) {
+                input = "END";
+            } else if (choice < 8) {
+                input = "SKIP";
+            } else if (choice < 10) {
+                input = "MODE " + (random.nextBoolean() ? "NORMAL" : random.nextBoolean() ? "WALL" : "BREAK");
+            } else {
+                int square = squares[2 * seat + random.nextInt(2)];
+                int row = square / size, col = square % size;
+                if (random.nextInt(3) > 0) {
+                    row = Math.max(0, Math.min(size - 1, row + random.nextInt(3) - 1));
+                    col = Math.max(0, Math.min(size - 1, col + random.nextInt(3) - 1));
+                }
+                input = "CLICK " + row + " " + col;
+            }
+            sentAt = System.nanoTime();
+            send(input);
+        }
+
+        private void send(String line) throws IOException {
+            out.put(line.getBytes(StandardCharsets.US_ASCII)).put((byte) '\n');
+            flush();
+        }
+
+        void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+}
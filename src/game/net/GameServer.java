@@ -0,0 +1,459 @@
+package game.net;
+
+import engine.positions.SparseBoardState;
+import engine.time.TimeControl;
+import game.Game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking TCP server that hosts any number of concurrent matches.
+ * <p>
+ * A fixed set of event loops, one thread and one {@link Selector} each,
+ * owns all connections; the first loop also accepts and deals new
+ * connections out in turn. Players wait for an opponent in one queue shared
+ * by all loops; a player paired with someone waiting on another loop moves
+ * to that loop, so a match and both its connections belong to one thread
+ * and nothing is shared or locked while playing. Memory per connection is
+ * a few hundred bytes of buffers, so the open-file limit is what caps the
+ * number of players.
+ * Match clocks are kept by the shared {@link engine.time.TimingWheel},
+ * which hands each tick back to the match's loop, so clocks add no threads
+ * either.
+ * </p>
+ * The protocol is line-based ASCII, one space between words:
+ * <pre>
+ *  client                     server
+ *  PLAY [dimension]           WAIT                      queued for an opponent
+ *  CLICK row col              MATCH id seat dimension power0 power1 square...
+ *  MODE NORMAL|WALL|BREAK     TURN seat ms0 ms1         seat to move, and both clocks
+ *  SKIP                       MOVE slot from to         a worker moved
+ *  END                        CELL square code          a square's structure changed
+ *  RESIGN                     OFFER label               the mover may skip an action
+ *  QUIT                       OVER winner reason        the match is over
+ *                             OK | ERR message          an input was handled
+ * </pre>
+ * Inputs are taken exactly as {@link engine.positions.GameEngine#takeTurn},
+ * {@code setBuildMode}, {@code skip}, {@code endTurn} and {@code resign} take
+ * them, and only from the seat to move. Every input gets one {@code OK} or
+ * {@code ERR}, sent after the events it caused. Structure codes are those of
+ * {@link engine.positions.BoardState#structure}; worker slots {@code 2s} and
+ * {@code 2s + 1} belong to seat {@code s}. After {@code OVER} a client may
+ * send {@code PLAY} again. A player whose clock runs out loses with
+ * {@code OVER}; the time control is the same for every match. A client
+ * that stops reading is disconnected once {@value Connection#MAX_QUEUED}
+ * bytes wait for it, and loses its match like any player who leaves.
+ * <p>
+ * Usage:
+ * </p>
+ * <pre>
+ * java game.net.GameServer [--port P] [--loops N] [--clock 5|3+2|3d2]
+ * </pre>
+ */
+public class GameServer implements Closeable {
+    /** Port the server listens on unless told otherwise. */
+    public static final int DEFAULT_PORT = 7245;
+
+    private final ServerSocketChannel server;
+    private final EventLoop[] loops;
+    private final TimeControl timeControl;
+    /** Connection waiting for an opponent, per board size; shared by all loops and guarded by itself. */
+    private final Map<Integer, Connection> waiting = new HashMap<>();
+    private final AtomicLong matches = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Binds the server; call {@link #start} to serve.
+     *
+     * @param address   the address to listen on
+     * @param loopCount the number of event loop threads
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(InetSocketAddress address, int loopCount) throws IOException {
+        this(address, loopCount, TimeControl.DEFAULT);
+    }
+
+    /**
+     * Binds the server; call {@link #start} to serve.
+     *
+     * @param address     the address to listen on
+     * @param loopCount   the number of event loop threads
+     * @param timeControl the clock of every match
+     * @throws IOException if the address cannot be bound
+     */
+    public GameServer(InetSocketAddress address, int loopCount, TimeControl timeControl) throws IOException {
+        this.timeControl = timeControl;
+        server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(address, 4096);
+        loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new EventLoop(i);
+        }
+        server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Parses the command line and serves until the process is stopped.
+     *
+     * @param args see the class documentation
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int loops = Runtime.getRuntime().availableProcessors();
+        TimeControl clock = TimeControl.DEFAULT;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--port":  port = Integer.parseInt(value); break;
+                case "--loops": loops = Integer.parseInt(value); break;
+                case "--clock": clock = TimeControl.parse(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        GameServer server = new GameServer(new InetSocketAddress(port), loops, clock);
+        server.start();
+        System.out.printf("Santorini server on port %d, %d event loop(s), clock %s%n", server.getPort(), loops, clock);
+    }
+
+    /** @return the port the server is bound to */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /** @return the number of matches started so far */
+    public long getMatchCount() {
+        return matches.get();
+    }
+
+    /** Starts the event loop threads. */
+    public void start() {
+        for (EventLoop loop : loops) {
+            Thread thread = new Thread(loop, "santorini-loop-" + loop.index);
+            thread.start();
+        }
+    }
+
+    /** Stops serving and closes every connection. */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        server.close();
+    }
+
+    /**
+     * One selector thread and the connections and matches it owns. As an
+     * executor it runs tasks from other threads, such as clock ticks, on
+     * this thread.
+     */
+    private final class EventLoop implements Runnable, Executor {
+        final int index;
+        final Selector selector;
+        /** Connections accepted by the first loop for this one. */
+        private final ConcurrentLinkedQueue<SocketChannel> handedOver = new ConcurrentLinkedQueue<>();
+        /** Tasks other threads asked this loop to run. */
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        /** Connections with output queued in this round. */
+        private final List<Connection> toFlush = new ArrayList<>();
+        /** Connections paired with a player of another loop, handed over at the end of the round. */
+        private final List<Connection> leaving = new ArrayList<>();
+        private final SplittableRandom random;
+        private int nextLoop;
+
+        EventLoop(int index) throws IOException {
+            this.index = index;
+            this.selector = Selector.open();
+            this.random = new SplittableRandom(System.nanoTime() ^ (long) index << 32);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    for (SocketChannel channel = handedOver.poll(); channel != null; channel = handedOver.poll()) {
+                        register(channel);
+                    }
+                    for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                        task.run();
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            handle((Connection) key.attachment(), key);
+                        }
+                    }
+                    // closing a connection here may queue its opponent, so walk by index
+                    for (int i = 0; i < toFlush.size(); i++) {
+                        Connection connection = toFlush.get(i);
+                        connection.flushQueued = false;
+                        if (connection.closed || connection.joining != null) {
+                            // a leaving connection's output goes with it
+                            continue;
+                        }
+                        if (connection.overflowed) {
+                            // not reading; forfeits any match it is in
+                            close(connection);
+                            continue;
+                        }
+                        try {
+                            connection.flush();
+                        } catch (IOException e) {
+                            close(connection);
+                        }
+                    }
+                    toFlush.clear();
+                    for (Connection connection : leaving) {
+                        connection.key.cancel();
+                        EventLoop target = loops[connection.joining.loop];
+                        target.execute(() -> target.join(connection));
+                    }
+                    leaving.clear();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                if (running) {
+                    System.err.println("Event loop " + index + " failed: " + e);
+                }
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.isValid() && key.attachment() instanceof Connection) {
+                        close((Connection) key.attachment());
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                    // shutting down anyway
+                }
+            }
+        }
+
+        private void accept() throws IOException {
+            for (SocketChannel channel = server.accept(); channel != null; channel = server.accept()) {
+                EventLoop target = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                if (target == this) {
+                    register(channel);
+                } else {
+                    target.handedOver.add(channel);
+                    target.selector.wakeup();
+                }
+            }
+        }
+
+        private void register(SocketChannel channel) {
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(channel, key, toFlush, index));
+            } catch (IOException e) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // already gone
+                }
+            }
+        }
+
+        private void handle(Connection connection, SelectionKey key) {
+            try {
+                if (key.isWritable()) {
+                    connection.flush();
+                }
+                if (key.isReadable()) {
+                    boolean open = connection.read();
+                    commands(connection);
+                    if (!open && connection.joining == null) {
+                        // a connection moving to another loop finds the end of stream there
+                        close(connection);
+                    }
+                }
+            } catch (IOException e) {
+                close(connection);
+            }
+        }
+
+        /**
+         * Handles the complete lines a connection has read, until one closes
+         * it or pairs it with a player of another loop.
+         */
+        private void commands(Connection connection) throws IOException {
+            while (!connection.closed && connection.joining == null) {
+                String line = connection.nextLine();
+                if (line == null) {
+                    return;
+                }
+                command(connection, line);
+            }
+        }
+
+        /** Handles one line of a connection. */
+        private void command(Connection connection, String line) {
+            String[] words = line.trim().split(" ");
+            switch (words[0]) {
+                case "PLAY":
+                    play(connection, words);
+                    break;
+                case "QUIT":
+                    close(connection);
+                    return;
+                default:
+                    if (connection.match != null) {
+                        connection.match.input(connection, words);
+                    } else {
+                        connection.send("ERR Not in a match; send PLAY first");
+                    }
+                    break;
+            }
+        }
+
+        private void play(Connection connection, String[] words) {
+            if (connection.match != null || connection.waitingFor != 0) {
+                connection.send("ERR Already playing");
+                return;
+            }
+            int dimension = Game.DEFAULT_DIMENSION;
+            try {
+                if (words.length > 1) {
+                    dimension = Integer.parseInt(words[1]);
+                }
+            } catch (NumberFormatException e) {
+                dimension = -1;
+            }
+            if (dimension < 2 || dimension > SparseBoardState.MAX_DIMENSION) {
+                connection.send("ERR Board size must be 2-" + SparseBoardState.MAX_DIMENSION);
+                return;
+            }
+            connection.waitingFor = dimension;
+            if (pair(connection)) {
+                connection.send("WAIT");
+            }
+        }
+
+        /**
+         * Pairs a connection with the player waiting for the same board size,
+         * or queues it. A player waiting on another loop is joined there at
+         * the end of the round.
+         *
+         * @return whether the connection was queued
+         */
+        private boolean pair(Connection connection) {
+            Connection opponent;
+            synchronized (waiting) {
+                opponent = waiting.remove(connection.waitingFor);
+                if (opponent == null) {
+                    waiting.put(connection.waitingFor, connection);
+                    return true;
+                }
+            }
+            if (opponent.loop == index) {
+                start(opponent, connection);
+            } else {
+                connection.joining = opponent;
+                leaving.add(connection);
+            }
+            return false;
+        }
+
+        /** Starts a match between two of this loop's waiting connections. */
+        private void start(Connection first, Connection second) {
+            int dimension = first.waitingFor;
+            first.waitingFor = 0;
+            second.waitingFor = 0;
+            new Match(matches.incrementAndGet(), dimension, first, second, random, timeControl, this);
+        }
+
+        /**
+         * Takes over a connection another loop paired with one of this loop's
+         * waiting connections. If either has left in the meantime, the other
+         * goes back to waiting.
+         */
+        private void join(Connection connection) {
+            Connection opponent = connection.joining;
+            connection.joining = null;
+            if (!connection.closed) {
+                try {
+                    connection.moveTo(index,
+                            connection.channel.register(selector, SelectionKey.OP_READ, connection), toFlush);
+                } catch (IOException e) {
+                    close(connection);
+                }
+            }
+            if (connection.closed) {
+                if (!opponent.closed) {
+                    // already told to wait
+                    pair(opponent);
+                }
+                return;
+            }
+            if (opponent.closed) {
+                if (pair(connection)) {
+                    connection.send("WAIT");
+                }
+            } else {
+                start(opponent, connection);
+            }
+            try {
+                commands(connection);
+            } catch (IOException e) {
+                close(connection);
+            }
+        }
+
+        private void close(Connection connection) {
+            if (connection.closed) {
+                return;
+            }
+            connection.closed = true;
+            if (connection.waitingFor != 0) {
+                synchronized (waiting) {
+                    waiting.remove(connection.waitingFor, connection);
+                }
+            }
+            Match match = connection.match;
+            if (match != null) {
+                match.leave(connection);
+            }
+            connection.key.cancel();
+            try {
+                connection.channel.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+}
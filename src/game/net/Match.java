@@ -0,0 +1,224 @@
+package game.net;
+
+import engine.action.BuildMode;
+import engine.actors.Player;
+import engine.events.GameListener;
+import engine.positions.BoardState;
+import engine.positions.GameEngine;
+import engine.time.TimeControl;
+import game.Game;
+import game.ai.GodPower;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.random.RandomGenerator;
+
+/**
+ * One game between two connections of a {@link GameServer}, played on an
+ * ordinary {@link GameEngine} with human {@link Player}s, so the server
+ * applies exactly the rules and god turn flow of a local game. A match
+ * lives on the event loop of its connections and is never touched by
+ * another thread.
+ * <p>
+ * Matches are clocked like local games, but the engine only wakes up for
+ * flag fall: clients learn both times with every {@code TURN} and count
+ * down themselves. The engine's clock ticks arrive through the loop's
+ * executor, so a player who runs out of time loses on the match's own
+ * thread as well.
+ * </p>
+ */
+final class Match implements GameListener {
+    private final long id;
+    private final GameEngine engine;
+    private final Connection[] seats;
+    /** Error the engine published for the input being handled, or {@code null}. */
+    private String error;
+    private boolean finished;
+
+    /**
+     * Sets up a random game and tells both players.
+     *
+     * @param id        the match number, for clients' logs
+     * @param dimension the board size
+     * @param first     the connection that moves first
+     * @param second    the other connection
+     * @param random    the source of placement and god choice
+     * @param control   the time control of both players
+     * @param loop      the event loop of both connections, which runs the clock
+     */
+    Match(long id, int dimension, Connection first, Connection second, RandomGenerator random,
+          TimeControl control, Executor loop) {
+        this.id = id;
+        this.engine = Game.newGame(random, dimension, Player::new, Player::new);
+        this.seats = new Connection[] {first, second};
+        engine.addListener(this);
+        for (int seat = 0; seat < 2; seat++) {
+            seats[seat].match = this;
+            seats[seat].seat = seat;
+            seats[seat].send(describe(seat));
+        }
+        engine.setTimeControl(control);
+        engine.setClockTicks(false);
+        engine.setClockExecutor(loop);
+        engine.start();
+        broadcast(turn());
+    }
+
+    /**
+     * @return the {@code MATCH} line for a seat: id, seat, board size, both
+     *         god powers and the square of every worker in slot order
+     */
+    private String describe(int seat) {
+        StringBuilder line = new StringBuilder("MATCH ").append(id).append(' ').append(seat)
+                .append(' ').append(engine.getBoard().getDimension());
+        for (Player player : engine.getPlayers()) {
+            line.append(' ').append(GodPower.of(player.getGod()));
+        }
+        BoardState state = engine.getBoard().getState();
+        for (int slot = 0; slot < state.getWorkerCount(); slot++) {
+            line.append(' ').append(state.workerSquare(slot));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Handles one input line of a seated connection and acknowledges it with
+     * {@code OK} or {@code ERR}, after the events it caused.
+     *
+     * @param from  the connection that sent it
+     * @param words the command and its arguments
+     */
+    void input(Connection from, String[] words) {
+        if (finished) {
+            from.send("ERR Game over");
+            return;
+        }
+        if (from.seat != engine.getCurrentPlayerIndex()) {
+            from.send("ERR Not your turn");
+            return;
+        }
+        int mover = engine.getCurrentPlayerIndex();
+        error = null;
+        switch (words[0]) {
+            case "CLICK":
+                int dimension = engine.getBoard().getDimension();
+                int row = words.length == 3 ? parse(words[1]) : -1;
+                int col = words.length == 3 ? parse(words[2]) : -1;
+                if (row < 0 || row >= dimension || col < 0 || col >= dimension) {
+                    error = "CLICK needs a row and a column below " + dimension;
+                } else {
+                    engine.takeTurn(row, col);
+                }
+                break;
+            case "MODE":
+                BuildMode mode = words.length == 2 ? modeOf(words[1]) : null;
+                if (mode == null) {
+                    error = "MODE needs NORMAL, WALL or BREAK";
+                } else {
+                    engine.setBuildMode(mode);
+                }
+                break;
+            case "SKIP":
+                engine.skip();
+                break;
+            case "END":
+                engine.endTurn();
+                break;
+            case "RESIGN":
+                engine.resign();
+                break;
+            default:
+                error = "Unknown command " + words[0];
+                break;
+        }
+        from.send(error == null ? "OK" : "ERR " + error);
+        if (!finished && engine.getCurrentPlayerIndex() != mover) {
+            broadcast(turn());
+        }
+    }
+
+    /** @return the {@code TURN} line: the seat to move and both players' milliseconds left */
+    private String turn() {
+        return "TURN " + engine.getCurrentPlayerIndex() + " " + engine.getTimeLeft(0) + " " + engine.getTimeLeft(1);
+    }
+
+    /**
+     * Returns the other player of this match.
+     *
+     * @param player one of the two connections
+     * @return the other one
+     */
+    Connection opponentOf(Connection player) {
+        return seats[1 - player.seat];
+    }
+
+    /**
+     * Ends the match because a player left; the other one wins.
+     *
+     * @param leaver the connection that closed
+     */
+    void leave(Connection leaver) {
+        if (!finished) {
+            engine.stopClock();
+            finish(1 - leaver.seat, "Opponent left");
+        }
+    }
+
+    @Override
+    public void cellChanged(int square) {
+        broadcast("CELL " + square + " " + engine.getBoard().getState().structure(square));
+    }
+
+    @Override
+    public void workerMoved(int slot, int from, int to) {
+        broadcast("MOVE " + slot + " " + from + " " + to);
+    }
+
+    @Override
+    public void errorChanged(String message) {
+        if (!message.isEmpty()) {
+            error = message;
+        }
+    }
+
+    @Override
+    public void skipOffered(String label) {
+        seats[engine.getCurrentPlayerIndex()].send("OFFER " + label);
+    }
+
+    @Override
+    public void gameOver(String message) {
+        if (!finished) {
+            finish(engine.getWinnerIndex(), message);
+        }
+    }
+
+    private void finish(int winner, String reason) {
+        finished = true;
+        broadcast("OVER " + winner + " " + reason);
+        for (Connection seat : seats) {
+            seat.match = null;
+        }
+    }
+
+    private void broadcast(String line) {
+        seats[0].send(line);
+        seats[1].send(line);
+    }
+
+    private static int parse(String word) {
+        try {
+            return Integer.parseInt(word);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static BuildMode modeOf(String word) {
+        try {
+            return BuildMode.valueOf(word.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
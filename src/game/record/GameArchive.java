@@ -0,0 +1,267 @@
+package game.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Sealed file of finished games, read through memory-mapped regions so that
+ * archives far larger than the heap can be scanned, by many threads at once.
+ * <p>
+ * An archive holds the same frames as a {@link GameLog}, grouped into blocks
+ * of {@link #BLOCK_GAMES} games, followed by an index of where each block
+ * starts:
+ * </p>
+ * <pre>
+ *  header   "SGRA", version
+ *  frames   payload length, payload, CRC-32 of the payload
+ *  index    start offset of every block (8 bytes each)
+ *  trailer  game count (8), block count (4), games per block (4), "SGRA"
+ * </pre>
+ * A block is mapped only while it is read, so readers touch one block of
+ * pages at a time and hold one game on the heap. Archives are written in one
+ * go by {@link #pack} from one or more game logs.
+ */
+public class GameArchive implements Closeable {
+    /** Games per block, the unit of mapping and of parallel work. */
+    public static final int BLOCK_GAMES = 4096;
+
+    static final byte[] MAGIC = "SGRA".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    private static final int TRAILER_BYTES = 20;
+
+    private final FileChannel channel;
+    private final String source;
+    private final long games;
+    private final int blockGames;
+    /** Start offset of every block, plus the end of the last one. */
+    private final long[] offsets;
+
+    /**
+     * Opens an archive for reading.
+     *
+     * @param file the archive file
+     * @throws IOException if it cannot be read or is not a game archive
+     */
+    public GameArchive(Path file) throws IOException {
+        this.source = file.toString();
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < GameLog.HEADER_BYTES + TRAILER_BYTES) {
+                throw new IOException(source + " is not a game archive");
+            }
+            ByteBuffer header = read(0, GameLog.HEADER_BYTES);
+            ByteBuffer trailer = read(size - TRAILER_BYTES, TRAILER_BYTES);
+            byte[] head = new byte[MAGIC.length];
+            byte[] tail = new byte[MAGIC.length];
+            header.get(head);
+            trailer.get(TRAILER_BYTES - MAGIC.length, tail);
+            if (!Arrays.equals(head, MAGIC) || !Arrays.equals(tail, MAGIC)) {
+                throw new IOException(source + " is not a game archive");
+            }
+            int version = header.get();
+            if (version != VERSION) {
+                throw new IOException(source + " has unsupported game archive version " + version);
+            }
+            games = trailer.getLong();
+            int blocks = trailer.getInt();
+            blockGames = trailer.getInt();
+            long indexStart = size - TRAILER_BYTES - 8L * blocks;
+            if (blocks < 0 || blockGames <= 0 || indexStart < GameLog.HEADER_BYTES
+                    || games > (long) blocks * blockGames || games <= (long) (blocks - 1) * blockGames) {
+                throw new IOException(source + ": damaged archive trailer");
+            }
+            offsets = new long[blocks + 1];
+            ByteBuffer index = read(indexStart, 8 * blocks);
+            for (int b = 0; b < blocks; b++) {
+                offsets[b] = index.getLong();
+                if (offsets[b] < (b == 0 ? GameLog.HEADER_BYTES : offsets[b - 1]) || offsets[b] > indexStart) {
+                    throw new IOException(source + ": damaged archive index at block " + b);
+                }
+            }
+            offsets[blocks] = indexStart;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return the number of games in the archive */
+    public long getGameCount() {
+        return games;
+    }
+
+    /** @return the number of blocks, numbered from 0 */
+    public int getBlockCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the number of the first game in a block; games are numbered
+     * from 0 in archive order.
+     *
+     * @param block the block number
+     * @return the game number
+     */
+    public long firstGame(int block) {
+        return (long) block * blockGames;
+    }
+
+    /**
+     * Maps one block for reading. Blocks may be read concurrently, each by
+     * its own thread.
+     *
+     * @param block the block number
+     * @return a reader over the block's games
+     * @throws IOException if the block cannot be mapped
+     */
+    public Block block(int block) throws IOException {
+        long start = offsets[block];
+        return new Block(block, channel.map(FileChannel.MapMode.READ_ONLY, start, offsets[block + 1] - start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException(source + ": unexpected end of archive");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Writes the games of one or more logs, in order, to a new archive,
+     * replacing any file already there.
+     *
+     * @param logs    the game logs to read
+     * @param archive the archive to write
+     * @return the number of games written
+     * @throws IOException if a log cannot be read or the archive written
+     */
+    public static long pack(List<Path> logs, Path archive) throws IOException {
+        long games = 0;
+        long[] offsets = new long[16];
+        int blocks = 0;
+        CRC32 crc = new CRC32();
+        try (FileChannel out = FileChannel.open(archive, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.put(MAGIC).put((byte) VERSION);
+            long position = GameLog.HEADER_BYTES;
+            for (Path log : logs) {
+                try (GameLogReader reader = new GameLogReader(log)) {
+                    for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+                        if (games % BLOCK_GAMES == 0) {
+                            if (blocks == offsets.length) {
+                                offsets = Arrays.copyOf(offsets, blocks * 2);
+                            }
+                            offsets[blocks++] = position;
+                        }
+                        byte[] payload = record.toPayload();
+                        crc.reset();
+                        crc.update(payload);
+                        if (buffer.remaining() < 8 + payload.length) {
+                            flush(out, buffer);
+                            if (buffer.capacity() < 8 + payload.length) {
+                                buffer = ByteBuffer.allocate(8 + payload.length);
+                            }
+                        }
+                        buffer.putInt(payload.length).put(payload).putInt((int) crc.getValue());
+                        position += 8 + payload.length;
+                        games++;
+                    }
+                }
+            }
+            for (int b = 0; b < blocks; b++) {
+                if (buffer.remaining() < 8) {
+                    flush(out, buffer);
+                }
+                buffer.putLong(offsets[b]);
+            }
+            if (buffer.remaining() < TRAILER_BYTES) {
+                flush(out, buffer);
+            }
+            buffer.putLong(games).putInt(blocks).putInt(BLOCK_GAMES).put(MAGIC);
+            flush(out, buffer);
+        }
+        return games;
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Reads the games of one mapped block in order. Not thread-safe; each
+     * thread reads its own blocks.
+     */
+    public final class Block {
+        private final int number;
+        private final MappedByteBuffer buffer;
+        private final CRC32 crc = new CRC32();
+        private long game;
+
+        private Block(int number, MappedByteBuffer buffer) {
+            this.number = number;
+            this.buffer = buffer;
+            this.game = firstGame(number);
+        }
+
+        /** @return the number of the game {@link #next} returns next */
+        public long nextGame() {
+            return game;
+        }
+
+        /**
+         * Reads the next game of the block.
+         *
+         * @return the game, or {@code null} at the end of the block
+         * @throws IOException if a frame is damaged
+         */
+        public GameRecord next() throws IOException {
+            if (!buffer.hasRemaining()) {
+                return null;
+            }
+            if (buffer.remaining() < 8) {
+                throw new IOException(source + ": block " + number + " ends inside game " + game);
+            }
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() - 4) {
+                throw new IOException(source + ": bad frame length " + length + " in game " + game);
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt()) {
+                throw new IOException(source + ": checksum mismatch in game " + game);
+            }
+            try {
+                return GameRecord.fromPayload(payload);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(source + ": game " + game + ": " + e.getMessage(), e);
+            } finally {
+                game++;
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package game.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of finished games, written by a background thread so games
+ * never wait for the disk.
+ * <p>
+ * The file starts with the magic bytes {@code SGRL} and a format version. Each
+ * game follows as one frame: the payload length (4 bytes, big-endian), the
+ * payload (see {@link GameRecord}) and the CRC-32 of the payload (4 bytes).
+ * A frame is written in one piece, so games from many threads never
+ * interleave. A frame cut short by a crash is ignored by
+ * {@link GameLogReader} and cut off when the log is next opened for appending.
+ * </p>
+ * Games can be appended from any thread. Closing the log, or shutting down the
+ * JVM, writes every game appended before. If the writer fails, later games are
+ * dropped rather than queued, the failure is reported once on standard error
+ * and {@link #close} throws it.
+ */
+public final class GameLog implements Closeable {
+    static final byte[] MAGIC = "SGRL".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 5;
+
+    /** Marks the end of the queue for the writer thread. */
+    private static final GameRecord END = new GameRecord(0, 0, null, null, 0, new byte[0]);
+
+    private final FileChannel channel;
+    private final LinkedBlockingQueue<GameRecord> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final Thread shutdownHook;
+    private volatile boolean closed;
+    /** Why the writer stopped: an {@link IOException} or a {@link RuntimeException}, or {@code null}. */
+    private volatile Exception failure;
+
+    /**
+     * Opens a log for appending, creating it if needed.
+     *
+     * @param file the log file
+     * @throws IOException if the file cannot be opened or is not a game log
+     */
+    public GameLog(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).put(MAGIC).put((byte) VERSION);
+                header.flip();
+                channel.write(header);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                GameLogReader.checkHeader(header.array(), file);
+                dropTornFrame();
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        writer = new Thread(this::drain, "game-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        shutdownHook = new Thread(this::closeQuietly, "game-log-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues a finished game for writing and returns at once. Once the writer
+     * has failed the game is dropped instead, so games keep being played.
+     *
+     * @param record the game
+     * @throws IllegalStateException if the log is closed
+     */
+    public synchronized void append(GameRecord record) {
+        if (closed) {
+            throw new IllegalStateException("Game log is closed");
+        }
+        if (failure != null) {
+            return;
+        }
+        queue.add(record);
+    }
+
+    /**
+     * Writes every queued game and closes the file.
+     *
+     * @throws IOException      if a game could not be written
+     * @throws RuntimeException if the writer failed on a game for another reason
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(END);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // already shutting down
+        }
+        channel.close();
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    /**
+     * Walks the frame lengths and cuts off a final frame left incomplete by a
+     * crash, so new games are not appended behind it.
+     */
+    private void dropTornFrame() throws IOException {
+        long size = channel.size();
+        long position = HEADER_BYTES;
+        ByteBuffer length = ByteBuffer.allocate(4);
+        while (position + 8 <= size) {
+            length.clear();
+            channel.read(length, position);
+            long next = position + 8 + (length.getInt(0) & 0xFFFFFFFFL);
+            if (next > size) {
+                break;
+            }
+            position = next;
+        }
+        if (position != size) {
+            channel.truncate(position);
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not write game log: " + e.getMessage());
+        }
+    }
+
+    /** Writer thread: frames and writes records until the end marker or a failure. */
+    private void drain() {
+        CRC32 crc = new CRC32();
+        try {
+            for (GameRecord record = queue.take(); record != END; record = queue.take()) {
+                byte[] payload = record.toPayload();
+                crc.reset();
+                crc.update(payload);
+                ByteBuffer frame = ByteBuffer.allocate(8 + payload.length);
+                frame.putInt(payload.length).put(payload).putInt((int) crc.getValue()).flip();
+                while (frame.hasRemaining()) {
+                    channel.write(frame);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        } catch (InterruptedException e) {
+            fail(new IOException("Game log writer interrupted", e));
+        }
+    }
+
+    /**
+     * Records why the writer stopped and drops the games still queued, which
+     * will never be written; {@link #append} drops later ones.
+     */
+    private void fail(Exception e) {
+        synchronized (this) {
+            failure = e;
+            queue.clear();
+        }
+        System.err.println("Game log writer stopped, games are no longer recorded: " + e);
+    }
+}
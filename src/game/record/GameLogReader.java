@@ -0,0 +1,116 @@
+package game.record;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Streams the games of a {@link GameLog} file in the order they were written,
+ * holding only the current game in memory.
+ * <p>
+ * A frame cut short at the end of the file, as left by a crash, ends the
+ * stream quietly. A complete frame whose checksum does not match is an error.
+ * </p>
+ */
+public class GameLogReader implements Closeable {
+    /** Largest frame accepted; far above any real game. */
+    private static final int MAX_PAYLOAD = 1 << 24;
+
+    private final DataInputStream in;
+    private final CRC32 crc = new CRC32();
+    private final String source;
+    private long games;
+
+    /**
+     * Opens a log file.
+     *
+     * @param file the log file
+     * @throws IOException if it cannot be read or is not a game log
+     */
+    public GameLogReader(Path file) throws IOException {
+        this(Files.newInputStream(file), file.toString());
+    }
+
+    /**
+     * Reads a log from a stream, starting with its file header.
+     *
+     * @param in     the stream; closed with this reader
+     * @param source a name for the stream in error messages
+     * @throws IOException if the header is missing or wrong
+     */
+    public GameLogReader(InputStream in, String source) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        this.source = source;
+        byte[] header = new byte[GameLog.HEADER_BYTES];
+        try {
+            this.in.readFully(header);
+            checkHeader(header, source);
+        } catch (IOException e) {
+            this.in.close();
+            throw e instanceof EOFException ? new IOException(source + " is not a game log") : e;
+        }
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the game, or {@code null} at the end of the log
+     * @throws IOException if the log cannot be read or a frame is corrupt
+     */
+    public GameRecord next() throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > MAX_PAYLOAD) {
+            throw new IOException(source + ": bad frame length " + length + " after " + games + " games");
+        }
+        byte[] payload = new byte[length];
+        int checksum;
+        try {
+            in.readFully(payload);
+            checksum = in.readInt();
+        } catch (EOFException e) {
+            return null;   // torn final frame
+        }
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException(source + ": checksum mismatch in game " + games);
+        }
+        games++;
+        try {
+            return GameRecord.fromPayload(payload);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(source + ": game " + (games - 1) + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** @return the number of games read so far */
+    public long getGamesRead() {
+        return games;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    static void checkHeader(byte[] header, Object source) throws IOException {
+        if (!Arrays.equals(Arrays.copyOf(header, GameLog.MAGIC.length), GameLog.MAGIC)) {
+            throw new IOException(source + " is not a game log");
+        }
+        if (header[GameLog.MAGIC.length] != GameLog.VERSION) {
+            throw new IOException(source + " has unsupported game log version " + header[GameLog.MAGIC.length]);
+        }
+    }
+}
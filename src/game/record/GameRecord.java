@@ -0,0 +1,296 @@
+package game.record;
+
+import engine.action.BuildMode;
+import engine.actors.Player;
+import engine.positions.Cell;
+import engine.positions.GameEngine;
+import game.Game;
+import game.ai.GodPower;
+
+import java.util.Arrays;
+
+/**
+ * One recorded game: how it was set up and every input it was played with.
+ * <p>
+ * The setup is the seed the game was created from, the board dimension, both
+ * players' god powers and the starting square of every worker; a square is
+ * one byte, or two on boards of more than 256 squares. Each input is one
+ * byte, its top two bits selecting the kind:
+ * </p>
+ * <pre>
+ *  00ssssss  click on square s (select a worker, move or build)
+ *  01mmmmmm  set build mode m ({@link BuildMode} ordinal)
+ *  10000000  skip the optional god-power action
+ *  10000001  click on the square in the next two bytes, for squares from 64 on
+ *  11000000  end turn      11000001  out of time      11000010  resign
+ * </pre>
+ * so a turn usually takes three to six bytes. Only inputs the engine
+ * accepted are recorded. Inputs are replayed through a fresh engine with
+ * human players, which makes exactly the same rules decisions the recorded
+ * game made, unless the rules have changed since.
+ */
+public final class GameRecord {
+    /** Winner of a game that was abandoned before it ended. */
+    public static final int NO_WINNER = 0xFF;
+
+    static final int CLICK = 0x00;
+    static final int MODE = 0x40;
+    static final int SKIP = 0x80;
+    static final int WIDE_CLICK = 0x81;
+    static final int END_TURN = 0xC0;
+    static final int TIME_OUT = 0xC1;
+    static final int RESIGN = 0xC2;
+
+    private static final GodPower[] POWERS = GodPower.values();
+    private static final BuildMode[] MODES = BuildMode.values();
+
+    private final long seed;
+    private final int dimension;
+    private final GodPower[] powers;
+    private final int[] workerSquares;
+    private final int winner;
+    private final byte[] inputs;
+    /** Offset of every input, or {@code null} if each input is one byte. */
+    private final int[] offsets;
+
+    /**
+     * @throws IllegalArgumentException if the last input is a cut-off wide click
+     */
+    GameRecord(long seed, int dimension, GodPower[] powers, int[] workerSquares, int winner, byte[] inputs) {
+        this.seed = seed;
+        this.dimension = dimension;
+        this.powers = powers;
+        this.workerSquares = workerSquares;
+        this.winner = winner;
+        this.inputs = inputs;
+        this.offsets = offsets(inputs);
+    }
+
+    /** @return the seed the game was set up from, or 0 if it had none */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** @return the number of rows and columns of the board */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the god power of a player.
+     *
+     * @param player 0 for the first player, 1 for the second
+     * @return the player's power
+     */
+    public GodPower getPower(int player) {
+        return powers[player];
+    }
+
+    /** @return the starting square of every worker, in board slot order */
+    public int[] getWorkerSquares() {
+        return workerSquares.clone();
+    }
+
+    /** @return the index of the winning player, or {@link #NO_WINNER} */
+    public int getWinner() {
+        return winner;
+    }
+
+    /** @return the number of recorded inputs */
+    public int getInputCount() {
+        return offsets == null ? inputs.length : offsets.length;
+    }
+
+    /**
+     * Replays the whole game.
+     *
+     * @return an engine holding the final position; its board is the replayed {@link engine.positions.SquareBoard}
+     */
+    public GameEngine replay() {
+        return replay(getInputCount());
+    }
+
+    /**
+     * Replays the first inputs of the game.
+     *
+     * @param count the number of inputs to replay
+     * @return an engine holding the position after them; not started, so no clock runs
+     */
+    public GameEngine replay(int count) {
+        GameEngine engine = startPosition();
+        for (int i = 0; i < count; i++) {
+            apply(engine, i);
+        }
+        return engine;
+    }
+
+    /**
+     * Sets up the game as it was before its first input, with human players
+     * so that nothing moves until inputs are applied.
+     *
+     * @return a new, not yet started engine
+     */
+    public GameEngine startPosition() {
+        return Game.newGame(dimension, workerSquares, powers[0], powers[1], Player::new, Player::new);
+    }
+
+    /**
+     * Feeds one recorded input to an engine replaying this game.
+     *
+     * @param engine the engine, holding the position before the input
+     * @param index  the index of the input
+     */
+    public void apply(GameEngine engine, int index) {
+        int at = offsets == null ? index : offsets[index];
+        int input = inputs[at] & 0xFF;
+        int arg = input & 0x3F;
+        switch (input & 0xC0) {
+            case CLICK:
+                click(engine, arg);
+                break;
+            case MODE:
+                engine.setBuildMode(MODES[arg]);
+                break;
+            case SKIP:
+                if (input == WIDE_CLICK) {
+                    click(engine, wideSquare(at));
+                } else {
+                    engine.skip();
+                }
+                break;
+            default:
+                if (input == END_TURN) {
+                    engine.endTurn();
+                } else if (input == TIME_OUT) {
+                    engine.loseOnTime();
+                } else {
+                    engine.resign();
+                }
+                break;
+        }
+    }
+
+    /**
+     * Describes one input for reports, e.g. {@code "click c3"} or {@code "mode WALL"}.
+     *
+     * @param index the index of the input
+     * @return a short description
+     */
+    public String describeInput(int index) {
+        int at = offsets == null ? index : offsets[index];
+        int input = inputs[at] & 0xFF;
+        int arg = input & 0x3F;
+        switch (input & 0xC0) {
+            case CLICK: return "click " + describeSquare(arg);
+            case MODE:  return "mode " + (arg < MODES.length ? MODES[arg] : "#" + arg);
+            case SKIP:  return input == WIDE_CLICK ? "click " + describeSquare(wideSquare(at)) : "skip";
+            default:
+                return input == END_TURN ? "end turn" : input == TIME_OUT ? "out of time" : "resign";
+        }
+    }
+
+    /** @return a square as column letter and row number, e.g. {@code c3}, or {@code r12c40} on big boards */
+    private String describeSquare(int square) {
+        int row = square / dimension, col = square % dimension;
+        return dimension <= 26 ? (char) ('a' + col) + String.valueOf(row + 1) : "r" + (row + 1) + "c" + (col + 1);
+    }
+
+    private static void click(GameEngine engine, int square) {
+        Cell cell = engine.getBoard().getCell(square);
+        engine.takeTurn(cell.getRow(), cell.getCol());
+    }
+
+    /** @return the square of the wide click at an offset */
+    private int wideSquare(int at) {
+        return (inputs[at + 1] & 0xFF) << 8 | inputs[at + 2] & 0xFF;
+    }
+
+    /**
+     * Finds where every input starts, unless all of them are one byte.
+     *
+     * @throws IllegalArgumentException if the last input is a cut-off wide click
+     */
+    private static int[] offsets(byte[] inputs) {
+        int count = 0, end = 0;
+        while (end < inputs.length) {
+            end += width(inputs[end]);
+            count++;
+        }
+        if (end > inputs.length) {
+            throw new IllegalArgumentException("Game record ends inside an input");
+        }
+        if (count == inputs.length) {
+            return null;
+        }
+        int[] offsets = new int[count];
+        for (int i = 0, at = 0; i < count; at += width(inputs[at])) {
+            offsets[i++] = at;
+        }
+        return offsets;
+    }
+
+    /** @return the number of bytes of the input starting with a byte */
+    private static int width(byte first) {
+        return (first & 0xFF) == WIDE_CLICK ? 3 : 1;
+    }
+
+    /** @return the number of bytes a square takes in the setup of a record */
+    private static int squareBytes(int dimension) {
+        return dimension * dimension > 256 ? 2 : 1;
+    }
+
+    /** @return the record's payload as stored in a {@link GameLog} frame */
+    byte[] toPayload() {
+        int squareBytes = squareBytes(dimension);
+        byte[] out = new byte[13 + squareBytes * workerSquares.length + inputs.length];
+        for (int i = 0; i < 8; i++) {
+            out[i] = (byte) (seed >>> (56 - 8 * i));
+        }
+        out[8] = (byte) dimension;
+        out[9] = (byte) powers[0].ordinal();
+        out[10] = (byte) powers[1].ordinal();
+        out[11] = (byte) workerSquares.length;
+        int at = 12;
+        for (int square : workerSquares) {
+            if (squareBytes == 2) {
+                out[at++] = (byte) (square >>> 8);
+            }
+            out[at++] = (byte) square;
+        }
+        out[at++] = (byte) winner;
+        System.arraycopy(inputs, 0, out, at, inputs.length);
+        return out;
+    }
+
+    /**
+     * Parses a frame payload.
+     *
+     * @throws IllegalArgumentException if the payload is malformed
+     */
+    static GameRecord fromPayload(byte[] payload) {
+        int squareBytes = payload.length < 13 ? 1 : squareBytes(payload[8] & 0xFF);
+        if (payload.length < 13 || payload.length < 13 + squareBytes * (payload[11] & 0xFF)) {
+            throw new IllegalArgumentException("Game record too short: " + payload.length + " bytes");
+        }
+        long seed = 0;
+        for (int i = 0; i < 8; i++) {
+            seed = seed << 8 | (payload[i] & 0xFF);
+        }
+        int dimension = payload[8] & 0xFF;
+        int p0 = payload[9] & 0xFF, p1 = payload[10] & 0xFF;
+        if (p0 >= POWERS.length || p1 >= POWERS.length) {
+            throw new IllegalArgumentException("Unknown god power in game record");
+        }
+        int[] squares = new int[payload[11] & 0xFF];
+        int at = 12;
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = payload[at++] & 0xFF;
+            if (squareBytes == 2) {
+                squares[i] = squares[i] << 8 | payload[at++] & 0xFF;
+            }
+        }
+        int winner = payload[at++] & 0xFF;
+        return new GameRecord(seed, dimension, new GodPower[] {POWERS[p0], POWERS[p1]}, squares, winner,
+                Arrays.copyOfRange(payload, at, payload.length));
+    }
+}
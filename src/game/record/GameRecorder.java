@@ -0,0 +1,132 @@
+package game.record;
+
+import engine.action.BuildMode;
+import engine.events.GameListener;
+import engine.events.InputListener;
+import engine.positions.BoardState;
+import engine.positions.GameEngine;
+import game.ai.GodPower;
+
+import java.util.Arrays;
+
+/**
+ * Records one game's inputs and hands the finished {@link GameRecord} to a
+ * {@link GameLog} when the game ends. Recording costs one byte store per
+ * input on the game's thread (three for a click on a square from 64 on);
+ * nothing is written until the game is over.
+ * An input the engine rejects with an error is dropped again, so a record
+ * holds only inputs that were legal when the game was played.
+ */
+public final class GameRecorder implements InputListener, GameListener {
+    private final GameLog log;
+    private final long seed;
+    private final int dimension;
+    private final GodPower[] powers;
+    private final int[] workerSquares;
+    private byte[] inputs = new byte[64];
+    private int count;
+    /** Offset of the input being taken, or -1 once it can no longer be rejected. */
+    private int last = -1;
+    private boolean finished;
+
+    /**
+     * Starts recording a game that has not been played yet, taking its setup
+     * from the engine and subscribing to its inputs.
+     *
+     * @param engine the game to record; no input may have been made yet
+     * @param seed   the seed the game was set up from, kept for reference
+     * @param log    receives the record when the game ends
+     */
+    public GameRecorder(GameEngine engine, long seed, GameLog log) {
+        this.log = log;
+        this.seed = seed;
+        BoardState board = engine.getBoard().getState();
+        this.dimension = board.getDimension();
+        this.powers = new GodPower[] {
+                GodPower.of(engine.getPlayers().get(0).getGod()),
+                GodPower.of(engine.getPlayers().get(1).getGod())
+        };
+        this.workerSquares = new int[board.getWorkerCount()];
+        for (int slot = 0; slot < workerSquares.length; slot++) {
+            workerSquares[slot] = board.workerSquare(slot);
+        }
+        engine.setInputListener(this);
+        engine.addListener(this);
+    }
+
+    @Override
+    public void clicked(int square) {
+        if (square < 64) {
+            add(GameRecord.CLICK | square);
+        } else {
+            add(GameRecord.WIDE_CLICK);
+            inputs[count++] = (byte) (square >>> 8);
+            inputs[count++] = (byte) square;
+        }
+    }
+
+    @Override
+    public void buildModeChanged(BuildMode mode) {
+        add(GameRecord.MODE | mode.ordinal());
+    }
+
+    @Override
+    public void skipped() {
+        add(GameRecord.SKIP);
+    }
+
+    @Override
+    public void turnEnded() {
+        add(GameRecord.END_TURN);
+    }
+
+    @Override
+    public void timedOut() {
+        add(GameRecord.TIME_OUT);
+    }
+
+    @Override
+    public void resigned() {
+        add(GameRecord.RESIGN);
+    }
+
+    @Override
+    public void errorChanged(String message) {
+        // the engine clears the error before taking an input, so only an
+        // input recorded since then can be the rejected one
+        if (!message.isEmpty() && !finished && last >= 0) {
+            count = last;
+        }
+        last = -1;
+    }
+
+    @Override
+    public void gameEnded(int winner) {
+        finish(winner);
+    }
+
+    /**
+     * Logs a game abandoned before it ended, such as one stopped at a turn limit.
+     * Does nothing if the game already ended.
+     */
+    public void abandon() {
+        finish(GameRecord.NO_WINNER);
+    }
+
+    private void finish(int winner) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        log.append(new GameRecord(seed, dimension, powers, workerSquares, winner, Arrays.copyOf(inputs, count)));
+    }
+
+    /** Starts a new input with its first byte, leaving room for two more. */
+    private void add(int input) {
+        if (count + 3 > inputs.length) {
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+        }
+        last = count;
+        inputs[count++] = (byte) input;
+    }
+}
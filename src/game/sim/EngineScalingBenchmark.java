@@ -0,0 +1,111 @@
+package game.sim;
+
+import engine.positions.GameEngine;
+import game.Game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how game throughput scales with cores when one JVM hosts many
+ * independent games at once.
+ * <p>
+ * For each thread count a fixed population of live games is split across a
+ * shared pool; every worker thread steps its games round-robin, one input at
+ * a time, and replaces each finished game with a fresh one. The report lists
+ * completed games and inputs per second and the speed-up over one thread.
+ * </p>
+ * Usage: {@code java game.sim.EngineScalingBenchmark [maxThreads] [liveGames] [seconds]}
+ */
+public class EngineScalingBenchmark {
+
+    /**
+     * Runs the benchmark and prints one line per thread count.
+     *
+     * @param args optional max threads, live games and seconds per run
+     */
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int liveGames = args.length > 1 ? Integer.parseInt(args[1]) : 4_096;
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+
+        System.out.printf("live games: %d, %.1fs per run, up to %d threads%n", liveGames, seconds, maxThreads);
+        run(maxThreads, liveGames, Math.min(2.0, seconds));   // warm-up
+
+        double base = 0;
+        System.out.println("threads      games/s     inputs/s   speed-up  efficiency");
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            long[] result = run(threads, liveGames, seconds);
+            double gamesPerSec = result[0] / seconds;
+            double inputsPerSec = result[1] / seconds;
+            if (threads == 1) base = gamesPerSec;
+            double speedUp = gamesPerSec / base;
+            System.out.printf("%7d %12.0f %12.0f %10.2f %10.0f%%%n",
+                    threads, gamesPerSec, inputsPerSec, speedUp, 100 * speedUp / threads);
+        }
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        return threads == maxThreads ? maxThreads + 1 : Math.min(threads * 2, maxThreads);
+    }
+
+    /**
+     * Plays games on {@code threads} workers for the given time.
+     *
+     * @return completed games and total inputs
+     */
+    private static long[] run(int threads, int liveGames, double seconds) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        List<Future<long[]>> shards = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int share = liveGames / threads + (t < liveGames % threads ? 1 : 0);
+            long seed = 0x5EED_0000L + t;
+            shards.add(pool.submit(() -> playShard(share, seed, deadline)));
+        }
+        long games = 0, inputs = 0;
+        for (Future<long[]> shard : shards) {
+            long[] r = shard.get();
+            games += r[0];
+            inputs += r[1];
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        return new long[] {games, inputs};
+    }
+
+    /**
+     * Steps a shard of concurrently live games round-robin until the deadline.
+     */
+    private static long[] playShard(int share, long seed, long deadline) {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        RandomDriver[] games = new RandomDriver[Math.max(1, share)];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = newDriver(seeds);
+        }
+        long finished = 0, inputs = 0;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < games.length; i++) {
+                if (games[i].step()) {
+                    inputs++;
+                } else {
+                    finished++;
+                    games[i] = newDriver(seeds);
+                }
+            }
+        }
+        return new long[] {finished, inputs};
+    }
+
+    private static RandomDriver newDriver(SplittableRandom seeds) {
+        Random random = new Random(seeds.nextLong());
+        GameEngine engine = Game.newGame(random);
+        return new RandomDriver(engine, random);
+    }
+}
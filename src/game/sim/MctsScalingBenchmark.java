@@ -0,0 +1,146 @@
+package game.sim;
+
+import engine.actors.Player;
+import engine.positions.BitBoard;
+import engine.positions.GameEngine;
+import game.Game;
+import game.ai.GodPower;
+import game.ai.MctsSearch;
+import game.ai.RolloutPolicy;
+import game.ai.TurnGenerator;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how MCTS playout throughput scales with threads.
+ * <p>
+ * A fixed middle-game position is searched for a set time with 1, 2, 4, …
+ * threads, in both root-parallel and tree-parallel mode. The report lists
+ * playouts per second, the speed-up over one thread and the parallel
+ * efficiency. Thread counts above the machine's core count are still run,
+ * so oversubscription shows up as flat or falling throughput.
+ * </p>
+ * <p>
+ * A deep-tree case then searches a 3×3 board, whose few turns let the tree
+ * grow deeper than the path limit of {@value #DEEP_PATH} turns it is given,
+ * so iterations keep reaching a full path and playing out from there. Every
+ * report also lists the deepest path an iteration walked.
+ * </p>
+ * Usage: {@code java game.sim.MctsScalingBenchmark [maxThreads] [seconds] [random|light]}
+ */
+public class MctsScalingBenchmark {
+    /** Random turns played from the opening before the position is searched. */
+    private static final int OPENING_TURNS = 8;
+    /** Board size of the deep-tree case. */
+    private static final int DEEP_DIMENSION = 3;
+    /** Path limit of the deep-tree case, shorter than the lines its tree grows within a second. */
+    private static final int DEEP_PATH = 4;
+
+    /**
+     * Runs the benchmark and prints one line per mode and thread count.
+     *
+     * @param args optional max threads, seconds per run and rollout policy
+     */
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 3.0;
+        RolloutPolicy policy = args.length > 2 && args[2].equalsIgnoreCase("random")
+                ? RolloutPolicy.RANDOM : RolloutPolicy.LIGHT;
+
+        Random random = new Random(0x5EEDL);
+        GameEngine engine = Game.newGame(random);
+        BitBoard board = new BitBoard(engine.getBoard().getBitBoard());
+        GodPower[] powers = {
+                GodPower.of(engine.getPlayers().get(0).getGod()),
+                GodPower.of(engine.getPlayers().get(1).getGod())
+        };
+        int[] slots = {0b0011, 0b1100};
+        int side = playOpening(board, slots, powers, random);
+
+        System.out.printf("%d cores, %.1fs per run, %s playouts, %s vs %s%n",
+                Runtime.getRuntime().availableProcessors(), seconds, policy, powers[side], powers[side ^ 1]);
+        for (MctsSearch.Parallelism mode : MctsSearch.Parallelism.values()) {
+            report(mode + " parallel", board, slots, powers, side, mode, policy, maxThreads, seconds,
+                    MctsSearch.DEFAULT_MAX_PATH);
+        }
+
+        // one worker a side in opposite corners
+        GameEngine deep = Game.newGame(DEEP_DIMENSION, new int[] {0, DEEP_DIMENSION * DEEP_DIMENSION - 1},
+                powers[0], powers[1], Player::new, Player::new);
+        BitBoard deepBoard = new BitBoard(deep.getBoard().getBitBoard());
+        int[] deepSlots = {0b01, 0b10};
+        for (MctsSearch.Parallelism mode : MctsSearch.Parallelism.values()) {
+            report(mode + " parallel, deep tree: " + DEEP_DIMENSION + "x" + DEEP_DIMENSION
+                            + " board, path limit " + DEEP_PATH,
+                    deepBoard, deepSlots, powers, 0, mode, policy, maxThreads, seconds, DEEP_PATH);
+        }
+    }
+
+    /**
+     * Searches a position with 1, 2, 4, … threads after a warm-up and prints
+     * one line per thread count.
+     */
+    private static void report(String title, BitBoard board, int[] slots, GodPower[] powers, int side,
+                               MctsSearch.Parallelism mode, RolloutPolicy policy, int maxThreads,
+                               double seconds, int maxPath) {
+        run(board, slots, powers, side, mode, policy, 1, Math.min(1.0, seconds), maxPath);   // warm-up
+        System.out.println(title);
+        System.out.println("threads   playouts/s   speed-up  efficiency  deepest");
+        double base = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            MctsSearch search = run(board, slots, powers, side, mode, policy, threads, seconds, maxPath);
+            double rate = search.getPlayoutsPerSecond();
+            if (threads == 1) base = rate;
+            double speedUp = rate / base;
+            System.out.printf("%7d %12.0f %10.2f %10.0f%% %8d%n", threads, rate, speedUp, 100 * speedUp / threads,
+                    search.getDeepestPath());
+        }
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        return threads == maxThreads ? maxThreads + 1 : Math.min(threads * 2, maxThreads);
+    }
+
+    /**
+     * Searches the position once on a fresh pool of the given size.
+     *
+     * @return the finished search, for its statistics
+     */
+    private static MctsSearch run(BitBoard board, int[] slots, GodPower[] powers, int side,
+                                  MctsSearch.Parallelism mode, RolloutPolicy policy, int threads,
+                                  double seconds, int maxPath) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            MctsSearch search = new MctsSearch(pool, mode, policy, maxPath);
+            search.search(board, slots[side], powers[side], slots[side ^ 1], powers[side ^ 1],
+                    (long) (seconds * 1000), 0);
+            return search;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays random turns from the opening to reach a middle-game position,
+     * stopping early if the side to move could win or is stuck.
+     *
+     * @return the side to move afterwards
+     */
+    private static int playOpening(BitBoard board, int[] slots, GodPower[] powers, Random random) {
+        TurnGenerator generator = new TurnGenerator();
+        long[] turns = new long[1 << 14];
+        int side = 0;
+        for (int i = 0; i < OPENING_TURNS; i++, side ^= 1) {
+            if (generator.hasWin(board, slots[side], powers[side])) {
+                break;
+            }
+            int count = generator.generate(board, slots[side], powers[side], turns, false);
+            if (count == 0) {
+                break;
+            }
+            TurnGenerator.apply(board, turns[random.nextInt(count)]);
+        }
+        return side;
+    }
+}
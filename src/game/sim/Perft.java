@@ -0,0 +1,446 @@
+package game.sim;
+
+import engine.action.BuildMode;
+import engine.actors.Player;
+import engine.actors.Worker;
+import engine.positions.BitBoard;
+import engine.positions.BoardState;
+import engine.positions.Cell;
+import engine.positions.GameEngine;
+import game.Game;
+import game.ai.GodPower;
+import game.ai.Turn;
+import game.ai.TurnGenerator;
+import game.gods.TurnRules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts legal full-turn sequences to a fixed depth, to check the move
+ * generator against hand counts and to measure its throughput.
+ * <p>
+ * A turn is what {@link TurnGenerator} produces: a worker, where it finishes
+ * and what it builds, so orders and paths that leave the same position count
+ * once (Artemis's two moves, Triton's perimeter chains, Demeter's build pair).
+ * NORMAL, WALL and BREAK builds are all covered; NORMAL builds on walls change
+ * nothing and count once per final square. Different workers may still reach
+ * the same position, as when each Triton worker circles back to its own square
+ * and builds on a square next to both. A winning move ends its
+ * sequence and counts as a leaf at any depth; a side with no legal turn
+ * contributes nothing.
+ * </p>
+ * The root turns are searched in parallel, one fork-join task each; the
+ * divide lists the count below every root turn.
+ * <p>
+ * With {@code --verify} the same sequences are also counted without the
+ * generator, by feeding a {@link GameEngine} every input its gods'
+ * {@link TurnRules#continuations} allow and keeping each distinct finished
+ * turn, and the two counts are compared per root turn. This replays every
+ * input from the start of the game and is meant for depths 1 and 2.
+ * </p>
+ * <p>
+ * Usage: {@code java game.sim.Perft depth [seed] [god1,god2] [threads] [--verify]}
+ * where the seed picks the worker placement of {@link Game#newGame} and gods
+ * are none, artemis, demeter or triton (default: the gods the seed assigns);
+ * verifying needs real god cards.
+ * </p>
+ */
+public class Perft {
+    private static final int MAX_TURNS = 1 << 14;
+
+    private final BitBoard root;
+    private final int[] slots;
+    private final GodPower[] powers;
+
+    /**
+     * Creates a counter for a position.
+     *
+     * @param root   the position; not modified
+     * @param slots  worker slot masks of the side to move and the other side
+     * @param powers god powers of the side to move and the other side
+     */
+    public Perft(BitBoard root, int[] slots, GodPower[] powers) {
+        this.root = new BitBoard(root);
+        this.slots = slots.clone();
+        this.powers = powers.clone();
+    }
+
+    /**
+     * Counts sequences below every root turn.
+     *
+     * @param depth the number of turns per sequence, at least 1
+     * @param pool  the pool to count root turns on
+     * @return the root turns in generator order and the count below each
+     */
+    public Divide divide(int depth, ForkJoinPool pool) {
+        long[] turns = new long[MAX_TURNS];
+        int count = new TurnGenerator().generate(root, slots[0], powers[0], turns, false);
+        List<Subtree> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Subtree(turns[i], depth));
+        }
+        long[] counts = pool.invoke(new RecursiveTask<long[]>() {
+            @Override
+            protected long[] compute() {
+                invokeAll(tasks);
+                long[] counts = new long[tasks.size()];
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] = tasks.get(i).join();
+                }
+                return counts;
+            }
+        });
+        long[] roots = new long[count];
+        System.arraycopy(turns, 0, roots, 0, count);
+        return new Divide(roots, counts);
+    }
+
+    /**
+     * Counts the same sequences as {@link #divide} by playing the game's own
+     * inputs instead of generated turns. From each position every worker of
+     * the side to move is selected and every continuation of its god's
+     * {@link TurnRules} is tried on a {@link GameEngine}; a turn is one
+     * distinct pair of moving worker and resulting board, so orders and
+     * paths that end alike count once, as in the generator.
+     *
+     * @param depth  the number of turns per sequence, at least 1
+     * @param divide the generator's divide of this position at that depth
+     * @return the engine's divide: the root turns of {@code divide} in order
+     *         with the engine's counts, 0 for a turn the engine cannot play,
+     *         followed by one {@link Turn#NONE} entry per finished turn the
+     *         generator did not produce
+     * @throws IllegalStateException if the position is not a game's start, with
+     *                               the first two worker slots to move, or a power
+     *                               has no god card
+     */
+    public Divide verify(int depth, Divide divide) {
+        for (int square = 0, squares = root.getDimension() * root.getDimension(); square < squares; square++) {
+            if (root.structure(square) != 0) {
+                throw new IllegalStateException("Only a position without buildings can be played on an engine");
+            }
+        }
+        int half = root.getWorkerCount() / 2;
+        if (slots[0] != (1 << half) - 1 || powers[0] == GodPower.NONE || powers[1] == GodPower.NONE) {
+            throw new IllegalStateException("Only a game's start position with two god cards can be played on an engine");
+        }
+        Replayer replayer = new Replayer();
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<Long, Outcome> entry : replayer.turns(new int[0]).entrySet()) {
+            Outcome outcome = entry.getValue();
+            counts.put(entry.getKey(), depth == 1 || outcome.win ? 1 : replayer.count(outcome.inputs, depth - 1));
+        }
+        long[] turns = new long[divide.size()];
+        long[] found = new long[divide.size()];
+        for (int i = 0; i < divide.size(); i++) {
+            BitBoard after = new BitBoard(root);
+            TurnGenerator.apply(after, divide.turn(i));
+            Long count = counts.remove(outcomeKey(Turn.slot(divide.turn(i)), after.getKey()));
+            turns[i] = divide.turn(i);
+            found[i] = count == null ? 0 : count;
+        }
+        turns = Arrays.copyOf(turns, divide.size() + counts.size());
+        found = Arrays.copyOf(found, turns.length);
+        int i = divide.size();
+        for (long count : counts.values()) {
+            turns[i] = Turn.NONE;
+            found[i++] = count;
+        }
+        return new Divide(turns, found);
+    }
+
+    /** Identifies a finished turn by the worker that moved and the board it left. */
+    private static long outcomeKey(int slot, long boardKey) {
+        return boardKey + slot * 0x9E3779B97F4A7C15L;
+    }
+
+    /** A finished turn found by the {@link Replayer}: the inputs from the start of the game that lead to it. */
+    private static final class Outcome {
+        final int[] inputs;
+        final boolean win;
+
+        Outcome(int[] inputs, boolean win) {
+            this.inputs = inputs;
+            this.win = win;
+        }
+    }
+
+    /**
+     * Plays inputs on fresh engines set up at the root. An engine cannot be
+     * copied or taken back, so every position is reached by replaying its
+     * inputs from the start; inputs are {@link TurnRules} continuation codes,
+     * with the selection of a worker written as a move to its square.
+     */
+    private final class Replayer {
+        private final int[] squares = new int[root.getWorkerCount()];
+
+        Replayer() {
+            for (int slot = 0; slot < squares.length; slot++) {
+                squares[slot] = root.workerSquare(slot);
+            }
+        }
+
+        /** Counts the sequences of {@code depth} turns after the given inputs. */
+        long count(int[] inputs, int depth) {
+            Map<Long, Outcome> outcomes = turns(inputs);
+            if (depth == 1) {
+                return outcomes.size();
+            }
+            long nodes = 0;
+            for (Outcome outcome : outcomes.values()) {
+                nodes += outcome.win ? 1 : count(outcome.inputs, depth - 1);
+            }
+            return nodes;
+        }
+
+        /**
+         * Finds every distinct turn the side to move can finish after the given
+         * inputs, keyed by {@link #outcomeKey}.
+         */
+        Map<Long, Outcome> turns(int[] inputs) {
+            GameEngine engine = replay(inputs);
+            Map<Long, Outcome> outcomes = new LinkedHashMap<>();
+            if (engine.isGameOver()) {
+                return outcomes;
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Worker worker : engine.getCurrentPlayer().getWORKERS()) {
+                int slot = engine.getBoard().slotOf(worker);
+                if (slot >= 0) {
+                    int[] select = Arrays.copyOf(inputs, inputs.length + 1);
+                    select[inputs.length] = TurnRules.continuation(TurnRules.MOVE_TO,
+                            engine.getBoard().getState().workerSquare(slot));
+                    explore(select, engine.getCurrentPlayerIndex(), slot, seen, outcomes);
+                }
+            }
+            return outcomes;
+        }
+
+        /** Follows every continuation from the position the inputs lead to, until the turn is over. */
+        private void explore(int[] inputs, int mover, int slot, Set<Long> seen, Map<Long, Outcome> outcomes) {
+            GameEngine engine = replay(inputs);
+            BoardState state = engine.getBoard().getState();
+            if (engine.isGameOver() || engine.getCurrentPlayerIndex() != mover) {
+                if (!engine.isGameOver() || engine.getWinnerIndex() == mover) {
+                    outcomes.putIfAbsent(outcomeKey(slot, state.getKey()), new Outcome(inputs, engine.isGameOver()));
+                }
+                return;
+            }
+            if (engine.getSelectedSlot() != slot || !seen.add(engine.getPositionKey())) {
+                return;
+            }
+            TurnRules rules = GodPower.of(engine.getCurrentPlayer().getGod()).getRules();
+            int[] next = new int[TurnRules.MAX_CONTINUATIONS];
+            int count = rules.continuations(state, engine.getTurnState(), state.workerSquare(slot), next);
+            for (int i = 0; i < count; i++) {
+                int[] longer = Arrays.copyOf(inputs, inputs.length + 1);
+                longer[inputs.length] = next[i];
+                explore(longer, mover, slot, seen, outcomes);
+            }
+        }
+
+        private GameEngine replay(int[] inputs) {
+            GameEngine engine = Game.newGame(root.getDimension(), squares, powers[0], powers[1],
+                    Player::new, Player::new);
+            for (int input : inputs) {
+                play(engine, input);
+            }
+            return engine;
+        }
+
+        private void play(GameEngine engine, int input) {
+            switch (TurnRules.kind(input)) {
+                case TurnRules.SKIP:
+                    engine.skip();
+                    return;
+                case TurnRules.BUILD_TOWER:
+                    engine.setBuildMode(BuildMode.NORMAL);
+                    break;
+                case TurnRules.BUILD_WALL:
+                    engine.setBuildMode(BuildMode.WALL);
+                    break;
+                case TurnRules.BREAK_WALL:
+                    engine.setBuildMode(BuildMode.BREAK);
+                    break;
+                default:
+                    break;
+            }
+            Cell cell = engine.getBoard().getCell(TurnRules.square(input));
+            engine.takeTurn(cell.getRow(), cell.getCol());
+        }
+    }
+
+    /**
+     * Counts the sequences that start with one root turn.
+     */
+    @SuppressWarnings("serial") // tasks never leave the process
+    private final class Subtree extends RecursiveTask<Long> {
+        private final long turn;
+        private final int depth;
+
+        Subtree(long turn, int depth) {
+            this.turn = turn;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth == 1 || Turn.isWin(turn)) {
+                return 1L;
+            }
+            Counter counter = new Counter(depth);
+            TurnGenerator.apply(counter.board, turn);
+            return counter.count(1, depth - 1, 1);
+        }
+    }
+
+    /**
+     * Depth-first counter with its own copy of the root, walked with undo
+     * records, and a turn buffer per ply.
+     */
+    private final class Counter {
+        final TurnGenerator generator = new TurnGenerator();
+        final BitBoard board = new BitBoard(root);
+        final long[][] turns;
+
+        Counter(int depth) {
+            turns = new long[depth + 1][];
+        }
+
+        long count(int ply, int depth, int side) {
+            if (turns[ply] == null) {
+                turns[ply] = new long[MAX_TURNS];
+            }
+            long[] list = turns[ply];
+            int count = generator.generate(board, slots[side], powers[side], list, false);
+            if (depth == 1) {
+                return count;
+            }
+            long nodes = 0;
+            for (int i = 0; i < count; i++) {
+                long turn = list[i];
+                if (Turn.isWin(turn)) {
+                    nodes++;
+                    continue;
+                }
+                int undo = TurnGenerator.apply(board, turn);
+                nodes += count(ply + 1, depth - 1, side ^ 1);
+                TurnGenerator.undo(board, undo);
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * The result of {@link #divide}: root turns and the sequences below each.
+     */
+    public static final class Divide {
+        private final long[] turns;
+        private final long[] counts;
+
+        Divide(long[] turns, long[] counts) {
+            this.turns = turns;
+            this.counts = counts;
+        }
+
+        /** @return the number of root turns */
+        public int size() {
+            return turns.length;
+        }
+
+        /** @return the i-th root turn */
+        public long turn(int i) {
+            return turns[i];
+        }
+
+        /** @return the sequences starting with the i-th root turn */
+        public long count(int i) {
+            return counts[i];
+        }
+
+        /** @return the sequences over all root turns */
+        public long total() {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Prints the divide, the total and the counting speed, and with
+     * {@code --verify} the engine's count beside each root turn.
+     *
+     * @param args depth, then optional seed, god pair and thread count, and {@code --verify}
+     */
+    public static void main(String[] args) {
+        boolean verify = args.length > 0 && args[args.length - 1].equals("--verify");
+        if (verify) {
+            args = Arrays.copyOf(args, args.length - 1);
+        }
+        int depth = Integer.parseInt(args[0]);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        GameEngine engine = Game.newGame(new SplittableRandom(seed));
+        GodPower[] powers = {
+                GodPower.of(engine.getPlayers().get(0).getGod()),
+                GodPower.of(engine.getPlayers().get(1).getGod())
+        };
+        if (args.length > 2) {
+            String[] names = args[2].split(",");
+            for (int i = 0; i < 2; i++) {
+                powers[i] = GodPower.valueOf(names[i].trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        BitBoard board = engine.getBoard().getBitBoard();
+        Perft perft = new Perft(board, new int[] {0b0011, 0b1100}, powers);
+
+        System.out.printf("perft %d, seed %d, %s vs %s, %d threads%n", depth, seed, powers[0], powers[1], threads);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            Divide divide = perft.divide(depth, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            for (int i = 0; i < divide.size(); i++) {
+                System.out.printf("%-24s %d%n", Turn.toString(divide.turn(i), board.getDimension()), divide.count(i));
+            }
+            long total = divide.total();
+            System.out.printf("turns: %d, total: %d in %.3fs (%.0f nodes/s)%n",
+                    divide.size(), total, seconds, total / seconds);
+            if (verify) {
+                verify(perft, divide, depth, board.getDimension());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Prints the root turns whose engine count differs from the generator's, and the verdict. */
+    private static void verify(Perft perft, Divide divide, int depth, int dimension) {
+        long start = System.nanoTime();
+        Divide played = perft.verify(depth, divide);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int wrong = 0;
+        for (int i = 0; i < played.size(); i++) {
+            long expected = i < divide.size() ? divide.count(i) : 0;
+            if (played.count(i) != expected) {
+                wrong++;
+                System.out.printf("%-24s generator %d, engine %d%n",
+                        Turn.toString(played.turn(i), dimension), expected, played.count(i));
+            }
+        }
+        System.out.printf("verify: engine total %d in %.3fs, %s%n", played.total(), seconds,
+                wrong == 0 ? "all root turns agree" : wrong + " root turns differ");
+    }
+}
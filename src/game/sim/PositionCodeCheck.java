@@ -0,0 +1,77 @@
+package game.sim;
+
+import engine.positions.BitBoard;
+import game.ai.GodPower;
+import game.ai.PositionCode;
+import game.gods.TurnRules;
+
+import java.util.Arrays;
+
+/**
+ * Round-trips {@link PositionCode}s through their fields and their text form
+ * on the largest board, where square indexes use every bit of the code's
+ * square fields.
+ * <p>
+ * For every square as the square a pending step must avoid, in both optional
+ * steps and with and without a selected worker, a position is encoded, read
+ * back field by field, formatted and parsed again; the parsed code must equal
+ * the encoded one. The workers stand in the far corner so their squares are
+ * as large as they get too.
+ * </p>
+ * Usage: {@code java game.sim.PositionCodeCheck}; exits with status 1 if any
+ * state does not round-trip.
+ */
+public class PositionCodeCheck {
+    /**
+     * Runs the check and prints the states that fail.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        int dimension = BitBoard.MAX_DIMENSION;
+        int squares = dimension * dimension;
+        BitBoard board = new BitBoard(dimension);
+        for (int slot = 0; slot < 4; slot++) {
+            board.placeWorker(slot, squares - 1 - slot);
+        }
+        long[] code = new long[PositionCode.WORDS];
+        long[] parsed = new long[PositionCode.WORDS];
+        int checked = 0, failed = 0;
+        for (int step : new int[] {TurnRules.EXTRA_MOVE, TurnRules.EXTRA_BUILD}) {
+            for (int selected = -1; selected < 4; selected += 4) {
+                for (int square = 0; square < squares; square++, checked++) {
+                    int state = TurnRules.state(step, square);
+                    PositionCode.encode(board, 1, state, selected, GodPower.ARTEMIS, GodPower.TRITON, code);
+                    String text = PositionCode.toString(code);
+                    String problem = null;
+                    if (PositionCode.turnState(code) != state) {
+                        problem = "turn state " + PositionCode.turnState(code) + ", expected " + state;
+                    } else if (PositionCode.selectedSlot(code) != selected) {
+                        problem = "selected slot " + PositionCode.selectedSlot(code) + ", expected " + selected;
+                    } else if (PositionCode.side(code) != 1 || PositionCode.workerSquare(code, 3) != squares - 4) {
+                        problem = "fields after the turn state changed";
+                    } else {
+                        try {
+                            PositionCode.parse(text, parsed);
+                            if (!Arrays.equals(code, parsed)) {
+                                problem = "parses to " + PositionCode.toString(parsed);
+                            }
+                        } catch (IllegalArgumentException e) {
+                            problem = e.getMessage();
+                        }
+                    }
+                    if (problem != null) {
+                        failed++;
+                        System.out.printf("%-5s %s: %s%n", TurnRules.step(state) == TurnRules.EXTRA_MOVE ? "move" : "build",
+                                text, problem);
+                    }
+                }
+            }
+        }
+        System.out.printf("%d states on %dx%d, %s%n", checked, dimension, dimension,
+                failed == 0 ? "all round-trip" : failed + " failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
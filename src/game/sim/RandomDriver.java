@@ -0,0 +1,137 @@
+package game.sim;
+
+import engine.action.BuildMode;
+import engine.actors.Player;
+import engine.actors.Worker;
+import engine.events.GameListener;
+import engine.positions.BitBoard;
+import engine.positions.Cell;
+import engine.positions.GameBoard;
+import engine.positions.GameEngine;
+import game.gods.TurnPhase;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays a game by feeding random legal-looking inputs into a {@link GameEngine},
+ * exactly as a human would through the board window: worker selection, move
+ * and build clicks, build-mode changes and skips. Targets are drawn from the
+ * board's packed masks so very few inputs are rejected.
+ */
+public final class RandomDriver implements GameListener {
+    /** Inputs after which a game that has not finished is abandoned. */
+    public static final int MAX_INPUTS = 2_000;
+
+    private final GameEngine engine;
+    private final Random random;
+    private boolean skipOffered = false;
+    private int inputs = 0;
+
+    /**
+     * Attaches a driver to an engine.
+     *
+     * @param engine the game to drive
+     * @param random the source of randomness for input choices
+     */
+    public RandomDriver(GameEngine engine, Random random) {
+        this.engine = engine;
+        this.random = random;
+        engine.addListener(this);
+    }
+
+    /**
+     * Feeds one input into the engine.
+     *
+     * @return {@code false} once the game is over, stuck or abandoned
+     */
+    public boolean step() {
+        if (engine.isGameOver() || inputs++ >= MAX_INPUTS) {
+            return false;
+        }
+        Player player = engine.getCurrentPlayer();
+        GameBoard board = engine.getBoard();
+        BitBoard bits = board.getBitBoard();
+
+        if (!engine.isTurnProgress()) {
+            click(board.getLocationOf(pickWorker(player, board)));
+            return true;
+        }
+
+        int from = bits.workerSquare(board.slotOf(engine.getSelectedWorker()));
+        long targets;
+        if (engine.getTurnPhase() == TurnPhase.MOVE) {
+            targets = bits.moveTargets(from);
+        } else {
+            BuildMode mode = pickMode();
+            targets = bits.buildTargets(from, mode);
+            if (targets == 0 && mode != BuildMode.NORMAL) {
+                mode = BuildMode.NORMAL;
+                targets = bits.towerTargets(from);
+            }
+            engine.setBuildMode(mode);
+        }
+
+        if (skipOffered && (targets == 0 || random.nextInt(3) == 0)) {
+            engine.skip();
+            return true;
+        }
+        if (targets == 0) {
+            return false;
+        }
+        click(board.getCell(pickSquare(targets)));
+        return true;
+    }
+
+    /**
+     * Steps the game until it ends, gets stuck or is abandoned.
+     *
+     * @return the number of inputs fed into the engine
+     */
+    public int playOut() {
+        while (step()) {
+            // keep feeding inputs
+        }
+        return inputs;
+    }
+
+    @Override
+    public void skipOffered(String label) {
+        skipOffered = true;
+    }
+
+    @Override
+    public void skipWithdrawn() {
+        skipOffered = false;
+    }
+
+    private void click(Cell cell) {
+        engine.takeTurn(cell.getRow(), cell.getCol());
+    }
+
+    private Worker pickWorker(Player player, GameBoard board) {
+        List<Worker> workers = player.getWORKERS();
+        int start = random.nextInt(workers.size());
+        for (int i = 0; i < workers.size(); i++) {
+            Worker w = workers.get((start + i) % workers.size());
+            if (board.hasValidMove(w)) {
+                return w;
+            }
+        }
+        // no worker can move: selecting any lets the engine declare the result
+        return workers.get(start);
+    }
+
+    private BuildMode pickMode() {
+        int roll = random.nextInt(10);
+        return roll == 0 ? BuildMode.WALL : roll == 1 ? BuildMode.BREAK : BuildMode.NORMAL;
+    }
+
+    private int pickSquare(long mask) {
+        int skip = random.nextInt(Long.bitCount(mask));
+        for (int i = 0; i < skip; i++) {
+            mask &= mask - 1;
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+}
@@ -0,0 +1,244 @@
+package game.sim;
+
+import engine.events.GameListener;
+import engine.positions.GameEngine;
+import game.record.GameArchive;
+import game.record.GameRecord;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays every game of a {@link GameArchive} through the current rules
+ * engine and reports the games the rules no longer accept, after a change to
+ * move or build validation for instance.
+ * <p>
+ * Records hold only inputs that were accepted when the game was played, so
+ * a game is flagged when the engine now rejects one of its inputs, when the
+ * game ends before its last input, when its result differs from the recorded
+ * one, or when replaying it throws. Worker threads take blocks of the archive
+ * in turn; each block is mapped, replayed and released, so memory use does
+ * not grow with the archive.
+ * </p>
+ * Usage:
+ * <pre>
+ * java game.sim.ReplayValidator ARCHIVE [--threads T] [--pack LOG] [--show N]
+ * </pre>
+ * {@code --pack LOG} first writes the games of a game log to ARCHIVE;
+ * {@code --show N} lists up to N flagged games (default 20).
+ */
+public class ReplayValidator {
+    private final GameArchive archive;
+    private final int threads;
+    private final int maxListed;
+
+    /**
+     * @param archive   the archive to validate
+     * @param threads   the number of worker threads
+     * @param maxListed how many flagged games to keep for the report
+     */
+    public ReplayValidator(GameArchive archive, int threads, int maxListed) {
+        this.archive = archive;
+        this.threads = threads;
+        this.maxListed = maxListed;
+    }
+
+    /**
+     * Parses the command line, validates the archive and prints the report.
+     *
+     * @param args see the class documentation
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("usage: java game.sim.ReplayValidator ARCHIVE [--threads T] [--pack LOG] [--show N]");
+            System.exit(2);
+        }
+        Path file = Path.of(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        int show = 20;
+        String pack = null;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--pack":    pack = value; break;
+                case "--show":    show = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (pack != null) {
+            long packed = GameArchive.pack(List.of(Path.of(pack)), file);
+            System.out.printf("packed %d games from %s%n", packed, pack);
+        }
+        try (GameArchive archive = new GameArchive(file)) {
+            Report report = new ReplayValidator(archive, threads, show).run();
+            report.print(System.out);
+            if (report.flagged > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Replays the whole archive on the thread pool.
+     *
+     * @return the aggregated results
+     * @throws Exception if the archive is damaged or a worker fails
+     */
+    public Report run() throws Exception {
+        AtomicInteger nextBlock = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<Report>> shards = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                shards.add(pool.submit(() -> {
+                    Report shard = new Report(maxListed);
+                    for (int b = nextBlock.getAndIncrement(); b < archive.getBlockCount(); b = nextBlock.getAndIncrement()) {
+                        validateBlock(archive.block(b), shard);
+                    }
+                    return shard;
+                }));
+            }
+            Report report = new Report(maxListed);
+            for (Future<Report> shard : shards) {
+                report.merge(shard.get());
+            }
+            report.nanos = System.nanoTime() - start;
+            return report;
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static void validateBlock(GameArchive.Block block, Report report) throws IOException {
+        Rejections rejections = new Rejections();
+        for (long game = block.nextGame(); ; game = block.nextGame()) {
+            GameRecord record = block.next();
+            if (record == null) {
+                return;
+            }
+            report.games++;
+            report.inputs += record.getInputCount();
+            String problem;
+            try {
+                problem = validate(record, rejections);
+            } catch (RuntimeException e) {
+                problem = "replay failed: " + e;
+            }
+            if (problem != null) {
+                report.flag(game, record, problem);
+            }
+        }
+    }
+
+    /**
+     * Replays one game.
+     *
+     * @return what is wrong with it, or {@code null} if the rules accept it
+     */
+    private static String validate(GameRecord record, Rejections rejections) {
+        GameEngine engine = record.startPosition();
+        engine.addListener(rejections);
+        int inputs = record.getInputCount();
+        for (int i = 0; i < inputs; i++) {
+            if (engine.isGameOver()) {
+                return "game ended before input " + i + " (" + record.describeInput(i) + ")";
+            }
+            rejections.message = null;
+            record.apply(engine, i);
+            if (rejections.message != null) {
+                return "input " + i + " (" + record.describeInput(i) + ") rejected: " + rejections.message;
+            }
+        }
+        int winner = record.getWinner();
+        if (winner == GameRecord.NO_WINNER) {
+            return engine.isGameOver() ? "abandoned game now ends, won by player " + engine.getWinnerIndex() : null;
+        }
+        if (!engine.isGameOver()) {
+            return "game does not end; player " + winner + " won it";
+        }
+        if (engine.getWinnerIndex() != winner) {
+            return "won by player " + engine.getWinnerIndex() + ", recorded player " + winner;
+        }
+        return null;
+    }
+
+    /** Remembers the error an input was rejected with. */
+    private static final class Rejections implements GameListener {
+        String message;
+
+        @Override
+        public void errorChanged(String message) {
+            if (!message.isEmpty()) {
+                this.message = message;
+            }
+        }
+    }
+
+    /**
+     * Results of a validation run, or of one worker's share of it.
+     */
+    public static final class Report {
+        private final int maxListed;
+        private final List<String> listed = new ArrayList<>();
+        long games;
+        long inputs;
+        long flagged;
+        long nanos;
+
+        Report(int maxListed) {
+            this.maxListed = maxListed;
+        }
+
+        /** @return the number of games replayed */
+        public long getGames() {
+            return games;
+        }
+
+        /** @return the number of games the rules rejected */
+        public long getFlagged() {
+            return flagged;
+        }
+
+        void flag(long game, GameRecord record, String problem) {
+            flagged++;
+            if (listed.size() < maxListed) {
+                listed.add(String.format("game %d (seed %d, %s vs %s): %s", game, record.getSeed(),
+                        record.getPower(0), record.getPower(1), problem));
+            }
+        }
+
+        void merge(Report other) {
+            games += other.games;
+            inputs += other.inputs;
+            flagged += other.flagged;
+            for (String line : other.listed) {
+                if (listed.size() < maxListed) {
+                    listed.add(line);
+                }
+            }
+        }
+
+        void print(PrintStream out) {
+            double seconds = nanos / 1e9;
+            out.printf("%d games, %d inputs in %.2fs: %.0f games/min, %d flagged%n",
+                    games, inputs, seconds, games / seconds * 60, flagged);
+            for (String line : listed) {
+                out.println("  " + line);
+            }
+            if (flagged > listed.size()) {
+                out.printf("  ... %d more%n", flagged - listed.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package game.sim;
+
+import engine.positions.BitBoard;
+import game.ai.GodPower;
+import game.ai.Turn;
+import game.ai.TurnGenerator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves every position of a small board variant and writes a {@link SolvedTable}.
+ * <p>
+ * The solver works backwards from the end of the game. Pass 0 marks
+ * positions whose mover has no legal turn as lost in 0, and positions with a
+ * worker already on level 3, which are over, as won or lost in 0 for the
+ * player to move. Every later pass marks each unsolved position its solved
+ * successors settle: won in one more turn than the quickest loss among them,
+ * lost in one more turn than the slowest win once all of them are wins, or
+ * drawn once all of them are solved without a loss. Before pass {@code d}
+ * every position at most {@code d - 1} turns from the end is solved, so a
+ * loss in {@code d} or fewer among the successors already settles a win
+ * while others are still open. Successors are generated forwards with
+ * {@link TurnGenerator}, so every god power the generator knows is solved
+ * without a separate unmove generator.
+ * </p>
+ * <p>
+ * No turn lowers the total tower height, so the passes run over one
+ * {@link SolvedTable.Indexer height slice} at a time, the highest first: the
+ * slices a turn can reach are solved completely by then, and a position
+ * whose turns all build a level is settled in its first pass. A pass that
+ * marks nothing skips ahead to the quickest loss among the successors of the
+ * open positions, and a slice is done when there is none; the positions
+ * left are draws, which walls that come down again make possible. A
+ * finished slice is only read again through the entries the next two slices
+ * down look up, so the operating system can page it out.
+ * </p>
+ * <p>
+ * Each pass splits the slice into chunks that worker threads take in turn.
+ * A thread may or may not see what another writes in the same pass; either
+ * way every entry it writes is the position's true value, so this only
+ * changes which pass solves a position. Solved positions are skipped without
+ * being decoded, and indexes {@link SolvedTable.Indexer#isCanonical no
+ * position is stored under} are filled with draws in pass 0 and left out of
+ * the counts. The table lives in a memory-mapped file, so the heap holds
+ * only each thread's board and turn buffer.
+ * </p>
+ * Usage:
+ * <pre>
+ * java game.sim.RetrogradeSolver DIMENSION [--workers W] [--gods A,B | --gods all]
+ *                                [--threads T] [--out FILE]
+ * </pre>
+ * Gods are none, artemis, demeter or triton (default none,none). With
+ * {@code --gods all} every pairing is solved in turn, the godless one first,
+ * each to its own file named after FILE and the pairing.
+ */
+public class RetrogradeSolver {
+    private static final int MAX_TURNS = 1 << 14;
+    private static final long CHUNK = 1 << 12;
+    /** Pass that turns the positions left unsolved into draws. */
+    private static final int DRAW_PASS = -1;
+
+    private final SolvedTable table;
+    private final int threads;
+    private final long[] counts = new long[4];
+    private int longestWin;
+    private int longestLoss;
+    /** Quickest loss among the successors of the positions the last pass left open. */
+    private int nearestLoss;
+
+    /**
+     * @param table   the table to fill, every entry unknown
+     * @param threads the number of worker threads
+     */
+    public RetrogradeSolver(SolvedTable table, int threads) {
+        this.table = table;
+        this.threads = threads;
+    }
+
+    /**
+     * Parses the command line and solves the variants.
+     *
+     * @param args see the class documentation
+     */
+    public static void main(String[] args) throws Exception {
+        int dimension = Integer.parseInt(args[0]);
+        int workers = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String gods = "none,none";
+        String out = null;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--workers": workers = Integer.parseInt(value); break;
+                case "--gods":    gods = value; break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--out":     out = value; break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        String name = out != null ? out : "solved-" + dimension + "x" + dimension + "-w" + workers;
+        List<GodPower[]> pairings = new ArrayList<>();
+        if (gods.equals("all")) {
+            GodPower[] powers = GodPower.values();
+            for (int a = 0; a < powers.length; a++) {
+                for (int b = a; b < powers.length; b++) {
+                    pairings.add(new GodPower[] {powers[a], powers[b]});
+                }
+            }
+        } else {
+            String[] names = gods.split(",");
+            pairings.add(new GodPower[] {
+                    GodPower.valueOf(names[0].trim().toUpperCase(Locale.ROOT)),
+                    GodPower.valueOf(names[1].trim().toUpperCase(Locale.ROOT))
+            });
+        }
+        for (GodPower[] pairing : pairings) {
+            Path file = Path.of(pairings.size() == 1 && out != null ? out
+                    : name + "-" + pairing[0].name().toLowerCase(Locale.ROOT)
+                    + "-" + pairing[1].name().toLowerCase(Locale.ROOT) + ".bin");
+            try (SolvedTable table = SolvedTable.create(file, dimension, workers, pairing[0], pairing[1])) {
+                System.out.printf("%dx%d, %d worker(s) each, %s vs %s: %d positions per side, %d threads%n",
+                        dimension, dimension, workers, pairing[0], pairing[1], table.getPositions(), threads);
+                RetrogradeSolver solver = new RetrogradeSolver(table, threads);
+                long start = System.nanoTime();
+                solver.solve();
+                System.out.printf("  %d passes in %.2fs: %d won (longest %d), %d lost (longest %d), %d drawn -> %s%n",
+                        table.getPasses(), (System.nanoTime() - start) / 1e9,
+                        solver.counts[SolvedTable.WIN], solver.longestWin,
+                        solver.counts[SolvedTable.LOSS], solver.longestLoss,
+                        solver.counts[SolvedTable.DRAW], file);
+            }
+        }
+    }
+
+    /**
+     * Solves every position and marks the table solved.
+     */
+    public void solve() throws Exception {
+        SolvedTable.Indexer indexer = new SolvedTable.Indexer(table.getDimension(), table.getWorkers());
+        int passes = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int height = indexer.maxHeight(); height >= 0; height--) {
+                long from = indexer.sliceStart(height), to = indexer.sliceStart(height + 1);
+                if (from == to) {
+                    continue;
+                }
+                runPass(pool, 0, from, to);
+                passes++;
+                for (int pass = 1; ; pass++, passes++) {
+                    if (runPass(pool, pass, from, to) == 0) {
+                        if (nearestLoss == Integer.MAX_VALUE) {
+                            break;
+                        }
+                        // nothing changed, so no pass before this one can settle anything
+                        pass = nearestLoss - 1;
+                    }
+                }
+                runPass(pool, DRAW_PASS, from, to);   // also counts every outcome
+            }
+            table.setPasses(passes);
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Runs one pass over one slice of both sides on the pool.
+     *
+     * @param pass the distance solved in this pass, or {@link #DRAW_PASS}
+     * @param from the first index of the slice
+     * @param to   the end of the slice
+     * @return the number of positions solved
+     */
+    private long runPass(ExecutorService pool, int pass, long from, long to) throws Exception {
+        long size = to - from;
+        long chunks = (size + CHUNK - 1) / CHUNK;
+        long total = chunks * table.getSides();
+        AtomicLong next = new AtomicLong();
+        List<Future<long[]>> shards = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            shards.add(pool.submit(() -> {
+                Worker worker = new Worker();
+                for (long chunk = next.getAndIncrement(); chunk < total; chunk = next.getAndIncrement()) {
+                    int side = (int) (chunk / chunks);
+                    long start = from + chunk % chunks * CHUNK;
+                    worker.run(pass, side, start, Math.min(start + CHUNK, to));
+                }
+                return worker.tally;
+            }));
+        }
+        long solved = 0;
+        nearestLoss = Integer.MAX_VALUE;
+        for (Future<long[]> shard : shards) {
+            long[] tally = shard.get();
+            solved += tally[0];
+            nearestLoss = (int) Math.min(nearestLoss, tally[6]);
+            if (pass == DRAW_PASS) {
+                for (int outcome = 1; outcome < 4; outcome++) {
+                    counts[outcome] += tally[outcome];
+                }
+                longestWin = Math.max(longestWin, (int) tally[4]);
+                longestLoss = Math.max(longestLoss, (int) tally[5]);
+            }
+        }
+        return solved;
+    }
+
+    /** One thread's board, generator and counts. */
+    private final class Worker {
+        private final SolvedTable.Indexer indexer = new SolvedTable.Indexer(table.getDimension(), table.getWorkers());
+        private final BitBoard board = indexer.newBoard();
+        private final TurnGenerator generator = new TurnGenerator();
+        private final long[] turns = new long[MAX_TURNS];
+        private final int mine = (1 << table.getWorkers()) - 1;
+        private final int theirs = mine << table.getWorkers();
+        /**
+         * Positions solved, then per outcome (final pass), longest win, longest
+         * loss, and the quickest loss among the successors of open positions.
+         */
+        final long[] tally = {0, 0, 0, 0, 0, 0, Integer.MAX_VALUE};
+
+        void run(int pass, int side, long from, long to) {
+            for (long index = from; index < to; index++) {
+                int entry = table.get(side, index);
+                if (pass == DRAW_PASS) {
+                    if (entry == SolvedTable.UNKNOWN) {
+                        entry = SolvedTable.entry(SolvedTable.DRAW, 0);
+                        table.set(side, index, entry);
+                    }
+                    // indexes only a symmetric copy of a position decodes to are left out of the counts
+                    if (indexer.isCanonical(index, board)) {
+                        count(entry);
+                    }
+                    continue;
+                }
+                if (entry != SolvedTable.UNKNOWN) {
+                    continue;
+                }
+                int result;
+                if (pass > 0) {
+                    indexer.decode(index, board);
+                    result = solve(side, pass);
+                } else if (indexer.isCanonical(index, board)) {
+                    result = solve(side, pass);
+                } else {
+                    // never looked up, so it need not be solved
+                    result = SolvedTable.entry(SolvedTable.DRAW, 0);
+                }
+                if (result != SolvedTable.UNKNOWN) {
+                    table.set(side, index, result);
+                    tally[0]++;
+                }
+            }
+        }
+
+        /**
+         * Decides the decoded position if the entries solved so far settle it.
+         * Every position {@code pass - 1} or fewer turns from the end is solved
+         * before pass {@code pass}, so an unsolved successor is at least
+         * {@code pass} turns from the end or drawn.
+         *
+         * @return the entry to store, or {@link SolvedTable#UNKNOWN}
+         */
+        private int solve(int side, int pass) {
+            if (pass == 0) {
+                // a worker on level 3 has already won; only ever reached in pass 0
+                for (int slot = 0; slot < 2 * table.getWorkers(); slot++) {
+                    if (board.height(board.workerSquare(slot)) == 3) {
+                        return SolvedTable.entry(slot < table.getWorkers() ? SolvedTable.WIN : SolvedTable.LOSS, 0);
+                    }
+                }
+            }
+            int n = generator.generate(board, mine, table.getPower(side), turns, true);
+            if (n == 0) {
+                return SolvedTable.entry(SolvedTable.LOSS, 0);   // only ever reached in pass 0
+            }
+            if (pass == 0) {
+                return SolvedTable.UNKNOWN;
+            }
+            if (Turn.isWin(turns[0])) {
+                return SolvedTable.entry(SolvedTable.WIN, 1);   // only ever reached in pass 1
+            }
+            int next = table.getSides() - 1 - side;
+            int shortestLoss = Integer.MAX_VALUE, longestWin = -1;
+            boolean open = false, drawn = false;
+            for (int t = 0; t < n; t++) {
+                int undo = TurnGenerator.apply(board, turns[t]);
+                int reply = table.get(next, indexer.index(board, theirs, mine));
+                TurnGenerator.undo(board, undo);
+                int distance = SolvedTable.distance(reply);
+                switch (SolvedTable.outcome(reply)) {
+                    case SolvedTable.LOSS: shortestLoss = Math.min(shortestLoss, distance); break;
+                    case SolvedTable.WIN:  longestWin = Math.max(longestWin, distance); break;
+                    case SolvedTable.DRAW: drawn = true; break;
+                    default:               open = true; break;
+                }
+            }
+            if (shortestLoss != Integer.MAX_VALUE) {
+                if (open && shortestLoss > pass) {
+                    // an open successor may still be lost sooner
+                    tally[6] = Math.min(tally[6], shortestLoss);
+                    return SolvedTable.UNKNOWN;
+                }
+                return distanceEntry(SolvedTable.WIN, shortestLoss + 1);
+            }
+            if (open) {
+                return SolvedTable.UNKNOWN;
+            }
+            return drawn ? SolvedTable.entry(SolvedTable.DRAW, 0) : distanceEntry(SolvedTable.LOSS, longestWin + 1);
+        }
+
+        private int distanceEntry(int outcome, int distance) {
+            if (distance > SolvedTable.MAX_DISTANCE) {
+                throw new IllegalStateException("Distances beyond " + SolvedTable.MAX_DISTANCE + " turns");
+            }
+            return SolvedTable.entry(outcome, distance);
+        }
+
+        private void count(int entry) {
+            int outcome = SolvedTable.outcome(entry), distance = SolvedTable.distance(entry);
+            tally[outcome]++;
+            if (outcome == SolvedTable.WIN) {
+                tally[4] = Math.max(tally[4], distance);
+            } else if (outcome == SolvedTable.LOSS) {
+                tally[5] = Math.max(tally[5], distance);
+            }
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package game.sim;
+
+import engine.actors.Player;
+import engine.events.GameListener;
+import engine.metrics.LatencyHistogram;
+import engine.positions.GameEngine;
+import game.Game;
+import game.PlayerFactory;
+import game.ai.AlphaBetaPlayer;
+import game.ai.ComputerPlayer;
+import game.ai.MctsPlayer;
+import game.ai.MctsSearch;
+import game.ai.OpeningBook;
+import game.ai.OpeningBookBuilder;
+import game.ai.RandomPlayer;
+import game.ai.RolloutPolicy;
+import game.ai.Turn;
+import game.record.GameLog;
+import game.record.GameRecorder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Plays batches of headless games between two configured bots.
+ * <p>
+ * Game {@code i} of a batch draws its worker placement, god assignment and
+ * the choices of its random bots from its own {@link SplittableRandom},
+ * seeded with the {@code i}-th value of the batch seed's stream; MCTS bots
+ * seed their playouts from the position's key instead. Bots run without a
+ * clock (depth or playout budgets), so a game's moves depend only on its
+ * seed and the bot specs: {@code --game i} replays game {@code i} of
+ * the same batch and prints its moves. The two bots swap seats every game.
+ * </p>
+ * <p>
+ * The report lists games per second, wins per bot and percentiles of the
+ * time each bot took to choose and play a turn. With {@code --log FILE}
+ * every game is also appended to a {@link GameLog}.
+ * </p>
+ * <p>
+ * {@code --build-book FILE} collects the turns played in the first
+ * {@code --book-turns} turns of every game (default 8) with each game's
+ * result and writes an {@link OpeningBook} of the best turn played in at
+ * least {@code --book-games} games (default 2) from each position.
+ * {@code --book FILE} makes both bots play book turns wherever the book has one.
+ * </p>
+ * Usage:
+ * <pre>
+ * java game.sim.SelfPlayRunner [--games N] [--threads T] [--seed S]
+ *                              [--bot1 SPEC] [--bot2 SPEC] [--game I] [--log FILE]
+ *                              [--book FILE] [--build-book FILE] [--book-turns N] [--book-games N]
+ * SPEC: random | alphabeta[:depth] | mcts[:playouts]
+ * </pre>
+ */
+public class SelfPlayRunner {
+    /** Turns after which an unfinished game is abandoned as a draw. */
+    public static final int MAX_TURNS = 400;
+
+    private final String[] bots;
+    private final int threads;
+    private final long seed;
+    /** Receives every game played, or {@code null}. */
+    private GameLog log;
+    /** Book both bots consult, or {@code null}. */
+    private OpeningBook book;
+    /** Number of opening turns collected for a new book, or 0 for none. */
+    private int bookTurns;
+    /** One-thread pools of MCTS bots, per runner thread; shut down at the end. */
+    private final ConcurrentLinkedQueue<ForkJoinPool> mctsPools = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ForkJoinPool> mctsPool = ThreadLocal.withInitial(() -> {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        mctsPools.add(pool);
+        return pool;
+    });
+
+    /**
+     * Creates a runner.
+     *
+     * @param bot1    spec of the first bot
+     * @param bot2    spec of the second bot
+     * @param threads number of games played at once
+     * @param seed    the batch seed
+     */
+    public SelfPlayRunner(String bot1, String bot2, int threads, long seed) {
+        this.bots = new String[] {bot1, bot2};
+        this.threads = threads;
+        this.seed = seed;
+        factory(bot1, new SplittableRandom());   // fail fast on a bad spec
+        factory(bot2, new SplittableRandom());
+    }
+
+    /**
+     * Parses the command line, runs the batch or replays one game.
+     *
+     * @param args see the class documentation
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length % 2 != 0) {
+            System.err.println("usage: java game.sim.SelfPlayRunner [--games N] [--threads T] [--seed S]"
+                    + " [--bot1 SPEC] [--bot2 SPEC] [--game I] [--log FILE] [--book FILE]"
+                    + " [--build-book FILE] [--book-turns N] [--book-games N]");
+            System.err.println("missing value for " + args[args.length - 1]);
+            System.exit(2);
+        }
+        int games = 1_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1L;
+        String bot1 = "alphabeta:3", bot2 = "random";
+        int replay = -1;
+        String logFile = null;
+        String bookFile = null, buildBook = null;
+        int bookTurns = 8, bookGames = 2;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games":   games = Integer.parseInt(value); break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--seed":    seed = Long.parseLong(value); break;
+                case "--bot1":    bot1 = value; break;
+                case "--bot2":    bot2 = value; break;
+                case "--game":    replay = Integer.parseInt(value); break;
+                case "--log":     logFile = value; break;
+                case "--book":    bookFile = value; break;
+                case "--build-book": buildBook = value; break;
+                case "--book-turns": bookTurns = Integer.parseInt(value); break;
+                case "--book-games": bookGames = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        SelfPlayRunner runner = new SelfPlayRunner(bot1, bot2, threads, seed);
+        try (GameLog log = logFile != null ? new GameLog(Path.of(logFile)) : null;
+             OpeningBook book = bookFile != null ? new OpeningBook(Path.of(bookFile)) : null) {
+            runner.setLog(log);
+            runner.setOpeningBook(book);
+            runner.collectBook(buildBook != null ? bookTurns : 0);
+            if (replay >= 0) {
+                runner.replay(replay);
+            } else {
+                Report report = runner.run(games);
+                report.print(System.out::println);
+                if (buildBook != null) {
+                    int written = report.getBook().write(Path.of(buildBook), bookGames);
+                    System.out.printf("book: %d of %d positions written to %s%n",
+                            written, report.getBook().positions(), buildBook);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records every game played from now on.
+     *
+     * @param log the log to append games to, or {@code null} to stop recording
+     */
+    public void setLog(GameLog log) {
+        this.log = log;
+    }
+
+    /**
+     * Makes both bots play book turns wherever the book has one.
+     *
+     * @param book the opening book, or {@code null} to always search
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Collects the turns of the first turns of every game from now on into
+     * {@link Report#getBook()}.
+     *
+     * @param turns the number of opening turns per game, or 0 to collect none
+     */
+    public void collectBook(int turns) {
+        this.bookTurns = turns;
+    }
+
+    /**
+     * Plays games {@code 0..games-1} of the batch on the thread pool.
+     *
+     * @param games the number of games
+     * @return the aggregated results
+     */
+    public Report run(int games) throws Exception {
+        long[] seeds = gameSeeds(games);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<Report>> shards = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t;
+                shards.add(pool.submit(() -> {
+                    Report shard = new Report();
+                    for (int g = first; g < games; g += threads) {
+                        play(g, seeds[g], shard, false);
+                    }
+                    return shard;
+                }));
+            }
+            Report report = new Report();
+            for (Future<Report> shard : shards) {
+                report.merge(shard.get());
+            }
+            report.nanos = System.nanoTime() - start;
+            return report;
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+            mctsPools.forEach(ForkJoinPool::shutdown);
+        }
+    }
+
+    /**
+     * Replays one game of the batch on the calling thread, printing every turn.
+     *
+     * @param game the index of the game in the batch
+     */
+    public void replay(int game) {
+        Report report = new Report();
+        play(game, gameSeeds(game + 1)[game], report, true);
+        mctsPools.forEach(ForkJoinPool::shutdown);
+    }
+
+    /**
+     * Derives the seed of every game from the batch seed, so a game's seed
+     * does not depend on which thread plays it or in what order.
+     */
+    private long[] gameSeeds(int games) {
+        SplittableRandom batch = new SplittableRandom(seed);
+        long[] seeds = new long[games];
+        for (int g = 0; g < games; g++) {
+            seeds[g] = batch.nextLong();
+        }
+        return seeds;
+    }
+
+    /**
+     * Plays one game to the end, timing each turn.
+     */
+    private void play(int game, long gameSeed, Report report, boolean verbose) {
+        SplittableRandom random = new SplittableRandom(gameSeed);
+        int firstBot = game & 1;
+        PlayerFactory first = factory(bots[firstBot], random.split());
+        PlayerFactory second = factory(bots[firstBot ^ 1], random.split());
+        GameEngine engine = Game.newGame(random, first, second);
+        GameRecorder recorder = log != null ? new GameRecorder(engine, gameSeed, log) : null;
+        List<Player> seats = new ArrayList<>(engine.getPlayers());
+        for (Player seat : seats) {
+            ((ComputerPlayer) seat).setOpeningBook(book);
+        }
+        long[] bookKeys = new long[bookTurns];
+        long[] bookMoves = new long[bookTurns];
+        int[] bookMovers = new int[bookTurns];
+        String[] result = new String[1];
+        engine.addListener(new GameListener() {
+            @Override
+            public void gameOver(String message) {
+                result[0] = message;
+            }
+        });
+        if (verbose) {
+            System.out.printf("game %d seed %d: %s (%s, %s) vs %s (%s, %s)%n", game, gameSeed,
+                    seats.get(0).getNAME(), bots[firstBot], seats.get(0).getGod(),
+                    seats.get(1).getNAME(), bots[firstBot ^ 1], seats.get(1).getGod());
+        }
+
+        int turns = 0;
+        int dimension = engine.getBoard().getDimension();
+        while (!engine.isGameOver() && turns < MAX_TURNS) {
+            Player mover = engine.getCurrentPlayer();
+            int bot = seats.indexOf(mover) == 0 ? firstBot : firstBot ^ 1;
+            if (turns < bookTurns) {
+                bookKeys[turns] = OpeningBook.key(engine);
+                bookMovers[turns] = seats.indexOf(mover);
+            }
+            long t0 = System.nanoTime();
+            boolean more = engine.playAutomatedTurn();
+            report.latency[bot].record(System.nanoTime() - t0);
+            if (turns < bookTurns) {
+                bookMoves[turns] = ((ComputerPlayer) mover).getLastTurn();
+            }
+            turns++;
+            if (verbose) {
+                System.out.printf("%3d %-6s %s%n", turns, mover.getNAME(),
+                        Turn.toString(((ComputerPlayer) mover).getLastTurn(), dimension));
+            }
+            if (!more) {
+                break;
+            }
+        }
+
+        report.games++;
+        report.turns += turns;
+        for (int t = 0; t < Math.min(turns, bookTurns); t++) {
+            if (bookMoves[t] != Turn.NONE) {
+                int points = !engine.isGameOver() ? 1 : engine.getWinnerIndex() == bookMovers[t] ? 2 : 0;
+                report.book.add(bookKeys[t], bookMoves[t], points);
+            }
+        }
+        if (engine.isGameOver()) {
+            report.wins[engine.getWinnerIndex() == 0 ? firstBot : firstBot ^ 1]++;
+        } else {
+            report.draws++;
+            if (recorder != null) {
+                recorder.abandon();
+            }
+        }
+        if (verbose) {
+            System.out.println(result[0] != null ? result[0] : "abandoned after " + turns + " turns");
+        }
+    }
+
+    /**
+     * Creates seats for a bot spec; a random bot draws every choice from {@code random}.
+     */
+    private PlayerFactory factory(String spec, SplittableRandom random) {
+        String[] parts = spec.split(":", 2);
+        long budget = parts.length > 1 ? Long.parseLong(parts[1]) : 0;
+        switch (parts[0]) {
+            case "random":
+                return (name, god, workers, id) -> new RandomPlayer(name, god, workers, id, random);
+            case "alphabeta":
+                int depth = budget > 0 ? (int) budget : 3;
+                return (name, god, workers, id) -> new AlphaBetaPlayer(name, god, workers, id, 0, depth);
+            case "mcts":
+                long playouts = budget > 0 ? budget : 2_000;
+                return (name, god, workers, id) -> new MctsPlayer(name, god, workers, id, 0, playouts,
+                        new MctsSearch(mctsPool.get(), MctsSearch.Parallelism.ROOT, RolloutPolicy.LIGHT));
+            default:
+                throw new IllegalArgumentException("Unknown bot " + spec
+                        + "; expected random, alphabeta[:depth] or mcts[:playouts]");
+        }
+    }
+
+    /**
+     * Aggregated results of a batch or of one runner thread's share of it.
+     */
+    public final class Report {
+        private long games;
+        private long turns;
+        private long draws;
+        private long nanos;
+        private final long[] wins = new long[2];
+        private final LatencyHistogram[] latency = {new LatencyHistogram(), new LatencyHistogram()};
+        private final OpeningBookBuilder book = new OpeningBookBuilder();
+
+        private void merge(Report other) {
+            book.merge(other.book);
+            games += other.games;
+            turns += other.turns;
+            draws += other.draws;
+            for (int b = 0; b < 2; b++) {
+                wins[b] += other.wins[b];
+                latency[b].merge(other.latency[b]);
+            }
+        }
+
+        /** @return the opening turns collected, if the runner was asked to collect them */
+        public OpeningBookBuilder getBook() {
+            return book;
+        }
+
+        /** @return the number of games played */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Returns the wins of one bot.
+         *
+         * @param bot 0 for the first bot, 1 for the second
+         * @return the number of games it won
+         */
+        public long getWins(int bot) {
+            return wins[bot];
+        }
+
+        /**
+         * Returns the turn latency histogram of one bot, in nanoseconds.
+         *
+         * @param bot 0 for the first bot, 1 for the second
+         * @return the histogram of its turn times
+         */
+        public LatencyHistogram getLatency(int bot) {
+            return latency[bot];
+        }
+
+        /**
+         * Writes the report, one line at a time.
+         *
+         * @param out receives each line
+         */
+        public void print(Consumer<String> out) {
+            double seconds = nanos / 1e9;
+            out.accept(String.format("%d games on %d threads in %.2fs: %.1f games/s, %.1f turns/game, seed %d",
+                    games, threads, seconds, games / seconds, (double) turns / Math.max(1, games), seed));
+            out.accept(String.format("%-16s %6s %9s %9s %9s %9s  (turn latency, ms)",
+                    "bot", "wins", "p50", "p90", "p99", "max"));
+            for (int b = 0; b < 2; b++) {
+                LatencyHistogram h = latency[b];
+                out.accept(String.format("%-16s %6d %9.3f %9.3f %9.3f %9.3f", bots[b], wins[b],
+                        h.percentile(50) / 1e6, h.percentile(90) / 1e6, h.percentile(99) / 1e6, h.getMax() / 1e6));
+            }
+            if (draws > 0) {
+                out.accept(draws + " games abandoned after " + MAX_TURNS + " turns");
+            }
+        }
+    }
+}
@@ -0,0 +1,721 @@
+package game.sim;
+
+import engine.positions.BitBoard;
+import game.ai.GodPower;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The game-theoretic value of every position of a small board variant, as
+ * computed by {@link RetrogradeSolver}, held in a memory-mapped file.
+ * <p>
+ * A variant is a board dimension, a number of workers per player and the god
+ * powers of the two players. Positions are stored from the point of view of
+ * the player to move; a table has one side per distinct power to move, so a
+ * pairing of two different gods has two sides and a mirror pairing one.
+ * Every position is one 16-bit entry: the outcome for the player to move in
+ * the top two bits ({@link #WIN}, {@link #LOSS}, {@link #DRAW}) and the
+ * distance to the end in turns below. A won position is won in the fewest
+ * turns the winner can force, a lost one lost in the most turns the loser
+ * can hold out; a player without a legal turn has lost in 0, and a position
+ * with a worker on level 3 is won or lost in 0 for that worker's owner.
+ * </p>
+ * <pre>
+ *  header   "SGRS", version (4), dimension, workers per player, power of
+ *           side 0, power of side 1, sides, 3 spare, positions per side (8),
+ *           passes (4), 4 spare
+ *  entries  side 0 positions, then side 1 positions, 2 bytes each
+ * </pre>
+ * Entries are indexed by {@link Indexer}, one entry for each class of
+ * positions the board's rotations and reflections map onto each other. The
+ * file is mapped in segments, so tables larger than memory are paged in and
+ * out by the operating system.
+ */
+public final class SolvedTable implements Closeable {
+    /** Outcome of a position not solved yet. */
+    public static final int UNKNOWN = 0;
+    /** The player to move can force a win. */
+    public static final int WIN = 1;
+    /** The player to move loses against best play. */
+    public static final int LOSS = 2;
+    /** Neither player can force a win. */
+    public static final int DRAW = 3;
+    /** Largest distance an entry can hold. */
+    public static final int MAX_DISTANCE = (1 << 14) - 1;
+
+    static final byte[] MAGIC = "SGRS".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 32;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int dimension;
+    private final int workers;
+    private final GodPower[] powers;
+    private final long positions;
+    private int passes;
+
+    private SolvedTable(FileChannel channel, FileChannel.MapMode mode, int dimension, int workers,
+                        GodPower[] powers, long positions, int passes) throws IOException {
+        this.channel = channel;
+        this.dimension = dimension;
+        this.workers = workers;
+        this.powers = powers;
+        this.positions = positions;
+        this.passes = passes;
+        long size = HEADER_BYTES + 2 * positions * getSides();
+        segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+        for (int s = 0; s < segments.length; s++) {
+            long start = (long) s << SEGMENT_SHIFT;
+            segments[s] = channel.map(mode, start, Math.min(size - start, 1L << SEGMENT_SHIFT));
+        }
+    }
+
+    /**
+     * Creates an unsolved table, every entry {@link #UNKNOWN}, replacing any
+     * file already there.
+     *
+     * @param file      the table file
+     * @param dimension the board dimension
+     * @param workers   workers per player
+     * @param power0    the power of one player
+     * @param power1    the power of the other player
+     * @return the table, mapped for writing
+     * @throws IOException if the file cannot be created
+     */
+    public static SolvedTable create(Path file, int dimension, int workers,
+                                     GodPower power0, GodPower power1) throws IOException {
+        long positions = new Indexer(dimension, workers).positions();
+        GodPower[] powers = power0 == power1 ? new GodPower[] {power0} : new GodPower[] {power0, power1};
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.put(MAGIC).putInt(VERSION).put((byte) dimension).put((byte) workers)
+                    .put((byte) power0.ordinal()).put((byte) power1.ordinal()).put((byte) powers.length)
+                    .position(16);
+            header.putLong(positions).putInt(0).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            // sparse until solved; the entries read as UNKNOWN
+            channel.write(ByteBuffer.allocate(1), HEADER_BYTES + 2 * positions * powers.length - 1);
+            return new SolvedTable(channel, FileChannel.MapMode.READ_WRITE, dimension, workers, powers, positions, 0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a solved table for reading.
+     *
+     * @param file the table file
+     * @return the table
+     * @throws IOException if it cannot be read or is not a solved table
+     */
+    public static SolvedTable open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read the whole header
+            }
+            if (header.hasRemaining() || !Arrays.equals(Arrays.copyOf(header.array(), MAGIC.length), MAGIC)) {
+                throw new IOException(file + " is not a solved table");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(file + " has unsupported solved table version " + header.getInt(4));
+            }
+            GodPower[] all = GodPower.values();
+            int dimension = header.get(8), workers = header.get(9), sides = header.get(12);
+            GodPower[] powers = sides == 1 ? new GodPower[] {all[header.get(10)]}
+                    : new GodPower[] {all[header.get(10)], all[header.get(11)]};
+            long positions = header.getLong(16);
+            if (positions != new Indexer(dimension, workers).positions()
+                    || channel.size() != HEADER_BYTES + 2 * positions * sides) {
+                throw new IOException(file + ": damaged solved table");
+            }
+            return new SolvedTable(channel, FileChannel.MapMode.READ_ONLY, dimension, workers, powers,
+                    positions, header.getInt(24));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return the board dimension */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /** @return the number of workers each player has */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /** @return 1 for a mirror pairing, otherwise 2 */
+    public int getSides() {
+        return powers.length;
+    }
+
+    /**
+     * Returns the power of the player to move on a side.
+     *
+     * @param side the side
+     * @return its power
+     */
+    public GodPower getPower(int side) {
+        return powers[side];
+    }
+
+    /**
+     * Returns the side holding the positions a player with the given power is to move in.
+     *
+     * @param power the power of the player to move
+     * @return the side
+     * @throws IllegalArgumentException if neither player of the table has that power
+     */
+    public int sideOf(GodPower power) {
+        for (int side = 0; side < powers.length; side++) {
+            if (powers[side] == power) {
+                return side;
+            }
+        }
+        throw new IllegalArgumentException(power + " does not play in this table");
+    }
+
+    /** @return the number of positions on each side */
+    public long getPositions() {
+        return positions;
+    }
+
+    /** @return the number of solver passes it took, or 0 if not solved yet */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Returns the entry of a position.
+     *
+     * @param side  the side, see {@link #sideOf}
+     * @param index the position's {@link Indexer} index
+     * @return the packed entry; see {@link #outcome} and {@link #distance}
+     */
+    public int get(int side, long index) {
+        long offset = HEADER_BYTES + 2 * (side * positions + index);
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getChar((int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param indexer an indexer for this table's variant
+     * @param board   the position
+     * @param mine    worker slot mask of the player to move
+     * @param theirs  worker slot mask of the other player
+     * @param power   the power of the player to move
+     * @return the packed entry
+     */
+    public int probe(Indexer indexer, BitBoard board, int mine, int theirs, GodPower power) {
+        return get(sideOf(power), indexer.index(board, mine, theirs));
+    }
+
+    void set(int side, long index, int entry) {
+        long offset = HEADER_BYTES + 2 * (side * positions + index);
+        segments[(int) (offset >>> SEGMENT_SHIFT)].putChar((int) (offset & SEGMENT_MASK), (char) entry);
+    }
+
+    void setPasses(int passes) throws IOException {
+        this.passes = passes;
+        segments[0].putInt(24, passes);
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Packs an outcome and a distance into an entry.
+     *
+     * @param outcome  {@link #WIN}, {@link #LOSS}, {@link #DRAW} or {@link #UNKNOWN}
+     * @param distance turns to the end, at most {@link #MAX_DISTANCE}
+     * @return the entry
+     */
+    public static int entry(int outcome, int distance) {
+        return outcome << 14 | distance;
+    }
+
+    /** @return the outcome of an entry for the player to move */
+    public static int outcome(int entry) {
+        return entry >>> 14;
+    }
+
+    /** @return the distance of an entry, in turns */
+    public static int distance(int entry) {
+        return entry & MAX_DISTANCE;
+    }
+
+    /**
+     * Numbers the positions of a variant from 0, one board symmetry class at a
+     * time and grouped by total tower height.
+     * <p>
+     * Workers of the same player are interchangeable, so each player's workers
+     * are ranked as a set of squares: first the mover's among all squares,
+     * then the other player's among the squares left. The eight rotations and
+     * reflections of the board map positions to positions of the same value,
+     * so only one placement of each class of worker placements is numbered,
+     * and a position is indexed as the transformed position with the lowest
+     * index. Occupied squares can only hold tower levels 0–3, free squares any
+     * of the seven {@link BitBoard#structure} codes.
+     * </p>
+     * <p>
+     * A tower never loses a level and walls only stand on bare squares, so a
+     * turn never lowers the total tower height of a board, a dome counting 4.
+     * Positions are grouped into slices of one total height each, lowest first,
+     * so a solver can finish the highest slice and work down:
+     * </p>
+     * <pre>
+     *  index = sliceStart(h) + placementClass * sliceSize(h) + structures
+     *  structures = levelsOffset(h, a) + levelsRank(a) * freeCodes(h - a) + freeCodesRank(h - a)
+     * </pre>
+     * where {@code a} is the height the workers stand on in total. Placements a
+     * symmetry maps onto themselves leave some indexes unused; {@link #isCanonical}
+     * tells them apart. Not thread-safe; each thread uses its own indexer.
+     */
+    public static final class Indexer {
+        /** Most worker placements an indexer precomputes symmetry classes for. */
+        private static final int MAX_PLACEMENTS = 1 << 24;
+        /** Tower height of each structure code; walls stand on bare squares. */
+        private static final int[] HEIGHT = {0, 1, 2, 3, 4, 0, 0};
+        /** Tower height of each level a worker can stand on. */
+        private static final int[] LEVEL = {0, 1, 2, 3};
+
+        private final int dimension;
+        private final int squares;
+        private final int workers;
+        private final long[][] choose;
+        private final long otherSets;
+        /** {@code image[g][s]}: the square transform {@code g} takes {@code s} to. */
+        private final int[][] image;
+        /** {@code preimage[g][t]}: the square transform {@code g} takes to {@code t}. */
+        private final int[][] preimage;
+        /** Symmetry class of each worker placement. */
+        private final int[] placementClass;
+        /** Transforms taking each placement to its class's representative, as a bit mask. */
+        private final byte[] toRepresentative;
+        /** Placement of the representative of each class. */
+        private final long[] representative;
+        /** {@code levels[k][h]}: ways k occupied squares total height h. */
+        private final long[][] levels;
+        /** {@code codes[k][h]}: ways k free squares total height h. */
+        private final long[][] codes;
+        /** {@code levelsBelow[k][h][v]}: ways k + 1 occupied squares total h with a first level below v. */
+        private final long[][][] levelsBelow;
+        /** {@code codesBelow[k][h][v]}: ways k + 1 free squares total h with a first code below v. */
+        private final long[][][] codesBelow;
+        /** {@code levelsOffset[h][a]}: structures of height h whose workers stand on less than a in total. */
+        private final long[][] levelsOffset;
+        private final long[] sliceSize;
+        private final long[] sliceStart;
+        private final int[] mover;
+        private final int[] other;
+        private final int[] imageMover;
+        private final int[] imageOther;
+        private final int[] values;
+
+        /**
+         * @param dimension the board dimension
+         * @param workers   workers per player
+         * @throws IllegalArgumentException if the workers do not fit on the board,
+         *                                  or the variant has too many positions to number
+         */
+        public Indexer(int dimension, int workers) {
+            this.dimension = dimension;
+            squares = dimension * dimension;
+            if (dimension < 1 || dimension > BitBoard.MAX_DIMENSION || workers < 1
+                    || 2 * workers > Math.min(squares, BitBoard.MAX_WORKERS)) {
+                throw new IllegalArgumentException(workers + " workers each do not fit a "
+                        + dimension + "x" + dimension + " board");
+            }
+            this.workers = workers;
+            choose = new long[squares + 1][workers + 1];
+            for (int n = 0; n <= squares; n++) {
+                choose[n][0] = 1;
+                for (int k = 1; k <= Math.min(n, workers); k++) {
+                    choose[n][k] = choose[n - 1][k - 1] + choose[n - 1][k];
+                }
+            }
+            otherSets = choose[squares - workers][workers];
+            long placements = choose[squares][workers] * otherSets;
+            if (placements > MAX_PLACEMENTS) {
+                throw new IllegalArgumentException(workers + " workers each on a " + dimension + "x"
+                        + dimension + " board have too many placements to index");
+            }
+            mover = new int[workers];
+            other = new int[workers];
+            imageMover = new int[workers];
+            imageOther = new int[workers];
+
+            image = new int[8][squares];
+            preimage = new int[8][squares];
+            int last = dimension - 1;
+            for (int square = 0; square < squares; square++) {
+                int r = square / dimension, c = square % dimension;
+                int[] rows = {r, c, last - r, last - c, r, last - r, c, last - c};
+                int[] cols = {c, last - r, last - c, r, last - c, c, r, last - r};
+                for (int g = 0; g < 8; g++) {
+                    image[g][square] = rows[g] * dimension + cols[g];
+                    preimage[g][image[g][square]] = square;
+                }
+            }
+            placementClass = new int[(int) placements];
+            toRepresentative = new byte[(int) placements];
+            long[] found = new long[(int) placements];
+            int classes = 0;
+            for (int placement = 0; placement < placements; placement++) {
+                unrankPlacement(placement);
+                long best = Long.MAX_VALUE;
+                int mask = 0;
+                for (int g = 0; g < 8; g++) {
+                    long mapped = transformedPlacement(g);
+                    if (mapped < best) {
+                        best = mapped;
+                        mask = 0;
+                    }
+                    if (mapped == best) {
+                        mask |= 1 << g;
+                    }
+                }
+                toRepresentative[placement] = (byte) mask;
+                // a representative is the lowest placement of its class, so it comes first
+                if (best == placement) {
+                    found[classes] = placement;
+                    placementClass[placement] = classes++;
+                } else {
+                    placementClass[placement] = placementClass[(int) best];
+                }
+            }
+            representative = Arrays.copyOf(found, classes);
+
+            int occupied = 2 * workers, free = squares - occupied;
+            int maxHeight = 3 * occupied + 4 * free;
+            levelsOffset = new long[maxHeight + 1][3 * occupied + 2];
+            sliceSize = new long[maxHeight + 1];
+            sliceStart = new long[maxHeight + 2];
+            try {
+                levels = counts(occupied, maxHeight, LEVEL);
+                codes = counts(free, maxHeight, HEIGHT);
+                levelsBelow = below(levels, LEVEL);
+                codesBelow = below(codes, HEIGHT);
+                for (int h = 0; h <= maxHeight; h++) {
+                    long size = 0;
+                    for (int a = 0; a <= 3 * occupied; a++) {
+                        levelsOffset[h][a] = size;
+                        if (a <= h) {
+                            size = Math.addExact(size, Math.multiplyExact(levels[occupied][a], codes[free][h - a]));
+                        }
+                    }
+                    levelsOffset[h][3 * occupied + 1] = size;
+                    sliceSize[h] = size;
+                    sliceStart[h + 1] = Math.addExact(sliceStart[h], Math.multiplyExact(size, classes));
+                }
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(workers + " workers each on a " + dimension + "x"
+                        + dimension + " board have too many positions to index", e);
+            }
+            values = new int[Math.max(occupied, free)];
+        }
+
+        /** @return the number of positions for one side to move */
+        public long positions() {
+            return sliceStart[sliceStart.length - 1];
+        }
+
+        /** @return the highest total tower height a position can have */
+        public int maxHeight() {
+            return sliceSize.length - 1;
+        }
+
+        /**
+         * Returns the first index of the positions of one total tower height.
+         *
+         * @param height the total height, or {@link #maxHeight()} + 1 for the end of the last slice
+         * @return the index
+         */
+        public long sliceStart(int height) {
+            return sliceStart[height];
+        }
+
+        /**
+         * Creates a board for {@link #decode}, with the mover's workers in
+         * slots {@code 0..w-1} and the other player's in {@code w..2w-1}.
+         *
+         * @return the board
+         */
+        public BitBoard newBoard() {
+            BitBoard board = new BitBoard(dimension);
+            for (int slot = 0; slot < 2 * workers; slot++) {
+                board.placeWorker(slot, slot);
+            }
+            board.clearWorkers();
+            return board;
+        }
+
+        /**
+         * Returns the index of a position, the lowest index of its eight
+         * rotations and reflections.
+         *
+         * @param board  the position
+         * @param mine   worker slot mask of the player to move
+         * @param theirs worker slot mask of the other player
+         * @return the index
+         */
+        public long index(BitBoard board, int mine, int theirs) {
+            collect(board, mine, mover);
+            collect(board, theirs, other);
+            int placement = (int) rankPlacement(mover, other);
+            int height = 0;
+            for (int square = 0; square < squares; square++) {
+                height += HEIGHT[board.structure(square)];
+            }
+            long structures = Long.MAX_VALUE;
+            for (int mask = toRepresentative[placement] & 0xFF; mask != 0; mask &= mask - 1) {
+                structures = Math.min(structures, structures(board, Integer.numberOfTrailingZeros(mask), height));
+            }
+            return sliceStart[height] + placementClass[placement] * sliceSize[height] + structures;
+        }
+
+        /**
+         * Sets up a position on a board from {@link #newBoard}.
+         *
+         * @param index the position's index
+         * @param board the board to overwrite
+         */
+        public void decode(long index, BitBoard board) {
+            int height = Arrays.binarySearch(sliceStart, index);
+            if (height < 0) {
+                height = -height - 2;
+            }
+            while (sliceSize[height] == 0) {
+                height++;
+            }
+            long within = index - sliceStart[height];
+            unrankPlacement(representative[(int) (within / sliceSize[height])]);
+            long rest = within % sliceSize[height];
+            int occupied = 2 * workers, free = squares - occupied;
+            int a = 0;
+            while (levelsOffset[height][a + 1] <= rest) {
+                a++;
+            }
+            rest -= levelsOffset[height][a];
+            long freeWays = codes[free][height - a];
+
+            board.clearWorkers();
+            unrank(rest / freeWays, occupied, a, LEVEL, levelsBelow);
+            long taken = 0;
+            for (int i = 0; i < workers; i++) {
+                board.setStructure(mover[i], values[i]);
+                board.moveWorker(i, mover[i]);
+                board.setStructure(other[i], values[workers + i]);
+                board.moveWorker(workers + i, other[i]);
+                taken |= 1L << mover[i] | 1L << other[i];
+            }
+            unrank(rest % freeWays, free, height - a, HEIGHT, codesBelow);
+            for (int square = 0, j = 0; square < squares; square++) {
+                if ((taken >>> square & 1L) == 0) {
+                    board.setStructure(square, values[j++]);
+                }
+            }
+        }
+
+        /**
+         * Checks whether an index is the lowest of its position's symmetric
+         * copies, so that it is the one {@link #index} returns.
+         *
+         * @param index a position index
+         * @param board a board from {@link #newBoard}, overwritten
+         * @return {@code false} for indexes no position is stored under
+         */
+        public boolean isCanonical(long index, BitBoard board) {
+            decode(index, board);
+            int mine = (1 << workers) - 1;
+            return index(board, mine, mine << workers) == index;
+        }
+
+        /** Ranks the structures of the position as transform {@code g} shows it, within its slice. */
+        private long structures(BitBoard board, int g, int height) {
+            int[] from = preimage[g];
+            mapSorted(image[g], mover, imageMover);
+            mapSorted(image[g], other, imageOther);
+            long taken = 0;
+            int a = 0;
+            for (int i = 0; i < workers; i++) {
+                values[i] = board.height(from[imageMover[i]]);
+                values[workers + i] = board.height(from[imageOther[i]]);
+                a += values[i] + values[workers + i];
+                taken |= 1L << imageMover[i] | 1L << imageOther[i];
+            }
+            int occupied = 2 * workers;
+            long levelsRank = rank(occupied, a, LEVEL, levelsBelow);
+            int n = 0;
+            for (int square = 0; square < squares; square++) {
+                if ((taken >>> square & 1L) == 0) {
+                    values[n++] = board.structure(from[square]);
+                }
+            }
+            long codesRank = rank(n, height - a, HEIGHT, codesBelow);
+            return levelsOffset[height][a] + levelsRank * codes[n][height - a] + codesRank;
+        }
+
+        /** @return the placement rank of the current {@link #mover} and {@link #other} squares under transform {@code g} */
+        private long transformedPlacement(int g) {
+            mapSorted(image[g], mover, imageMover);
+            mapSorted(image[g], other, imageOther);
+            return rankPlacement(imageMover, imageOther);
+        }
+
+        /** Ranks a placement: the mover's set among all squares, then the other's among the squares left. */
+        private long rankPlacement(int[] moverSquares, int[] otherSquares) {
+            long moverSet = 0, otherSet = 0;
+            long occupied = 0;
+            for (int i = 0; i < workers; i++) {
+                moverSet += choose[moverSquares[i]][i + 1];
+                occupied |= 1L << moverSquares[i];
+            }
+            for (int i = 0; i < workers; i++) {
+                // rank among the squares the mover leaves free
+                int below = Long.bitCount(occupied & ((1L << otherSquares[i]) - 1));
+                otherSet += choose[otherSquares[i] - below][i + 1];
+            }
+            return moverSet * otherSets + otherSet;
+        }
+
+        /** Sets {@link #mover} and {@link #other} to the squares of a placement rank. */
+        private void unrankPlacement(long placement) {
+            unrankSet(placement % otherSets, other);
+            unrankSet(placement / otherSets, mover);
+            long occupied = 0;
+            for (int i = 0; i < workers; i++) {
+                occupied |= 1L << mover[i];
+            }
+            for (int i = 0; i < workers; i++) {
+                // undo the ranking among free squares
+                int square = other[i];
+                for (int s = 0; s <= square; s++) {
+                    if ((occupied >>> s & 1L) != 0) {
+                        square++;
+                    }
+                }
+                other[i] = square;
+            }
+        }
+
+        /** Ranks the first {@code n} {@link #values}, which total {@code height}, among such sequences. */
+        private long rank(int n, int height, int[] heightOf, long[][][] below) {
+            long rank = 0;
+            for (int i = 0; i < n; i++) {
+                rank += below[n - i - 1][height][values[i]];
+                height -= heightOf[values[i]];
+            }
+            return rank;
+        }
+
+        /** Inverse of {@link #rank}: writes the sequence of a rank into {@link #values}. */
+        private void unrank(long rank, int n, int height, int[] heightOf, long[][][] below) {
+            for (int i = 0; i < n; i++) {
+                long[] first = below[n - i - 1][height];
+                int v = 0;
+                while (first[v + 1] <= rank) {
+                    v++;
+                }
+                values[i] = v;
+                rank -= first[v];
+                height -= heightOf[v];
+            }
+        }
+
+        /** @return {@code ways[k][h]}: sequences of k values, each adding its {@code heightOf}, that total h */
+        private static long[][] counts(int length, int maxHeight, int[] heightOf) {
+            long[][] ways = new long[length + 1][maxHeight + 1];
+            ways[0][0] = 1;
+            for (int k = 1; k <= length; k++) {
+                for (int h = 0; h <= maxHeight; h++) {
+                    for (int step : heightOf) {
+                        if (step <= h) {
+                            ways[k][h] = Math.addExact(ways[k][h], ways[k - 1][h - step]);
+                        }
+                    }
+                }
+            }
+            return ways;
+        }
+
+        /** @return the running sums of {@code ways} over the first value of a sequence, see {@link #levelsBelow} */
+        private static long[][][] below(long[][] ways, int[] heightOf) {
+            long[][][] below = new long[ways.length][ways[0].length][heightOf.length + 1];
+            for (int k = 0; k < ways.length; k++) {
+                for (int h = 0; h < ways[0].length; h++) {
+                    for (int v = 0; v < heightOf.length; v++) {
+                        long block = heightOf[v] <= h ? ways[k][h - heightOf[v]] : 0;
+                        below[k][h][v + 1] = below[k][h][v] + block;
+                    }
+                }
+            }
+            return below;
+        }
+
+        /** Maps squares through a transform into {@code out}, ascending. */
+        private static void mapSorted(int[] map, int[] squares, int[] out) {
+            for (int n = 0; n < squares.length; n++) {
+                int square = map[squares[n]];
+                int i = n;
+                while (i > 0 && out[i - 1] > square) {
+                    out[i] = out[i - 1];
+                    i--;
+                }
+                out[i] = square;
+            }
+        }
+
+        /** Squares of the slots in a mask, ascending. */
+        private void collect(BitBoard board, int mask, int[] out) {
+            int n = 0;
+            for (int m = mask; m != 0; m &= m - 1) {
+                int square = board.workerSquare(Integer.numberOfTrailingZeros(m));
+                int i = n++;
+                while (i > 0 && out[i - 1] > square) {
+                    out[i] = out[i - 1];
+                    i--;
+                }
+                out[i] = square;
+            }
+        }
+
+        /** Inverse of the combinatorial ranking of a set of {@code out.length} elements. */
+        private void unrankSet(long rank, int[] out) {
+            for (int i = out.length - 1; i >= 0; i--) {
+                int c = i;
+                while (choose[c + 1][i + 1] <= rank) {
+                    c++;
+                }
+                out[i] = c;
+                rank -= choose[c][i + 1];
+            }
+        }
+    }
+}